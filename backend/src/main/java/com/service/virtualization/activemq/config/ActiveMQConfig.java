@@ -1,6 +1,10 @@
 package com.service.virtualization.activemq.config;
 
+import com.service.virtualization.jms.sender.CachedDestinationResolver;
+import com.service.virtualization.jms.sender.JmsResponseSender;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.apache.activemq.ActiveMQConnectionFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -30,6 +34,11 @@ public class ActiveMQConfig {
     @Value("${activemq.connection.cache-size:10}")
     private int sessionCacheSize;
 
+    @Value("${activemq.response.async-send:false}")
+    private boolean asyncSend;
+
+    private final CachedDestinationResolver destinationResolver = new CachedDestinationResolver();
+
     /**
      * Creates an ActiveMQ connection factory.
      */
@@ -48,6 +57,8 @@ public class ActiveMQConfig {
         cachingConnectionFactory.setTargetConnectionFactory(connectionFactory);
         cachingConnectionFactory.setSessionCacheSize(sessionCacheSize);
         cachingConnectionFactory.setReconnectOnException(true);
+        // Async response sends rely on cached producers, see JmsResponseSender
+        cachingConnectionFactory.setCacheProducers(true);
 
         return cachingConnectionFactory;
     }
@@ -59,6 +70,7 @@ public class ActiveMQConfig {
     public JmsTemplate queueJmsTemplate() {
         JmsTemplate template = new JmsTemplate();
         template.setConnectionFactory(activemqConnectionFactory());
+        template.setDestinationResolver(destinationResolver);
         template.setPubSubDomain(false); // false for queues
         return template;
     }
@@ -70,8 +82,18 @@ public class ActiveMQConfig {
     public JmsTemplate topicJmsTemplate() {
         JmsTemplate template = new JmsTemplate();
         template.setConnectionFactory(activemqConnectionFactory());
+        template.setDestinationResolver(destinationResolver);
         template.setPubSubDomain(true); // true for topics
         return template;
     }
+
+    /**
+     * Sends stub responses through the ActiveMQ templates
+     */
+    @Bean(name = "activemqResponseSender")
+    public JmsResponseSender responseSender(ObjectProvider<MeterRegistry> meterRegistry) {
+        return new JmsResponseSender("activemq", queueJmsTemplate(), topicJmsTemplate(), asyncSend,
+                meterRegistry.getIfAvailable());
+    }
     
 }
\ No newline at end of file
@@ -3,17 +3,14 @@ package com.service.virtualization.activemq.listener;
 import com.service.virtualization.activemq.matcher.ActiveMQStubMatcher;
 import com.service.virtualization.activemq.model.ActiveMQStub;
 import com.service.virtualization.activemq.service.ActiveMQResponseService;
+import com.service.virtualization.jms.matcher.MessageContent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
-import jakarta.jms.JMSException;
 import jakarta.jms.Message;
 import jakarta.jms.MessageListener;
-import jakarta.jms.TextMessage;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Message listener for ActiveMQ messages.
@@ -30,9 +27,6 @@ public class ActiveMQMessageListener implements MessageListener {
     @Autowired
     private ActiveMQResponseService responseService;
     
-    // Map to store stubs by ID
-    private final Map<String, ActiveMQStub> registeredStubs = new ConcurrentHashMap<>();
-    
     /**
      * Handles incoming JMS messages.
      *
@@ -44,21 +38,21 @@ public class ActiveMQMessageListener implements MessageListener {
             String destinationName = message.getJMSDestination().toString();
             logger.debug("Received message from {}", destinationName);
             
-            // Extract message content for matching
-            String messageContent = extractMessageContent(message);
+            // Body is read at most once, and only if a stub matches on content or calls a webhook
+            MessageContent content = MessageContent.of(message);
             
             // Find matching stub
-            ActiveMQStub matchingStub = activeMQStubMatcher.findMatchingStub(message, registeredStubs.values());
+            ActiveMQStub matchingStub = activeMQStubMatcher.findMatchingStub(message, content);
             
             if (matchingStub != null) {
                 logger.info("Found matching stub {} for message on {}", 
                         matchingStub.getId(), destinationName);
                 
                 // Process and send response
-                responseService.processResponse(matchingStub, message, messageContent);
+                responseService.processResponse(matchingStub, message, content);
             } else {
                 logger.warn("No matching stub found for message on {}: {}", 
-                        destinationName, messageContent);
+                        destinationName, content.summary());
             }
         } catch (Exception e) {
             logger.error("Error processing message: {}", e.getMessage(), e);
@@ -71,7 +65,7 @@ public class ActiveMQMessageListener implements MessageListener {
      * @param stub The stub to register
      */
     public void registerStub(ActiveMQStub stub) {
-        registeredStubs.put(stub.getId(), stub);
+        activeMQStubMatcher.register(stub);
         logger.info("Registered stub {} for {}", stub.getId(), stub.getDestinationName());
     }
     
@@ -81,22 +75,7 @@ public class ActiveMQMessageListener implements MessageListener {
      * @param stubId The ID of the stub to unregister
      */
     public void unregisterStub(String stubId) {
-        registeredStubs.remove(stubId);
+        activeMQStubMatcher.unregister(stubId);
         logger.info("Unregistered stub {}", stubId);
     }
-    
-    /**
-     * Extract content from a JMS message.
-     *
-     * @param message The JMS message
-     * @return The message content as a string
-     * @throws JMSException If there is an error accessing message content
-     */
-    private String extractMessageContent(Message message) throws JMSException {
-        if (message instanceof TextMessage) {
-            return ((TextMessage) message).getText();
-        } else {
-            return message.toString();
-        }
-    }
 } 
\ No newline at end of file
@@ -1,6 +1,9 @@
 package com.service.virtualization.activemq.service;
 
 import com.service.virtualization.activemq.model.ActiveMQStub;
+import com.service.virtualization.jms.matcher.MessageContent;
+import com.service.virtualization.jms.sender.JmsResponseSender;
+import com.service.virtualization.latency.LatencySimulator;
 import jakarta.jms.JMSException;
 import jakarta.jms.Message;
 import jakarta.jms.TextMessage;
@@ -8,15 +11,11 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
-import org.springframework.jms.core.JmsTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.context.annotation.Profile;
 
 import java.util.Map;
 import java.util.UUID;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
 
 /**
  * Service for processing ActiveMQ response generation
@@ -28,26 +27,23 @@ public class ActiveMQResponseService {
     private static final Logger logger = LoggerFactory.getLogger(ActiveMQResponseService.class);
 
     @Autowired
-    @Qualifier("activemqQueueJmsTemplate")
-    private JmsTemplate queueJmsTemplate;
-
-    @Autowired
-    @Qualifier("activemqTopicJmsTemplate")
-    private JmsTemplate topicJmsTemplate;
+    @Qualifier("activemqResponseSender")
+    private JmsResponseSender responseSender;
 
     @Autowired
     private ActiveMQWebhookService activeMQWebhookService;
 
-    private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(5);
+    @Autowired
+    private LatencySimulator latencySimulator;
 
     /**
      * Process and send a response for a matched message.
      *
      * @param stub           The matched stub
      * @param message        The original JMS message
-     * @param messageContent The content of the original message
+     * @param content        The content of the original message
      */
-    public void processResponse(ActiveMQStub stub, Message message, String messageContent) {
+    public void processResponse(ActiveMQStub stub, Message message, MessageContent content) {
         try {
             String responseDestination = stub.getResponseDestination();
             String responseDestinationType = stub.getResponseType();
@@ -69,21 +65,22 @@ public class ActiveMQResponseService {
             final String finalDestination = responseDestination;
             final String finalDestinationType = responseDestinationType;
             final Map<String, String> headers = extractHeaders(message);
+            // Only a webhook sees the request body, so other stubs never decode it
+            final String messageContent = hasWebhook(stub) ? content.text() : null;
 
-            // Handle latency if specified
-            if (stub.getLatency() > 0) {
-                scheduler.schedule(() -> {
-                    sendResponse(stub, finalDestination, finalDestinationType, messageContent, headers);
-                }, stub.getLatency(), TimeUnit.MILLISECONDS);
-            } else {
-                sendResponse(stub, finalDestination, finalDestinationType, messageContent, headers);
-            }
+            // Send after the stub's simulated latency, if any
+            latencySimulator.schedule(stub.getId(), stub.getLatency(),
+                    () -> sendResponse(stub, finalDestination, finalDestinationType, messageContent, headers));
         } catch (Exception e) {
             logger.error("Error processing response for stub {}: {}",
                     stub.getId(), e.getMessage(), e);
         }
     }
 
+    private static boolean hasWebhook(ActiveMQStub stub) {
+        return stub.getWebhookUrl() != null && !stub.getWebhookUrl().trim().isEmpty();
+    }
+
     /**
      * Send the response based on the stub configuration.
      *
@@ -96,16 +93,15 @@ public class ActiveMQResponseService {
     private void sendResponse(ActiveMQStub stub, String destination, String destinationType,
                               String originalMessageContent, Map<String, String> headers) {
         try {
-            // Determine which JmsTemplate to use based on destination type
+            // Determine the destination type
             boolean isTopic = "topic".equalsIgnoreCase(destinationType);
-            JmsTemplate jmsTemplate = isTopic ? topicJmsTemplate : queueJmsTemplate;
 
             logger.debug("Sending response to {} {} for stub {}", 
                     isTopic ? "topic" : "queue", destination, stub.getId());
 
             // Check if we should get content from webhook
             String responseContent;
-            if (stub.getWebhookUrl() != null && !stub.getWebhookUrl().trim().isEmpty()) {
+            if (hasWebhook(stub)) {
                 responseContent = activeMQWebhookService.getWebhookResponse(stub, originalMessageContent, headers);
             } else {
                 responseContent = stub.getResponseContent();
@@ -117,7 +113,7 @@ public class ActiveMQResponseService {
 
             // Send the response
             String finalResponseContent = responseContent;
-            jmsTemplate.send(destination, session -> {
+            responseSender.send(destination, isTopic, session -> {
                 TextMessage responseMessage = session.createTextMessage(finalResponseContent);
 
                 // Set correlation ID from original message if available
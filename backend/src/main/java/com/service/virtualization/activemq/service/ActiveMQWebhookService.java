@@ -22,7 +22,11 @@ import java.util.Map;
 public class ActiveMQWebhookService {
     private static final Logger logger = LoggerFactory.getLogger(ActiveMQWebhookService.class);
     
-    private final RestTemplate restTemplate = new RestTemplate();
+    private final RestTemplate restTemplate;
+
+    public ActiveMQWebhookService(RestTemplate outboundRestTemplate) {
+        this.restTemplate = outboundRestTemplate;
+    }
     
     /**
      * Get a response from a webhook URL.
@@ -0,0 +1,156 @@
+package com.service.virtualization.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.DefaultSchemePortResolver;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.pool.PoolConcurrencyPolicy;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Shared outbound HTTP client used for proxying to WireMock and for all webhook,
+ * callback and schema registry calls.
+ *
+ * Connections are pooled per route (scheme/host/port) and kept alive between calls,
+ * and every request is bounded by connect, pool-acquire and read timeouts so a slow
+ * downstream cannot hold threads indefinitely.
+ */
+@Configuration
+public class HttpClientConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(HttpClientConfig.class);
+
+    @Value("${http.client.max-total:200}")
+    private int maxTotal;
+
+    @Value("${http.client.max-per-route:50}")
+    private int maxPerRoute;
+
+    /**
+     * Per-host overrides in the form {@code http://host:port=limit,https://other=limit}
+     */
+    @Value("${http.client.route-limits:}")
+    private String routeLimits;
+
+    @Value("${http.client.connect-timeout:5000}")
+    private long connectTimeout;
+
+    @Value("${http.client.read-timeout:30000}")
+    private long readTimeout;
+
+    @Value("${http.client.pool-acquire-timeout:2000}")
+    private long poolAcquireTimeout;
+
+    @Value("${http.client.keep-alive:30000}")
+    private long keepAlive;
+
+    @Value("${http.client.idle-eviction:60000}")
+    private long idleEviction;
+
+    /**
+     * Connection pool shared by every outbound call, with pool gauges published to Micrometer
+     */
+    @Bean(destroyMethod = "close")
+    public PoolingHttpClientConnectionManager outboundConnectionManager(ObjectProvider<MeterRegistry> meterRegistry) {
+        ConnectionConfig connectionConfig = ConnectionConfig.custom()
+                .setConnectTimeout(Timeout.ofMilliseconds(connectTimeout))
+                .setSocketTimeout(Timeout.ofMilliseconds(readTimeout))
+                .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                .build();
+
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setPoolConcurrencyPolicy(PoolConcurrencyPolicy.STRICT)
+                .setMaxConnTotal(maxTotal)
+                .setMaxConnPerRoute(maxPerRoute)
+                .setDefaultConnectionConfig(connectionConfig)
+                .build();
+
+        applyRouteLimits(connectionManager);
+
+        meterRegistry.ifAvailable(registry ->
+                new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, "outbound").bindTo(registry));
+
+        logger.info("Outbound HTTP pool configured: maxTotal={}, maxPerRoute={}, connectTimeout={}ms, readTimeout={}ms",
+                maxTotal, maxPerRoute, connectTimeout, readTimeout);
+        return connectionManager;
+    }
+
+    /**
+     * Apache HttpClient with keep-alive and background eviction of idle connections
+     */
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient outboundHttpClient(PoolingHttpClientConnectionManager outboundConnectionManager) {
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectionRequestTimeout(Timeout.ofMilliseconds(poolAcquireTimeout))
+                .setResponseTimeout(Timeout.ofMilliseconds(readTimeout))
+                .build();
+
+        return HttpClients.custom()
+                .setConnectionManager(outboundConnectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .setKeepAliveStrategy((response, context) -> TimeValue.ofMilliseconds(keepAlive))
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofMilliseconds(idleEviction))
+                // Bodies are passed through as-is; decompression is left to the final consumer
+                .disableContentCompression()
+                .build();
+    }
+
+    @Bean
+    public ClientHttpRequestFactory outboundRequestFactory(CloseableHttpClient outboundHttpClient) {
+        return new HttpComponentsClientHttpRequestFactory(outboundHttpClient);
+    }
+
+    /**
+     * RestTemplate on the pooled client, built through Spring Boot so http.client.requests metrics are recorded
+     */
+    @Bean
+    public RestTemplate outboundRestTemplate(RestTemplateBuilder restTemplateBuilder,
+                                             ClientHttpRequestFactory outboundRequestFactory) {
+        return restTemplateBuilder
+                .requestFactory(() -> outboundRequestFactory)
+                .build();
+    }
+
+    private void applyRouteLimits(PoolingHttpClientConnectionManager connectionManager) {
+        if (routeLimits == null || routeLimits.isBlank()) {
+            return;
+        }
+        for (String entry : routeLimits.split(",")) {
+            int separator = entry.lastIndexOf('=');
+            if (separator <= 0) {
+                logger.warn("Ignoring malformed HTTP route limit: {}", entry);
+                continue;
+            }
+            try {
+                // Pool routes always carry an explicit port, so default it from the scheme (443 for https)
+                HttpHost configured = HttpHost.create(entry.substring(0, separator).trim());
+                HttpHost host = configured.getPort() > 0 ? configured : new HttpHost(configured.getSchemeName(),
+                        configured.getHostName(), DefaultSchemePortResolver.INSTANCE.resolve(configured));
+                int limit = Integer.parseInt(entry.substring(separator + 1).trim());
+                connectionManager.setMaxPerRoute(new HttpRoute(host, null, "https".equalsIgnoreCase(host.getSchemeName())), limit);
+                logger.info("Outbound HTTP route limit for {} set to {}", host, limit);
+            } catch (Exception e) {
+                logger.warn("Ignoring invalid HTTP route limit '{}': {}", entry, e.getMessage());
+            }
+        }
+    }
+}
@@ -6,17 +6,27 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.web.client.RestTemplate;
+import com.service.virtualization.rest.service.ProxyHandler;
 
 import jakarta.servlet.*;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
 import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Pure Library Approach - Servlet Filter Proxy
  * ZERO custom controller code required!
- * 
+ *
  * Just configuration = working proxy
  * Filter automatically intercepts /proxy/** requests
  */
@@ -31,75 +41,434 @@ public class ProxyFilterConfig {
     @Value("${wiremock.server.port:8081}")
     private int wiremockPort;
 
+    @Value("${proxy.timeout:30000}")
+    private long timeout;
+
+    @Value("${proxy.max-concurrent:512}")
+    private int maxConcurrent;
+
     /**
      * Pure library approach - Spring Boot's FilterRegistrationBean
      * No controllers needed! Filter handles everything automatically.
      */
     @Bean
-    public FilterRegistrationBean<ProxyFilter> proxyFilterRegistration() {
+    public FilterRegistrationBean<ProxyFilter> proxyFilterRegistration(ProxyHandler proxyHandler) {
         logger.info("Configuring proxy filter for WireMock at {}:{}", wiremockHost, wiremockPort);
-        
+
         FilterRegistrationBean<ProxyFilter> registration = new FilterRegistrationBean<>();
-        registration.setFilter(new ProxyFilter(wiremockHost, wiremockPort));
+        registration.setFilter(new ProxyFilter(proxyHandler, maxConcurrent, timeout));
         registration.addUrlPatterns("/proxy/*");  // Automatically intercepts /proxy/** requests
         registration.setName("proxy-filter");
         registration.setOrder(1);
+        registration.setAsyncSupported(true);
 
         logger.info("✅ Proxy filter configured successfully!");
         logger.info("📋 Client Configuration:");
         logger.info("   Set proxyUrl to: http://localhost:8080/proxy");
         logger.info("   All requests will be forwarded to WireMock at {}:{}", wiremockHost, wiremockPort);
+        logger.info("   Max concurrent proxied requests: {}, timeout: {}ms", maxConcurrent, timeout);
         logger.info("🚀 Pure library approach - filter handles everything automatically!");
 
         return registration;
     }
 
     /**
-     * RestTemplate for proxy operations - pure library
-     */
-    @Bean
-    public RestTemplate proxyRestTemplate() {
-        return new RestTemplate();
-    }
-
-    /**
-     * Internal proxy filter - this is library code, not custom business logic
+     * Internal proxy filter - this is library code, not custom business logic.
+     *
+     * Requests are put into async mode and forwarded on a virtual thread, so the container
+     * thread is released while WireMock responds. Method, headers, query string and binary
+     * bodies are streamed through {@link ProxyHandler} in both directions. A semaphore bounds
+     * the number of in-flight requests; anything above the limit is rejected with 503.
+     *
+     * The worker only sees the request and response through a {@link ProxyExchange}, which the
+     * timeout handler closes before completing the async context. Once closed, the worker's
+     * reads and writes fail and its status/header changes are ignored, so it can never touch a
+     * request or response the container has recycled.
      */
     public static class ProxyFilter implements Filter {
-        private final String wiremockBaseUrl;
-        private final RestTemplate restTemplate = new RestTemplate();
+        private final ProxyHandler proxyHandler;
+        private final Semaphore permits;
+        private final long timeout;
+        private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
 
-        public ProxyFilter(String wiremockHost, int wiremockPort) {
-            this.wiremockBaseUrl = "http://" + wiremockHost + ":" + wiremockPort;
+        public ProxyFilter(ProxyHandler proxyHandler, int maxConcurrent, long timeout) {
+            this.proxyHandler = proxyHandler;
+            this.permits = new Semaphore(maxConcurrent);
+            this.timeout = timeout;
         }
 
         @Override
-        public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain) 
+        public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
                 throws IOException, ServletException {
-            
+
             HttpServletRequest httpRequest = (HttpServletRequest) request;
             HttpServletResponse httpResponse = (HttpServletResponse) response;
 
-            // Pure library approach - Spring's RestTemplate handles the proxy logic
+            String method = httpRequest.getMethod();
             String targetPath = httpRequest.getRequestURI().replaceFirst("/proxy", "");
-            String targetUrl = wiremockBaseUrl + targetPath;
+
+            if (!permits.tryAcquire()) {
+                logger.warn("Proxy concurrency limit reached, rejecting {} {}", method, targetPath);
+                httpResponse.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+                httpResponse.setHeader("Retry-After", "1");
+                httpResponse.getWriter().write("{\"error\": \"Proxy concurrency limit reached\"}");
+                return;
+            }
+
+            AsyncContext asyncContext = httpRequest.startAsync(httpRequest, httpResponse);
+            asyncContext.setTimeout(timeout);
+            ProxyExchange exchange = new ProxyExchange(httpRequest, httpResponse, asyncContext);
+
+            asyncContext.addListener(new AsyncListener() {
+                @Override
+                public void onTimeout(AsyncEvent event) {
+                    exchange.timeout(() ->
+                            logger.warn("Proxy request timed out after {}ms: {} {}", timeout, method, targetPath));
+                }
+
+                @Override
+                public void onComplete(AsyncEvent event) {
+                }
+
+                @Override
+                public void onError(AsyncEvent event) {
+                }
+
+                @Override
+                public void onStartAsync(AsyncEvent event) {
+                }
+            });
 
             try {
-                // Library handles all HTTP complexity
-                var result = restTemplate.exchange(
-                    targetUrl,
-                    org.springframework.http.HttpMethod.valueOf(httpRequest.getMethod()),
-                    null,
-                    String.class
-                );
-
-                httpResponse.setStatus(result.getStatusCode().value());
-                httpResponse.getWriter().write(result.getBody() != null ? result.getBody() : "");
-                
+                exchange.worker = executor.submit(() -> {
+                    try {
+                        proxyHandler.streamRequest(exchange.request(), exchange.response(), targetPath, true);
+                    } catch (Exception e) {
+                        if (exchange.isClosed()) {
+                            logger.debug("Proxy worker for {} {} stopped after completion: {}", method, targetPath, e.getMessage());
+                        } else {
+                            logger.error("Proxy error for {} {}: {}", method, targetPath, e.getMessage());
+                            exchange.respondIfOpen(() ->
+                                    writeError(httpResponse, HttpServletResponse.SC_BAD_GATEWAY, "Proxy error: " + e.getMessage()));
+                        }
+                    } finally {
+                        permits.release();
+                        exchange.complete();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                permits.release();
+                exchange.respondIfOpen(() ->
+                        writeError(httpResponse, HttpServletResponse.SC_SERVICE_UNAVAILABLE, "Proxy is shutting down"));
+                exchange.complete();
+            }
+        }
+
+        @Override
+        public void destroy() {
+            executor.shutdown();
+        }
+
+        private static void writeError(HttpServletResponse response, int status, String message) {
+            if (response.isCommitted()) {
+                return;
+            }
+            try {
+                response.reset();
+                response.setStatus(status);
+                response.setContentType("application/json");
+                response.getWriter().write("{\"error\": \"" + message.replace("\"", "'") + "\"}");
             } catch (Exception e) {
-                httpResponse.setStatus(500);
-                httpResponse.getWriter().write("{\"error\": \"Proxy error: " + e.getMessage() + "\"}");
+                logger.debug("Unable to write proxy error response: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Ownership of one proxied request/response pair shared by the worker and the timeout handler.
+     *
+     * Every worker access to the underlying request and response happens under {@link #lock}
+     * and only while the exchange is open; {@link #timeout} and {@link #complete} close it under
+     * the same lock before completing the async context. The wait for a worker read or write in
+     * progress is bounded by the connector's socket timeout. A {@link ReentrantLock} is used
+     * rather than {@code synchronized} so blocked virtual threads do not pin their carrier.
+     */
+    static final class ProxyExchange {
+        private final HttpServletRequest request;
+        private final HttpServletResponse response;
+        private final AsyncContext asyncContext;
+        private final ReentrantLock lock = new ReentrantLock();
+        private boolean responding;
+        private volatile boolean closed;
+        volatile Future<?> worker;
+
+        ProxyExchange(HttpServletRequest request, HttpServletResponse response, AsyncContext asyncContext) {
+            this.request = request;
+            this.response = response;
+            this.asyncContext = asyncContext;
+        }
+
+        boolean isClosed() {
+            return closed;
+        }
+
+        /**
+         * Run an action that writes an error response on the worker side, unless the timeout already completed the exchange
+         */
+        void respondIfOpen(Runnable action) {
+            guard(true, action);
+        }
+
+        /**
+         * Stop the worker and finish the exchange with a 504. If the worker already started
+         * responding the partial response is left as is and the exchange is just completed.
+         */
+        void timeout(Runnable log) {
+            Future<?> task = worker;
+            if (task != null) {
+                task.cancel(true);
+            }
+            lock.lock();
+            try {
+                if (closed) {
+                    return;
+                }
+                log.run();
+                if (!responding) {
+                    ProxyFilter.writeError(response, HttpServletResponse.SC_GATEWAY_TIMEOUT, "Proxy timeout");
+                }
+                close();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Finish the exchange from the worker side; a no-op once the timeout has completed it
+         */
+        void complete() {
+            lock.lock();
+            try {
+                if (!closed) {
+                    close();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void close() {
+            closed = true;
+            asyncContext.complete();
+        }
+
+        /**
+         * Run a worker action against the real request or response while the exchange is open
+         *
+         * @param claim Whether the action writes to the response, so a timeout must no longer replace it with a 504
+         */
+        private void guard(boolean claim, Runnable action) {
+            lock.lock();
+            try {
+                if (closed) {
+                    return;
+                }
+                if (claim) {
+                    responding = true;
+                }
+                action.run();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private <T> T guardIo(boolean claim, IoSupplier<T> action) throws IOException {
+            lock.lock();
+            try {
+                if (closed) {
+                    throw new IOException("Proxy request already completed");
+                }
+                if (claim) {
+                    responding = true;
+                }
+                return action.get();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        HttpServletRequest request() {
+            return new HttpServletRequestWrapper(request) {
+                private ServletInputStream inputStream;
+
+                @Override
+                public ServletInputStream getInputStream() throws IOException {
+                    if (inputStream == null) {
+                        ServletInputStream delegate = guardIo(false, request::getInputStream);
+                        inputStream = new GuardedInputStream(delegate);
+                    }
+                    return inputStream;
+                }
+            };
+        }
+
+        HttpServletResponse response() {
+            return new HttpServletResponseWrapper(response) {
+                private ServletOutputStream outputStream;
+
+                @Override
+                public void setStatus(int sc) {
+                    guard(true, () -> response.setStatus(sc));
+                }
+
+                @Override
+                public void setHeader(String name, String value) {
+                    guard(true, () -> response.setHeader(name, value));
+                }
+
+                @Override
+                public void addHeader(String name, String value) {
+                    guard(true, () -> response.addHeader(name, value));
+                }
+
+                @Override
+                public void setContentType(String type) {
+                    guard(true, () -> response.setContentType(type));
+                }
+
+                @Override
+                public void setContentLengthLong(long len) {
+                    guard(true, () -> response.setContentLengthLong(len));
+                }
+
+                @Override
+                public void reset() {
+                    guard(true, response::reset);
+                }
+
+                @Override
+                public void sendError(int sc) throws IOException {
+                    sendError(sc, null);
+                }
+
+                @Override
+                public void sendError(int sc, String msg) throws IOException {
+                    guardIo(true, () -> {
+                        response.sendError(sc, msg);
+                        return null;
+                    });
+                }
+
+                @Override
+                public void flushBuffer() throws IOException {
+                    guardIo(true, () -> {
+                        response.flushBuffer();
+                        return null;
+                    });
+                }
+
+                @Override
+                public ServletOutputStream getOutputStream() throws IOException {
+                    if (outputStream == null) {
+                        ServletOutputStream delegate = guardIo(true, response::getOutputStream);
+                        outputStream = new GuardedOutputStream(delegate);
+                    }
+                    return outputStream;
+                }
+
+                @Override
+                public PrintWriter getWriter() throws IOException {
+                    return new PrintWriter(new OutputStreamWriter(getOutputStream(), getCharacterEncoding()), true);
+                }
+            };
+        }
+
+        @FunctionalInterface
+        private interface IoSupplier<T> {
+            T get() throws IOException;
+        }
+
+        private final class GuardedInputStream extends ServletInputStream {
+            private final ServletInputStream delegate;
+
+            GuardedInputStream(ServletInputStream delegate) {
+                this.delegate = delegate;
+            }
+
+            @Override
+            public int read() throws IOException {
+                return guardIo(false, delegate::read);
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                return guardIo(false, () -> delegate.read(b, off, len));
+            }
+
+            @Override
+            public boolean isFinished() {
+                return closed || delegate.isFinished();
+            }
+
+            @Override
+            public boolean isReady() {
+                return !closed && delegate.isReady();
+            }
+
+            @Override
+            public void setReadListener(ReadListener readListener) {
+                guard(false, () -> delegate.setReadListener(readListener));
+            }
+        }
+
+        private final class GuardedOutputStream extends ServletOutputStream {
+            private final ServletOutputStream delegate;
+
+            GuardedOutputStream(ServletOutputStream delegate) {
+                this.delegate = delegate;
+            }
+
+            @Override
+            public void write(int b) throws IOException {
+                guardIo(true, () -> {
+                    delegate.write(b);
+                    return null;
+                });
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                guardIo(true, () -> {
+                    delegate.write(b, off, len);
+                    return null;
+                });
+            }
+
+            @Override
+            public void flush() throws IOException {
+                guardIo(true, () -> {
+                    delegate.flush();
+                    return null;
+                });
+            }
+
+            @Override
+            public void close() throws IOException {
+                guardIo(true, () -> {
+                    delegate.close();
+                    return null;
+                });
+            }
+
+            @Override
+            public boolean isReady() {
+                return !closed && delegate.isReady();
+            }
+
+            @Override
+            public void setWriteListener(WriteListener writeListener) {
+                guard(true, () -> delegate.setWriteListener(writeListener));
             }
         }
     }
-} 
\ No newline at end of file
+}
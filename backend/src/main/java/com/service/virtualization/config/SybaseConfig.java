@@ -1,12 +1,15 @@
 package com.service.virtualization.config;
 
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
-import org.springframework.jdbc.datasource.DriverManagerDataSource;
 
 import javax.sql.DataSource;
 
@@ -29,14 +32,56 @@ public class SybaseConfig {
     @Value("${spring.datasource.driver-class-name}")
     private String driverClassName;
 
-    @Bean
-    public DataSource dataSource() {
-        DriverManagerDataSource dataSource = new DriverManagerDataSource();
-        dataSource.setDriverClassName(driverClassName);
-        dataSource.setUrl(url);
-        dataSource.setUsername(username);
-        dataSource.setPassword(password);
-        return dataSource;
+    @Value("${sybase.pool.maximum-pool-size:20}")
+    private int maximumPoolSize;
+
+    @Value("${sybase.pool.minimum-idle:5}")
+    private int minimumIdle;
+
+    @Value("${sybase.pool.connection-timeout:3000}")
+    private long connectionTimeout;
+
+    @Value("${sybase.pool.idle-timeout:600000}")
+    private long idleTimeout;
+
+    @Value("${sybase.pool.max-lifetime:1800000}")
+    private long maxLifetime;
+
+    @Value("${sybase.pool.leak-detection-threshold:0}")
+    private long leakDetectionThreshold;
+
+    @Value("${sybase.pool.driver-properties:DYNAMIC_PREPARE=true}")
+    private String driverProperties;
+
+    /**
+     * Pooled Sybase connections, so repository calls borrow an open connection instead of logging in each time.
+     * Pool metrics (active, idle and pending connections, acquire time) are published to Micrometer
+     */
+    @Bean(destroyMethod = "close")
+    public DataSource dataSource(ObjectProvider<MeterRegistry> meterRegistry) {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("sybase");
+        config.setDriverClassName(driverClassName);
+        config.setJdbcUrl(url);
+        config.setUsername(username);
+        config.setPassword(password);
+        config.setMaximumPoolSize(maximumPoolSize);
+        config.setMinimumIdle(Math.min(minimumIdle, maximumPoolSize));
+        config.setConnectionTimeout(connectionTimeout);
+        config.setIdleTimeout(idleTimeout);
+        config.setMaxLifetime(maxLifetime);
+        config.setLeakDetectionThreshold(leakDetectionThreshold);
+
+        // Driver properties, e.g. DYNAMIC_PREPARE=true so prepared statements are compiled once on the server
+        for (String property : driverProperties.split(",")) {
+            int separator = property.indexOf('=');
+            if (separator > 0) {
+                config.addDataSourceProperty(property.substring(0, separator).trim(), property.substring(separator + 1).trim());
+            }
+        }
+
+        meterRegistry.ifAvailable(config::setMetricRegistry);
+        return new HikariDataSource(config);
     }
 
     @Bean
@@ -18,6 +18,8 @@ import org.springframework.context.annotation.Profile;
 import com.github.tomakehurst.wiremock.WireMockServer;
 import com.github.tomakehurst.wiremock.common.ConsoleNotifier;
 import com.github.tomakehurst.wiremock.core.WireMockConfiguration;
+import com.github.tomakehurst.wiremock.http.HttpServerFactory;
+import com.service.virtualization.wiremock.InProcessWireMockDispatcher;
 import com.service.virtualization.wiremock.WebhookResponseTransformer;
 import com.service.virtualization.rest.service.RestWebhookService;
 
@@ -56,6 +58,9 @@ public class WireMockConfig {
     
     @Autowired
     private RestWebhookService restWebhookService;
+
+    @Autowired
+    private InProcessWireMockDispatcher inProcessWireMockDispatcher;
     
     private WireMockServer wireMockServer;
     
@@ -79,7 +84,8 @@ public class WireMockConfig {
         WireMockConfiguration config = WireMockConfiguration.options()
                 .port(port)
                 .withRootDirectory(rootDir)
-                .extensions(webhookTransformer)  // Add webhook transformer
+                .extensions(webhookTransformer,  // Add webhook transformer
+                        inProcessWireMockDispatcher.stubListener())
                 .notifier(new ConsoleNotifier(true));  // Enable verbose logging
         
         // Configure HTTPS if keystore is available
@@ -110,6 +116,14 @@ public class WireMockConfig {
             }
         }
         
+        // Let proxied /api and /proxy traffic reach the stub engine without a localhost HTTP hop
+        HttpServerFactory serverFactory = config.httpServerFactory();
+        if (serverFactory != null) {
+            config.httpServerFactory(inProcessWireMockDispatcher.capture(serverFactory));
+        } else {
+            logger.warn("No WireMock HTTP server factory available, in-process dispatch disabled");
+        }
+
         WireMockServer server = new WireMockServer(config);
         this.wireMockServer = server;
         
@@ -31,6 +31,17 @@ public class DtoConverter {
         if (restStub == null) {
             return null;
         }
+
+        return fromRestStub(restStub, restStub.status().name());
+    }
+
+    /**
+     * Convert from RestStub domain model to RestStubDTO, reporting the given status
+     */
+    public static RestStubDTO fromRestStub(RestStub restStub, String status) {
+        if (restStub == null) {
+            return null;
+        }
         
         return new RestStubDTO(
                 restStub.id(),
@@ -40,13 +51,15 @@ public class DtoConverter {
                 restStub.behindProxy(),
                 restStub.protocol(),
                 restStub.tags(),
-                restStub.status().name(),
+                status,
                 restStub.createdAt(),
                 restStub.updatedAt(),
                 restStub.wiremockMappingId(),
                 restStub.matchConditions(),
                 restStub.response(),
-                restStub.webhookUrl()
+                restStub.webhookUrl(),
+                restStub.webhookTimeoutMs(),
+                restStub.webhookCacheTtlMs()
         );
     }
 
@@ -76,7 +89,9 @@ public class DtoConverter {
                 dto.wiremockMappingId(),
                 dto.matchConditions() != null ? dto.matchConditions() : new HashMap<>(),
                 dto.response() != null ? dto.response() : new HashMap<>(),
-                dto.webhookUrl()
+                dto.webhookUrl(),
+                dto.webhookTimeoutMs(),
+                dto.webhookCacheTtlMs()
         );
     }
     
@@ -102,6 +117,8 @@ public class DtoConverter {
                 soapStub.url(),
                 soapStub.soapAction(),
                 soapStub.webhookUrl(),
+                soapStub.webhookTimeoutMs(),
+                soapStub.webhookCacheTtlMs(),
                 soapStub.matchConditions(),
                 soapStub.response()
         );
@@ -134,6 +151,8 @@ public class DtoConverter {
                 dto.url(),
                 dto.soapAction(),
                 dto.webhookUrl(),
+                dto.webhookTimeoutMs(),
+                dto.webhookCacheTtlMs(),
                 dto.matchConditions() != null ? dto.matchConditions() : new HashMap<>(),
                 dto.response() != null ? dto.response() : new HashMap<>()
         );
@@ -2,14 +2,19 @@ package com.service.virtualization.ibmmq.config;
 
 import com.ibm.mq.jakarta.jms.MQQueueConnectionFactory;
 import com.ibm.msg.client.jakarta.wmq.WMQConstants;
+import com.service.virtualization.jms.sender.CachedDestinationResolver;
+import com.service.virtualization.jms.sender.JmsResponseSender;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.jms.ConnectionFactory;
 import jakarta.jms.JMSException;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
 import org.springframework.jms.annotation.EnableJms;
+import org.springframework.jms.connection.CachingConnectionFactory;
 import org.springframework.jms.core.JmsTemplate;
 import org.springframework.jms.support.converter.MappingJackson2MessageConverter;
 import org.springframework.jms.support.converter.MessageConverter;
@@ -36,6 +41,14 @@ public class IBMMQConfig {
     @Value("${ibmmq.channel:MY.OPEN.CHANNEL}")
     private String channel;
 
+    @Value("${ibmmq.connection.cache-size:10}")
+    private int sessionCacheSize;
+
+    @Value("${ibmmq.response.async-send:false}")
+    private boolean asyncSend;
+
+    private final CachedDestinationResolver destinationResolver = new CachedDestinationResolver();
+
     @Bean(name = "ibmmqConnectionFactory")
     public ConnectionFactory ibmmqConnectionFactory() throws JMSException {
         MQQueueConnectionFactory factory = new MQQueueConnectionFactory();
@@ -51,9 +64,25 @@ public class IBMMQConfig {
         return factory;
     }
 
+    /**
+     * Connection factory for sending; keeps one connection open and caches sessions and producers,
+     * so a response does not connect to the queue manager. Listener containers manage their own
+     * connections and use the plain factory.
+     */
+    @Bean(name = "ibmmqSendConnectionFactory")
+    public ConnectionFactory ibmmqSendConnectionFactory(@Qualifier("ibmmqConnectionFactory") ConnectionFactory ibmmqConnectionFactory) {
+        CachingConnectionFactory cachingConnectionFactory = new CachingConnectionFactory(ibmmqConnectionFactory);
+        cachingConnectionFactory.setSessionCacheSize(sessionCacheSize);
+        cachingConnectionFactory.setReconnectOnException(true);
+        cachingConnectionFactory.setCacheConsumers(false);
+        cachingConnectionFactory.setCacheProducers(true);
+        return cachingConnectionFactory;
+    }
+
     @Bean(name = "ibmmqQueueJmsTemplate")
-    public JmsTemplate queueJmsTemplate(@Qualifier("ibmmqConnectionFactory") ConnectionFactory ibmmqConnectionFactory) {
-        JmsTemplate template = new JmsTemplate(ibmmqConnectionFactory);
+    public JmsTemplate queueJmsTemplate(@Qualifier("ibmmqSendConnectionFactory") ConnectionFactory sendConnectionFactory) {
+        JmsTemplate template = new JmsTemplate(sendConnectionFactory);
+        template.setDestinationResolver(destinationResolver);
         template.setMessageConverter(messageConverter());
         template.setDeliveryPersistent(true);
         template.setSessionTransacted(false);
@@ -62,8 +91,9 @@ public class IBMMQConfig {
     }
 
     @Bean(name = "ibmmqTopicJmsTemplate")
-    public JmsTemplate topicJmsTemplate(@Qualifier("ibmmqConnectionFactory") ConnectionFactory ibmmqConnectionFactory) {
-        JmsTemplate template = new JmsTemplate(ibmmqConnectionFactory);
+    public JmsTemplate topicJmsTemplate(@Qualifier("ibmmqSendConnectionFactory") ConnectionFactory sendConnectionFactory) {
+        JmsTemplate template = new JmsTemplate(sendConnectionFactory);
+        template.setDestinationResolver(destinationResolver);
         template.setMessageConverter(messageConverter());
         template.setDeliveryPersistent(true);
         template.setSessionTransacted(false);
@@ -71,6 +101,17 @@ public class IBMMQConfig {
         return template;
     }
 
+    /**
+     * Sends stub responses through the IBM MQ templates
+     */
+    @Bean(name = "ibmmqResponseSender")
+    public JmsResponseSender responseSender(@Qualifier("ibmmqQueueJmsTemplate") JmsTemplate queueJmsTemplate,
+                                            @Qualifier("ibmmqTopicJmsTemplate") JmsTemplate topicJmsTemplate,
+                                            ObjectProvider<MeterRegistry> meterRegistry) {
+        return new JmsResponseSender("ibmmq", queueJmsTemplate, topicJmsTemplate, asyncSend,
+                meterRegistry.getIfAvailable());
+    }
+
     @Bean
     public MessageConverter messageConverter() {
         MappingJackson2MessageConverter converter = new MappingJackson2MessageConverter();
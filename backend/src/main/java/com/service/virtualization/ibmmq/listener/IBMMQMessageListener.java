@@ -3,18 +3,14 @@ package com.service.virtualization.ibmmq.listener;
 import com.service.virtualization.ibmmq.matcher.IBMMQStubMatcher;
 import com.service.virtualization.ibmmq.model.IBMMQStub;
 import com.service.virtualization.ibmmq.service.IBMMQResponseService;
-import jakarta.jms.JMSException;
+import com.service.virtualization.jms.matcher.MessageContent;
 import jakarta.jms.Message;
 import jakarta.jms.MessageListener;
-import jakarta.jms.TextMessage;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-
 /**
  * Message listener for IBMMQ messages.
  * Handles incoming messages, matches them against registered stubs,
@@ -30,9 +26,6 @@ public class IBMMQMessageListener implements MessageListener {
     @Autowired
     private IBMMQResponseService responseService;
     
-    // Map to store stubs by ID
-    private final Map<String, IBMMQStub> registeredStubs = new ConcurrentHashMap<>();
-    
     /**
      * Handles incoming JMS messages.
      *
@@ -44,21 +37,21 @@ public class IBMMQMessageListener implements MessageListener {
             String destinationName = message.getJMSDestination().toString();
             logger.debug("Received message from {}", destinationName);
             
-            // Extract message content for matching
-            String messageContent = extractMessageContent(message);
+            // Body is read at most once, and only if a stub matches on content or calls a webhook
+            MessageContent content = MessageContent.of(message);
             
             // Find matching stub
-            IBMMQStub matchingStub = IBMMQStubMatcher.findMatchingStub(message, registeredStubs.values());
+            IBMMQStub matchingStub = IBMMQStubMatcher.findMatchingStub(message, content);
             
             if (matchingStub != null) {
                 logger.info("Found matching stub {} for message on {}", 
                         matchingStub.getId(), destinationName);
                 
                 // Process and send response
-                responseService.processResponse(matchingStub, message, messageContent);
+                responseService.processResponse(matchingStub, message, content);
             } else {
                 logger.warn("No matching stub found for message on {}: {}", 
-                        destinationName, messageContent);
+                        destinationName, content.summary());
             }
         } catch (Exception e) {
             logger.error("Error processing message: {}", e.getMessage(), e);
@@ -71,7 +64,7 @@ public class IBMMQMessageListener implements MessageListener {
      * @param stub The stub to register
      */
     public void registerStub(IBMMQStub stub) {
-        registeredStubs.put(stub.getId(), stub);
+        IBMMQStubMatcher.register(stub);
         logger.info("Registered stub {} for {}", stub.getId(), stub.getDestinationName());
     }
     
@@ -81,22 +74,7 @@ public class IBMMQMessageListener implements MessageListener {
      * @param stubId The ID of the stub to unregister
      */
     public void unregisterStub(String stubId) {
-        registeredStubs.remove(stubId);
+        IBMMQStubMatcher.unregister(stubId);
         logger.info("Unregistered stub {}", stubId);
     }
-    
-    /**
-     * Extract content from a JMS message.
-     *
-     * @param message The JMS message
-     * @return The message content as a string
-     * @throws JMSException If there is an error accessing message content
-     */
-    private String extractMessageContent(Message message) throws JMSException {
-        if (message instanceof TextMessage) {
-            return ((TextMessage) message).getText();
-        } else {
-            return message.toString();
-        }
-    }
 } 
\ No newline at end of file
@@ -16,7 +16,10 @@ import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Repository;
 
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.sql.Statement;
+import java.sql.Timestamp;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
@@ -36,14 +39,21 @@ public class SybaseIBMMQStubRepository implements IBMMQStubRepository {
 
     // SQL statements
     private static final String TABLE_NAME = "ibmmq_stubs";
-    private static final String INSERT_STUB = "INSERT INTO " + TABLE_NAME + " (stub_data) VALUES (?)";
-    private static final String UPDATE_STUB = "UPDATE " + TABLE_NAME + " SET stub_data = ? WHERE id = ?";
-    private static final String SELECT_STUB_BY_ID = "SELECT id, stub_data FROM " + TABLE_NAME + " WHERE id = ?";
-    private static final String SELECT_ALL_STUBS = "SELECT id, stub_data FROM " + TABLE_NAME;
-    private static final String SELECT_STUBS_BY_STATUS = "SELECT id, stub_data FROM " + TABLE_NAME +
-            " WHERE JSON_VALUE(stub_data, '$.status') = ?";
-    private static final String SELECT_STUBS_BY_USER_ID = "SELECT id, stub_data FROM " + TABLE_NAME +
-            " WHERE JSON_VALUE(stub_data, '$.userId') = ?";
+    // status and user_id mirror the JSON so lookups can use their indexes
+    private static final String INSERT_STUB = "INSERT INTO " + TABLE_NAME +
+            " (stub_data, status, user_id) VALUES (?, ?, ?)";
+    private static final String UPDATE_STUB = "UPDATE " + TABLE_NAME +
+            " SET stub_data = ?, status = ?, user_id = ? WHERE id = ?";
+    // Rows saved before stub_data existed are read from their per-field columns
+    private static final String SELECT_COLUMNS = "SELECT id, stub_data, name, description, user_id, queue_name, selector," +
+            " content_match_type, content_pattern, case_sensitive, response_type, response_destination," +
+            " response_destination_type, response_content, webhook_url, priority, latency, status, created_at, updated_at FROM ";
+    private static final String SELECT_STUB_BY_ID = SELECT_COLUMNS + TABLE_NAME + " WHERE id = ?";
+    private static final String SELECT_ALL_STUBS = SELECT_COLUMNS + TABLE_NAME;
+    private static final String SELECT_STUBS_BY_STATUS = SELECT_COLUMNS + TABLE_NAME +
+            " WHERE status = ?";
+    private static final String SELECT_STUBS_BY_USER_ID = SELECT_COLUMNS + TABLE_NAME +
+            " WHERE user_id = ?";
     private static final String DELETE_STUB_BY_ID = "DELETE FROM " + TABLE_NAME + " WHERE id = ?";
     private static final String COUNT_STUBS_BY_ID = "SELECT COUNT(*) FROM " + TABLE_NAME + " WHERE id = ?";
 
@@ -72,6 +82,8 @@ public class SybaseIBMMQStubRepository implements IBMMQStubRepository {
                             INSERT_STUB,
                             Statement.RETURN_GENERATED_KEYS);
                     ps.setString(1, stubJson);
+                    ps.setString(2, statusName(tibcoStub));
+                    ps.setString(3, tibcoStub.getUserId());
                     return ps;
                 }, keyHolder);
 
@@ -81,7 +93,7 @@ public class SybaseIBMMQStubRepository implements IBMMQStubRepository {
 
                 // Update the JSON with the generated ID
                 String updatedStubJson = objectMapper.writeValueAsString(tibcoStub);
-                jdbcTemplate.update(UPDATE_STUB, updatedStubJson, generatedId);
+                jdbcTemplate.update(UPDATE_STUB, updatedStubJson, statusName(tibcoStub), tibcoStub.getUserId(), generatedId);
 
                 logger.debug("Inserted new TIBCO stub with ID: {}", generatedId);
                 return tibcoStub;
@@ -91,7 +103,7 @@ public class SybaseIBMMQStubRepository implements IBMMQStubRepository {
                 tibcoStub.setUpdatedAt(now);
 
                 String stubJson = objectMapper.writeValueAsString(tibcoStub);
-                jdbcTemplate.update(UPDATE_STUB, stubJson, tibcoStub.getId());
+                jdbcTemplate.update(UPDATE_STUB, stubJson, statusName(tibcoStub), tibcoStub.getUserId(), tibcoStub.getId());
                 logger.debug("Updated TIBCO stub with ID: {}", tibcoStub.getId());
                 return tibcoStub;
             }
@@ -147,6 +159,9 @@ public class SybaseIBMMQStubRepository implements IBMMQStubRepository {
         return (rs, rowNum) -> {
             try {
                 String stubJson = rs.getString("stub_data");
+                if (stubJson == null) {
+                    return fromColumns(rs);
+                }
                 return objectMapper.readValue(stubJson, IBMMQStub.class);
             } catch (JsonProcessingException e) {
                 logger.error("Error deserializing TIBCO stub from JSON", e);
@@ -154,4 +169,48 @@ public class SybaseIBMMQStubRepository implements IBMMQStubRepository {
             }
         };
     }
-}
\ No newline at end of file
+
+    /**
+     * Map a row written before stub_data existed; the JSON is written the next time the stub is saved
+     */
+    private static IBMMQStub fromColumns(ResultSet rs) throws SQLException {
+        IBMMQStub stub = new IBMMQStub();
+        stub.setId(rs.getString("id"));
+        stub.setName(rs.getString("name"));
+        stub.setDescription(rs.getString("description"));
+        stub.setUserId(rs.getString("user_id"));
+        stub.setDestinationType("queue");
+        stub.setDestinationName(rs.getString("queue_name"));
+        stub.setMessageSelector(rs.getString("selector"));
+        String contentMatchType = rs.getString("content_match_type");
+        if (contentMatchType != null) {
+            stub.setContentMatchType(IBMMQStub.ContentMatchType.valueOf(contentMatchType.toUpperCase()));
+        }
+        stub.setContentPattern(rs.getString("content_pattern"));
+        stub.setCaseSensitive(rs.getBoolean("case_sensitive"));
+        String responseDestinationType = rs.getString("response_destination_type");
+        stub.setResponseType(responseDestinationType != null ? responseDestinationType : rs.getString("response_type"));
+        stub.setResponseDestination(rs.getString("response_destination"));
+        stub.setResponseContent(rs.getString("response_content"));
+        stub.setWebhookUrl(rs.getString("webhook_url"));
+        stub.setPriority(rs.getInt("priority"));
+        stub.setLatency(rs.getInt("latency"));
+        String status = rs.getString("status");
+        if (status != null) {
+            stub.setStatus(StubStatus.valueOf(status.toUpperCase()));
+        }
+        Timestamp createdAt = rs.getTimestamp("created_at");
+        if (createdAt != null) {
+            stub.setCreatedAt(createdAt.toLocalDateTime());
+        }
+        Timestamp updatedAt = rs.getTimestamp("updated_at");
+        if (updatedAt != null) {
+            stub.setUpdatedAt(updatedAt.toLocalDateTime());
+        }
+        return stub;
+    }
+
+    private static String statusName(IBMMQStub stub) {
+        return stub.getStatus() != null ? stub.getStatus().name() : null;
+    }
+}
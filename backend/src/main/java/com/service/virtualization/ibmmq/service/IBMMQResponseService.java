@@ -1,6 +1,9 @@
 package com.service.virtualization.ibmmq.service;
 
 import com.service.virtualization.ibmmq.model.IBMMQStub;
+import com.service.virtualization.jms.matcher.MessageContent;
+import com.service.virtualization.jms.sender.JmsResponseSender;
+import com.service.virtualization.latency.LatencySimulator;
 import jakarta.jms.JMSException;
 import jakarta.jms.Message;
 import jakarta.jms.TextMessage;
@@ -8,7 +11,6 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
-import org.springframework.jms.core.JmsTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.context.annotation.Profile;
 
@@ -25,38 +27,46 @@ public class IBMMQResponseService {
     private static final Logger logger = LoggerFactory.getLogger(IBMMQResponseService.class);
 
     @Autowired
-    @Qualifier("ibmmqQueueJmsTemplate")
-    private JmsTemplate queueJmsTemplate;
+    @Qualifier("ibmmqResponseSender")
+    private JmsResponseSender responseSender;
 
     @Autowired
-    @Qualifier("ibmmqTopicJmsTemplate")
-    private JmsTemplate topicJmsTemplate;
+    private IBMMQWebhookService IBMMQWebhookService;
 
     @Autowired
-    private IBMMQWebhookService IBMMQWebhookService;
+    private LatencySimulator latencySimulator;
 
     /**
      * Process and send a response for a matched message.
      *
      * @param stub           The matched stub
      * @param message        The original JMS message
-     * @param messageContent The content of the original message
+     * @param content        The content of the original message
      */
-    public void processResponse(IBMMQStub stub, Message message, String messageContent) {
+    public void processResponse(IBMMQStub stub, Message message, MessageContent content) {
         try {
             String responseDestination = stub.getResponseDestination();
             String responseDestinationType = stub.getResponseType();
 
             // Process the response based on type
             final Map<String, String> headers = extractHeaders(message);
+            // Only a webhook sees the request body, so other stubs never decode it
+            final String messageContent = hasWebhook(stub) ? content.text() : null;
 
-            sendResponse(stub, responseDestination, responseDestinationType, messageContent, headers);
+            // Send after the stub's simulated latency, if any
+            long latency = stub.getLatency() != null ? stub.getLatency() : 0;
+            latencySimulator.schedule(stub.getId(), latency,
+                    () -> sendResponse(stub, responseDestination, responseDestinationType, messageContent, headers));
         } catch (Exception e) {
             logger.error("Error processing response for stub {}: {}",
                     stub.getId(), e.getMessage(), e);
         }
     }
 
+    private static boolean hasWebhook(IBMMQStub stub) {
+        return stub.getWebhookUrl() != null && !stub.getWebhookUrl().trim().isEmpty();
+    }
+
     /**
      * Send the response based on the stub configuration.
      *
@@ -69,16 +79,15 @@ public class IBMMQResponseService {
     private void sendResponse(IBMMQStub stub, String destination, String destinationType,
                               String originalMessageContent, Map<String, String> headers) {
         try {
-            // Determine which JmsTemplate to use based on destination type
+            // Determine the destination type
             boolean isTopic = "topic".equalsIgnoreCase(destinationType);
-            JmsTemplate jmsTemplate = isTopic ? topicJmsTemplate : queueJmsTemplate;
 
             logger.debug("Sending response to {} {} for stub {}",
                     isTopic ? "topic" : "queue", destination, stub.getId());
 
             // Check if we should get content from webhook
             String responseContent;
-            if (stub.getWebhookUrl() != null && !stub.getWebhookUrl().trim().isEmpty()) {
+            if (hasWebhook(stub)) {
                 responseContent = IBMMQWebhookService.getWebhookResponse(stub, originalMessageContent, headers);
             } else {
                 responseContent = stub.getResponseContent();
@@ -90,7 +99,7 @@ public class IBMMQResponseService {
 
             // Send the response
             String finalResponseContent = responseContent;
-            jmsTemplate.send(destination, session -> {
+            responseSender.send(destination, isTopic, session -> {
                 TextMessage responseMessage = session.createTextMessage(finalResponseContent);
 
                 // Set correlation ID from original message if available
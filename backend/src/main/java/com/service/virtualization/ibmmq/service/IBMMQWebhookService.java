@@ -22,7 +22,11 @@ import java.util.Map;
 public class IBMMQWebhookService {
     private static final Logger logger = LoggerFactory.getLogger(IBMMQWebhookService.class);
 
-    private final RestTemplate restTemplate = new RestTemplate();
+    private final RestTemplate restTemplate;
+
+    public IBMMQWebhookService(RestTemplate outboundRestTemplate) {
+        this.restTemplate = outboundRestTemplate;
+    }
 
     /**
      * Get a response from a webhook URL.
@@ -0,0 +1,159 @@
+package com.service.virtualization.jms.listener;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jms.connection.JmsTransactionManager;
+import org.springframework.jms.listener.DefaultMessageListenerContainer;
+
+import jakarta.jms.ConnectionFactory;
+import jakarta.jms.MessageListener;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * One JMS listener container per destination, shared by every stub listening on it.
+ *
+ * Containers are reference counted by stub: the first stub on a queue or topic starts its
+ * container, further stubs only take a reference, and the container is stopped when the last
+ * stub is released. Which stub answers a message is decided by the message listener's
+ * routing table, so stubs on the same destination never compete for messages.
+ */
+public class SharedListenerContainers {
+    private static final Logger logger = LoggerFactory.getLogger(SharedListenerContainers.class);
+
+    private final String brokerName;
+    private final ConnectionFactory connectionFactory;
+    private final MessageListener messageListener;
+    private final JmsTransactionManager transactionManager;
+
+    private final Map<Destination, SharedContainer> containers = new HashMap<>();
+    private final Map<String, Destination> destinationsByStub = new HashMap<>();
+
+    /**
+     * @param brokerName        Broker name used in log messages
+     * @param connectionFactory Connection factory for all containers
+     * @param messageListener   Listener receiving messages from every destination
+     */
+    public SharedListenerContainers(String brokerName, ConnectionFactory connectionFactory,
+                                    MessageListener messageListener) {
+        this.brokerName = brokerName;
+        this.connectionFactory = connectionFactory;
+        this.messageListener = messageListener;
+        this.transactionManager = new JmsTransactionManager(connectionFactory);
+    }
+
+    /**
+     * Make sure a container is listening on the stub's destination and take a reference to it.
+     * If the stub previously listened on another destination, that reference is released.
+     *
+     * @param stubId          The stub ID
+     * @param destinationName The queue or topic name
+     * @param isTopic         True if the destination is a topic
+     */
+    public synchronized void acquire(String stubId, String destinationName, boolean isTopic) {
+        Destination destination = new Destination(destinationName, isTopic);
+        Destination previous = destinationsByStub.get(stubId);
+        if (destination.equals(previous)) {
+            return;
+        }
+
+        SharedContainer shared = containers.get(destination);
+        if (shared == null) {
+            DefaultMessageListenerContainer container = createMessageListenerContainer(destination);
+            container.initialize();
+            container.start();
+            shared = new SharedContainer(container);
+            containers.put(destination, shared);
+            logger.info("Started {} listener container for {} {}", brokerName,
+                    isTopic ? "topic" : "queue", destinationName);
+        }
+        shared.references++;
+        destinationsByStub.put(stubId, destination);
+
+        if (previous != null) {
+            release(previous);
+        }
+    }
+
+    /**
+     * Release the stub's reference to its destination's container, stopping the container
+     * when no stub listens on the destination any more.
+     *
+     * @param stubId The stub ID
+     * @return true if the stub held a reference
+     */
+    public synchronized boolean release(String stubId) {
+        Destination destination = destinationsByStub.remove(stubId);
+        if (destination == null) {
+            return false;
+        }
+        release(destination);
+        return true;
+    }
+
+    /**
+     * Stop every container, e.g. on shutdown
+     */
+    public synchronized void stopAll() {
+        containers.forEach((destination, shared) -> stop(destination, shared.container));
+        containers.clear();
+        destinationsByStub.clear();
+    }
+
+    /**
+     * @return the number of running containers
+     */
+    public synchronized int containerCount() {
+        return containers.size();
+    }
+
+    private void release(Destination destination) {
+        SharedContainer shared = containers.get(destination);
+        if (shared != null && --shared.references <= 0) {
+            containers.remove(destination);
+            stop(destination, shared.container);
+        }
+    }
+
+    private void stop(Destination destination, DefaultMessageListenerContainer container) {
+        try {
+            container.stop();
+            container.destroy();
+            logger.info("Stopped {} listener container for {} {}", brokerName,
+                    destination.topic() ? "topic" : "queue", destination.name());
+        } catch (Exception e) {
+            logger.error("Error stopping {} listener container for {}: {}", brokerName, destination.name(), e.getMessage(), e);
+        }
+    }
+
+    private DefaultMessageListenerContainer createMessageListenerContainer(Destination destination) {
+        DefaultMessageListenerContainer container = new DefaultMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.setDestinationName(destination.name());
+        container.setPubSubDomain(destination.topic()); // true for topics, false for queues
+        container.setMessageListener(messageListener);
+
+        // Shared transaction manager for reliability
+        container.setTransactionManager(transactionManager);
+        container.setSessionTransacted(true);
+
+        // Extra consumers on a non-durable topic would each receive a copy of every message
+        container.setConcurrentConsumers(1);
+        container.setMaxConcurrentConsumers(destination.topic() ? 1 : 5);
+        container.setRecoveryInterval(5000);
+
+        return container;
+    }
+
+    private record Destination(String name, boolean topic) {
+    }
+
+    private static final class SharedContainer {
+        private final DefaultMessageListenerContainer container;
+        private int references;
+
+        SharedContainer(DefaultMessageListenerContainer container) {
+            this.container = container;
+        }
+    }
+}
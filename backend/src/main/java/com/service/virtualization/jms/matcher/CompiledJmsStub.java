@@ -0,0 +1,217 @@
+package com.service.virtualization.jms.matcher;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Matching rules of a JMS stub, compiled once when the stub is registered.
+ *
+ * Content regexes, case-insensitive patterns and the message selector are prepared up front,
+ * so matching a message never parses a selector, compiles a pattern or lowercases the payload.
+ * Case-sensitive CONTAINS and EXACT patterns match binary payloads byte for byte, without
+ * decoding them to text.
+ *
+ * @param <S> The protocol-specific stub type
+ */
+public final class CompiledJmsStub<S> {
+    private static final Logger logger = LoggerFactory.getLogger(CompiledJmsStub.class);
+
+    private static final Predicate<MessageContent> ANY_CONTENT = content -> true;
+    private static final JmsSelector NO_MESSAGE = JmsSelector.compile("FALSE");
+
+    // Stub and selector pairs already warned about; stubs are recompiled on every reload
+    private static final Set<String> INVALID_SELECTORS_REPORTED = ConcurrentHashMap.newKeySet();
+
+    private final S stub;
+    private final String id;
+    private final String destinationKey;
+    private final int priority;
+    private final JmsSelector selector;
+    private final Predicate<MessageContent> contentMatcher;
+
+    private CompiledJmsStub(S stub, String id, String destinationKey, int priority,
+                            JmsSelector selector, Predicate<MessageContent> contentMatcher) {
+        this.stub = stub;
+        this.id = id;
+        this.destinationKey = destinationKey;
+        this.priority = priority;
+        this.selector = selector;
+        this.contentMatcher = contentMatcher;
+    }
+
+    /**
+     * Compile a stub's matching rules
+     *
+     * @param stub             The stub
+     * @param id               The stub ID
+     * @param destinationName  The destination the stub listens on
+     * @param messageSelector  The stub's message selector, may be null
+     * @param contentMatchType Name of the stub's content match type (NONE, CONTAINS, EXACT, REGEX)
+     * @param contentPattern   The content pattern, may be null
+     * @param caseSensitive    Whether content matching is case-sensitive
+     * @param priority         The stub priority; higher priorities are evaluated first
+     * @return The compiled stub
+     */
+    public static <S> CompiledJmsStub<S> compile(S stub, String id, String destinationName, String messageSelector,
+                                                 String contentMatchType, String contentPattern,
+                                                 boolean caseSensitive, int priority) {
+        return new CompiledJmsStub<>(stub, id, destinationKey(destinationName), priority,
+                compileSelector(id, messageSelector),
+                compileContentMatcher(id, contentMatchType, contentPattern, caseSensitive));
+    }
+
+    /**
+     * Normalise a destination name for index lookups (destinations match case-insensitively)
+     */
+    static String destinationKey(String destinationName) {
+        return destinationName == null ? "" : destinationName.toLowerCase(Locale.ROOT);
+    }
+
+    public S stub() {
+        return stub;
+    }
+
+    public String id() {
+        return id;
+    }
+
+    String destinationKey() {
+        return destinationKey;
+    }
+
+    int priority() {
+        return priority;
+    }
+
+    boolean matchesSelector(MessagePropertySnapshot properties) {
+        return selector == null || selector.matches(properties);
+    }
+
+    boolean matchesContent(MessageContent content) {
+        // A body that could not be read matches no content pattern
+        return contentMatcher == ANY_CONTENT || (content.isReadable() && contentMatcher.test(content));
+    }
+
+    private static Predicate<MessageContent> compileContentMatcher(String id, String matchType, String pattern,
+                                                                   boolean caseSensitive) {
+        if (matchType == null || "NONE".equals(matchType) || pattern == null || pattern.isEmpty()) {
+            return ANY_CONTENT;
+        }
+
+        int flags = caseSensitive ? 0 : Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE;
+        switch (matchType) {
+            case "CONTAINS":
+                if (caseSensitive) {
+                    EncodedPattern encoded = new EncodedPattern(pattern);
+                    return content -> content.isBinary()
+                            ? indexOf(content.bytes(), encoded.in(content.charset())) >= 0
+                            : content.text().contains(pattern);
+                }
+                Pattern literal = Pattern.compile(pattern, flags | Pattern.LITERAL);
+                return content -> literal.matcher(content.chars()).find();
+            case "EXACT":
+                if (caseSensitive) {
+                    EncodedPattern encoded = new EncodedPattern(pattern);
+                    return content -> content.isBinary()
+                            ? content.bytes().equals(encoded.in(content.charset()))
+                            : pattern.equals(content.text());
+                }
+                return content -> pattern.equalsIgnoreCase(content.text());
+            case "REGEX":
+                try {
+                    Pattern regex = Pattern.compile(pattern, flags);
+                    return content -> regex.matcher(content.chars()).matches();
+                } catch (PatternSyntaxException e) {
+                    logger.warn("Invalid regex pattern '{}' on stub {}, it will not match any message", pattern, id);
+                    return content -> false;
+                }
+            default:
+                return ANY_CONTENT;
+        }
+    }
+
+    /**
+     * Position of the first occurrence of needle in haystack, or -1
+     */
+    private static int indexOf(ByteBuffer haystack, ByteBuffer needle) {
+        int base = haystack.position();
+        int needleStart = needle.position();
+        int needleLength = needle.remaining();
+        if (needleLength == 0) {
+            return 0;
+        }
+        byte first = needle.get(needleStart);
+        int last = haystack.limit() - needleLength;
+        outer:
+        for (int i = base; i <= last; i++) {
+            if (haystack.get(i) != first) {
+                continue;
+            }
+            for (int j = 1; j < needleLength; j++) {
+                if (haystack.get(i + j) != needle.get(needleStart + j)) {
+                    continue outer;
+                }
+            }
+            return i - base;
+        }
+        return -1;
+    }
+
+    private static JmsSelector compileSelector(String id, String selector) {
+        if (selector == null || selector.trim().isEmpty()) {
+            return null;
+        }
+        try {
+            return JmsSelector.compile(selector);
+        } catch (IllegalArgumentException e) {
+            if (INVALID_SELECTORS_REPORTED.add(id + '\u0000' + selector)) {
+                // Earlier versions matched a selector without '=' as a regex against every property value
+                logger.warn("Stub {} has message selector '{}' that is not a valid JMS selector ({}). "
+                        + "Selectors are now evaluated as JMS SQL-92 selectors; earlier versions matched such a "
+                        + "selector as a regular expression against the message property values. The stub will "
+                        + "not match any message until its selector is rewritten, e.g. myProperty LIKE 'ORD-%'",
+                        id, selector, e.getMessage());
+            } else {
+                logger.debug("Invalid selector on stub {}, it will not match any message: {}", id, e.getMessage());
+            }
+            return NO_MESSAGE;
+        }
+    }
+
+    /**
+     * A content pattern encoded in the charset of the payloads it is compared with. Payloads on one
+     * destination normally share a charset, so the last encoding is kept.
+     */
+    private static final class EncodedPattern {
+        private final String pattern;
+        private volatile Encoding last;
+
+        EncodedPattern(String pattern) {
+            this.pattern = pattern;
+            this.last = new Encoding(StandardCharsets.UTF_8,
+                    ByteBuffer.wrap(pattern.getBytes(StandardCharsets.UTF_8)).asReadOnlyBuffer());
+        }
+
+        ByteBuffer in(Charset charset) {
+            Encoding encoding = last;
+            if (!encoding.charset().equals(charset)) {
+                encoding = new Encoding(charset, ByteBuffer.wrap(pattern.getBytes(charset)).asReadOnlyBuffer());
+                last = encoding;
+            }
+            return encoding.bytes();
+        }
+
+        private record Encoding(Charset charset, ByteBuffer bytes) {
+        }
+    }
+}
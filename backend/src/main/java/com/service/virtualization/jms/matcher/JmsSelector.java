@@ -0,0 +1,561 @@
+package com.service.virtualization.jms.matcher;
+
+import jakarta.jms.Message;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * JMS message selector compiled into an evaluation tree.
+ *
+ * Supports the SQL-92 subset defined by the JMS specification: comparison and arithmetic operators,
+ * AND/OR/NOT, [NOT] BETWEEN, [NOT] IN, [NOT] LIKE with ESCAPE, IS [NOT] NULL, string, numeric and boolean
+ * literals, message properties and the JMSDeliveryMode, JMSPriority, JMSMessageID, JMSTimestamp,
+ * JMSCorrelationID and JMSType headers. Evaluation follows the specification's three-valued logic:
+ * a missing property makes a comparison unknown, and a message is selected only if the selector is true.
+ * AND and OR short-circuit, and LIKE patterns are compiled once when the selector is parsed.
+ */
+public final class JmsSelector {
+
+    private final String text;
+    private final Expression root;
+
+    private JmsSelector(String text, Expression root) {
+        this.text = text;
+        this.root = root;
+    }
+
+    /**
+     * Parse a selector
+     *
+     * @param selector The selector, e.g. {@code region = 'EU' AND amount BETWEEN 10 AND 100}
+     * @return The compiled selector
+     * @throws IllegalArgumentException if the selector is not valid
+     */
+    public static JmsSelector compile(String selector) {
+        Parser parser = new Parser(selector);
+        Expression root = parser.parseSelector();
+        return new JmsSelector(selector, root);
+    }
+
+    /**
+     * @return whether the selector selects the message
+     */
+    public boolean matches(Message message) {
+        return matches(new MessagePropertySnapshot(message));
+    }
+
+    boolean matches(MessagePropertySnapshot properties) {
+        return root.evaluate(properties) == Boolean.TRUE;
+    }
+
+    @Override
+    public String toString() {
+        return text;
+    }
+
+    @FunctionalInterface
+    private interface Expression {
+        /**
+         * @return a Boolean, Long, Double or String; null if the value is unknown
+         */
+        Object evaluate(MessagePropertySnapshot properties);
+    }
+
+    // Three-valued logic; null is unknown
+
+    private static Boolean and(Expression left, Expression right, MessagePropertySnapshot properties) {
+        Boolean l = asBoolean(left.evaluate(properties));
+        if (l == Boolean.FALSE) {
+            return Boolean.FALSE;
+        }
+        Boolean r = asBoolean(right.evaluate(properties));
+        if (r == Boolean.FALSE) {
+            return Boolean.FALSE;
+        }
+        return l == null || r == null ? null : Boolean.TRUE;
+    }
+
+    private static Boolean or(Expression left, Expression right, MessagePropertySnapshot properties) {
+        Boolean l = asBoolean(left.evaluate(properties));
+        if (l == Boolean.TRUE) {
+            return Boolean.TRUE;
+        }
+        Boolean r = asBoolean(right.evaluate(properties));
+        if (r == Boolean.TRUE) {
+            return Boolean.TRUE;
+        }
+        return l == null || r == null ? null : Boolean.FALSE;
+    }
+
+    private static Boolean not(Boolean value) {
+        return value == null ? null : !value;
+    }
+
+    private static Boolean asBoolean(Object value) {
+        return value instanceof Boolean b ? b : null;
+    }
+
+    /**
+     * Widen a property value to the types selectors compute with; strings are never converted to numbers
+     */
+    private static Object normalize(Object value) {
+        if (value instanceof Byte || value instanceof Short || value instanceof Integer) {
+            return ((Number) value).longValue();
+        }
+        if (value instanceof Float) {
+            return ((Float) value).doubleValue();
+        }
+        return value;
+    }
+
+    private static Boolean compare(String operator, Object left, Object right) {
+        if (left == null || right == null) {
+            return null;
+        }
+        if (left instanceof Number l && right instanceof Number r) {
+            int cmp = l instanceof Long && r instanceof Long
+                    ? Long.compare(l.longValue(), r.longValue())
+                    : Double.compare(l.doubleValue(), r.doubleValue());
+            return switch (operator) {
+                case "=" -> cmp == 0;
+                case "<>" -> cmp != 0;
+                case "<" -> cmp < 0;
+                case "<=" -> cmp <= 0;
+                case ">" -> cmp > 0;
+                default -> cmp >= 0;
+            };
+        }
+        // Strings and booleans only support equality; comparing unlike types is false
+        if ((left instanceof String && right instanceof String) || (left instanceof Boolean && right instanceof Boolean)) {
+            return switch (operator) {
+                case "=" -> left.equals(right);
+                case "<>" -> !left.equals(right);
+                default -> Boolean.FALSE;
+            };
+        }
+        return Boolean.FALSE;
+    }
+
+    private static Object arithmetic(char operator, Object left, Object right) {
+        if (!(left instanceof Number l) || !(right instanceof Number r)) {
+            return null;
+        }
+        if (l instanceof Long && r instanceof Long) {
+            long a = l.longValue(), b = r.longValue();
+            return switch (operator) {
+                case '+' -> a + b;
+                case '-' -> a - b;
+                case '*' -> a * b;
+                default -> b == 0 ? null : a / b;
+            };
+        }
+        double a = l.doubleValue(), b = r.doubleValue();
+        return switch (operator) {
+            case '+' -> a + b;
+            case '-' -> a - b;
+            case '*' -> a * b;
+            default -> a / b;
+        };
+    }
+
+    private static Pattern likePattern(String pattern, Character escape) {
+        StringBuilder regex = new StringBuilder();
+        StringBuilder literal = new StringBuilder();
+        for (int i = 0; i < pattern.length(); i++) {
+            char c = pattern.charAt(i);
+            if (escape != null && c == escape) {
+                if (++i == pattern.length()) {
+                    throw new IllegalArgumentException("LIKE pattern '" + pattern + "' ends with its escape character");
+                }
+                literal.append(pattern.charAt(i));
+            } else if (c == '%' || c == '_') {
+                if (literal.length() > 0) {
+                    regex.append(Pattern.quote(literal.toString()));
+                    literal.setLength(0);
+                }
+                regex.append(c == '%' ? ".*" : ".");
+            } else {
+                literal.append(c);
+            }
+        }
+        if (literal.length() > 0) {
+            regex.append(Pattern.quote(literal.toString()));
+        }
+        return Pattern.compile(regex.toString(), Pattern.DOTALL);
+    }
+
+    private enum TokenType { IDENTIFIER, KEYWORD, STRING, NUMBER, OPERATOR, END }
+
+    private record Token(TokenType type, String text, Object value, int position) {
+        boolean is(TokenType expectedType, String expectedText) {
+            return type == expectedType && text.equals(expectedText);
+        }
+    }
+
+    /**
+     * Recursive descent parser; precedence from loosest to tightest is OR, AND, NOT, comparison,
+     * additive, multiplicative, unary sign
+     */
+    private static final class Parser {
+        private static final Set<String> KEYWORDS = Set.of(
+                "NOT", "AND", "OR", "BETWEEN", "LIKE", "ESCAPE", "IN", "IS", "NULL", "TRUE", "FALSE");
+
+        private final String selector;
+        private final List<Token> tokens;
+        private int index;
+
+        Parser(String selector) {
+            this.selector = selector;
+            this.tokens = tokenize(selector);
+        }
+
+        Expression parseSelector() {
+            Expression expression = parseOr();
+            if (peek().type() != TokenType.END) {
+                throw error("Unexpected '" + peek().text() + "'", peek());
+            }
+            return expression;
+        }
+
+        private Expression parseOr() {
+            Expression left = parseAnd();
+            while (acceptKeyword("OR")) {
+                Expression l = left, r = parseAnd();
+                left = properties -> or(l, r, properties);
+            }
+            return left;
+        }
+
+        private Expression parseAnd() {
+            Expression left = parseNot();
+            while (acceptKeyword("AND")) {
+                Expression l = left, r = parseNot();
+                left = properties -> and(l, r, properties);
+            }
+            return left;
+        }
+
+        private Expression parseNot() {
+            if (acceptKeyword("NOT")) {
+                Expression operand = parseNot();
+                return properties -> not(asBoolean(operand.evaluate(properties)));
+            }
+            return parsePredicate();
+        }
+
+        private Expression parsePredicate() {
+            Token start = peek();
+            int startIndex = index;
+            Expression left = parseAdditive();
+            // IS, IN and LIKE only apply to a bare property name
+            String identifier = start.type() == TokenType.IDENTIFIER && index == startIndex + 1 ? start.text() : null;
+
+            if (peek().type() == TokenType.OPERATOR && isComparison(peek().text())) {
+                String operator = next().text();
+                Expression right = parseAdditive();
+                return properties -> compare(operator, left.evaluate(properties), right.evaluate(properties));
+            }
+
+            if (acceptKeyword("IS")) {
+                requireIdentifier(identifier, start, "IS NULL");
+                boolean negated = acceptKeyword("NOT");
+                expectKeyword("NULL");
+                return properties -> (properties.get(identifier) == null) != negated;
+            }
+
+            boolean negated = acceptKeyword("NOT");
+            Expression predicate;
+            if (acceptKeyword("BETWEEN")) {
+                Expression lower = parseAdditive();
+                expectKeyword("AND");
+                Expression upper = parseAdditive();
+                predicate = properties -> {
+                    Object value = left.evaluate(properties);
+                    return and(p -> compare(">=", value, lower.evaluate(p)),
+                               p -> compare("<=", value, upper.evaluate(p)), properties);
+                };
+            } else if (acceptKeyword("IN")) {
+                requireIdentifier(identifier, start, "IN");
+                Set<String> values = parseStringList();
+                predicate = properties -> properties.get(identifier) instanceof String value ? values.contains(value) : null;
+            } else if (acceptKeyword("LIKE")) {
+                requireIdentifier(identifier, start, "LIKE");
+                String pattern = expectString();
+                Character escape = null;
+                if (acceptKeyword("ESCAPE")) {
+                    Token escapeToken = peek();
+                    String escapeText = expectString();
+                    if (escapeText.length() != 1) {
+                        throw error("ESCAPE must be a single character", escapeToken);
+                    }
+                    escape = escapeText.charAt(0);
+                }
+                Pattern like = likePattern(pattern, escape);
+                predicate = properties -> properties.get(identifier) instanceof String value
+                        ? like.matcher(value).matches() : null;
+            } else if (negated) {
+                throw error("Expected BETWEEN, IN or LIKE after NOT", peek());
+            } else {
+                return left;
+            }
+            return negated ? properties -> not(asBoolean(predicate.evaluate(properties))) : predicate;
+        }
+
+        private Expression parseAdditive() {
+            Expression left = parseMultiplicative();
+            while (peek().is(TokenType.OPERATOR, "+") || peek().is(TokenType.OPERATOR, "-")) {
+                char operator = next().text().charAt(0);
+                Expression l = left, r = parseMultiplicative();
+                left = properties -> arithmetic(operator, l.evaluate(properties), r.evaluate(properties));
+            }
+            return left;
+        }
+
+        private Expression parseMultiplicative() {
+            Expression left = parseUnary();
+            while (peek().is(TokenType.OPERATOR, "*") || peek().is(TokenType.OPERATOR, "/")) {
+                char operator = next().text().charAt(0);
+                Expression l = left, r = parseUnary();
+                left = properties -> arithmetic(operator, l.evaluate(properties), r.evaluate(properties));
+            }
+            return left;
+        }
+
+        private Expression parseUnary() {
+            if (peek().is(TokenType.OPERATOR, "+")) {
+                next();
+                return parseUnary();
+            }
+            if (peek().is(TokenType.OPERATOR, "-")) {
+                next();
+                if (peek().type() == TokenType.NUMBER) {
+                    Object negated = negate(next().value());
+                    return properties -> negated;
+                }
+                Expression operand = parseUnary();
+                return properties -> negate(operand.evaluate(properties));
+            }
+            return parsePrimary();
+        }
+
+        private Expression parsePrimary() {
+            Token token = next();
+            switch (token.type()) {
+                case IDENTIFIER: {
+                    String identifier = token.text();
+                    return properties -> normalize(properties.get(identifier));
+                }
+                case STRING:
+                case NUMBER: {
+                    Object value = token.value();
+                    return properties -> value;
+                }
+                case KEYWORD:
+                    if (token.text().equals("TRUE")) {
+                        return properties -> Boolean.TRUE;
+                    }
+                    if (token.text().equals("FALSE")) {
+                        return properties -> Boolean.FALSE;
+                    }
+                    break;
+                case OPERATOR:
+                    if (token.text().equals("(")) {
+                        Expression inner = parseOr();
+                        expectOperator(")");
+                        return inner;
+                    }
+                    break;
+                default:
+                    break;
+            }
+            throw error(token.type() == TokenType.END ? "Unexpected end of selector" : "Unexpected '" + token.text() + "'", token);
+        }
+
+        private Set<String> parseStringList() {
+            expectOperator("(");
+            Set<String> values = new HashSet<>();
+            do {
+                values.add(expectString());
+            } while (acceptOperator(","));
+            expectOperator(")");
+            return Set.copyOf(values);
+        }
+
+        private static Object negate(Object value) {
+            if (value instanceof Long l) {
+                return -l;
+            }
+            if (value instanceof Double d) {
+                return -d;
+            }
+            return null;
+        }
+
+        private static boolean isComparison(String operator) {
+            return switch (operator) {
+                case "=", "<>", "<", "<=", ">", ">=" -> true;
+                default -> false;
+            };
+        }
+
+        private void requireIdentifier(String identifier, Token start, String construct) {
+            if (identifier == null) {
+                throw error(construct + " requires a property name on its left", start);
+            }
+        }
+
+        private Token peek() {
+            return tokens.get(index);
+        }
+
+        private Token next() {
+            Token token = tokens.get(index);
+            if (token.type() != TokenType.END) {
+                index++;
+            }
+            return token;
+        }
+
+        private boolean acceptKeyword(String keyword) {
+            if (peek().is(TokenType.KEYWORD, keyword)) {
+                index++;
+                return true;
+            }
+            return false;
+        }
+
+        private void expectKeyword(String keyword) {
+            if (!acceptKeyword(keyword)) {
+                throw error("Expected " + keyword, peek());
+            }
+        }
+
+        private boolean acceptOperator(String operator) {
+            if (peek().is(TokenType.OPERATOR, operator)) {
+                index++;
+                return true;
+            }
+            return false;
+        }
+
+        private void expectOperator(String operator) {
+            if (!acceptOperator(operator)) {
+                throw error("Expected '" + operator + "'", peek());
+            }
+        }
+
+        private String expectString() {
+            Token token = next();
+            if (token.type() != TokenType.STRING) {
+                throw error("Expected a string literal", token);
+            }
+            return (String) token.value();
+        }
+
+        private IllegalArgumentException error(String message, Token token) {
+            return new IllegalArgumentException(
+                    message + " at position " + token.position() + " in selector '" + selector + "'");
+        }
+
+        private List<Token> tokenize(String selector) {
+            List<Token> result = new ArrayList<>();
+            int length = selector.length();
+            int i = 0;
+            while (i < length) {
+                char c = selector.charAt(i);
+                if (Character.isWhitespace(c)) {
+                    i++;
+                } else if (c == '\'') {
+                    // String literal; a quote inside is written as two quotes
+                    StringBuilder value = new StringBuilder();
+                    int start = i++;
+                    while (true) {
+                        if (i >= length) {
+                            throw new IllegalArgumentException(
+                                    "Unterminated string at position " + start + " in selector '" + selector + "'");
+                        }
+                        char s = selector.charAt(i++);
+                        if (s == '\'') {
+                            if (i < length && selector.charAt(i) == '\'') {
+                                value.append('\'');
+                                i++;
+                            } else {
+                                break;
+                            }
+                        } else {
+                            value.append(s);
+                        }
+                    }
+                    result.add(new Token(TokenType.STRING, selector.substring(start, i), value.toString(), start));
+                } else if (Character.isDigit(c) || (c == '.' && i + 1 < length && Character.isDigit(selector.charAt(i + 1)))) {
+                    int start = i;
+                    boolean approximate = false;
+                    while (i < length && Character.isDigit(selector.charAt(i))) {
+                        i++;
+                    }
+                    if (i < length && selector.charAt(i) == '.') {
+                        approximate = true;
+                        i++;
+                        while (i < length && Character.isDigit(selector.charAt(i))) {
+                            i++;
+                        }
+                    }
+                    if (i < length && (selector.charAt(i) == 'e' || selector.charAt(i) == 'E')) {
+                        approximate = true;
+                        i++;
+                        if (i < length && (selector.charAt(i) == '+' || selector.charAt(i) == '-')) {
+                            i++;
+                        }
+                        while (i < length && Character.isDigit(selector.charAt(i))) {
+                            i++;
+                        }
+                    }
+                    String number = selector.substring(start, i);
+                    if (i < length && "lLfFdD".indexOf(selector.charAt(i)) >= 0) {
+                        approximate |= "fFdD".indexOf(selector.charAt(i)) >= 0;
+                        i++;
+                    }
+                    Object value;
+                    try {
+                        value = approximate ? (Object) Double.parseDouble(number) : (Object) Long.parseLong(number);
+                    } catch (NumberFormatException e) {
+                        throw new IllegalArgumentException(
+                                "Invalid number '" + number + "' at position " + start + " in selector '" + selector + "'");
+                    }
+                    result.add(new Token(TokenType.NUMBER, number, value, start));
+                } else if (Character.isJavaIdentifierStart(c)) {
+                    int start = i;
+                    while (i < length && Character.isJavaIdentifierPart(selector.charAt(i))) {
+                        i++;
+                    }
+                    String word = selector.substring(start, i);
+                    String upper = word.toUpperCase(Locale.ROOT);
+                    result.add(KEYWORDS.contains(upper)
+                            ? new Token(TokenType.KEYWORD, upper, null, start)
+                            : new Token(TokenType.IDENTIFIER, word, null, start));
+                } else {
+                    int start = i;
+                    String operator;
+                    if (c == '<' && i + 1 < length && (selector.charAt(i + 1) == '>' || selector.charAt(i + 1) == '=')) {
+                        operator = selector.substring(i, i + 2);
+                    } else if (c == '>' && i + 1 < length && selector.charAt(i + 1) == '=') {
+                        operator = ">=";
+                    } else if ("=<>+-*/(),".indexOf(c) >= 0) {
+                        operator = String.valueOf(c);
+                    } else {
+                        throw new IllegalArgumentException(
+                                "Unexpected character '" + c + "' at position " + i + " in selector '" + selector + "'");
+                    }
+                    i += operator.length();
+                    result.add(new Token(TokenType.OPERATOR, operator, null, start));
+                }
+            }
+            result.add(new Token(TokenType.END, "", null, length));
+            return result;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.service.virtualization.jms.matcher;
+
+import jakarta.jms.Message;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Routing table of compiled JMS stubs, indexed by destination.
+ *
+ * Each destination holds an immutable list of its stubs sorted by priority (highest first),
+ * replaced wholesale when a stub is registered or removed. Matching a message only looks at
+ * the stubs of its destination and stops at the first stub that matches, so the cost does not
+ * grow with the total number of stubs.
+ *
+ * @param <S> The protocol-specific stub type
+ */
+public class JmsStubIndex<S> {
+
+    private static final Comparator<CompiledJmsStub<?>> BY_PRIORITY =
+            Comparator.comparingInt(CompiledJmsStub::priority);
+
+    private final Map<String, List<CompiledJmsStub<S>>> stubsByDestination = new ConcurrentHashMap<>();
+    private final Map<String, CompiledJmsStub<S>> stubsById = new ConcurrentHashMap<>();
+
+    /**
+     * Add or replace a stub
+     */
+    public synchronized void register(CompiledJmsStub<S> compiled) {
+        unregister(compiled.id());
+
+        List<CompiledJmsStub<S>> stubs = new ArrayList<>(
+                stubsByDestination.getOrDefault(compiled.destinationKey(), List.of()));
+        stubs.add(compiled);
+        // Stable sort keeps registration order between stubs of equal priority
+        stubs.sort(BY_PRIORITY.reversed());
+
+        stubsByDestination.put(compiled.destinationKey(), List.copyOf(stubs));
+        stubsById.put(compiled.id(), compiled);
+    }
+
+    /**
+     * Remove a stub
+     *
+     * @return the removed stub, or null if it was not registered
+     */
+    public synchronized CompiledJmsStub<S> unregister(String stubId) {
+        CompiledJmsStub<S> removed = stubsById.remove(stubId);
+        if (removed == null) {
+            return null;
+        }
+
+        List<CompiledJmsStub<S>> stubs = new ArrayList<>(
+                stubsByDestination.getOrDefault(removed.destinationKey(), List.of()));
+        stubs.removeIf(stub -> stub.id().equals(stubId));
+        if (stubs.isEmpty()) {
+            stubsByDestination.remove(removed.destinationKey());
+        } else {
+            stubsByDestination.put(removed.destinationKey(), List.copyOf(stubs));
+        }
+        return removed;
+    }
+
+    /**
+     * Find the highest priority stub on the destination that matches the message
+     *
+     * @param destinationName The message's destination name
+     * @param message         The message
+     * @param content         The message content; its body is only read if a candidate matches on content
+     * @return The matching stub, or null if none matches
+     */
+    public S match(String destinationName, Message message, MessageContent content) {
+        List<CompiledJmsStub<S>> candidates = stubsByDestination.get(CompiledJmsStub.destinationKey(destinationName));
+        if (candidates == null) {
+            return null;
+        }
+
+        // Properties are read once per message no matter how many selectors look at them
+        MessagePropertySnapshot properties = new MessagePropertySnapshot(message);
+        for (CompiledJmsStub<S> candidate : candidates) {
+            if (candidate.matchesSelector(properties) && candidate.matchesContent(content)) {
+                return candidate.stub();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the number of destinations with at least one stub
+     */
+    public int destinationCount() {
+        return stubsByDestination.size();
+    }
+
+    public int size() {
+        return stubsById.size();
+    }
+}
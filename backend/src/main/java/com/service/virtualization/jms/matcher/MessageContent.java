@@ -0,0 +1,299 @@
+package com.service.virtualization.jms.matcher;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import jakarta.jms.BytesMessage;
+import jakarta.jms.JMSException;
+import jakarta.jms.MapMessage;
+import jakarta.jms.Message;
+import jakarta.jms.TextMessage;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Body of one JMS message, read once and shared by the listener, the stub matcher and the response.
+ *
+ * The body is read on first access. Text bodies are kept as strings. Bytes bodies are kept as a
+ * read-only byte buffer and decoded to text only when something asks for text, using the message's
+ * IBM MQ character set if it has one and UTF-8 otherwise. Map bodies are rendered as a JSON object.
+ * A body that cannot be read is logged once and reported by {@link #isReadable()}; asking it for text
+ * or bytes throws instead of returning an empty body. Not thread-safe; create one per message.
+ */
+public final class MessageContent {
+    private static final Logger logger = LoggerFactory.getLogger(MessageContent.class);
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final String IBM_CHARACTER_SET = "JMS_IBM_Character_Set";
+    private static final ByteBuffer NO_BYTES = ByteBuffer.allocate(0).asReadOnlyBuffer();
+
+    private final Message message;
+    private boolean loaded;
+
+    private String text;
+    private ByteBuffer bytes;
+    private Charset charset = StandardCharsets.UTF_8;
+    private CharSequence chars;
+    private Exception failure;
+
+    private MessageContent(Message message) {
+        this.message = message;
+    }
+
+    /**
+     * Content of a received message; the body is read on first access
+     */
+    public static MessageContent of(Message message) {
+        return new MessageContent(message);
+    }
+
+    /**
+     * Content that is already available as text
+     */
+    public static MessageContent ofText(String text) {
+        MessageContent content = new MessageContent(null);
+        content.text = text != null ? text : "";
+        content.loaded = true;
+        return content;
+    }
+
+    /**
+     * @return false if reading the body failed; {@link #text()} and {@link #bytes()} then throw
+     */
+    public boolean isReadable() {
+        load();
+        return failure == null;
+    }
+
+    /**
+     * @return true if the body is binary, i.e. {@link #bytes()} does not need to encode text
+     */
+    public boolean isBinary() {
+        load();
+        return bytes != null && text == null;
+    }
+
+    /**
+     * @return the charset binary content is decoded with
+     */
+    public Charset charset() {
+        load();
+        return charset;
+    }
+
+    /**
+     * The body as bytes; text bodies are encoded as UTF-8. The buffer is shared, so read it with
+     * absolute gets or a duplicate.
+     */
+    public ByteBuffer bytes() {
+        requireReadable();
+        if (bytes == null) {
+            bytes = ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8)).asReadOnlyBuffer();
+        }
+        return bytes;
+    }
+
+    /**
+     * The body as text, decoding binary content on first call
+     */
+    public String text() {
+        requireReadable();
+        if (text == null) {
+            text = charset.decode(bytes.duplicate()).toString();
+        }
+        return text;
+    }
+
+    /**
+     * The body as characters for pattern matching. Binary content whose bytes map one-to-one onto
+     * characters (ISO-8859-1, or ASCII-only UTF-8) is viewed in place instead of decoded.
+     */
+    CharSequence chars() {
+        if (chars == null) {
+            chars = isBinary() && mapsBytesToChars() ? new ByteCharSequence(bytes, 0, bytes.remaining()) : text();
+        }
+        return chars;
+    }
+
+    /**
+     * Type and size of the body for log messages; binary bodies are not decoded
+     */
+    public String summary() {
+        load();
+        String type = message == null ? "text"
+                : message instanceof TextMessage ? "TextMessage"
+                : message instanceof BytesMessage ? "BytesMessage"
+                : message instanceof MapMessage ? "MapMessage"
+                : message.getClass().getSimpleName();
+        if (failure != null) {
+            return type + ", unreadable body: " + failure.getMessage();
+        }
+        if (bytes != null) {
+            return type + ", " + bytes.remaining() + " bytes, " + charset.name();
+        }
+        return type + ", " + text.length() + " chars";
+    }
+
+    @Override
+    public String toString() {
+        return summary();
+    }
+
+    private void requireReadable() {
+        load();
+        if (failure != null) {
+            throw new IllegalStateException("Message body could not be read: " + failure.getMessage(), failure);
+        }
+    }
+
+    private boolean mapsBytesToChars() {
+        if (charset.equals(StandardCharsets.ISO_8859_1)) {
+            return true;
+        }
+        if (!charset.equals(StandardCharsets.UTF_8) && !charset.equals(StandardCharsets.US_ASCII)) {
+            return false;
+        }
+        for (int i = bytes.position(); i < bytes.limit(); i++) {
+            if (bytes.get(i) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void load() {
+        if (loaded) {
+            return;
+        }
+        loaded = true;
+        try {
+            if (message instanceof TextMessage textMessage) {
+                String body = textMessage.getText();
+                text = body != null ? body : "";
+            } else if (message instanceof BytesMessage bytesMessage) {
+                bytes = readBytes(bytesMessage);
+                charset = characterSet(message);
+            } else if (message instanceof MapMessage mapMessage) {
+                text = renderMap(mapMessage);
+            } else if (message != null && message.isBodyAssignableTo(byte[].class)) {
+                // Providers whose bytes messages are not BytesMessage instances, e.g. adapted EMS messages
+                byte[] body = message.getBody(byte[].class);
+                bytes = body != null ? ByteBuffer.wrap(body).asReadOnlyBuffer() : NO_BYTES;
+                charset = characterSet(message);
+            } else {
+                text = String.valueOf(message);
+            }
+        } catch (JMSException | RuntimeException e) {
+            logger.error("Error reading message body, stubs that match on content will not match it: {}", e.getMessage(), e);
+            failure = e;
+            text = null;
+            bytes = null;
+        }
+    }
+
+    private static ByteBuffer readBytes(BytesMessage message) throws JMSException {
+        message.reset();
+        long length = message.getBodyLength();
+        if (length == 0) {
+            return NO_BYTES;
+        }
+        byte[] body = new byte[Math.toIntExact(length)];
+        message.readBytes(body);
+        // Leave the body readable for anyone else holding the message
+        message.reset();
+        return ByteBuffer.wrap(body).asReadOnlyBuffer();
+    }
+
+    private static String renderMap(MapMessage message) throws JMSException {
+        Map<String, Object> entries = new LinkedHashMap<>();
+        Enumeration<?> names = message.getMapNames();
+        while (names.hasMoreElements()) {
+            String name = (String) names.nextElement();
+            Object value = message.getObject(name);
+            entries.put(name, value instanceof byte[] raw ? new String(raw, StandardCharsets.UTF_8) : value);
+        }
+        try {
+            return MAPPER.writeValueAsString(entries);
+        } catch (JsonProcessingException e) {
+            return entries.toString();
+        }
+    }
+
+    /**
+     * Charset named by the IBM MQ character set property, given as a charset name or a CCSID
+     */
+    private static Charset characterSet(Message message) {
+        try {
+            String characterSet = message.getStringProperty(IBM_CHARACTER_SET);
+            if (characterSet == null || characterSet.isBlank()) {
+                return StandardCharsets.UTF_8;
+            }
+            characterSet = characterSet.trim();
+            if (characterSet.chars().allMatch(Character::isDigit)) {
+                switch (characterSet) {
+                    case "1208":
+                        return StandardCharsets.UTF_8;
+                    case "819":
+                        return StandardCharsets.ISO_8859_1;
+                    case "367":
+                        return StandardCharsets.US_ASCII;
+                    default:
+                        characterSet = "IBM" + String.format("%03d", Integer.parseInt(characterSet));
+                }
+            }
+            return Charset.forName(characterSet);
+        } catch (JMSException | IllegalArgumentException e) {
+            logger.debug("Unsupported message character set, using UTF-8: {}", e.getMessage());
+            return StandardCharsets.UTF_8;
+        }
+    }
+
+    /**
+     * Characters of a byte buffer in which every byte is one character (ISO-8859-1), without copying
+     */
+    private static final class ByteCharSequence implements CharSequence {
+        private final ByteBuffer buffer;
+        private final int offset;
+        private final int length;
+
+        ByteCharSequence(ByteBuffer buffer, int offset, int length) {
+            this.buffer = buffer;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public char charAt(int index) {
+            if (index < 0 || index >= length) {
+                throw new IndexOutOfBoundsException(index);
+            }
+            return (char) (buffer.get(buffer.position() + offset + index) & 0xFF);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            if (start < 0 || end > length || start > end) {
+                throw new IndexOutOfBoundsException("start " + start + ", end " + end + ", length " + length);
+            }
+            return new ByteCharSequence(buffer, offset + start, end - start);
+        }
+
+        @Override
+        public String toString() {
+            byte[] chars = new byte[length];
+            buffer.get(buffer.position() + offset, chars);
+            return new String(chars, StandardCharsets.ISO_8859_1);
+        }
+    }
+}
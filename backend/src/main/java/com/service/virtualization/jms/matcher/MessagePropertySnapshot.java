@@ -0,0 +1,70 @@
+package com.service.virtualization.jms.matcher;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import jakarta.jms.DeliveryMode;
+import jakarta.jms.JMSException;
+import jakarta.jms.Message;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Properties and selector-visible headers of one message, read lazily and cached.
+ *
+ * A snapshot is created per incoming message and shared by every stub selector evaluated against it,
+ * so each property is read from the provider message at most once. Not thread-safe.
+ */
+final class MessagePropertySnapshot {
+    private static final Logger logger = LoggerFactory.getLogger(MessagePropertySnapshot.class);
+
+    // Marks a property that was read and is not set, so it is not read again
+    private static final Object ABSENT = new Object();
+
+    private final Message message;
+    private final Map<String, Object> values = new HashMap<>();
+
+    MessagePropertySnapshot(Message message) {
+        this.message = message;
+    }
+
+    /**
+     * Look up a property or header field
+     *
+     * @param name The property name, or a header name such as JMSPriority
+     * @return The value, or null if it is not set or cannot be read
+     */
+    Object get(String name) {
+        Object value = values.get(name);
+        if (value == null) {
+            value = read(name);
+            values.put(name, value != null ? value : ABSENT);
+            return value;
+        }
+        return value == ABSENT ? null : value;
+    }
+
+    private Object read(String name) {
+        try {
+            switch (name) {
+                case "JMSDeliveryMode":
+                    return message.getJMSDeliveryMode() == DeliveryMode.PERSISTENT ? "PERSISTENT" : "NON_PERSISTENT";
+                case "JMSPriority":
+                    return message.getJMSPriority();
+                case "JMSMessageID":
+                    return message.getJMSMessageID();
+                case "JMSTimestamp":
+                    return message.getJMSTimestamp();
+                case "JMSCorrelationID":
+                    return message.getJMSCorrelationID();
+                case "JMSType":
+                    return message.getJMSType();
+                default:
+                    return message.getObjectProperty(name);
+            }
+        } catch (JMSException e) {
+            logger.warn("Error reading message property {}: {}", name, e.getMessage());
+            return null;
+        }
+    }
+}
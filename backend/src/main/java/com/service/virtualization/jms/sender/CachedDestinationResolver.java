@@ -0,0 +1,52 @@
+package com.service.virtualization.jms.sender;
+
+import org.springframework.jms.support.destination.CachingDestinationResolver;
+import org.springframework.jms.support.destination.DynamicDestinationResolver;
+
+import jakarta.jms.Destination;
+import jakarta.jms.JMSException;
+import jakarta.jms.Session;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Destination resolver that resolves each queue or topic name once.
+ *
+ * Destination objects of the supported providers are plain named references, independent of the
+ * session that created them, so a resolved destination is reused for every later send instead of
+ * asking a session to create it again. The cache is bounded; names beyond the limit are resolved
+ * on every call.
+ */
+public class CachedDestinationResolver extends DynamicDestinationResolver implements CachingDestinationResolver {
+
+    private static final int CACHE_LIMIT = 1024;
+
+    private final Map<String, Destination> queues = new ConcurrentHashMap<>();
+    private final Map<String, Destination> topics = new ConcurrentHashMap<>();
+
+    @Override
+    public Destination resolveDestinationName(Session session, String destinationName, boolean pubSubDomain)
+            throws JMSException {
+        Map<String, Destination> cache = pubSubDomain ? topics : queues;
+        Destination destination = cache.get(destinationName);
+        if (destination == null) {
+            destination = super.resolveDestinationName(session, destinationName, pubSubDomain);
+            if (cache.size() < CACHE_LIMIT) {
+                cache.putIfAbsent(destinationName, destination);
+            }
+        }
+        return destination;
+    }
+
+    @Override
+    public void removeFromCache(String destinationName) {
+        queues.remove(destinationName);
+        topics.remove(destinationName);
+    }
+
+    @Override
+    public void clearCache() {
+        queues.clear();
+        topics.clear();
+    }
+}
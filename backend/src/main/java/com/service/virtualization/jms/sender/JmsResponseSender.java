@@ -0,0 +1,241 @@
+package com.service.virtualization.jms.sender;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jms.JmsException;
+import org.springframework.jms.connection.CachingConnectionFactory;
+import org.springframework.jms.core.JmsTemplate;
+import org.springframework.jms.core.MessageCreator;
+import org.springframework.jms.support.JmsUtils;
+
+import jakarta.jms.CompletionListener;
+import jakarta.jms.Destination;
+import jakarta.jms.JMSException;
+import jakarta.jms.Message;
+import jakarta.jms.MessageProducer;
+import jakarta.jms.Queue;
+import jakarta.jms.Session;
+import jakarta.jms.Topic;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends stub responses for one JMS protocol through its queue and topic JmsTemplates.
+ *
+ * The templates are expected to sit on a caching connection factory and a {@link CachedDestinationResolver},
+ * so a send reuses a cached session and producer and never resolves a destination twice. Each send is
+ * timed per destination. With async sends enabled, the producer sends with a JMS 2.0 CompletionListener
+ * and the caller does not wait for the broker's acknowledgement; providers that do not support this
+ * fall back to synchronous sends. Async sends need both templates on a {@link CachingConnectionFactory}
+ * that caches producers: closing a real producer blocks until its outstanding async sends complete, so
+ * without cached producers async sends are disabled and every send is synchronous.
+ */
+public class JmsResponseSender {
+    private static final Logger logger = LoggerFactory.getLogger(JmsResponseSender.class);
+
+    // Destinations beyond this share one set of meters, so ad hoc reply queues cannot grow the registry
+    private static final int METERED_DESTINATION_LIMIT = 256;
+    private static final String OTHER_DESTINATIONS = "other";
+
+    private final String protocol;
+    private final JmsTemplate queueTemplate;
+    private final JmsTemplate topicTemplate;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, DestinationMeters> metersByDestination = new ConcurrentHashMap<>();
+
+    private volatile boolean asyncSend;
+
+    /**
+     * @param protocol      Protocol name, used as a metric tag
+     * @param queueTemplate Template for queues
+     * @param topicTemplate Template for topics
+     * @param asyncSend     Whether to send without waiting for the broker's acknowledgement
+     * @param meterRegistry Registry for per-destination metrics, may be null
+     */
+    public JmsResponseSender(String protocol, JmsTemplate queueTemplate, JmsTemplate topicTemplate,
+                             boolean asyncSend, MeterRegistry meterRegistry) {
+        this.protocol = protocol;
+        this.queueTemplate = queueTemplate;
+        this.topicTemplate = topicTemplate;
+        this.asyncSend = asyncSend && cachesProducers(queueTemplate) && cachesProducers(topicTemplate);
+        this.meterRegistry = meterRegistry;
+        if (asyncSend && !this.asyncSend) {
+            logger.warn("{} async sends need a CachingConnectionFactory that caches producers, sending synchronously", protocol);
+        }
+    }
+
+    private static boolean cachesProducers(JmsTemplate template) {
+        return template.getConnectionFactory() instanceof CachingConnectionFactory caching && caching.isCacheProducers();
+    }
+
+    /**
+     * Send a message to a named destination
+     *
+     * @param destinationName The queue or topic name
+     * @param topic           True if the destination is a topic
+     * @param messageCreator  Creates the message
+     * @throws JmsException if the message cannot be sent
+     */
+    public void send(String destinationName, boolean topic, MessageCreator messageCreator) {
+        JmsTemplate template = topic ? topicTemplate : queueTemplate;
+        DestinationMeters meters = meters(destinationName, topic);
+        long start = System.nanoTime();
+        if (asyncSend) {
+            try {
+                template.execute(session -> {
+                    Destination destination = template.getDestinationResolver()
+                            .resolveDestinationName(session, destinationName, topic);
+                    return sendAsync(session, destination, messageCreator, meters, start);
+                });
+                return;
+            } catch (JmsException e) {
+                meters.failed();
+                throw e;
+            } catch (AsyncSendUnsupportedException e) {
+                // Fall through to a synchronous send
+            }
+        }
+        try {
+            template.send(destinationName, messageCreator);
+            meters.sent(start);
+        } catch (JmsException e) {
+            meters.failed();
+            throw e;
+        }
+    }
+
+    /**
+     * Send a message to a destination object, e.g. a message's JMSReplyTo
+     *
+     * @param destination    The destination
+     * @param messageCreator Creates the message
+     * @throws JmsException if the message cannot be sent
+     */
+    public void send(Destination destination, MessageCreator messageCreator) {
+        boolean topic = destination instanceof Topic;
+        JmsTemplate template = topic ? topicTemplate : queueTemplate;
+        DestinationMeters meters = meters(destinationName(destination), topic);
+        long start = System.nanoTime();
+        if (asyncSend) {
+            try {
+                template.execute(session -> sendAsync(session, destination, messageCreator, meters, start));
+                return;
+            } catch (JmsException e) {
+                meters.failed();
+                throw e;
+            } catch (AsyncSendUnsupportedException e) {
+                // Fall through to a synchronous send
+            }
+        }
+        try {
+            template.send(destination, messageCreator);
+            meters.sent(start);
+        } catch (JmsException e) {
+            meters.failed();
+            throw e;
+        }
+    }
+
+    private Void sendAsync(Session session, Destination destination, MessageCreator messageCreator,
+                           DestinationMeters meters, long start) throws JMSException {
+        Message message = messageCreator.createMessage(session);
+        MessageProducer producer = session.createProducer(destination);
+        try {
+            producer.send(message, new CompletionListener() {
+                @Override
+                public void onCompletion(Message sent) {
+                    meters.sent(start);
+                }
+
+                @Override
+                public void onException(Message failed, Exception e) {
+                    meters.failed();
+                    logger.error("Async {} send to {} failed: {}", protocol, destination, e.getMessage(), e);
+                }
+            });
+        } catch (UnsupportedOperationException | IllegalStateException e) {
+            logger.warn("{} provider does not support async sends, sending synchronously: {}", protocol, e.getMessage());
+            asyncSend = false;
+            throw new AsyncSendUnsupportedException();
+        } finally {
+            // Returns the producer to the session's cache; it is not closed, so this does not wait for the send
+            JmsUtils.closeMessageProducer(producer);
+        }
+        return null;
+    }
+
+    private DestinationMeters meters(String destinationName, boolean topic) {
+        String key = (topic ? "topic:" : "queue:") + destinationName;
+        DestinationMeters meters = metersByDestination.get(key);
+        if (meters != null) {
+            return meters;
+        }
+        if (metersByDestination.size() >= METERED_DESTINATION_LIMIT) {
+            destinationName = OTHER_DESTINATIONS;
+            key = (topic ? "topic:" : "queue:") + OTHER_DESTINATIONS;
+        }
+        String tag = destinationName;
+        return metersByDestination.computeIfAbsent(key, k -> DestinationMeters.create(meterRegistry, protocol, tag, topic));
+    }
+
+    private static String destinationName(Destination destination) {
+        try {
+            if (destination instanceof Queue queue) {
+                return queue.getQueueName();
+            }
+            if (destination instanceof Topic topic) {
+                return topic.getTopicName();
+            }
+        } catch (JMSException e) {
+            logger.debug("Could not read destination name: {}", e.getMessage());
+        }
+        return String.valueOf(destination);
+    }
+
+    /**
+     * Send timer and failure counter of one destination; both null without a meter registry
+     */
+    private record DestinationMeters(Timer sendTimer, Counter failures) {
+
+        static DestinationMeters create(MeterRegistry registry, String protocol, String destination, boolean topic) {
+            if (registry == null) {
+                return new DestinationMeters(null, null);
+            }
+            String type = topic ? "topic" : "queue";
+            return new DestinationMeters(
+                    Timer.builder("jms.response.send")
+                            .description("Time to send a stub response, including connection and session setup")
+                            .tags("protocol", protocol, "destination", destination, "type", type)
+                            .register(registry),
+                    Counter.builder("jms.response.failed")
+                            .description("Stub responses that could not be sent")
+                            .tags("protocol", protocol, "destination", destination, "type", type)
+                            .register(registry));
+        }
+
+        void sent(long startNanos) {
+            if (sendTimer != null) {
+                sendTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+            }
+        }
+
+        void failed() {
+            if (failures != null) {
+                failures.increment();
+            }
+        }
+    }
+
+    /**
+     * Thrown out of a session callback when the provider rejects async sends
+     */
+    private static final class AsyncSendUnsupportedException extends RuntimeException {
+        AsyncSendUnsupportedException() {
+            super(null, null, false, false);
+        }
+    }
+}
@@ -14,7 +14,6 @@ import org.springframework.transaction.annotation.Transactional;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
-import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Initializes all active Kafka stubs from the database when the application starts
@@ -69,25 +68,18 @@ public class KafkaStubInitializer implements ApplicationListener<ApplicationRead
             
             logger.info("Ensuring {} unique topics exist for active stubs", requiredTopics.size());
             
-            AtomicInteger successCount = new AtomicInteger(0);
-            AtomicInteger errorCount = new AtomicInteger(0);
-            
-            // Create all required topics
-            requiredTopics.parallelStream().forEach(topicName -> {
-                try {
-                    kafkaTopicService.createTopicIfNotExists(topicName);
-                    logger.debug("Ensured topic exists: {}", topicName);
-                    successCount.incrementAndGet();
-                } catch (Exception e) {
-                    logger.error("Failed to ensure topic '{}' exists: {}", topicName, e.getMessage());
-                    errorCount.incrementAndGet();
-                }
-            });
+            // Create all missing topics in a single request
+            KafkaTopicService.TopicCreationResult result = kafkaTopicService.ensureTopicsExist(requiredTopics);
+            int errorCount = result.failed().size();
+            int successCount = requiredTopics.size() - errorCount;
+            if (errorCount > 0) {
+                logger.error("Failed to ensure topics exist: {}", result.failed());
+            }
             
             logger.info("🔧 Kafka initialization complete. Topics ensured: {}, Failed: {}", 
-                       successCount.get(), errorCount.get());
+                       successCount, errorCount);
             
-            if (errorCount.get() > 0) {
+            if (errorCount > 0) {
                 logger.warn("⚠️ Some topics failed to initialize. Kafka stubs may not work properly until topics are created.");
                 logger.warn("💡 The auto-recovery service will continue attempting to recreate missing topics every 30 seconds.");
             } else {
@@ -1,5 +1,6 @@
 package com.service.virtualization.kafka;
 
+import com.service.virtualization.kafka.listener.KafkaStubRoutingTable;
 import com.service.virtualization.kafka.model.KafkaStub;
 import com.service.virtualization.kafka.repository.KafkaStubRepository;
 import com.service.virtualization.kafka.service.KafkaTopicService;
@@ -11,6 +12,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.context.annotation.Profile;
 
 import java.time.LocalDateTime;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 
@@ -25,10 +27,13 @@ public class KafkaStubService {
 
     private final KafkaStubRepository kafkaStubRepository;
     private final KafkaTopicService kafkaTopicService;
+    private final KafkaStubRoutingTable routingTable;
 
-    public KafkaStubService(KafkaStubRepository kafkaStubRepository, KafkaTopicService kafkaTopicService) {
+    public KafkaStubService(KafkaStubRepository kafkaStubRepository, KafkaTopicService kafkaTopicService,
+                            KafkaStubRoutingTable routingTable) {
         this.kafkaStubRepository = kafkaStubRepository;
         this.kafkaTopicService = kafkaTopicService;
+        this.routingTable = routingTable;
     }
 
     public List<KafkaStub> getAllStubs() {
@@ -90,7 +95,7 @@ public class KafkaStubService {
             kafkaStub.tags()
         );
         
-        return kafkaStubRepository.save(newStub);
+        return saveAndRoute(newStub);
     }
 
     public KafkaStub updateStubStatus(String id, StubStatus status) {
@@ -134,7 +139,7 @@ public class KafkaStubService {
             existingStub.tags()
         );
 
-        return kafkaStubRepository.save(updatedStub);
+        return saveAndRoute(updatedStub);
     }
 
     public KafkaStub updateStub(String id, KafkaStub kafkaStub) {
@@ -189,7 +194,7 @@ public class KafkaStubService {
             kafkaStub.tags()
         );
         
-        return kafkaStubRepository.save(updatedStub);
+        return saveAndRoute(updatedStub);
     }
 
     public void deleteStub(String id) {
@@ -201,11 +206,16 @@ public class KafkaStubService {
         }
 
         kafkaStubRepository.deleteById(id);
+        routingTable.remove(id);
     }
 
     public KafkaStub updateStatus(String id, StubStatus status) {
         logger.debug("Updating status of Kafka stub with id: {} to {}", id, status);
-        return kafkaStubRepository.updateStatus(id, status);
+        KafkaStub updatedStub = kafkaStubRepository.updateStatus(id, status);
+        if (updatedStub != null) {
+            routingTable.update(updatedStub);
+        }
+        return updatedStub;
     }
 
     public List<KafkaStub> getActiveStubsByRequestTopic(String topic) {
@@ -252,7 +262,16 @@ public class KafkaStubService {
             stub.tags()
         );
 
-        return kafkaStubRepository.save(updatedStub);
+        return saveAndRoute(updatedStub);
+    }
+
+    /**
+     * Save a stub and apply it to the listener's routing table
+     */
+    private KafkaStub saveAndRoute(KafkaStub stub) {
+        KafkaStub savedStub = kafkaStubRepository.save(stub);
+        routingTable.update(savedStub);
+        return savedStub;
     }
 
     /**
@@ -263,21 +282,12 @@ public class KafkaStubService {
     private void ensureTopicsExist(KafkaStub kafkaStub) {
         logger.debug("Ensuring topics exist for stub: {}", kafkaStub.name());
         
-        // Collect unique topic names
-        String requestTopic = kafkaStub.requestTopic();
-        String responseTopic = kafkaStub.responseTopic();
-        
-        if (requestTopic != null && !requestTopic.trim().isEmpty()) {
-            logger.debug("Ensuring request topic exists: {}", requestTopic);
-            kafkaTopicService.createTopicIfNotExists(requestTopic.trim());
-        }
+        // Request and response topics are checked against cached metadata and created in one request
+        KafkaTopicService.TopicCreationResult result = kafkaTopicService.ensureTopicsExist(
+            Arrays.asList(kafkaStub.requestTopic(), kafkaStub.responseTopic()));
         
-        // Only create response topic if it's different from request topic
-        if (responseTopic != null && 
-            !responseTopic.trim().isEmpty() && 
-            !responseTopic.trim().equals(requestTopic)) {
-            logger.debug("Ensuring response topic exists: {}", responseTopic);
-            kafkaTopicService.createTopicIfNotExists(responseTopic.trim());
+        if (!result.failed().isEmpty()) {
+            throw new RuntimeException("Failed to create topics: " + result.failed());
         }
     }
 } 
\ No newline at end of file
@@ -5,28 +5,33 @@ import com.service.virtualization.kafka.model.KafkaStub;
 import com.service.virtualization.kafka.service.KafkaMessageService;
 import com.service.virtualization.kafka.service.KafkaCallbackService;
 import com.service.virtualization.kafka.service.KafkaTopicService;
+import com.service.virtualization.latency.LatencySimulator;
 import com.service.virtualization.model.StubStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Profile;
-import org.springframework.kafka.annotation.KafkaListener;
-import org.springframework.kafka.support.KafkaHeaders;
-import org.springframework.messaging.handler.annotation.Header;
-import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.HashSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
-import java.util.regex.Pattern;
 
 /**
  * Service to listen to Kafka topics and process messages based on stubs
@@ -41,107 +46,149 @@ public class KafkaStubListenerService {
     private final KafkaMessageService kafkaMessageService;
     private final KafkaCallbackService kafkaCallbackService;
     private final KafkaTopicService kafkaTopicService;
-    private final RestTemplate restTemplate;
+    private final KafkaStubRoutingTable routingTable;
+    private final LatencySimulator latencySimulator;
     private final ScheduledExecutorService scheduler;
     
+    // Records of one batch are spread over this many lanes by key, each lane processed in order
+    private final int processingParallelism;
+    private final ExecutorService laneExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Counter recordsProcessed;
+    private final Timer batchTimer;
+    
     @Autowired
     public KafkaStubListenerService(
             KafkaStubRepository kafkaStubRepository,
             KafkaMessageService kafkaMessageService,
             KafkaCallbackService kafkaCallbackService,
-            KafkaTopicService kafkaTopicService) {
+            KafkaTopicService kafkaTopicService,
+            KafkaStubRoutingTable routingTable,
+            LatencySimulator latencySimulator,
+            @Value("${kafka.consumer.processing-parallelism:8}") int processingParallelism,
+            ObjectProvider<MeterRegistry> meterRegistry) {
         this.kafkaStubRepository = kafkaStubRepository;
+        this.routingTable = routingTable;
+        this.processingParallelism = Math.max(1, processingParallelism);
+        
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        this.recordsProcessed = registry != null
+                ? Counter.builder("kafka.stub.records.processed").description("Records processed by the Kafka stub listener").register(registry)
+                : null;
+        this.batchTimer = registry != null
+                ? Timer.builder("kafka.stub.batch.duration").description("Time to process one consumed batch").register(registry)
+                : null;
         this.kafkaMessageService = kafkaMessageService;
         this.kafkaCallbackService = kafkaCallbackService;
         this.kafkaTopicService = kafkaTopicService;
-        this.restTemplate = new RestTemplate();
-        this.scheduler = Executors.newScheduledThreadPool(5);
+        this.latencySimulator = latencySimulator;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor();
         
         // Start auto-recovery check
         startPeriodicTopicRecovery();
     }
     
     /**
-     * Kafka listener method
-     * Uses a pattern to match multiple topics
+     * Kafka listener method, subscribed by {@link KafkaStubSubscriptionManager} to the request topics
+     * of active stubs. Receives each poll as a batch. Records are processed in parallel lanes keyed
+     * by record key (or partition for keyless records), so records with the same key keep their
+     * order; offsets are committed once the batch returns.
+     */
+    public void onMessages(List<ConsumerRecord<String, String>> records) {
+        long start = System.nanoTime();
+        
+        if (records.size() == 1 || processingParallelism == 1) {
+            records.forEach(this::processRecord);
+        } else {
+            Map<Integer, List<ConsumerRecord<String, String>>> lanes = new HashMap<>();
+            for (ConsumerRecord<String, String> record : records) {
+                int lane = Math.floorMod(record.key() != null
+                        ? Objects.hash(record.topic(), record.key())
+                        : Objects.hash(record.topic(), record.partition()), processingParallelism);
+                lanes.computeIfAbsent(lane, l -> new ArrayList<>()).add(record);
+            }
+            
+            List<Future<?>> futures = new ArrayList<>(lanes.size());
+            for (List<ConsumerRecord<String, String>> lane : lanes.values()) {
+                futures.add(laneExecutor.submit(() -> lane.forEach(this::processRecord)));
+            }
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while processing Kafka batch", e);
+                } catch (ExecutionException e) {
+                    logger.error("Error processing Kafka batch lane: {}", e.getCause().getMessage(), e.getCause());
+                }
+            }
+        }
+        
+        if (recordsProcessed != null) {
+            recordsProcessed.increment(records.size());
+            batchTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+    
+    /**
+     * Process a single consumed record; failures are logged so one bad record does not redeliver the batch
+     */
+    private void processRecord(ConsumerRecord<String, String> record) {
+        try {
+            onMessage(record.value(), record.topic(), record.key(), record);
+        } catch (Exception e) {
+            logger.error("Error processing record from {}-{}@{}: {}",
+                    record.topic(), record.partition(), record.offset(), e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Route a record to the active stubs of its topic
      */
-    @KafkaListener(topicPattern = ".*", groupId = "${kafka.consumer.group-id:service-virtualization}")
-    public void onMessage(
-            @Payload String message,
-            @Header(KafkaHeaders.RECEIVED_TOPIC) String topic,
-            @Header(KafkaHeaders.RECEIVED_KEY) String key,
-            ConsumerRecord<String, String> record) {
+    private void onMessage(String message, String topic, String key, ConsumerRecord<String, String> record) {
         
-        logger.info("Received message on topic: {}, with key: {}", topic, key);
+        logger.debug("Received message on topic: {}, with key: {}", topic, key);
         
-        // Find active stubs for this request topic
-        List<KafkaStub> stubs = kafkaStubRepository.findActiveStubsByRequestTopic(topic);
+        // Find active stubs for this request topic in the in-memory routing table
+        List<KafkaStubRoutingTable.Route> routes = routingTable.routesFor(topic);
         
-        if (stubs.isEmpty()) {
-            logger.info("No active stubs found for topic: {}", topic);
+        if (routes.isEmpty()) {
+            logger.debug("No active stubs found for topic: {}", topic);
             return;
         }
         
         // Process each matching stub
-        for (KafkaStub stub : stubs) {
-            processStub(stub, message, key, topic, record);
+        for (KafkaStubRoutingTable.Route route : routes) {
+            processStub(route, message, key, topic, record);
         }
     }
     
     /**
      * Process stub based on message content
      */
-    private void processStub(KafkaStub stub, String message, String key, String topic, ConsumerRecord<String, String> record) {
-        // Skip if key pattern doesn't match
-        if (stub.keyPattern() != null && !stub.keyPattern().isEmpty() && key != null) {
-            if (!Pattern.matches(stub.keyPattern(), key)) {
-                logger.debug("Key pattern didn't match for stub: {}", stub.name());
-                return;
-            }
-        }
+    private void processStub(KafkaStubRoutingTable.Route route, String message, String key, String topic, ConsumerRecord<String, String> record) {
+        KafkaStub stub = route.stub();
         
-        // Skip if value pattern doesn't match
-        if (stub.valuePattern() != null && !stub.valuePattern().isEmpty()) {
-            if (!Pattern.matches(stub.valuePattern(), message)) {
-                logger.debug("Value pattern didn't match for stub: {}", stub.name());
-                return;
-            }
+        // Skip if key or value pattern doesn't match
+        if (!route.matches(key, message)) {
+            logger.debug("Key/value pattern didn't match for stub: {}", stub.name());
+            return;
         }
         
         logger.info("Stub matched: {}", stub.name());
         
-        // Handle response according to stub configuration
+        // Handle response according to stub configuration, after the stub's simulated latency
+        long latency = stub.latency() != null ? stub.latency() : 0;
         if ("direct".equals(stub.responseType())) {
-            // Add latency if specified
-            if (stub.latency() != null && stub.latency() > 0) {
-                delayedResponse(stub, topic);
-            } else {
-                sendResponse(stub, topic);
-            }
+            latencySimulator.schedule(stub.id(), latency, () -> sendResponse(stub, topic));
         } else if ("callback".equals(stub.responseType())) {
-            // Execute HTTP callback which will return response data and publish to Kafka
-            if (stub.latency() != null && stub.latency() > 0) {
-                // Delayed callback
-                scheduler.schedule(() -> {
-                    kafkaCallbackService.executeCallbackAsync(stub, topic, key, message);
-                }, stub.latency(), TimeUnit.MILLISECONDS);
-            } else {
-                // Immediate callback
-                kafkaCallbackService.executeCallbackAsync(stub, topic, key, message);
+            // Execute HTTP callback which will return response data and publish to Kafka;
+            // the callback service applies the latency so the callback counts against the stub's queue meanwhile
+            if (kafkaCallbackService.executeCallbackAsync(stub, topic, key, message)) {
+                logger.info("Callback execution initiated for stub: {}", stub.name());
             }
-            logger.info("Callback execution initiated for stub: {}", stub.name());
         }
     }
     
-    /**
-     * Send delayed response
-     */
-    private void delayedResponse(KafkaStub stub, String topic) {
-        scheduler.schedule(() -> {
-            sendResponse(stub, topic);
-        }, stub.latency(), TimeUnit.MILLISECONDS);
-    }
-    
     /**
      * Send response message
      */
@@ -158,18 +205,15 @@ public class KafkaStubListenerService {
             responseTopic = requestTopic + "-response";
         }
         
-        // Create empty headers map (could be populated from stub configuration)
-        Map<String, String> headers = new HashMap<>();
-        
-        // Publish the response message with responseKey from stub
+        // Publish the response message with responseKey from stub (no headers configured on stubs)
         kafkaMessageService.publishMessage(
             responseTopic,
             stub.responseKey(), // Use responseKey from stub instead of null
             stub.responseContent(),
-            headers
+            Map.of()
         );
         
-        logger.info("Response sent to topic: {} with key: {}", responseTopic, stub.responseKey());
+        logger.debug("Response sent to topic: {} with key: {}", responseTopic, stub.responseKey());
     }
     
     /**
@@ -213,20 +257,15 @@ public class KafkaStubListenerService {
                 }
             }
             
-            // Check and create missing topics
-            int createdCount = 0;
-            int errorCount = 0;
-            for (String topicName : requiredTopics) {
-                try {
-                    if (!kafkaTopicService.topicExists(topicName)) {
-                        kafkaTopicService.createTopicIfNotExists(topicName);
-                        createdCount++;
-                        logger.warn("🔧 AUTO-RECOVERY: Recreated missing topic '{}' (Kafka may have restarted)", topicName);
-                    }
-                } catch (Exception e) {
-                    errorCount++;
-                    logger.error("❌ AUTO-RECOVERY: Failed to recreate topic '{}': {}", topicName, e.getMessage());
-                }
+            // One fresh metadata fetch, then create every missing topic in a single request
+            KafkaTopicService.TopicCreationResult result = kafkaTopicService.recreateMissingTopics(requiredTopics);
+            int createdCount = result.created().size();
+            int errorCount = result.failed().size();
+            for (String topicName : result.created()) {
+                logger.warn("🔧 AUTO-RECOVERY: Recreated missing topic '{}' (Kafka may have restarted)", topicName);
+            }
+            for (String topicName : result.failed()) {
+                logger.error("❌ AUTO-RECOVERY: Failed to recreate topic '{}'", topicName);
             }
             
             if (createdCount > 0) {
@@ -237,6 +276,11 @@ public class KafkaStubListenerService {
             if (errorCount > 0) {
                 logger.error("❌ AUTO-RECOVERY ERRORS: {} topics failed to recreate. Check Kafka broker status.", errorCount);
             }
+
+            if (!result.unverified().isEmpty()) {
+                logger.warn("⚠️ AUTO-RECOVERY SKIPPED: Kafka topic metadata unavailable, {} topics not checked. Will retry on next run.",
+                           result.unverified().size());
+            }
             
         } catch (Exception e) {
             logger.error("💥 Error during automatic topic recovery: {}", e.getMessage(), e);
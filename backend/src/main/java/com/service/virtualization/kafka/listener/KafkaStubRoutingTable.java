@@ -0,0 +1,177 @@
+package com.service.virtualization.kafka.listener;
+
+import com.service.virtualization.kafka.model.KafkaStub;
+import com.service.virtualization.kafka.repository.KafkaStubRepository;
+import com.service.virtualization.model.StubStatus;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * In-memory routing table from request topic to the active Kafka stubs listening on it.
+ *
+ * The table is an immutable snapshot replaced on every change, so the per-record path reads
+ * it without locking and never touches the database. It is updated by {@link com.service.virtualization.kafka.KafkaStubService}
+ * whenever a stub is saved or deleted, and reloaded from the repository periodically to pick up
+ * changes made by other instances.
+ * Only active when kafka-disabled profile is NOT active
+ */
+@Component
+@Profile("!kafka-disabled")
+public class KafkaStubRoutingTable {
+    private static final Logger logger = LoggerFactory.getLogger(KafkaStubRoutingTable.class);
+
+    private final KafkaStubRepository kafkaStubRepository;
+
+    private volatile Map<String, List<Route>> routesByTopic = Map.of();
+    private final List<Runnable> topicListeners = new CopyOnWriteArrayList<>();
+
+    public KafkaStubRoutingTable(KafkaStubRepository kafkaStubRepository) {
+        this.kafkaStubRepository = kafkaStubRepository;
+    }
+
+    @PostConstruct
+    public void init() {
+        reload();
+    }
+
+    /**
+     * Reload the table from the repository
+     */
+    @Scheduled(initialDelayString = "${kafka.routing.refresh-interval:60000}",
+               fixedDelayString = "${kafka.routing.refresh-interval:60000}")
+    public void reload() {
+        try {
+            List<KafkaStub> activeStubs = kafkaStubRepository.findAll().stream()
+                    .filter(stub -> stub.status() == StubStatus.ACTIVE)
+                    .toList();
+            replaceAll(activeStubs);
+            logger.debug("Kafka routing table reloaded: {} active stubs on {} topics",
+                    activeStubs.size(), routesByTopic.size());
+        } catch (Exception e) {
+            logger.warn("Failed to reload Kafka routing table, keeping current routes: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * @return the routes for a request topic, empty if no active stub listens on it
+     */
+    public List<Route> routesFor(String topic) {
+        return routesByTopic.getOrDefault(topic, List.of());
+    }
+
+    /**
+     * @return the request topics that have at least one active stub
+     */
+    public Set<String> topics() {
+        return routesByTopic.keySet();
+    }
+
+    /**
+     * Register a callback run whenever the set of request topics changes
+     */
+    public void addTopicsListener(Runnable listener) {
+        topicListeners.add(listener);
+    }
+
+    /**
+     * Add, replace or remove a stub according to its current state
+     */
+    public synchronized void update(KafkaStub stub) {
+        Map<String, List<Route>> routes = copyWithout(stub.id());
+        if (stub.status() == StubStatus.ACTIVE && hasRequestTopic(stub)) {
+            routes.computeIfAbsent(stub.requestTopic(), topic -> new ArrayList<>()).add(Route.compile(stub));
+        }
+        publish(routes);
+    }
+
+    /**
+     * Remove a stub
+     */
+    public synchronized void remove(String stubId) {
+        publish(copyWithout(stubId));
+    }
+
+    private synchronized void replaceAll(Collection<KafkaStub> activeStubs) {
+        Map<String, List<Route>> routes = new HashMap<>();
+        for (KafkaStub stub : activeStubs) {
+            if (hasRequestTopic(stub)) {
+                routes.computeIfAbsent(stub.requestTopic(), topic -> new ArrayList<>()).add(Route.compile(stub));
+            }
+        }
+        publish(routes);
+    }
+
+    private Map<String, List<Route>> copyWithout(String stubId) {
+        Map<String, List<Route>> routes = new HashMap<>();
+        routesByTopic.forEach((topic, topicRoutes) -> {
+            List<Route> remaining = new ArrayList<>(topicRoutes);
+            remaining.removeIf(route -> route.stub().id() != null && route.stub().id().equals(stubId));
+            if (!remaining.isEmpty()) {
+                routes.put(topic, remaining);
+            }
+        });
+        return routes;
+    }
+
+    private void publish(Map<String, List<Route>> routes) {
+        Map<String, List<Route>> snapshot = new HashMap<>();
+        routes.forEach((topic, topicRoutes) -> snapshot.put(topic, List.copyOf(topicRoutes)));
+
+        boolean topicsChanged = !snapshot.keySet().equals(routesByTopic.keySet());
+        routesByTopic = Map.copyOf(snapshot);
+        if (topicsChanged) {
+            topicListeners.forEach(Runnable::run);
+        }
+    }
+
+    private boolean hasRequestTopic(KafkaStub stub) {
+        return stub.requestTopic() != null && !stub.requestTopic().trim().isEmpty();
+    }
+
+    /**
+     * An active stub with its key and value patterns compiled
+     */
+    public record Route(KafkaStub stub, Pattern keyPattern, Pattern valuePattern, boolean invalid) {
+
+        static Route compile(KafkaStub stub) {
+            try {
+                return new Route(stub, compile(stub.keyPattern()), compile(stub.valuePattern()), false);
+            } catch (PatternSyntaxException e) {
+                logger.warn("Invalid key/value pattern on Kafka stub {}, it will not match any record: {}",
+                        stub.name(), e.getMessage());
+                return new Route(stub, null, null, true);
+            }
+        }
+
+        private static Pattern compile(String pattern) {
+            return pattern != null && !pattern.isEmpty() ? Pattern.compile(pattern) : null;
+        }
+
+        /**
+         * Whether a record matches this stub's key and value patterns
+         */
+        public boolean matches(String key, String value) {
+            if (invalid) {
+                return false;
+            }
+            if (keyPattern != null && key != null && !keyPattern.matcher(key).matches()) {
+                return false;
+            }
+            return valuePattern == null || valuePattern.matcher(value != null ? value : "").matches();
+        }
+    }
+}
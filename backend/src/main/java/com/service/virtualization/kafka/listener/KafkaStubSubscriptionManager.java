@@ -0,0 +1,271 @@
+package com.service.virtualization.kafka.listener;
+
+import com.service.virtualization.kafka.service.KafkaCallbackService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.consumer.OffsetAndTimestamp;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Profile;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.listener.BatchMessageListener;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.listener.ConsumerAwareRebalanceListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the Kafka stub listener subscribed to exactly the request topics of active stubs.
+ *
+ * Instead of subscribing to every topic on the cluster, a listener container is created for
+ * the current set of request topics in the routing table. Topic changes are collected for
+ * kafka.routing.resubscribe-delay and applied together, and the container is only replaced when a
+ * topic is added; removed topics stay subscribed until then, their records matching no stub.
+ * A topic added while running is read from the time it was added, not from an old committed offset
+ * or the start of its retention, and a group without committed offsets starts at the end.
+ * The container's partitions are paused while the callback service has too many callbacks pending.
+ * Only active when kafka-disabled profile is NOT active
+ */
+@Component
+@Profile("!kafka-disabled")
+public class KafkaStubSubscriptionManager implements ApplicationListener<ApplicationReadyEvent> {
+    private static final Logger logger = LoggerFactory.getLogger(KafkaStubSubscriptionManager.class);
+
+    private static final String CONTAINER_NAME = "kafkaStubListener";
+
+    private final ConcurrentKafkaListenerContainerFactory<String, String> containerFactory;
+    private final KafkaStubRoutingTable routingTable;
+    private final KafkaStubListenerService listenerService;
+    private final KafkaCallbackService callbackService;
+
+    private final long resubscribeDelayMs;
+
+    // Resubscriptions run one at a time, off the thread that changed the stubs
+    private final ScheduledExecutorService refreshExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "kafka-subscription-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private ConcurrentMessageListenerContainer<String, String> container;
+    private Set<String> subscribedTopics = Set.of();
+    private volatile boolean started;
+    private boolean backpressurePaused;
+    // Time of the first topic change not yet applied, 0 if none
+    private final AtomicLong pendingChangeSince = new AtomicLong();
+
+    public KafkaStubSubscriptionManager(
+            @Qualifier("kafkaBatchListenerContainerFactory") ConcurrentKafkaListenerContainerFactory<String, String> containerFactory,
+            KafkaStubRoutingTable routingTable,
+            KafkaStubListenerService listenerService,
+            KafkaCallbackService callbackService,
+            @Value("${kafka.routing.resubscribe-delay:2000}") long resubscribeDelayMs) {
+        this.resubscribeDelayMs = Math.max(0, resubscribeDelayMs);
+        this.containerFactory = containerFactory;
+        this.routingTable = routingTable;
+        this.listenerService = listenerService;
+        this.callbackService = callbackService;
+    }
+
+    @PostConstruct
+    public void init() {
+        routingTable.addTopicsListener(() -> {
+            if (started) {
+                scheduleRefresh();
+            }
+        });
+        // Applied on the refresh thread: pausing from a listener thread could block on a container being stopped
+        callbackService.addBackpressureListener(pause -> refreshExecutor.execute(() -> applyBackpressure(pause)));
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        started = true;
+        refreshExecutor.execute(this::refresh);
+    }
+
+    /**
+     * Apply topic changes after the resubscribe delay, together with any others made meanwhile
+     */
+    private void scheduleRefresh() {
+        if (!pendingChangeSince.compareAndSet(0, System.currentTimeMillis())) {
+            return;
+        }
+        try {
+            refreshExecutor.schedule(this::refresh, resubscribeDelayMs, TimeUnit.MILLISECONDS);
+        } catch (RuntimeException e) {
+            pendingChangeSince.set(0);
+            logger.warn("Could not schedule Kafka stub listener resubscription: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Resubscribe if an active request topic is not subscribed yet
+     */
+    public synchronized void refresh() {
+        long changedSince = pendingChangeSince.getAndSet(0);
+
+        Set<String> topics = new TreeSet<>(routingTable.topics());
+        if (container != null && subscribedTopics.containsAll(topics)) {
+            return;
+        }
+        if (topics.isEmpty()) {
+            logger.info("No active Kafka stubs, stub listener is not subscribed to any topic");
+            subscribedTopics = Set.of();
+            return;
+        }
+
+        // Topics added while running; on the first subscription committed offsets are resumed
+        Set<String> addedTopics = new HashSet<>();
+        if (changedSince != 0) {
+            addedTopics.addAll(topics);
+            addedTopics.removeAll(subscribedTopics);
+        }
+
+        stopContainer();
+
+        try {
+            ConcurrentMessageListenerContainer<String, String> newContainer =
+                    containerFactory.createContainer(topics.toArray(String[]::new));
+            newContainer.setBeanName(CONTAINER_NAME);
+            newContainer.setupMessageListener((BatchMessageListener<String, String>) listenerService::onMessages);
+            // Partitions the group never consumed start at the end rather than replaying their retention
+            newContainer.getContainerProperties().getKafkaConsumerProperties()
+                    .setProperty(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "latest");
+            if (!addedTopics.isEmpty()) {
+                newContainer.getContainerProperties().setConsumerRebalanceListener(
+                        new SkipBacklogListener(addedTopics, changedSince));
+            }
+            newContainer.start();
+            if (backpressurePaused) {
+                newContainer.pause();
+            }
+
+            container = newContainer;
+            subscribedTopics = Set.copyOf(topics);
+            logger.info("Kafka stub listener subscribed to {} topics: {}", topics.size(), topics);
+        } catch (Exception e) {
+            subscribedTopics = Set.of();
+            logger.error("Failed to subscribe Kafka stub listener to {}: {}", topics, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Pause or resume the subscribed partitions; the consumer keeps polling so the group membership is kept
+     */
+    private synchronized void applyBackpressure(boolean pause) {
+        backpressurePaused = pause;
+        if (container == null) {
+            return;
+        }
+        if (pause) {
+            container.pause();
+            logger.warn("Kafka stub listener paused until the callback backlog drains");
+        } else {
+            container.resume();
+            logger.info("Kafka stub listener resumed");
+        }
+    }
+
+    /**
+     * @return the topics the stub listener is currently subscribed to
+     */
+    public synchronized Set<String> getSubscribedTopics() {
+        return subscribedTopics;
+    }
+
+    /**
+     * Moves the partitions of newly added topics, on their first assignment, to the first record produced
+     * since the topic was added, and commits that position so later rebalances do not go back further
+     */
+    private static final class SkipBacklogListener implements ConsumerAwareRebalanceListener {
+        private final Set<String> addedTopics;
+        private final long since;
+        private final Set<TopicPartition> positioned = ConcurrentHashMap.newKeySet();
+
+        SkipBacklogListener(Set<String> addedTopics, long since) {
+            this.addedTopics = Set.copyOf(addedTopics);
+            this.since = since;
+        }
+
+        @Override
+        public void onPartitionsAssigned(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+            Map<TopicPartition, Long> timestamps = new HashMap<>();
+            for (TopicPartition partition : partitions) {
+                if (addedTopics.contains(partition.topic()) && positioned.add(partition)) {
+                    timestamps.put(partition, since);
+                }
+            }
+            if (timestamps.isEmpty()) {
+                return;
+            }
+
+            try {
+                Map<TopicPartition, OffsetAndTimestamp> found = consumer.offsetsForTimes(timestamps);
+                List<TopicPartition> toEnd = new ArrayList<>();
+                for (TopicPartition partition : timestamps.keySet()) {
+                    OffsetAndTimestamp offset = found.get(partition);
+                    if (offset != null) {
+                        consumer.seek(partition, offset.offset());
+                    } else {
+                        toEnd.add(partition);
+                    }
+                }
+                if (!toEnd.isEmpty()) {
+                    consumer.seekToEnd(toEnd);
+                }
+
+                Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+                for (TopicPartition partition : timestamps.keySet()) {
+                    offsets.put(partition, new OffsetAndMetadata(consumer.position(partition)));
+                }
+                consumer.commitSync(offsets);
+                logger.info("Kafka stub listener starts newly added partitions at {}", offsets);
+            } catch (Exception e) {
+                // Leave them at the committed offset rather than fail the assignment
+                timestamps.keySet().forEach(positioned::remove);
+                logger.warn("Could not skip the backlog of newly added partitions {}: {}",
+                        timestamps.keySet(), e.getMessage());
+            }
+        }
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        started = false;
+        refreshExecutor.shutdownNow();
+        stopContainer();
+    }
+
+    private void stopContainer() {
+        if (container != null) {
+            try {
+                container.stop();
+            } catch (Exception e) {
+                logger.warn("Error stopping Kafka stub listener container: {}", e.getMessage());
+            }
+            container = null;
+        }
+    }
+}
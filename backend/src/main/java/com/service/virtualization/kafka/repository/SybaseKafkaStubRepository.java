@@ -31,13 +31,14 @@ public class SybaseKafkaStubRepository implements KafkaStubRepository {
     private final ObjectMapper objectMapper;
     
     // SQL statements
-    private static final String INSERT_STUB = "INSERT INTO kafka_stubs (stub_data) VALUES (?)";
-    private static final String UPDATE_STUB = "UPDATE kafka_stubs SET stub_data = ? WHERE id = ?";
+    // status, user_id and request_topic mirror the JSON so lookups can use their indexes
+    private static final String INSERT_STUB = "INSERT INTO kafka_stubs (stub_data, status, user_id, request_topic) VALUES (?, ?, ?, ?)";
+    private static final String UPDATE_STUB = "UPDATE kafka_stubs SET stub_data = ?, status = ?, user_id = ?, request_topic = ? WHERE id = ?";
     private static final String SELECT_STUB_BY_ID = "SELECT id, stub_data FROM kafka_stubs WHERE id = ?";
     private static final String SELECT_ALL_STUBS = "SELECT id, stub_data FROM kafka_stubs";
-    private static final String SELECT_STUBS_BY_USER_ID = "SELECT id, stub_data FROM kafka_stubs WHERE JSON_VALUE(stub_data, '$.userId') = ?";
-    private static final String SELECT_STUBS_BY_TOPIC_AND_STATUS = "SELECT id, stub_data FROM kafka_stubs WHERE JSON_VALUE(stub_data, '$.requestTopic') = ? AND JSON_VALUE(stub_data, '$.status') = ?";
-    private static final String SELECT_ACTIVE_STUBS_BY_REQUEST_TOPIC = "SELECT id, stub_data FROM kafka_stubs WHERE JSON_VALUE(stub_data, '$.requestTopic') = ? AND JSON_VALUE(stub_data, '$.status') = 'ACTIVE'";
+    private static final String SELECT_STUBS_BY_USER_ID = "SELECT id, stub_data FROM kafka_stubs WHERE user_id = ?";
+    private static final String SELECT_STUBS_BY_TOPIC_AND_STATUS = "SELECT id, stub_data FROM kafka_stubs WHERE request_topic = ? AND status = ?";
+    private static final String SELECT_ACTIVE_STUBS_BY_REQUEST_TOPIC = "SELECT id, stub_data FROM kafka_stubs WHERE request_topic = ? AND status = 'ACTIVE'";
     private static final String DELETE_STUB_BY_ID = "DELETE FROM kafka_stubs WHERE id = ?";
     private static final String EXISTS_STUB_BY_ID = "SELECT COUNT(*) FROM kafka_stubs WHERE id = ?";
     
@@ -90,9 +91,12 @@ public class SybaseKafkaStubRepository implements KafkaStubRepository {
                 KeyHolder keyHolder = new GeneratedKeyHolder();
                 jdbcTemplate.update(connection -> {
                     PreparedStatement ps = connection.prepareStatement(
-                        "INSERT INTO kafka_stubs (stub_data) VALUES (?)", 
+                        INSERT_STUB, 
                         Statement.RETURN_GENERATED_KEYS);
                     ps.setString(1, stubJson);
+                    ps.setString(2, statusName(stubWithTimestamps));
+                    ps.setString(3, stubWithTimestamps.userId());
+                    ps.setString(4, stubWithTimestamps.requestTopic());
                     return ps;
                 }, keyHolder);
                 
@@ -134,7 +138,8 @@ public class SybaseKafkaStubRepository implements KafkaStubRepository {
                 
                 // Update the JSON with the generated ID
                 String updatedStubJson = objectMapper.writeValueAsString(finalStub);
-                jdbcTemplate.update(UPDATE_STUB, updatedStubJson, generatedId);
+                jdbcTemplate.update(UPDATE_STUB, updatedStubJson, statusName(finalStub), finalStub.userId(),
+                        finalStub.requestTopic(), generatedId);
                 
                 return finalStub;
             } else {
@@ -172,7 +177,8 @@ public class SybaseKafkaStubRepository implements KafkaStubRepository {
                 );
                 
                 String stubJson = objectMapper.writeValueAsString(updatedStub);
-                jdbcTemplate.update(UPDATE_STUB, stubJson, kafkaStub.id());
+                jdbcTemplate.update(UPDATE_STUB, stubJson, statusName(updatedStub), updatedStub.userId(),
+                        updatedStub.requestTopic(), kafkaStub.id());
                 return updatedStub;
             }
         } catch (JsonProcessingException e) {
@@ -296,7 +302,7 @@ public class SybaseKafkaStubRepository implements KafkaStubRepository {
 
     @Override
     public List<KafkaStub> findByUserIdAndStatus(String userId, StubStatus status) {
-        String sql = "SELECT id, stub_data FROM kafka_stubs WHERE JSON_VALUE(stub_data, '$.userId') = ? AND JSON_VALUE(stub_data, '$.status') = ?";
+        String sql = "SELECT id, stub_data FROM kafka_stubs WHERE user_id = ? AND status = ?";
         return jdbcTemplate.query(sql, 
             (rs, rowNum) -> {
                 try {
@@ -316,7 +322,7 @@ public class SybaseKafkaStubRepository implements KafkaStubRepository {
 
     @Override
     public List<KafkaStub> findByTopic(String topic) {
-        String sql = "SELECT id, stub_data FROM kafka_stubs WHERE JSON_VALUE(stub_data, '$.requestTopic') = ?";
+        String sql = "SELECT id, stub_data FROM kafka_stubs WHERE request_topic = ?";
         return jdbcTemplate.query(sql, 
             (rs, rowNum) -> {
                 try {
@@ -331,7 +337,7 @@ public class SybaseKafkaStubRepository implements KafkaStubRepository {
 
     @Override
     public List<KafkaStub> findByTopicAndStatus(String topic, StubStatus status) {
-        String sql = "SELECT id, stub_data FROM kafka_stubs WHERE JSON_VALUE(stub_data, '$.requestTopic') = ? AND JSON_VALUE(stub_data, '$.status') = ?";
+        String sql = "SELECT id, stub_data FROM kafka_stubs WHERE request_topic = ? AND status = ?";
         return jdbcTemplate.query(sql, 
             (rs, rowNum) -> {
                 try {
@@ -362,4 +368,8 @@ public class SybaseKafkaStubRepository implements KafkaStubRepository {
                 }
             }, topic);
     }
-} 
\ No newline at end of file
+
+    private static String statusName(KafkaStub stub) {
+        return stub.status() != null ? stub.status().name() : null;
+    }
+}
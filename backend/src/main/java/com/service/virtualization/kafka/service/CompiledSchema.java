@@ -0,0 +1,568 @@
+package com.service.virtualization.kafka.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.NullNode;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+
+/**
+ * A Schema Registry schema parsed once into a tree of validators.
+ *
+ * This is a structural check of the JSON messages the stubs publish, not a complete Avro or JSON
+ * Schema implementation. Avro schemas are checked against the plain JSON form of the message
+ * (records, enums, arrays, maps, unions, named types and primitives), without Avro's JSON encoding
+ * or logical types. JSON Schemas support the commonly used keywords: type, properties, required,
+ * additionalProperties, items, enum, const, numeric and length bounds (including draft-4 boolean
+ * exclusiveMinimum/exclusiveMaximum), pattern, allOf, anyOf and oneOf. A JSON Schema that uses any
+ * other validation keyword ($ref, not, if/then/else, ...) cannot be checked faithfully, so messages
+ * against it are only checked to be well-formed JSON; {@link #unsupportedKeywords()} lists the
+ * keywords so callers can report it. Protobuf schemas only check that the message is well-formed JSON.
+ */
+public final class CompiledSchema {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static final Validator ANY = (node, path) -> null;
+
+    /**
+     * JSON Schema keywords that constrain instances but are not implemented here
+     */
+    private static final Set<String> UNSUPPORTED_JSON_KEYWORDS = Set.of(
+            "$ref", "$dynamicRef", "$recursiveRef", "not", "if", "then", "else",
+            "patternProperties", "propertyNames", "dependencies", "dependentRequired", "dependentSchemas",
+            "minProperties", "maxProperties", "uniqueItems", "contains", "minContains", "maxContains",
+            "prefixItems", "additionalItems", "unevaluatedProperties", "unevaluatedItems", "multipleOf");
+
+    private final int id;
+    private final String schemaType;
+    private final String schema;
+    private final Validator validator;
+    private final Set<String> unsupportedKeywords;
+
+    private CompiledSchema(int id, String schemaType, String schema, Validator validator, Set<String> unsupportedKeywords) {
+        this.id = id;
+        this.schemaType = schemaType;
+        this.schema = schema;
+        this.validator = validator;
+        this.unsupportedKeywords = unsupportedKeywords;
+    }
+
+    /**
+     * Parse and compile a schema
+     *
+     * @param id         The registry schema ID, or -1 if unknown
+     * @param schemaType The registry schema type (AVRO, JSON or PROTOBUF); AVRO if null
+     * @param schema     The schema text
+     * @return The compiled schema
+     * @throws IllegalArgumentException if the schema cannot be parsed
+     */
+    public static CompiledSchema compile(int id, String schemaType, String schema) {
+        String type = schemaType == null || schemaType.isEmpty() ? "AVRO" : schemaType.toUpperCase();
+        switch (type) {
+            case "AVRO":
+                return new CompiledSchema(id, type, schema, new AvroCompiler().compile(parse(schema)), Set.of());
+            case "JSON":
+                Set<String> unsupported = new TreeSet<>();
+                Validator validator = compileJsonSchema(parse(schema), unsupported);
+                return new CompiledSchema(id, type, schema, validator, Set.copyOf(unsupported));
+            default:
+                return new CompiledSchema(id, type, schema, ANY, Set.of());
+        }
+    }
+
+    public int id() {
+        return id;
+    }
+
+    public String schemaType() {
+        return schemaType;
+    }
+
+    public String schema() {
+        return schema;
+    }
+
+    /**
+     * @return the JSON Schema keywords this schema uses that cannot be checked; empty when every
+     * constraint is enforced
+     */
+    public Set<String> unsupportedKeywords() {
+        return unsupportedKeywords;
+    }
+
+    /**
+     * Validate a message
+     *
+     * @param message The message content
+     * @return null if valid, or if the schema uses unsupported keywords and the message is well-formed JSON;
+     * error message otherwise
+     */
+    public String validate(String message) {
+        JsonNode node;
+        try {
+            node = MAPPER.readTree(message);
+        } catch (Exception e) {
+            return "Message must be valid JSON format: " + e.getMessage();
+        }
+        if (node == null) {
+            return "Message must be valid JSON format";
+        }
+        if (!unsupportedKeywords.isEmpty()) {
+            return null;
+        }
+        return validator.validate(node, "$");
+    }
+
+    private static JsonNode parse(String schema) {
+        try {
+            return MAPPER.readTree(schema);
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Invalid schema: " + e.getMessage(), e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Validator {
+        /**
+         * @return null if the node is valid, error message otherwise
+         */
+        String validate(JsonNode node, String path);
+    }
+
+    // ---- Avro ----
+
+    private static final class AvroCompiler {
+        // Named types seen so far; a lookup array lets recursive types refer to themselves
+        private final Map<String, Validator[]> namedTypes = new HashMap<>();
+
+        Validator compile(JsonNode schema) {
+            if (schema.isTextual()) {
+                return compileName(schema.asText());
+            }
+            if (schema.isArray()) {
+                return compileUnion(schema);
+            }
+            if (!schema.isObject() || !schema.has("type")) {
+                throw new IllegalArgumentException("Invalid Avro schema: " + schema);
+            }
+
+            String type = schema.get("type").isTextual() ? schema.get("type").asText() : null;
+            if (type == null) {
+                // {"type": {...}} or {"type": [...]}
+                return compile(schema.get("type"));
+            }
+            switch (type) {
+                case "record":
+                case "error":
+                    return compileRecord(schema);
+                case "enum":
+                    return compileEnum(schema);
+                case "array":
+                    return compileArray(schema);
+                case "map":
+                    return compileMap(schema);
+                case "fixed":
+                    return register(schema, (node, path) -> node.isTextual() ? null : path + ": expected fixed as string");
+                default:
+                    return compileName(type);
+            }
+        }
+
+        private Validator compileName(String name) {
+            switch (name) {
+                case "null":
+                    return (node, path) -> node.isNull() ? null : path + ": expected null";
+                case "boolean":
+                    return (node, path) -> node.isBoolean() ? null : path + ": expected boolean";
+                case "int":
+                    return (node, path) -> node.isIntegralNumber() && node.canConvertToInt() ? null : path + ": expected int";
+                case "long":
+                    return (node, path) -> node.isIntegralNumber() && node.canConvertToLong() ? null : path + ": expected long";
+                case "float":
+                case "double":
+                    return (node, path) -> node.isNumber() ? null : path + ": expected " + name;
+                case "bytes":
+                case "string":
+                    return (node, path) -> node.isTextual() ? null : path + ": expected " + name;
+                default:
+                    Validator[] named = namedTypes.get(name);
+                    if (named == null) {
+                        named = namedTypes.get(shortName(name));
+                    }
+                    if (named == null) {
+                        throw new IllegalArgumentException("Unknown Avro type: " + name);
+                    }
+                    Validator[] target = named;
+                    return (node, path) -> target[0].validate(node, path);
+            }
+        }
+
+        private Validator compileRecord(JsonNode schema) {
+            Validator[] self = declare(schema);
+
+            Map<String, Validator> fieldValidators = new LinkedHashMap<>();
+            Set<String> optionalFields = new HashSet<>();
+            for (JsonNode field : schema.path("fields")) {
+                String fieldName = field.path("name").asText();
+                fieldValidators.put(fieldName, compile(field.path("type")));
+                if (field.has("default")) {
+                    optionalFields.add(fieldName);
+                }
+            }
+
+            self[0] = (node, path) -> {
+                if (!node.isObject()) {
+                    return path + ": expected record " + schema.path("name").asText();
+                }
+                for (Map.Entry<String, Validator> field : fieldValidators.entrySet()) {
+                    JsonNode value = node.get(field.getKey());
+                    String fieldPath = path + "." + field.getKey();
+                    if (value == null) {
+                        if (optionalFields.contains(field.getKey())) {
+                            continue;
+                        }
+                        // A missing nullable field is read as null
+                        value = NullNode.getInstance();
+                    }
+                    String error = field.getValue().validate(value, fieldPath);
+                    if (error != null) {
+                        return value.isNull() && !node.has(field.getKey())
+                                ? fieldPath + ": required field is missing" : error;
+                    }
+                }
+                return null;
+            };
+            return self[0];
+        }
+
+        private Validator compileEnum(JsonNode schema) {
+            Set<String> symbols = new HashSet<>();
+            schema.path("symbols").forEach(symbol -> symbols.add(symbol.asText()));
+            return register(schema, (node, path) -> node.isTextual() && symbols.contains(node.asText())
+                    ? null : path + ": expected one of " + symbols);
+        }
+
+        private Validator compileArray(JsonNode schema) {
+            Validator items = compile(schema.path("items"));
+            return (node, path) -> {
+                if (!node.isArray()) {
+                    return path + ": expected array";
+                }
+                for (int i = 0; i < node.size(); i++) {
+                    String error = items.validate(node.get(i), path + "[" + i + "]");
+                    if (error != null) {
+                        return error;
+                    }
+                }
+                return null;
+            };
+        }
+
+        private Validator compileMap(JsonNode schema) {
+            Validator values = compile(schema.path("values"));
+            return (node, path) -> {
+                if (!node.isObject()) {
+                    return path + ": expected map";
+                }
+                Iterator<Map.Entry<String, JsonNode>> entries = node.fields();
+                while (entries.hasNext()) {
+                    Map.Entry<String, JsonNode> entry = entries.next();
+                    String error = values.validate(entry.getValue(), path + "." + entry.getKey());
+                    if (error != null) {
+                        return error;
+                    }
+                }
+                return null;
+            };
+        }
+
+        private Validator compileUnion(JsonNode schema) {
+            List<Validator> branches = new ArrayList<>();
+            schema.forEach(branch -> branches.add(compile(branch)));
+            return anyOf(branches, "union");
+        }
+
+        private Validator register(JsonNode schema, Validator validator) {
+            declare(schema)[0] = validator;
+            return validator;
+        }
+
+        private Validator[] declare(JsonNode schema) {
+            Validator[] self = new Validator[1];
+            String name = schema.path("name").asText(null);
+            if (name != null) {
+                String namespace = schema.path("namespace").asText(null);
+                namedTypes.put(name, self);
+                if (namespace != null && !name.contains(".")) {
+                    namedTypes.put(namespace + "." + name, self);
+                }
+                namedTypes.putIfAbsent(shortName(name), self);
+            }
+            return self;
+        }
+
+        private static String shortName(String name) {
+            int dot = name.lastIndexOf('.');
+            return dot >= 0 ? name.substring(dot + 1) : name;
+        }
+    }
+
+    // ---- JSON Schema ----
+
+    private static Validator compileJsonSchema(JsonNode schema, Set<String> unsupported) {
+        if (schema.isBoolean()) {
+            return schema.asBoolean() ? ANY : (node, path) -> path + ": not allowed by schema";
+        }
+        if (!schema.isObject()) {
+            return ANY;
+        }
+
+        schema.fieldNames().forEachRemaining(keyword -> {
+            if (UNSUPPORTED_JSON_KEYWORDS.contains(keyword)) {
+                unsupported.add(keyword);
+            }
+        });
+
+        List<Validator> checks = new ArrayList<>();
+
+        JsonNode type = schema.get("type");
+        if (type != null) {
+            Set<String> types = new HashSet<>();
+            if (type.isArray()) {
+                type.forEach(t -> types.add(t.asText()));
+            } else {
+                types.add(type.asText());
+            }
+            checks.add((node, path) -> types.contains(jsonType(node))
+                    || (types.contains("number") && node.isNumber())
+                    || (types.contains("integer") && node.isNumber() && node.decimalValue().stripTrailingZeros().scale() <= 0)
+                    ? null : path + ": expected " + String.join(" or ", types));
+        }
+
+        JsonNode enumValues = schema.get("enum");
+        if (enumValues != null && enumValues.isArray()) {
+            Set<JsonNode> allowed = new HashSet<>();
+            enumValues.forEach(allowed::add);
+            checks.add((node, path) -> allowed.contains(node) ? null : path + ": expected one of " + enumValues);
+        }
+
+        JsonNode constValue = schema.get("const");
+        if (constValue != null) {
+            checks.add((node, path) -> constValue.equals(node) ? null : path + ": expected " + constValue);
+        }
+
+        addObjectChecks(schema, checks, unsupported);
+        addArrayChecks(schema, checks, unsupported);
+        addStringChecks(schema, checks);
+        addNumberChecks(schema, checks);
+
+        JsonNode allOf = schema.get("allOf");
+        if (allOf != null && allOf.isArray()) {
+            allOf.forEach(subschema -> checks.add(compileJsonSchema(subschema, unsupported)));
+        }
+        JsonNode anyOf = schema.get("anyOf");
+        if (anyOf != null && anyOf.isArray()) {
+            List<Validator> branches = new ArrayList<>();
+            anyOf.forEach(subschema -> branches.add(compileJsonSchema(subschema, unsupported)));
+            checks.add(anyOf(branches, "anyOf"));
+        }
+        JsonNode oneOf = schema.get("oneOf");
+        if (oneOf != null && oneOf.isArray()) {
+            List<Validator> branches = new ArrayList<>();
+            oneOf.forEach(subschema -> branches.add(compileJsonSchema(subschema, unsupported)));
+            checks.add((node, path) -> {
+                long matches = branches.stream().filter(branch -> branch.validate(node, path) == null).count();
+                return matches == 1 ? null : path + ": expected exactly one oneOf branch to match, " + matches + " did";
+            });
+        }
+
+        if (checks.isEmpty()) {
+            return ANY;
+        }
+        return (node, path) -> {
+            for (Validator check : checks) {
+                String error = check.validate(node, path);
+                if (error != null) {
+                    return error;
+                }
+            }
+            return null;
+        };
+    }
+
+    private static void addObjectChecks(JsonNode schema, List<Validator> checks, Set<String> unsupported) {
+        Map<String, Validator> properties = new LinkedHashMap<>();
+        schema.path("properties").fields().forEachRemaining(
+                property -> properties.put(property.getKey(), compileJsonSchema(property.getValue(), unsupported)));
+        List<String> required = new ArrayList<>();
+        schema.path("required").forEach(name -> required.add(name.asText()));
+        JsonNode additional = schema.get("additionalProperties");
+        Validator additionalValidator = additional != null ? compileJsonSchema(additional, unsupported) : null;
+
+        if (properties.isEmpty() && required.isEmpty() && additionalValidator == null) {
+            return;
+        }
+        checks.add((node, path) -> {
+            if (!node.isObject()) {
+                return null;
+            }
+            for (String name : required) {
+                if (!node.has(name)) {
+                    return path + "." + name + ": required property is missing";
+                }
+            }
+            Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                Validator validator = properties.get(field.getKey());
+                if (validator == null) {
+                    validator = additionalValidator;
+                }
+                if (validator != null) {
+                    String error = validator.validate(field.getValue(), path + "." + field.getKey());
+                    if (error != null) {
+                        return error;
+                    }
+                }
+            }
+            return null;
+        });
+    }
+
+    private static void addArrayChecks(JsonNode schema, List<Validator> checks, Set<String> unsupported) {
+        JsonNode itemsSchema = schema.get("items");
+        if (itemsSchema != null && itemsSchema.isArray()) {
+            // Tuple validation (draft-4 to 2019-09)
+            unsupported.add("items");
+        }
+        Validator items = itemsSchema != null && (itemsSchema.isObject() || itemsSchema.isBoolean())
+                ? compileJsonSchema(itemsSchema, unsupported) : null;
+        int minItems = schema.path("minItems").asInt(0);
+        int maxItems = schema.path("maxItems").asInt(Integer.MAX_VALUE);
+
+        if (items == null && minItems == 0 && maxItems == Integer.MAX_VALUE) {
+            return;
+        }
+        checks.add((node, path) -> {
+            if (!node.isArray()) {
+                return null;
+            }
+            if (node.size() < minItems || node.size() > maxItems) {
+                return path + ": expected between " + minItems + " and " + maxItems + " items";
+            }
+            if (items != null) {
+                for (int i = 0; i < node.size(); i++) {
+                    String error = items.validate(node.get(i), path + "[" + i + "]");
+                    if (error != null) {
+                        return error;
+                    }
+                }
+            }
+            return null;
+        });
+    }
+
+    private static void addStringChecks(JsonNode schema, List<Validator> checks) {
+        int minLength = schema.path("minLength").asInt(0);
+        int maxLength = schema.path("maxLength").asInt(Integer.MAX_VALUE);
+        Pattern pattern = schema.has("pattern") ? Pattern.compile(schema.get("pattern").asText()) : null;
+
+        if (pattern == null && minLength == 0 && maxLength == Integer.MAX_VALUE) {
+            return;
+        }
+        checks.add((node, path) -> {
+            if (!node.isTextual()) {
+                return null;
+            }
+            String value = node.asText();
+            int length = value.codePointCount(0, value.length());
+            if (length < minLength || length > maxLength) {
+                return path + ": expected length between " + minLength + " and " + maxLength;
+            }
+            if (pattern != null && !pattern.matcher(value).find()) {
+                return path + ": does not match pattern " + pattern.pattern();
+            }
+            return null;
+        });
+    }
+
+    private static void addNumberChecks(JsonNode schema, List<Validator> checks) {
+        JsonNode minimum = schema.get("minimum");
+        JsonNode maximum = schema.get("maximum");
+        JsonNode exclusiveMinimum = schema.get("exclusiveMinimum");
+        JsonNode exclusiveMaximum = schema.get("exclusiveMaximum");
+        // Draft 4 spells exclusive bounds as booleans modifying minimum/maximum
+        boolean minimumExclusive = exclusiveMinimum != null && exclusiveMinimum.isBoolean() && exclusiveMinimum.asBoolean();
+        boolean maximumExclusive = exclusiveMaximum != null && exclusiveMaximum.isBoolean() && exclusiveMaximum.asBoolean();
+
+        if (minimum == null && maximum == null
+                && (exclusiveMinimum == null || !exclusiveMinimum.isNumber())
+                && (exclusiveMaximum == null || !exclusiveMaximum.isNumber())) {
+            return;
+        }
+        checks.add((node, path) -> {
+            if (!node.isNumber()) {
+                return null;
+            }
+            double value = node.asDouble();
+            if (minimum != null && (minimumExclusive ? value <= minimum.asDouble() : value < minimum.asDouble())) {
+                return path + (minimumExclusive ? ": must be > " : ": must be >= ") + minimum;
+            }
+            if (maximum != null && (maximumExclusive ? value >= maximum.asDouble() : value > maximum.asDouble())) {
+                return path + (maximumExclusive ? ": must be < " : ": must be <= ") + maximum;
+            }
+            if (exclusiveMinimum != null && exclusiveMinimum.isNumber() && value <= exclusiveMinimum.asDouble()) {
+                return path + ": must be > " + exclusiveMinimum;
+            }
+            if (exclusiveMaximum != null && exclusiveMaximum.isNumber() && value >= exclusiveMaximum.asDouble()) {
+                return path + ": must be < " + exclusiveMaximum;
+            }
+            return null;
+        });
+    }
+
+    private static String jsonType(JsonNode node) {
+        switch (node.getNodeType()) {
+            case OBJECT:
+                return "object";
+            case ARRAY:
+                return "array";
+            case STRING:
+                return "string";
+            case BOOLEAN:
+                return "boolean";
+            case NULL:
+                return "null";
+            case NUMBER:
+                return node.isIntegralNumber() ? "integer" : "number";
+            default:
+                return "unknown";
+        }
+    }
+
+    private static Validator anyOf(List<Validator> branches, String kind) {
+        return (node, path) -> {
+            String firstError = null;
+            for (Validator branch : branches) {
+                String error = branch.validate(node, path);
+                if (error == null) {
+                    return null;
+                }
+                if (firstError == null) {
+                    firstError = error;
+                }
+            }
+            return path + ": no " + kind + " branch matches" + (firstError != null ? " (" + firstError + ")" : "");
+        };
+    }
+}
@@ -3,9 +3,17 @@ package com.service.virtualization.kafka.service;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.service.virtualization.kafka.model.KafkaStub;
+import com.service.virtualization.latency.LatencySimulator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Profile;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
@@ -13,11 +21,20 @@ import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
-import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 /**
  * Service for handling HTTP callbacks that return dynamic response data for Kafka publishing.
@@ -26,6 +43,14 @@ import java.util.concurrent.Executors;
  * 1. Send HTTP request to webhook with original request data
  * 2. Webhook returns response with {key, responseContent, responseFormat}
  * 3. Publish the webhook response data to Kafka response topic
+ * 
+ * Callbacks run on virtual threads. Each stub has a bounded number of pending callbacks and of
+ * concurrent webhook calls, so a slow callback URL cannot grow a queue without bound. A callback
+ * counts as pending from the moment it is accepted, including while it waits out the stub's
+ * simulated latency. Failed calls are retried after a jittered exponential backoff without holding
+ * a thread or a call slot. Accepting a callback never blocks the caller: once any stub has
+ * pause-threshold callbacks pending, the registered backpressure listeners are told to pause
+ * consumption, and a callback arriving at a stub whose queue is full is dropped.
  */
 @Service
 @Profile("!kafka-disabled")
@@ -35,15 +60,79 @@ public class KafkaCallbackService {
     
     private final RestTemplate restTemplate;
     private final ExecutorService executorService;
+    private final ScheduledExecutorService retryScheduler;
     private final KafkaMessageService kafkaMessageService;
+    private final LatencySimulator latencySimulator;
     private final ObjectMapper objectMapper;
     
+    private final int queueCapacityPerStub;
+    private final int maxConcurrentPerStub;
+    private final int defaultMaxRetries;
+    private final long initialBackoffMs;
+    private final long maxBackoffMs;
+    private final int pauseThreshold;
+    private final int resumeThreshold;
+    
+    private final Map<String, StubLane> lanes = new ConcurrentHashMap<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final List<Consumer<Boolean>> backpressureListeners = new CopyOnWriteArrayList<>();
+    // Stubs at or above the pause threshold; consumption is paused while there are any
+    private int saturatedStubs;
+    
+    private final Counter retries;
+    private final Counter rejected;
+    private final Timer callbackTimer;
+    
     @Autowired
-    public KafkaCallbackService(KafkaMessageService kafkaMessageService) {
-        this.restTemplate = new RestTemplate();
-        this.executorService = Executors.newFixedThreadPool(10);
+    public KafkaCallbackService(
+            KafkaMessageService kafkaMessageService,
+            LatencySimulator latencySimulator,
+            RestTemplate outboundRestTemplate,
+            @Value("${kafka.callback.queue-capacity-per-stub:1000}") int queueCapacityPerStub,
+            @Value("${kafka.callback.max-concurrent-per-stub:20}") int maxConcurrentPerStub,
+            @Value("${kafka.callback.retry.max-retries:2}") int defaultMaxRetries,
+            @Value("${kafka.callback.retry.initial-backoff:500}") long initialBackoffMs,
+            @Value("${kafka.callback.retry.max-backoff:10000}") long maxBackoffMs,
+            @Value("${kafka.callback.pause-threshold:500}") int pauseThreshold,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        this.restTemplate = outboundRestTemplate;
+        this.executorService = Executors.newVirtualThreadPerTaskExecutor();
+        this.retryScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "kafka-callback-retry");
+            thread.setDaemon(true);
+            return thread;
+        });
         this.kafkaMessageService = kafkaMessageService;
+        this.latencySimulator = latencySimulator;
         this.objectMapper = new ObjectMapper();
+        
+        this.queueCapacityPerStub = Math.max(1, queueCapacityPerStub);
+        this.maxConcurrentPerStub = Math.max(1, maxConcurrentPerStub);
+        this.defaultMaxRetries = Math.max(0, defaultMaxRetries);
+        this.initialBackoffMs = Math.max(1, initialBackoffMs);
+        this.maxBackoffMs = Math.max(this.initialBackoffMs, maxBackoffMs);
+        if (pauseThreshold > this.queueCapacityPerStub) {
+            logger.warn("kafka.callback.pause-threshold {} exceeds queue-capacity-per-stub {}, pausing at {} instead",
+                       pauseThreshold, this.queueCapacityPerStub, this.queueCapacityPerStub);
+        }
+        this.pauseThreshold = Math.max(1, Math.min(pauseThreshold, this.queueCapacityPerStub));
+        this.resumeThreshold = this.pauseThreshold / 2;
+        
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry != null) {
+            Gauge.builder("kafka.callback.queue.depth", this, service -> service.pending.get() - service.inFlight.get())
+                    .description("Callbacks waiting for a call slot or a retry").register(registry);
+            Gauge.builder("kafka.callback.in.flight", inFlight, AtomicInteger::get)
+                    .description("Webhook calls in progress").register(registry);
+            this.retries = Counter.builder("kafka.callback.retries").description("Callback attempts retried").register(registry);
+            this.rejected = Counter.builder("kafka.callback.rejected").description("Callbacks dropped because the stub's queue was full").register(registry);
+            this.callbackTimer = Timer.builder("kafka.callback.duration").description("Webhook call and publish time").register(registry);
+        } else {
+            this.retries = null;
+            this.rejected = null;
+            this.callbackTimer = null;
+        }
     }
     
     /**
@@ -55,38 +144,221 @@ public class KafkaCallbackService {
      * @param requestMessage The original request message
      */
     public void executeCallback(KafkaStub stub, String requestTopic, String requestKey, String requestMessage) {
-        String callbackUrl = stub.callbackUrl();
+        if (!hasCallbackUrl(stub)) {
+            return;
+        }
+        
+        try {
+            attemptCallback(stub, requestTopic, requestKey, requestMessage);
+        } catch (Exception e) {
+            logger.error("💥 Error executing callback for stub '{}': {}", stub.name(), e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Execute callback asynchronously after the stub's simulated latency, retrying failed webhook calls
+     * up to the configured number of times
+     * 
+     * @return true if the callback was queued, false if the stub's callback queue was full
+     */
+    public boolean executeCallbackAsync(KafkaStub stub, String requestTopic, String requestKey, String requestMessage) {
+        return executeCallbackWithRetry(stub, requestTopic, requestKey, requestMessage, defaultMaxRetries);
+    }
+    
+    /**
+     * Execute callback asynchronously with retry mechanism, after the stub's simulated latency
+     * 
+     * Never blocks: the callback is counted against the stub's queue straight away, and is dropped
+     * if the queue is full. Consumers are asked to pause well before that happens.
+     * 
+     * @return true if the callback was queued, false if the stub's callback queue was full
+     */
+    public boolean executeCallbackWithRetry(KafkaStub stub, String requestTopic, String requestKey, String requestMessage, int maxRetries) {
+        if (!hasCallbackUrl(stub)) {
+            return false;
+        }
+        
+        String stubKey = stub.id() != null ? stub.id() : stub.name();
+        StubLane lane = lanes.computeIfAbsent(stubKey, id -> new StubLane(stub.name()));
+        int queued = lane.pending.incrementAndGet();
+        if (queued > queueCapacityPerStub) {
+            lane.pending.decrementAndGet();
+            logger.error("❌ Callback queue full for stub '{}' ({} pending), dropping callback for key {}",
+                        stub.name(), queueCapacityPerStub, requestKey);
+            if (rejected != null) {
+                rejected.increment();
+            }
+            return false;
+        }
+        pending.incrementAndGet();
+        onLaneChanged(lane, queued);
         
+        CallbackTask task = new CallbackTask(stub, lane, requestTopic, requestKey, requestMessage, Math.max(0, maxRetries));
+        long latency = stub.latency() != null ? stub.latency() : 0;
+        latencySimulator.schedule(stub.id(), latency, () -> dispatch(task));
+        return true;
+    }
+    
+    /**
+     * Register a listener told when consumption should pause (true) or may resume (false)
+     */
+    public void addBackpressureListener(Consumer<Boolean> listener) {
+        backpressureListeners.add(listener);
+    }
+    
+    /**
+     * @return callbacks queued, waiting for a retry or in progress
+     */
+    public int getPendingCount() {
+        return pending.get();
+    }
+    
+    /**
+     * @return webhook calls in progress
+     */
+    public int getInFlightCount() {
+        return inFlight.get();
+    }
+    
+    private boolean hasCallbackUrl(KafkaStub stub) {
+        String callbackUrl = stub.callbackUrl();
         if (callbackUrl == null || callbackUrl.trim().isEmpty()) {
             logger.warn("No callback URL configured for stub: {}", stub.name());
+            return false;
+        }
+        return true;
+    }
+    
+    private void dispatch(CallbackTask task) {
+        try {
+            executorService.execute(() -> run(task));
+        } catch (RejectedExecutionException e) {
+            logger.warn("Callback for stub '{}' not started, service is shutting down", task.stub.name());
+            complete(task);
+        }
+    }
+    
+    /**
+     * Run one attempt of a callback on a virtual thread, then complete it or schedule a retry
+     */
+    private void run(CallbackTask task) {
+        boolean retryScheduled = false;
+        try {
+            task.lane.calls.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            complete(task);
             return;
         }
         
+        inFlight.incrementAndGet();
+        long start = System.nanoTime();
         try {
-            // Step 1: Call webhook and get response data
-            CallbackResponse callbackResponse = callWebhook(stub, requestTopic, requestKey, requestMessage, callbackUrl);
-            
-            if (callbackResponse != null) {
-                // Step 2: Publish the webhook response to Kafka
-                publishWebhookResponseToKafka(stub, requestTopic, callbackResponse);
+            attemptCallback(task.stub, task.requestTopic, task.requestKey, task.requestMessage);
+            if (task.attempt > 0) {
+                logger.info("✅ Callback with retry successful for stub '{}' on attempt {}", task.stub.name(), task.attempt + 1);
             }
-            
         } catch (Exception e) {
-            logger.error("💥 Error executing callback for stub '{}': {}", stub.name(), e.getMessage(), e);
+            if (task.attempt < task.maxRetries) {
+                task.attempt++;
+                long backoff = backoff(task.attempt);
+                logger.warn("🔄 Callback attempt {} failed for stub '{}', retrying in {} ms... Error: {}", 
+                           task.attempt, task.stub.name(), backoff, e.getMessage());
+                if (retries != null) {
+                    retries.increment();
+                }
+                retryScheduled = scheduleRetry(task, backoff);
+            } else {
+                logger.error("💀 All callback attempts failed for stub '{}' after {} tries. Last error: {}", 
+                            task.stub.name(), task.attempt + 1, e.getMessage());
+            }
+        } finally {
+            if (callbackTimer != null) {
+                callbackTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+            inFlight.decrementAndGet();
+            task.lane.calls.release();
+            if (!retryScheduled) {
+                complete(task);
+            }
+        }
+    }
+    
+    private boolean scheduleRetry(CallbackTask task, long backoff) {
+        try {
+            // The delay holds neither a thread nor a call slot; the task keeps its place in the stub's queue
+            retryScheduler.schedule(() -> dispatch(task), backoff, TimeUnit.MILLISECONDS);
+            return true;
+        } catch (RejectedExecutionException e) {
+            logger.warn("Callback retry for stub '{}' not scheduled, service is shutting down", task.stub.name());
+            return false;
         }
     }
     
     /**
-     * Execute callback asynchronously
+     * Exponential backoff with full jitter: a random delay up to initial-backoff * 2^(attempt - 1), capped at max-backoff
      */
-    public void executeCallbackAsync(KafkaStub stub, String requestTopic, String requestKey, String requestMessage) {
-        CompletableFuture.runAsync(() -> {
-            executeCallback(stub, requestTopic, requestKey, requestMessage);
-        }, executorService);
+    private long backoff(int attempt) {
+        long ceiling = Math.min(maxBackoffMs, initialBackoffMs << Math.min(attempt - 1, 20));
+        return ThreadLocalRandom.current().nextLong(initialBackoffMs / 2, Math.max(initialBackoffMs / 2, ceiling) + 1);
+    }
+    
+    private void complete(CallbackTask task) {
+        pending.decrementAndGet();
+        onLaneChanged(task.lane, task.lane.pending.decrementAndGet());
+    }
+    
+    /**
+     * Pause consumption when a stub reaches the pause threshold, and resume once every stub
+     * is back down to half of it
+     */
+    private void onLaneChanged(StubLane lane, int count) {
+        synchronized (backpressureListeners) {
+            Boolean pause = null;
+            if (!lane.saturated && count >= pauseThreshold) {
+                lane.saturated = true;
+                if (saturatedStubs++ == 0) {
+                    pause = Boolean.TRUE;
+                }
+            } else if (lane.saturated && count <= resumeThreshold) {
+                lane.saturated = false;
+                if (--saturatedStubs == 0) {
+                    pause = Boolean.FALSE;
+                }
+            }
+            if (pause == null) {
+                return;
+            }
+            if (pause) {
+                logger.warn("⏸️ {} callbacks pending for stub '{}', asking Kafka consumers to pause", count, lane.stubName);
+            } else {
+                logger.info("▶️ Callback backlog for stub '{}' down to {}, asking Kafka consumers to resume", lane.stubName, count);
+            }
+            // Notified under the lock so listeners see pause and resume in order
+            Boolean state = pause;
+            backpressureListeners.forEach(listener -> listener.accept(state));
+        }
+    }
+    
+    /**
+     * Call the webhook and publish its response
+     * 
+     * @throws RestClientException if the webhook call fails, so it can be retried
+     */
+    private void attemptCallback(KafkaStub stub, String requestTopic, String requestKey, String requestMessage) {
+        // Step 1: Call webhook and get response data
+        CallbackResponse callbackResponse = callWebhook(stub, requestTopic, requestKey, requestMessage, stub.callbackUrl());
+        
+        if (callbackResponse != null) {
+            // Step 2: Publish the webhook response to Kafka
+            publishWebhookResponseToKafka(stub, requestTopic, callbackResponse);
+        }
     }
     
     /**
      * Call the webhook and parse response
+     * 
+     * @throws RestClientException if the webhook cannot be reached or returns an error status
      */
     private CallbackResponse callWebhook(KafkaStub stub, String requestTopic, String requestKey, String requestMessage, String callbackUrl) {
         try {
@@ -113,7 +385,7 @@ public class KafkaCallbackService {
             // Create HTTP entity
             HttpEntity<Map<String, Object>> entity = new HttpEntity<>(requestPayload, headers);
             
-            logger.info("🔗 Calling webhook for stub '{}' at URL: {}", stub.name(), callbackUrl);
+            logger.debug("🔗 Calling webhook for stub '{}' at URL: {}", stub.name(), callbackUrl);
             logger.debug("📤 Webhook request payload: {}", requestPayload);
             
             // Call webhook
@@ -124,7 +396,7 @@ public class KafkaCallbackService {
                 String.class
             );
             
-            logger.info("✅ Webhook call successful for stub '{}'. Status: {}", 
+            logger.debug("✅ Webhook call successful for stub '{}'. Status: {}", 
                        stub.name(), response.getStatusCode());
             logger.debug("📨 Webhook response: {}", response.getBody());
             
@@ -134,7 +406,7 @@ public class KafkaCallbackService {
         } catch (RestClientException e) {
             logger.error("❌ Webhook call failed for stub '{}' to URL: {}. Error: {}", 
                         stub.name(), callbackUrl, e.getMessage());
-            return null;
+            throw e;
         }
     }
     
@@ -256,44 +528,50 @@ public class KafkaCallbackService {
     }
     
     /**
-     * Execute callback with retry mechanism
+     * Shutdown the executor services; queued callbacks and pending retries are dropped
      */
-    public void executeCallbackWithRetry(KafkaStub stub, String requestTopic, String requestKey, String requestMessage, int maxRetries) {
-        CompletableFuture.runAsync(() -> {
-            int attempt = 0;
-            boolean success = false;
-            
-            while (attempt <= maxRetries && !success) {
-                try {
-                    executeCallback(stub, requestTopic, requestKey, requestMessage);
-                    success = true;
-                    logger.info("✅ Callback with retry successful for stub '{}' on attempt {}", stub.name(), attempt + 1);
-                } catch (Exception e) {
-                    attempt++;
-                    if (attempt <= maxRetries) {
-                        logger.warn("🔄 Callback attempt {} failed for stub '{}', retrying... Error: {}", 
-                                   attempt, stub.name(), e.getMessage());
-                        try {
-                            Thread.sleep(1000 * attempt); // Exponential backoff
-                        } catch (InterruptedException ie) {
-                            Thread.currentThread().interrupt();
-                            break;
-                        }
-                    } else {
-                        logger.error("💀 All callback attempts failed for stub '{}' after {} tries. Last error: {}", 
-                                    stub.name(), maxRetries, e.getMessage());
-                    }
-                }
-            }
-        }, executorService);
+    @PreDestroy
+    public void shutdown() {
+        retryScheduler.shutdownNow();
+        if (executorService != null && !executorService.isShutdown()) {
+            executorService.shutdown();
+        }
     }
     
     /**
-     * Shutdown the executor service
+     * Pending and concurrent-call limits of one stub
      */
-    public void shutdown() {
-        if (executorService != null && !executorService.isShutdown()) {
-            executorService.shutdown();
+    private final class StubLane {
+        private final String stubName;
+        private final AtomicInteger pending = new AtomicInteger();
+        private final Semaphore calls = new Semaphore(maxConcurrentPerStub);
+        // Guarded by backpressureListeners
+        private boolean saturated;
+        
+        StubLane(String stubName) {
+            this.stubName = stubName;
+        }
+    }
+    
+    /**
+     * A queued callback and its retry state
+     */
+    private static final class CallbackTask {
+        private final KafkaStub stub;
+        private final StubLane lane;
+        private final String requestTopic;
+        private final String requestKey;
+        private final String requestMessage;
+        private final int maxRetries;
+        private int attempt;
+        
+        CallbackTask(KafkaStub stub, StubLane lane, String requestTopic, String requestKey, String requestMessage, int maxRetries) {
+            this.stub = stub;
+            this.lane = lane;
+            this.requestTopic = requestTopic;
+            this.requestKey = requestKey;
+            this.requestMessage = requestMessage;
+            this.maxRetries = maxRetries;
         }
     }
     
@@ -1,7 +1,5 @@
 package com.service.virtualization.kafka.service;
 
-import org.apache.kafka.clients.admin.AdminClient;
-import org.apache.kafka.clients.admin.ListTopicsResult;
 import org.apache.kafka.clients.producer.ProducerRecord;
 import org.apache.kafka.common.header.Header;
 import org.apache.kafka.common.header.internals.RecordHeader;
@@ -9,9 +7,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.kafka.core.KafkaAdmin;
 import org.springframework.kafka.core.KafkaTemplate;
-import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Service;
 import org.springframework.context.annotation.Profile;
 
@@ -19,9 +15,6 @@ import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.CompletableFuture;
-import java.util.stream.Collectors;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
@@ -35,7 +28,7 @@ public class KafkaMessageService {
     private static final Logger logger = LoggerFactory.getLogger(KafkaMessageService.class);
 
     private final KafkaTemplate<String, String> kafkaTemplate;
-    private final KafkaAdmin kafkaAdmin;
+    private final KafkaTopicService kafkaTopicService;
     private final SchemaRegistryService schemaRegistryService;
     
     @Value("${kafka.bootstrap-servers:localhost:9092}")
@@ -46,18 +39,24 @@ public class KafkaMessageService {
     private static final String SCHEMA_SUBJECT_HEADER = "schema-subject";
     private static final String SCHEMA_VERSION_HEADER = "schema-version";
 
+    // Encoded record headers by name and value; stub responses repeat the same few headers
+    private static final int HEADER_CACHE_LIMIT = 256;
+    private final Map<String, Map<String, Header>> headerCache = new ConcurrentHashMap<>();
+
     @Autowired
-    public KafkaMessageService(KafkaTemplate<String, String> kafkaTemplate, KafkaAdmin kafkaAdmin, SchemaRegistryService schemaRegistryService) {
+    public KafkaMessageService(KafkaTemplate<String, String> kafkaTemplate, KafkaTopicService kafkaTopicService, SchemaRegistryService schemaRegistryService) {
         this.kafkaTemplate = kafkaTemplate;
-        this.kafkaAdmin = kafkaAdmin;
+        this.kafkaTopicService = kafkaTopicService;
         this.schemaRegistryService = schemaRegistryService;
     }
 
     public void publishMessage(String topic, String key, String content, Map<String, String> headers) {
-        logger.info("Publishing message to topic: {}", topic);
+        logger.debug("Publishing message to topic: {}", topic);
+        
+        boolean hasHeaders = headers != null && !headers.isEmpty();
         
         // Validate schema registry headers if present
-        if (headers != null) {
+        if (hasHeaders) {
             validateSchemaRegistryHeaders(headers);
             
             // Perform schema validation if schema information is provided
@@ -66,38 +65,53 @@ public class KafkaMessageService {
                 if (validationError != null) {
                     throw new IllegalArgumentException("Schema validation failed: " + validationError);
                 }
-                logger.info("Message validated successfully against schema");
+                logger.debug("Message validated successfully against schema");
             }
         }
         
         // Create record with headers if provided
-        ProducerRecord<String, String> record;
-        
-        if (headers != null && !headers.isEmpty()) {
-            List<Header> kafkaHeaders = headers.entrySet().stream()
-                .map(entry -> new RecordHeader(entry.getKey(), entry.getValue().getBytes(StandardCharsets.UTF_8)))
-                .collect(Collectors.toList());
-                
-            record = new ProducerRecord<>(topic, null, key, content, kafkaHeaders);
-        } else {
-            record = new ProducerRecord<>(topic, key, content);
-        }
-        
-        // Send the message
-        CompletableFuture<SendResult<String, String>> future = kafkaTemplate.send(record);
+        ProducerRecord<String, String> record = hasHeaders
+                ? new ProducerRecord<>(topic, null, key, content, toRecordHeaders(headers))
+                : new ProducerRecord<>(topic, key, content);
         
-        future.whenComplete((result, ex) -> {
+        // Send the message; the producer batches it with other in-flight records
+        kafkaTemplate.send(record).whenComplete((result, ex) -> {
             if (ex != null) {
                 logger.error("Failed to send message to topic: {}", topic, ex);
-            } else {
-                logger.info("Message sent successfully to topic: {}", topic);
-                if (hasSchemaRegistryHeaders(headers)) {
-                    logger.info("Message published with schema registry headers");
-                }
+            } else if (logger.isDebugEnabled()) {
+                logger.debug("Message sent successfully to topic: {}", topic);
             }
         });
     }
 
+    /**
+     * Convert headers to Kafka record headers, reusing the encoded header for repeated name/value pairs
+     */
+    private List<Header> toRecordHeaders(Map<String, String> headers) {
+        List<Header> recordHeaders = new ArrayList<>(headers.size());
+        for (Map.Entry<String, String> entry : headers.entrySet()) {
+            recordHeaders.add(recordHeader(entry.getKey(), entry.getValue()));
+        }
+        return recordHeaders;
+    }
+
+    private Header recordHeader(String name, String value) {
+        Map<String, Header> byValue = headerCache.get(name);
+        Header header = byValue != null ? byValue.get(value) : null;
+        if (header != null) {
+            return header;
+        }
+        
+        header = new RecordHeader(name, value != null ? value.getBytes(StandardCharsets.UTF_8) : null);
+        if (value != null && headerCache.size() < HEADER_CACHE_LIMIT) {
+            Map<String, Header> values = headerCache.computeIfAbsent(name, n -> new ConcurrentHashMap<>());
+            if (values.size() < HEADER_CACHE_LIMIT) {
+                values.putIfAbsent(value, header);
+            }
+        }
+        return header;
+    }
+
     /**
      * Validate schema registry headers for consistency
      */
@@ -137,15 +151,9 @@ public class KafkaMessageService {
     }
 
     public List<String> getAvailableTopics() {
-        logger.info("Getting available Kafka topics");
+        logger.debug("Getting available Kafka topics");
         
-        try (AdminClient adminClient = AdminClient.create(kafkaAdmin.getConfigurationProperties())) {
-            ListTopicsResult topics = adminClient.listTopics();
-            return new ArrayList<>(topics.names().get());
-        } catch (InterruptedException | ExecutionException e) {
-            logger.error("Failed to get Kafka topics", e);
-            Thread.currentThread().interrupt();
-            return List.of(); // Return empty list on error
-        }
+        // Served from the topic service's metadata cache; empty if the cluster has never been reachable
+        return new ArrayList<>(kafkaTopicService.listTopics());
     }
 } 
\ No newline at end of file
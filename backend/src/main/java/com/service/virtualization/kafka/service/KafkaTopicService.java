@@ -1,22 +1,41 @@
 package com.service.virtualization.kafka.service;
 
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.apache.kafka.clients.admin.AdminClient;
 import org.apache.kafka.clients.admin.CreateTopicsResult;
-import org.apache.kafka.clients.admin.ListTopicsResult;
 import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.common.KafkaFuture;
+import org.apache.kafka.common.errors.TopicExistsException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Profile;
 import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
-import java.util.Collections;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Service for managing Kafka topics
+ *
+ * A single long-lived AdminClient is shared by all callers, and the topic names on the cluster
+ * are cached and refreshed on a schedule or when a lookup misses, so existence checks do not
+ * bootstrap a client and list every topic. Refreshes are single-flight and at most one is started
+ * per min-refresh-interval, so a burst of misses, or an unreachable cluster, costs one listing
+ * rather than one per caller. Missing topics are created in one batched request.
  * Only active when kafka-disabled profile is NOT active
  */
 @Service
@@ -27,11 +46,68 @@ public class KafkaTopicService {
 
     private final KafkaAdmin kafkaAdmin;
 
+    @Value("${kafka.admin.request-timeout:5000}")
+    private long requestTimeoutMs;
+
+    @Value("${kafka.admin.metadata-max-age:30000}")
+    private long metadataMaxAgeMs;
+
+    @Value("${kafka.admin.min-refresh-interval:1000}")
+    private long minRefreshIntervalMs;
+
+    private AdminClient adminClient;
+
+    // Topic names on the cluster as of the last successful metadata fetch
+    private volatile Set<String> knownTopics = Set.of();
+    private volatile long knownTopicsFetchedAt;
+
+    // When the last fetch finished, successful or not, and whether it succeeded
+    private volatile long lastRefreshAt;
+    private volatile boolean lastRefreshSucceeded;
+
+    private final ReentrantLock refreshLock = new ReentrantLock();
+
     @Autowired
     public KafkaTopicService(KafkaAdmin kafkaAdmin) {
         this.kafkaAdmin = kafkaAdmin;
     }
 
+    @PostConstruct
+    public void init() {
+        adminClient = AdminClient.create(kafkaAdmin.getConfigurationProperties());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (adminClient != null) {
+            adminClient.close(Duration.ofMillis(requestTimeoutMs));
+        }
+    }
+
+    /**
+     * Refresh the cached topic names from the cluster
+     *
+     * @return the topic names, or the previously cached names if the cluster cannot be reached
+     */
+    @Scheduled(initialDelayString = "${kafka.admin.metadata-max-age:30000}",
+               fixedDelayString = "${kafka.admin.metadata-max-age:30000}")
+    public Set<String> refreshTopics() {
+        Set<String> topics = fetchTopics();
+        return topics != null ? topics : knownTopics;
+    }
+
+    /**
+     * @return the topic names on the cluster, fetched only if the cache is older than the metadata max age
+     * and no fetch was attempted within the min refresh interval
+     */
+    public Set<String> listTopics() {
+        long now = System.currentTimeMillis();
+        if (now - knownTopicsFetchedAt > metadataMaxAgeMs && now - lastRefreshAt >= minRefreshIntervalMs) {
+            return refreshTopics();
+        }
+        return knownTopics;
+    }
+
     /**
      * Check if a topic exists
      *
@@ -39,15 +115,8 @@ public class KafkaTopicService {
      * @return true if the topic exists, false otherwise
      */
     public boolean topicExists(String topicName) {
-        try (AdminClient adminClient = AdminClient.create(kafkaAdmin.getConfigurationProperties())) {
-            ListTopicsResult listTopicsResult = adminClient.listTopics();
-            Set<String> topicNames = listTopicsResult.names().get();
-            return topicNames.contains(topicName);
-        } catch (InterruptedException | ExecutionException e) {
-            logger.error("Failed to check if topic '{}' exists", topicName, e);
-            Thread.currentThread().interrupt();
-            return false;
-        }
+        // A miss may be a topic created since the last fetch, so confirm against the cluster
+        return knownTopics.contains(topicName) || refreshAfterMiss().contains(topicName);
     }
 
     /**
@@ -59,26 +128,9 @@ public class KafkaTopicService {
      * @throws RuntimeException if topic creation fails
      */
     public void createTopicIfNotExists(String topicName, int partitions, short replicationFactor) {
-        if (topicExists(topicName)) {
-            logger.debug("Topic '{}' already exists, skipping creation", topicName);
-            return;
-        }
-
-        logger.info("Creating topic '{}' with {} partitions and replication factor {}", 
-                   topicName, partitions, replicationFactor);
-
-        try (AdminClient adminClient = AdminClient.create(kafkaAdmin.getConfigurationProperties())) {
-            NewTopic newTopic = new NewTopic(topicName, partitions, replicationFactor);
-            CreateTopicsResult createTopicsResult = adminClient.createTopics(Collections.singletonList(newTopic));
-            
-            // Wait for the topic to be created
-            createTopicsResult.all().get();
-            logger.info("Successfully created topic '{}'", topicName);
-            
-        } catch (InterruptedException | ExecutionException e) {
-            logger.error("Failed to create topic '{}'", topicName, e);
-            Thread.currentThread().interrupt();
-            throw new RuntimeException("Failed to create topic: " + topicName, e);
+        TopicCreationResult result = createMissingTopics(List.of(topicName), partitions, replicationFactor, false);
+        if (!result.failed().isEmpty()) {
+            throw new RuntimeException("Failed to create topic: " + topicName);
         }
     }
 
@@ -92,15 +144,173 @@ public class KafkaTopicService {
     }
 
     /**
-     * Ensure multiple topics exist, creating them if necessary
+     * Ensure multiple topics exist, creating the missing ones in a single request
      *
      * @param topicNames the names of the topics to ensure exist
      */
     public void ensureTopicsExist(String... topicNames) {
+        ensureTopicsExist(List.of(topicNames));
+    }
+
+    /**
+     * Ensure multiple topics exist with default settings, creating the missing ones in a single request
+     *
+     * @param topicNames the names of the topics to ensure exist
+     * @return the topics that were created and those that could not be created
+     */
+    public TopicCreationResult ensureTopicsExist(Collection<String> topicNames) {
+        return createMissingTopics(topicNames, 1, (short) 1, false);
+    }
+
+    /**
+     * Fetch fresh metadata and create every topic that is missing from the cluster, e.g. after a broker restart
+     *
+     * @param topicNames the names of the topics that must exist
+     * @return the topics that were created and those that could not be created; if the metadata fetch
+     * fails nothing is created and every topic is reported as unverified
+     */
+    public TopicCreationResult recreateMissingTopics(Collection<String> topicNames) {
+        return createMissingTopics(topicNames, 1, (short) 1, true);
+    }
+
+    private TopicCreationResult createMissingTopics(Collection<String> topicNames, int partitions,
+                                                    short replicationFactor, boolean forceRefresh) {
+        Set<String> requested = new LinkedHashSet<>();
         for (String topicName : topicNames) {
             if (topicName != null && !topicName.trim().isEmpty()) {
-                createTopicIfNotExists(topicName.trim());
+                requested.add(topicName.trim());
+            }
+        }
+
+        Set<String> missing;
+        if (forceRefresh) {
+            Set<String> current = fetchTopics();
+            if (current == null) {
+                // A stale cache cannot tell us what a restarted broker lost, so report instead of guessing
+                logger.warn("Kafka topic metadata unavailable, cannot verify topics {}", requested);
+                return new TopicCreationResult(Set.of(), Set.of(), Set.copyOf(requested));
+            }
+            missing = missingFrom(current, requested);
+        } else {
+            missing = missingFrom(knownTopics, requested);
+            if (!missing.isEmpty()) {
+                // Only go to the cluster when the cache does not already know every topic
+                missing = missingFrom(refreshAfterMiss(), missing);
             }
         }
+        if (missing.isEmpty()) {
+            logger.debug("Topics {} already exist, skipping creation", requested);
+            return new TopicCreationResult(Set.of(), Set.of(), Set.of());
+        }
+
+        logger.info("Creating topics {} with {} partitions and replication factor {}",
+                   missing, partitions, replicationFactor);
+
+        List<NewTopic> newTopics = missing.stream()
+                .map(topicName -> new NewTopic(topicName, partitions, replicationFactor))
+                .toList();
+        CreateTopicsResult createTopicsResult = adminClient.createTopics(newTopics);
+
+        Set<String> created = new HashSet<>();
+        Set<String> failed = new HashSet<>();
+        for (Map.Entry<String, KafkaFuture<Void>> entry : createTopicsResult.values().entrySet()) {
+            String topicName = entry.getKey();
+            try {
+                entry.getValue().get(requestTimeoutMs, TimeUnit.MILLISECONDS);
+                created.add(topicName);
+                logger.info("Successfully created topic '{}'", topicName);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof TopicExistsException) {
+                    // Created concurrently by someone else
+                    created.add(topicName);
+                } else {
+                    failed.add(topicName);
+                    logger.error("Failed to create topic '{}': {}", topicName, e.getCause().getMessage());
+                }
+            } catch (TimeoutException e) {
+                failed.add(topicName);
+                logger.error("Timed out creating topic '{}'", topicName);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failed.add(topicName);
+                logger.error("Interrupted while creating topic '{}'", topicName);
+            }
+        }
+
+        addKnownTopics(created);
+        return new TopicCreationResult(Set.copyOf(created), Set.copyOf(failed), Set.of());
+    }
+
+    /**
+     * Refresh after a cache miss, unless a fetch already ran within the min refresh interval;
+     * a recently confirmed miss is answered from the cache
+     */
+    private Set<String> refreshAfterMiss() {
+        if (System.currentTimeMillis() - lastRefreshAt < minRefreshIntervalMs) {
+            return knownTopics;
+        }
+        return refreshTopics();
+    }
+
+    /**
+     * List the topic names on the cluster. Callers arriving while a fetch is running wait for it
+     * and share its outcome instead of issuing their own.
+     *
+     * @return the topic names, or null if the cluster could not be reached
+     */
+    private Set<String> fetchTopics() {
+        long requestedAt = System.currentTimeMillis();
+        refreshLock.lock();
+        try {
+            if (lastRefreshAt > requestedAt) {
+                return lastRefreshSucceeded ? knownTopics : null;
+            }
+            try {
+                knownTopics = Set.copyOf(adminClient.listTopics().names().get(requestTimeoutMs, TimeUnit.MILLISECONDS));
+                knownTopicsFetchedAt = System.currentTimeMillis();
+                lastRefreshSucceeded = true;
+                return knownTopics;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                logger.error("Interrupted while listing Kafka topics");
+            } catch (ExecutionException | TimeoutException e) {
+                logger.error("Failed to list Kafka topics: {}", e.getMessage());
+            }
+            lastRefreshSucceeded = false;
+            return null;
+        } finally {
+            lastRefreshAt = System.currentTimeMillis();
+            refreshLock.unlock();
+        }
+    }
+
+    private static Set<String> missingFrom(Set<String> existing, Set<String> topicNames) {
+        Set<String> missing = new LinkedHashSet<>(topicNames);
+        missing.removeAll(existing);
+        return missing;
+    }
+
+    private void addKnownTopics(Set<String> topicNames) {
+        if (topicNames.isEmpty()) {
+            return;
+        }
+        refreshLock.lock();
+        try {
+            Set<String> topics = new HashSet<>(knownTopics);
+            topics.addAll(topicNames);
+            knownTopics = Set.copyOf(topics);
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    /**
+     * Outcome of a batched topic creation
+     *
+     * @param created    topics that were missing and now exist
+     * @param failed     topics that could not be created
+     * @param unverified topics whose existence could not be checked because the cluster was unreachable
+     */
+    public record TopicCreationResult(Set<String> created, Set<String> failed, Set<String> unverified) {
     }
-} 
\ No newline at end of file
+}
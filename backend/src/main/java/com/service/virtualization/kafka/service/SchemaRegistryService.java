@@ -10,10 +10,18 @@ import org.springframework.web.client.RestTemplate;
 import org.springframework.util.Base64Utils;
 import org.springframework.context.annotation.Profile;
 
+import jakarta.annotation.PreDestroy;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
 
 /**
  * Service for interacting with Confluent Schema Registry with RBAC support
+ * Schemas are compiled once and cached by ID and by subject/version, so validating a message
+ * only costs a registry round trip on the first use of a schema
  * Only active when kafka-disabled profile is NOT active
  */
 @Service
@@ -37,7 +45,32 @@ public class SchemaRegistryService {
     @Value("${schema.registry.auth.api-key:}")
     private String apiKey;
 
-    private final RestTemplate restTemplate = new RestTemplate();
+    @Value("${schema.registry.cache.ttl:300000}")
+    private long cacheTtlMs;
+
+    @Value("${schema.registry.cache.negative-ttl:30000}")
+    private long negativeCacheTtlMs;
+
+    @Value("${schema.registry.cache.max-entries:1000}")
+    private int cacheMaxEntries;
+
+    @Value("${schema.registry.fetch-parallelism:8}")
+    private int fetchParallelism;
+
+    private final RestTemplate restTemplate;
+
+    // Compiled schemas by "id:<id>" and "subject:<subject>:<version>"; null schema marks a cached miss
+    private final Map<String, CachedSchema> schemaCache = new ConcurrentHashMap<>();
+    private final ExecutorService fetchExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public SchemaRegistryService(RestTemplate outboundRestTemplate) {
+        this.restTemplate = outboundRestTemplate;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        fetchExecutor.shutdownNow();
+    }
 
     /**
      * Get available schemas from Schema Registry
@@ -59,28 +92,25 @@ public class SchemaRegistryService {
                 return Collections.emptyList();
             }
 
-            List<SchemaInfoDTO> schemas = new ArrayList<>();
+            // Fetch the latest version of every subject in parallel, bounded so the registry is not flooded
+            Semaphore permits = new Semaphore(fetchParallelism);
+            List<CompletableFuture<SchemaInfoDTO>> fetches = new ArrayList<>();
             for (String subject : subjectsResponse.getBody()) {
-                try {
-                    // Get latest version for each subject
-                    ResponseEntity<Map> latestVersionResponse = restTemplate.exchange(
-                        schemaRegistryUrl + "/subjects/" + subject + "/versions/latest",
-                        HttpMethod.GET,
-                        entity,
-                        Map.class
-                    );
-
-                    if (latestVersionResponse.getBody() != null) {
-                        Map<String, Object> versionInfo = latestVersionResponse.getBody();
-                        schemas.add(new SchemaInfoDTO(
-                            subject,
-                            (Integer) versionInfo.get("id"),
-                            (Integer) versionInfo.get("version"),
-                            (String) versionInfo.get("schema")
-                        ));
+                fetches.add(CompletableFuture.supplyAsync(() -> {
+                    permits.acquireUninterruptibly();
+                    try {
+                        return fetchLatestSchemaInfo(subject, entity);
+                    } finally {
+                        permits.release();
                     }
-                } catch (Exception e) {
-                    logger.warn("Failed to fetch latest version for subject: {}", subject, e);
+                }, fetchExecutor));
+            }
+
+            List<SchemaInfoDTO> schemas = new ArrayList<>();
+            for (CompletableFuture<SchemaInfoDTO> fetch : fetches) {
+                SchemaInfoDTO schema = fetch.join();
+                if (schema != null) {
+                    schemas.add(schema);
                 }
             }
 
@@ -92,6 +122,32 @@ public class SchemaRegistryService {
         }
     }
 
+    private SchemaInfoDTO fetchLatestSchemaInfo(String subject, HttpEntity<String> entity) {
+        try {
+            // Get latest version for the subject
+            ResponseEntity<Map> latestVersionResponse = restTemplate.exchange(
+                schemaRegistryUrl + "/subjects/" + subject + "/versions/latest",
+                HttpMethod.GET,
+                entity,
+                Map.class
+            );
+
+            if (latestVersionResponse.getBody() == null) {
+                return null;
+            }
+            Map<String, Object> versionInfo = latestVersionResponse.getBody();
+            return new SchemaInfoDTO(
+                subject,
+                (Integer) versionInfo.get("id"),
+                (Integer) versionInfo.get("version"),
+                (String) versionInfo.get("schema")
+            );
+        } catch (Exception e) {
+            logger.warn("Failed to fetch latest version for subject: {}", subject, e);
+            return null;
+        }
+    }
+
     /**
      * Get available versions for a schema subject
      */
@@ -131,29 +187,21 @@ public class SchemaRegistryService {
             String schemaSubject = headers.get("schema-subject");
             String schemaVersion = headers.getOrDefault("schema-version", "latest");
 
-            String schemaContent = null;
+            CompiledSchema schema;
 
             if (schemaId != null) {
-                schemaContent = getSchemaById(Integer.parseInt(schemaId));
+                schema = getSchemaById(Integer.parseInt(schemaId));
             } else if (schemaSubject != null) {
-                schemaContent = getSchemaBySubjectVersion(schemaSubject, schemaVersion);
+                schema = getSchemaBySubjectVersion(schemaSubject, schemaVersion);
             } else {
                 return "No schema ID or subject provided in headers";
             }
 
-            if (schemaContent == null) {
+            if (schema == null) {
                 return "Schema not found in registry";
             }
 
-            // Basic JSON validation for now
-            // In a real implementation, you would use appropriate schema validation libraries
-            if (schemaContent.contains("\"type\":\"record\"")) {
-                // Basic Avro validation
-                return validateAvroMessage(message, schemaContent);
-            } else {
-                // Basic JSON schema validation
-                return validateJsonMessage(message, schemaContent);
-            }
+            return schema.validate(message);
 
         } catch (Exception e) {
             logger.error("Schema validation error", e);
@@ -161,70 +209,106 @@ public class SchemaRegistryService {
         }
     }
 
-    private String getSchemaById(Integer schemaId) {
-        try {
-            HttpHeaders headers = createAuthHeaders();
-            HttpEntity<String> entity = new HttpEntity<>(headers);
+    /**
+     * Get a compiled schema by ID, from the cache if present
+     */
+    private CompiledSchema getSchemaById(Integer schemaId) {
+        String cacheKey = "id:" + schemaId;
+        CachedSchema cached = getCached(cacheKey);
+        if (cached != null) {
+            return cached.schema();
+        }
 
-            ResponseEntity<Map> response = restTemplate.exchange(
-                schemaRegistryUrl + "/schemas/ids/" + schemaId,
-                HttpMethod.GET,
-                entity,
-                Map.class
-            );
+        CompiledSchema schema = fetchSchema(schemaRegistryUrl + "/schemas/ids/" + schemaId, schemaId);
+        putCached(cacheKey, schema);
+        return schema;
+    }
 
-            return response.getBody() != null ? (String) response.getBody().get("schema") : null;
+    /**
+     * Get a compiled schema by subject and version, from the cache if present
+     */
+    private CompiledSchema getSchemaBySubjectVersion(String subject, String version) {
+        String cacheKey = "subject:" + subject + ":" + version;
+        CachedSchema cached = getCached(cacheKey);
+        if (cached != null) {
+            return cached.schema();
+        }
 
-        } catch (Exception e) {
-            logger.error("Failed to fetch schema by ID: {}", schemaId, e);
-            return null;
+        CompiledSchema schema = fetchSchema(schemaRegistryUrl + "/subjects/" + subject + "/versions/" + version, null);
+        putCached(cacheKey, schema);
+        if (schema != null && schema.id() >= 0) {
+            // Schema IDs are immutable, so the same schema also serves lookups by ID
+            putCached("id:" + schema.id(), schema);
         }
+        return schema;
     }
 
-    private String getSchemaBySubjectVersion(String subject, String version) {
+    /**
+     * Fetch and compile a schema from the registry
+     *
+     * @return the compiled schema, or null if it does not exist, cannot be fetched or cannot be parsed
+     */
+    private CompiledSchema fetchSchema(String url, Integer schemaId) {
         try {
             HttpHeaders headers = createAuthHeaders();
             HttpEntity<String> entity = new HttpEntity<>(headers);
 
-            ResponseEntity<Map> response = restTemplate.exchange(
-                schemaRegistryUrl + "/subjects/" + subject + "/versions/" + version,
-                HttpMethod.GET,
-                entity,
-                Map.class
-            );
+            ResponseEntity<Map> response = restTemplate.exchange(url, HttpMethod.GET, entity, Map.class);
 
-            return response.getBody() != null ? (String) response.getBody().get("schema") : null;
+            Map<String, Object> body = response.getBody();
+            if (body == null || body.get("schema") == null) {
+                return null;
+            }
+            Object id = schemaId != null ? schemaId : body.get("id");
+            CompiledSchema schema = CompiledSchema.compile(
+                id instanceof Integer ? (Integer) id : -1,
+                (String) body.get("schemaType"),
+                (String) body.get("schema")
+            );
+            if (!schema.unsupportedKeywords().isEmpty()) {
+                logger.warn("Schema from {} uses keywords the validator does not support {}, messages against it are only checked to be JSON",
+                        url, schema.unsupportedKeywords());
+            }
+            return schema;
 
+        } catch (IllegalArgumentException e) {
+            logger.error("Failed to parse schema from {}: {}", url, e.getMessage());
+            return null;
         } catch (Exception e) {
-            logger.error("Failed to fetch schema for subject: {} version: {}", subject, version, e);
+            logger.error("Failed to fetch schema from {}", url, e);
             return null;
         }
     }
 
-    private String validateAvroMessage(String message, String schema) {
-        // Basic validation - in production, use proper Avro validation
-        try {
-            // Ensure message is valid JSON for Avro
-            if (!message.trim().startsWith("{") || !message.trim().endsWith("}")) {
-                return "Avro message must be valid JSON format";
-            }
-            return null; // Valid
-        } catch (Exception e) {
-            return "Invalid Avro message format: " + e.getMessage();
+    private CachedSchema getCached(String cacheKey) {
+        CachedSchema cached = schemaCache.get(cacheKey);
+        if (cached == null) {
+            return null;
+        }
+        if (cached.expiresAt() < System.currentTimeMillis()) {
+            schemaCache.remove(cacheKey, cached);
+            return null;
         }
+        return cached;
     }
 
-    private String validateJsonMessage(String message, String schema) {
-        // Basic validation - in production, use proper JSON schema validation
-        try {
-            // Basic JSON syntax check
-            if (!message.trim().startsWith("{") || !message.trim().endsWith("}")) {
-                return "Message must be valid JSON format";
+    private void putCached(String cacheKey, CompiledSchema schema) {
+        long now = System.currentTimeMillis();
+        if (schemaCache.size() >= cacheMaxEntries) {
+            schemaCache.values().removeIf(entry -> entry.expiresAt() < now);
+            if (schemaCache.size() >= cacheMaxEntries) {
+                schemaCache.clear();
             }
-            return null; // Valid
-        } catch (Exception e) {
-            return "Invalid JSON message format: " + e.getMessage();
         }
+        // Misses are cached briefly so a bad header or an unreachable registry is not retried on every message
+        schemaCache.put(cacheKey, new CachedSchema(schema, now + (schema != null ? cacheTtlMs : negativeCacheTtlMs)));
+    }
+
+    /**
+     * Drop all cached schemas
+     */
+    public void clearCache() {
+        schemaCache.clear();
     }
 
     private HttpHeaders createAuthHeaders() {
@@ -270,4 +354,7 @@ public class SchemaRegistryService {
 
         return headers;
     }
-} 
\ No newline at end of file
+
+    private record CachedSchema(CompiledSchema schema, long expiresAt) {
+    }
+}
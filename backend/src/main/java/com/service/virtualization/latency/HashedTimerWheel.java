@@ -0,0 +1,227 @@
+package com.service.virtualization.latency;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hashed timer wheel for large numbers of short, imprecise timers.
+ *
+ * Timers are hashed into a ring of buckets by deadline; a single worker thread advances one bucket per
+ * tick and hands expired tasks to an executor. Scheduling is a lock-free enqueue and expiry touches
+ * only the current bucket, so the cost per timer is constant no matter how many are pending. Timers
+ * fire up to one tick late.
+ */
+public class HashedTimerWheel {
+    private static final Logger logger = LoggerFactory.getLogger(HashedTimerWheel.class);
+
+    // Timers moved from the submission queue into buckets per tick, so a burst cannot stall the wheel
+    private static final int MAX_TRANSFERS_PER_TICK = 100_000;
+
+    private static final AtomicIntegerFieldUpdater<Timeout> STATE =
+            AtomicIntegerFieldUpdater.newUpdater(Timeout.class, "state");
+
+    private final long tickNanos;
+    private final Bucket[] wheel;
+    private final int mask;
+    private final Executor executor;
+    private final Queue<Timeout> submissions = new ConcurrentLinkedQueue<>();
+    private final AtomicLong pending = new AtomicLong();
+    private final Thread worker;
+
+    private volatile boolean running = true;
+    private final long startTime;
+    private long tick;
+
+    /**
+     * @param name      Name of the worker thread
+     * @param tickMs    Tick duration; the timer resolution
+     * @param wheelSize Number of buckets, rounded up to a power of two
+     * @param executor  Executor that runs expired tasks
+     */
+    public HashedTimerWheel(String name, long tickMs, int wheelSize, Executor executor) {
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, tickMs));
+        int size = Integer.highestOneBit(Math.max(2, wheelSize) - 1) << 1;
+        this.wheel = new Bucket[size];
+        for (int i = 0; i < size; i++) {
+            wheel[i] = new Bucket();
+        }
+        this.mask = size - 1;
+        this.executor = executor;
+
+        this.startTime = System.nanoTime();
+        this.worker = new Thread(this::run, name);
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    /**
+     * Run a task after a delay
+     *
+     * @param task    The task
+     * @param delayMs Delay in milliseconds
+     * @return A handle that can cancel the timer
+     */
+    public Timeout schedule(Runnable task, long delayMs) {
+        if (!running) {
+            throw new IllegalStateException("Timer wheel is stopped");
+        }
+        Timeout timeout = new Timeout(task, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(Math.max(0, delayMs)));
+        pending.incrementAndGet();
+        submissions.add(timeout);
+        return timeout;
+    }
+
+    /**
+     * @return timers scheduled but not yet fired or cancelled
+     */
+    public long pendingTimers() {
+        return pending.get();
+    }
+
+    /**
+     * Stop the worker; pending timers never fire
+     */
+    public void stop() {
+        running = false;
+        worker.interrupt();
+    }
+
+    private void run() {
+        while (running) {
+            long deadline = startTime + (tick + 1) * tickNanos;
+            long sleepNanos = deadline - System.nanoTime();
+            if (sleepNanos > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(sleepNanos);
+                } catch (InterruptedException e) {
+                    if (!running) {
+                        break;
+                    }
+                }
+                continue;
+            }
+
+            transferSubmissions();
+            wheel[(int) (tick & mask)].expire(System.nanoTime());
+            tick++;
+        }
+    }
+
+    private void transferSubmissions() {
+        for (int i = 0; i < MAX_TRANSFERS_PER_TICK; i++) {
+            Timeout timeout = submissions.poll();
+            if (timeout == null) {
+                return;
+            }
+            if (timeout.isCancelled()) {
+                continue;
+            }
+
+            long ticks = Math.max(0, (timeout.deadline - startTime + tickNanos - 1) / tickNanos);
+            // Never place a timer in a bucket the wheel has already passed
+            long targetTick = Math.max(ticks, tick);
+            timeout.remainingRounds = (targetTick - tick) / wheel.length;
+            wheel[(int) (targetTick & mask)].add(timeout);
+        }
+    }
+
+    private void fire(Timeout timeout) {
+        if (!STATE.compareAndSet(timeout, Timeout.PENDING, Timeout.EXPIRED)) {
+            return;
+        }
+        pending.decrementAndGet();
+        try {
+            executor.execute(timeout.task);
+        } catch (Exception e) {
+            logger.error("Failed to run timer task: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Handle to a scheduled timer
+     */
+    public final class Timeout {
+        private static final int PENDING = 0;
+        private static final int EXPIRED = 1;
+        private static final int CANCELLED = 2;
+
+        private final Runnable task;
+        private final long deadline;
+        private long remainingRounds;
+        volatile int state;
+        private Timeout next;
+
+        private Timeout(Runnable task, long deadline) {
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        /**
+         * Cancel the timer
+         *
+         * @return true if the timer had not fired or been cancelled yet
+         */
+        public boolean cancel() {
+            if (!STATE.compareAndSet(this, PENDING, CANCELLED)) {
+                return false;
+            }
+            pending.decrementAndGet();
+            return true;
+        }
+
+        boolean isCancelled() {
+            return state == CANCELLED;
+        }
+    }
+
+    /**
+     * Timers of one wheel slot; only touched by the worker thread
+     */
+    private final class Bucket {
+        private Timeout head;
+
+        void add(Timeout timeout) {
+            timeout.next = head;
+            head = timeout;
+        }
+
+        void expire(long now) {
+            Timeout previous = null;
+            Timeout timeout = head;
+            while (timeout != null) {
+                Timeout next = timeout.next;
+                boolean remove;
+                if (timeout.isCancelled()) {
+                    remove = true;
+                } else if (timeout.remainingRounds <= 0 && timeout.deadline <= now) {
+                    remove = true;
+                    fire(timeout);
+                } else {
+                    remove = false;
+                    if (timeout.remainingRounds > 0) {
+                        timeout.remainingRounds--;
+                    }
+                }
+
+                if (remove) {
+                    if (previous == null) {
+                        head = next;
+                    } else {
+                        previous.next = next;
+                    }
+                    timeout.next = null;
+                } else {
+                    previous = timeout;
+                }
+                timeout = next;
+            }
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.service.virtualization.latency;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Distribution a simulated response delay is drawn from.
+ *
+ * Profiles are written as:
+ * <ul>
+ *   <li>{@code fixed:200} - always 200 ms</li>
+ *   <li>{@code uniform:100:300} - uniformly between 100 and 300 ms</li>
+ *   <li>{@code normal:200:50} - normal with mean 200 ms and standard deviation 50 ms, never negative</li>
+ *   <li>{@code percentiles:50=120;90=250;99=800;100=2000} - piecewise linear between latency percentiles</li>
+ * </ul>
+ */
+@FunctionalInterface
+public interface LatencyProfile {
+
+    /**
+     * @return a delay in milliseconds
+     */
+    long sample();
+
+    /**
+     * A profile that always returns the same delay
+     */
+    static LatencyProfile fixed(long delayMs) {
+        long delay = Math.max(0, delayMs);
+        return () -> delay;
+    }
+
+    /**
+     * Parse a profile
+     *
+     * @param spec The profile, e.g. {@code uniform:100:300}
+     * @return The profile
+     * @throws IllegalArgumentException if the profile is malformed
+     */
+    static LatencyProfile parse(String spec) {
+        String[] parts = spec.trim().split(":");
+        try {
+            switch (parts[0].trim().toLowerCase()) {
+                case "fixed":
+                    return fixed(Long.parseLong(parts[1].trim()));
+                case "uniform": {
+                    long min = Long.parseLong(parts[1].trim());
+                    long max = Long.parseLong(parts[2].trim());
+                    if (min < 0 || max < min) {
+                        throw new IllegalArgumentException("uniform needs 0 <= min <= max");
+                    }
+                    return () -> ThreadLocalRandom.current().nextLong(min, max + 1);
+                }
+                case "normal": {
+                    double mean = Double.parseDouble(parts[1].trim());
+                    double stddev = Double.parseDouble(parts[2].trim());
+                    return () -> Math.max(0, Math.round(mean + stddev * ThreadLocalRandom.current().nextGaussian()));
+                }
+                case "percentiles":
+                    return percentiles(parts[1]);
+                default:
+                    throw new IllegalArgumentException("unknown distribution '" + parts[0] + "'");
+            }
+        } catch (ArrayIndexOutOfBoundsException | NumberFormatException e) {
+            throw new IllegalArgumentException("Malformed latency profile '" + spec + "'", e);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid latency profile '" + spec + "': " + e.getMessage(), e);
+        }
+    }
+
+    private static LatencyProfile percentiles(String points) {
+        TreeMap<Double, Long> latencyByPercentile = new TreeMap<>();
+        for (String point : points.split(";")) {
+            String[] pair = point.split("=");
+            double percentile = Double.parseDouble(pair[0].trim());
+            if (percentile <= 0 || percentile > 100) {
+                throw new IllegalArgumentException("percentiles must be in (0, 100]");
+            }
+            latencyByPercentile.put(percentile, Long.parseLong(pair[1].trim()));
+        }
+        if (latencyByPercentile.isEmpty()) {
+            throw new IllegalArgumentException("no percentiles given");
+        }
+        // Below the first point the delay ramps up from zero; above the last it stays at the last value
+        latencyByPercentile.putIfAbsent(0.0, 0L);
+
+        return () -> {
+            double percentile = ThreadLocalRandom.current().nextDouble(100.0);
+            Map.Entry<Double, Long> lower = latencyByPercentile.floorEntry(percentile);
+            Map.Entry<Double, Long> upper = latencyByPercentile.higherEntry(percentile);
+            if (upper == null) {
+                return lower.getValue();
+            }
+            double fraction = (percentile - lower.getKey()) / (upper.getKey() - lower.getKey());
+            return Math.round(lower.getValue() + fraction * (upper.getValue() - lower.getValue()));
+        };
+    }
+}
@@ -0,0 +1,162 @@
+package com.service.virtualization.latency;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Delays stub responses to simulate latency, shared by the Kafka, ActiveMQ, IBM MQ and Tibco response paths.
+ *
+ * Delayed responses are parked in a single hashed timer wheel and sent on virtual threads when due,
+ * so any number of in-flight delays costs one timer thread. A stub's delay is its configured fixed
+ * latency unless a distribution is configured for it under latency.stub-profiles, e.g.
+ * {@code latency.stub-profiles=stub-1=uniform:100:300,stub-2=percentiles:50=120;99=800}.
+ */
+@Component
+public class LatencySimulator {
+    private static final Logger logger = LoggerFactory.getLogger(LatencySimulator.class);
+
+    private final ExecutorService responseExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final HashedTimerWheel timerWheel;
+    private final Map<String, LatencyProfile> profilesByStub;
+
+    private final Counter delayedResponses;
+    private final Timer scheduledDelay;
+
+    public LatencySimulator(@Value("${latency.timer.tick:5}") long tickMs,
+                            @Value("${latency.timer.wheel-size:1024}") int wheelSize,
+                            @Value("${latency.stub-profiles:}") String stubProfiles,
+                            ObjectProvider<MeterRegistry> meterRegistry) {
+        this.timerWheel = new HashedTimerWheel("latency-timer", tickMs, wheelSize, responseExecutor);
+        this.profilesByStub = parseProfiles(stubProfiles);
+
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry != null) {
+            Gauge.builder("latency.pending", timerWheel, HashedTimerWheel::pendingTimers)
+                    .description("Delayed stub responses waiting to be sent").register(registry);
+            this.delayedResponses = Counter.builder("latency.delayed.responses")
+                    .description("Stub responses sent after a simulated delay").register(registry);
+            this.scheduledDelay = Timer.builder("latency.scheduled.delay")
+                    .description("Simulated delays applied to stub responses")
+                    .publishPercentileHistogram()
+                    .register(registry);
+        } else {
+            this.delayedResponses = null;
+            this.scheduledDelay = null;
+        }
+    }
+
+    /**
+     * Run a stub's response after its simulated delay
+     *
+     * @param stubId         The stub ID, used to look up a latency profile
+     * @param fixedLatencyMs The stub's configured latency, used when it has no profile
+     * @param response       Sends the response; run on the calling thread when there is no delay
+     */
+    public void schedule(String stubId, long fixedLatencyMs, Runnable response) {
+        schedule(stubId, fixedLatencyMs, response, Runnable::run);
+    }
+
+    /**
+     * Run a stub's response after its simulated delay
+     *
+     * @param stubId         The stub ID, used to look up a latency profile
+     * @param fixedLatencyMs The stub's configured latency, used when it has no profile
+     * @param response       Sends the response
+     * @param immediate      Runs the response when there is no delay; delayed responses always run on the timer's executor
+     */
+    public void schedule(String stubId, long fixedLatencyMs, Runnable response, Executor immediate) {
+        long delay = delayFor(stubId, fixedLatencyMs);
+
+        if (delay <= 0) {
+            immediate.execute(response);
+            return;
+        }
+
+        timerWheel.schedule(() -> {
+            try {
+                response.run();
+            } catch (Exception e) {
+                logger.error("Error sending delayed response for stub {}: {}", stubId, e.getMessage(), e);
+            }
+        }, delay);
+    }
+
+    /**
+     * Block the calling thread for a stub's simulated delay, for callers that slow their own
+     * consumption instead of scheduling the response
+     *
+     * @param stubId         The stub ID, used to look up a latency profile
+     * @param fixedLatencyMs The stub's configured latency, used when it has no profile
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    public void sleep(String stubId, long fixedLatencyMs) throws InterruptedException {
+        long delay = delayFor(stubId, fixedLatencyMs);
+        if (delay > 0) {
+            Thread.sleep(delay);
+        }
+    }
+
+    /**
+     * Sample the stub's delay and record it
+     */
+    private long delayFor(String stubId, long fixedLatencyMs) {
+        LatencyProfile profile = stubId != null ? profilesByStub.get(stubId) : null;
+        long delay = profile != null ? profile.sample() : fixedLatencyMs;
+
+        if (delay > 0 && scheduledDelay != null) {
+            delayedResponses.increment();
+            scheduledDelay.record(delay, TimeUnit.MILLISECONDS);
+        }
+        return delay;
+    }
+
+    /**
+     * @return delayed responses waiting to be sent
+     */
+    public long getPendingCount() {
+        return timerWheel.pendingTimers();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        timerWheel.stop();
+        responseExecutor.shutdown();
+    }
+
+    private static Map<String, LatencyProfile> parseProfiles(String stubProfiles) {
+        Map<String, LatencyProfile> profiles = new HashMap<>();
+        if (stubProfiles == null || stubProfiles.isBlank()) {
+            return profiles;
+        }
+        for (String entry : stubProfiles.split(",")) {
+            int separator = entry.indexOf('=');
+            if (separator <= 0) {
+                logger.warn("Ignoring malformed latency profile: {}", entry);
+                continue;
+            }
+            String stubId = entry.substring(0, separator).trim();
+            try {
+                profiles.put(stubId, LatencyProfile.parse(entry.substring(separator + 1)));
+                logger.info("Latency profile for stub {}: {}", stubId, entry.substring(separator + 1).trim());
+            } catch (IllegalArgumentException e) {
+                logger.warn("Ignoring latency profile for stub {}: {}", stubId, e.getMessage());
+            }
+        }
+        return profiles;
+    }
+}
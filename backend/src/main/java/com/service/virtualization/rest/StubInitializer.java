@@ -1,8 +1,6 @@
 package com.service.virtualization.rest;
 
-import com.service.virtualization.model.StubStatus;
-import com.service.virtualization.rest.model.RestStub;
-import com.service.virtualization.rest.service.RestStubService;
+import com.service.virtualization.rest.service.WireMockMappingSyncService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
@@ -11,9 +9,6 @@ import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.List;
-import java.util.concurrent.atomic.AtomicInteger;
-
 /**
  * Initializes all active REST stubs from the database when the application starts
  * Only active when rest-disabled profile is NOT active
@@ -24,10 +19,10 @@ public class StubInitializer implements ApplicationListener<ApplicationReadyEven
     
     private static final Logger logger = LoggerFactory.getLogger(StubInitializer.class);
     
-    private final RestStubService restStubService;
+    private final WireMockMappingSyncService wireMockMappingSyncService;
     
-    public StubInitializer(RestStubService restStubService) {
-        this.restStubService = restStubService;
+    public StubInitializer(WireMockMappingSyncService wireMockMappingSyncService) {
+        this.wireMockMappingSyncService = wireMockMappingSyncService;
     }
     
     @Override
@@ -36,33 +31,10 @@ public class StubInitializer implements ApplicationListener<ApplicationReadyEven
         logger.info("Initializing stubs from database...");
         
         try {
-            // Get all active stubs from database
-            List<RestStub> activeStubs = restStubService.findAllStubs().stream()
-                .filter(stub -> stub.status() == StubStatus.ACTIVE)
-                .toList();
-            
-            logger.info("Found {} active stubs to initialize", activeStubs.size());
-            
-            AtomicInteger successCount = new AtomicInteger(0);
-            AtomicInteger errorCount = new AtomicInteger(0);
-            
-            // Initialize each active stub in parallel
-            activeStubs.parallelStream().forEach(stub -> {
-                try {
-                    restStubService.updateStub(stub);
-                    logger.debug("Initialized stub: {} (ID: {})", stub.name(), stub.id());
-                    successCount.incrementAndGet();
-                } catch (Exception e) {
-                    logger.error("Failed to initialize stub: {} (ID: {}): {}", 
-                                stub.name(), stub.id(), e.getMessage());
-                    errorCount.incrementAndGet();
-                }
-            });
-            
-            logger.info("Stub initialization complete. Success: {}, Failed: {}", 
-                       successCount.get(), errorCount.get());
-            
-            if (errorCount.get() > 0) {
+            // Diff the repository against WireMock and apply only the changes in one batch; the sync logs the summary
+            WireMockMappingSyncService.SyncResult result = wireMockMappingSyncService.syncAll();
+
+            if (result.failed() > 0) {
                 logger.warn("Some stubs failed to initialize. Check the logs for details.");
             }
         } catch (Exception e) {
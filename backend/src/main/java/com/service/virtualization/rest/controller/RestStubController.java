@@ -41,12 +41,13 @@ public class RestStubController {
     }
     
     /**
-     * Get all stubs
+     * Get all stubs, optionally one page at a time (size 0 returns every stub)
      */
     @GetMapping
-    public ResponseEntity<List<RestStubDTO>> getAllStubs() {
+    public ResponseEntity<List<RestStubDTO>> getAllStubs(@RequestParam(defaultValue = "0") int page,
+                                                         @RequestParam(defaultValue = "0") int size) {
         logger.debug("Getting all stubs");
-        List<RestStubDTO> restStubDTOS = restStubService.findAllStubsWithRegistrationStatus();
+        List<RestStubDTO> restStubDTOS = restStubService.findAllStubsWithRegistrationStatus(page, size);
         return ResponseEntity.ok(restStubDTOS);
     }
     
@@ -63,12 +64,14 @@ public class RestStubController {
     }
     
     /**
-     * Get stubs by user ID
+     * Get stubs by user ID, optionally one page at a time (size 0 returns every stub)
      */
     @GetMapping("/user/{userId}")
-    public ResponseEntity<List<RestStubDTO>> getStubsByUserId(@PathVariable String userId) {
+    public ResponseEntity<List<RestStubDTO>> getStubsByUserId(@PathVariable String userId,
+                                                              @RequestParam(defaultValue = "0") int page,
+                                                              @RequestParam(defaultValue = "0") int size) {
         logger.debug("Getting stubs for user: {}", userId);
-        List<RestStubDTO> restStubDTOS = restStubService.findStubsByUserIdWithRegistrationStatus(userId);
+        List<RestStubDTO> restStubDTOS = restStubService.findStubsByUserIdWithRegistrationStatus(userId, page, size);
         return ResponseEntity.ok(restStubDTOS);
     }
     
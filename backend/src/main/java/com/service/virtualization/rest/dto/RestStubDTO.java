@@ -21,7 +21,9 @@ public record RestStubDTO(
     String wiremockMappingId,
     Map<String, Object> matchConditions,
     Map<String, Object> response,
-    String webhookUrl
+    String webhookUrl,
+    Long webhookTimeoutMs,
+    Long webhookCacheTtlMs
 
 ) {
 
@@ -27,7 +27,9 @@ public record RestStub(
 
         Map<String, Object> matchConditions,
         Map<String, Object> response,
-        String webhookUrl
+        String webhookUrl,
+        Long webhookTimeoutMs,    // Per-stub webhook timeout (ms), null for the global webhook.timeout
+        Long webhookCacheTtlMs    // Per-stub webhook response cache TTL (ms), 0 disables, null for webhook.cache settings
 ) {
     public RestStub() {
         this(
@@ -44,6 +46,8 @@ public record RestStub(
                 null,
                 new HashMap<>(),
                 new HashMap<>(),
+                null,
+                null,
                 null
         );
     }
@@ -71,7 +75,7 @@ public record RestStub(
         if (response == null) {
             response = new HashMap<>();
         }
-        // webhookUrl can be null (no webhook)
+        // webhookUrl can be null (no webhook), webhookTimeoutMs and webhookCacheTtlMs null (global defaults)
     }
     /**
      * Create a new Stub with the updated request data
@@ -79,7 +83,8 @@ public record RestStub(
     public RestStub withMatchingConditions(Map<String, Object> matchConditions) {
         return new RestStub(
                 id, name, description, userId, behindProxy, protocol, tags, status,
-                createdAt, LocalDateTime.now(), wiremockMappingId, matchConditions, response, webhookUrl
+                createdAt, LocalDateTime.now(), wiremockMappingId, matchConditions, response,
+                webhookUrl, webhookTimeoutMs, webhookCacheTtlMs
         );
     }
 
@@ -89,7 +94,8 @@ public record RestStub(
     public RestStub withResponse(Map<String, Object> newResponse) {
         return new RestStub(
                 id, name, description, userId, behindProxy, protocol, tags, status,
-                createdAt, LocalDateTime.now(), wiremockMappingId, matchConditions, newResponse, webhookUrl
+                createdAt, LocalDateTime.now(), wiremockMappingId, matchConditions, newResponse,
+                webhookUrl, webhookTimeoutMs, webhookCacheTtlMs
         );
 
     }
@@ -100,7 +106,8 @@ public record RestStub(
     public RestStub withStatus(StubStatus newStatus) {
         return new RestStub(
                 id, name, description, userId, behindProxy, protocol, tags, newStatus,
-                createdAt, LocalDateTime.now(), wiremockMappingId, matchConditions, response, webhookUrl
+                createdAt, LocalDateTime.now(), wiremockMappingId, matchConditions, response,
+                webhookUrl, webhookTimeoutMs, webhookCacheTtlMs
         );
     }
 
@@ -110,7 +117,8 @@ public record RestStub(
     public RestStub withWiremockMappingId(String newWiremockMappingId) {
         return new RestStub(
                 id, name, description, userId, behindProxy, protocol, tags, status,
-                createdAt, LocalDateTime.now(), newWiremockMappingId, matchConditions, response, webhookUrl
+                createdAt, LocalDateTime.now(), newWiremockMappingId, matchConditions, response,
+                webhookUrl, webhookTimeoutMs, webhookCacheTtlMs
         );
     }
 
@@ -120,7 +128,8 @@ public record RestStub(
     public RestStub withWebhookUrl(String newWebhookUrl) {
         return new RestStub(
                 id, name, description, userId, behindProxy, protocol, tags, status,
-                createdAt, LocalDateTime.now(), wiremockMappingId, matchConditions, response, newWebhookUrl
+                createdAt, LocalDateTime.now(), wiremockMappingId, matchConditions, response,
+                newWebhookUrl, webhookTimeoutMs, webhookCacheTtlMs
         );
     }
 
@@ -3,6 +3,8 @@ package com.service.virtualization.rest.repository;
 import com.service.virtualization.model.StubStatus;
 import com.service.virtualization.rest.model.RestStub;
 import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
@@ -40,6 +42,11 @@ public class MongoRestStubRepository implements RestStubRepository {
         return mongoTemplate.findAll(RestStub.class);
     }
     
+    @Override
+    public List<RestStub> findAll(int page, int size) {
+        return mongoTemplate.find(new Query().with(pageRequest(page, size)), RestStub.class);
+    }
+    
     @Override
     public List<RestStub> findByStatus(StubStatus status) {
         Query query = new Query(Criteria.where("status").is(status));
@@ -52,6 +59,12 @@ public class MongoRestStubRepository implements RestStubRepository {
         return mongoTemplate.find(query, RestStub.class);
     }
     
+    @Override
+    public List<RestStub> findByUserId(String userId, int page, int size) {
+        Query query = new Query(Criteria.where("userId").is(userId)).with(pageRequest(page, size));
+        return mongoTemplate.find(query, RestStub.class);
+    }
+    
     @Override
     public List<RestStub> findByServicePath(String path) {
         Query query = new Query(Criteria.where("servicePath").is(path));
@@ -74,4 +87,8 @@ public class MongoRestStubRepository implements RestStubRepository {
         Query query = new Query(Criteria.where("id").is(id));
         return mongoTemplate.exists(query, RestStub.class);
     }
-} 
\ No newline at end of file
+    
+    private PageRequest pageRequest(int page, int size) {
+        return PageRequest.of(Math.max(page, 0), size, Sort.by("id"));
+    }
+}
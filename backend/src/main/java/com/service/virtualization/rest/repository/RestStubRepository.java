@@ -33,6 +33,15 @@ public interface RestStubRepository {
      * @return a list of all stubs
      */
     List<RestStub> findAll();
+
+    /**
+     * Find one page of stubs, ordered by ID
+     *
+     * @param page zero-based page index
+     * @param size page size
+     * @return the stubs on the requested page
+     */
+    List<RestStub> findAll(int page, int size);
     
     /**
      * Find stubs by status
@@ -49,6 +58,16 @@ public interface RestStubRepository {
      * @return a list of stubs created by the specified user
      */
     List<RestStub> findByUserId(String userId);
+
+    /**
+     * Find one page of stubs created by a user, ordered by ID
+     *
+     * @param userId the user ID to filter by
+     * @param page   zero-based page index
+     * @param size   page size
+     * @return the user's stubs on the requested page
+     */
+    List<RestStub> findByUserId(String userId, int page, int size);
     
     /**
      * Find stubs by filePath
@@ -34,10 +34,10 @@ public class SybaseRestStubRepository implements RestStubRepository {
 
     // SQL statements
     private static final String INSERT_STUB =
-            "INSERT INTO rest_stubs (stub_data) VALUES (?)";
+            "INSERT INTO rest_stubs (stub_data, status, user_id, url) VALUES (?, ?, ?, ?)";
 
     private static final String UPDATE_STUB =
-            "UPDATE rest_stubs SET stub_data = ? WHERE id = ?";
+            "UPDATE rest_stubs SET stub_data = ?, status = ?, user_id = ?, url = ? WHERE id = ?";
 
     private static final String SELECT_STUB_BY_ID =
             "SELECT * FROM rest_stubs WHERE id = ?";
@@ -45,14 +45,20 @@ public class SybaseRestStubRepository implements RestStubRepository {
     private static final String SELECT_ALL_STUBS =
             "SELECT * FROM rest_stubs";
 
+    private static final String SELECT_STUBS_PAGE =
+            "SELECT * FROM rest_stubs ORDER BY id LIMIT ? OFFSET ?";
+
     private static final String SELECT_STUBS_BY_STATUS =
-            "SELECT * FROM rest_stubs WHERE JSON_VALUE(stub_data, '$.status') = ?";
+            "SELECT * FROM rest_stubs WHERE status = ?";
 
     private static final String SELECT_STUBS_BY_USER_ID =
-            "SELECT * FROM rest_stubs WHERE JSON_VALUE(stub_data, '$.userId') = ?";
+            "SELECT * FROM rest_stubs WHERE user_id = ?";
+
+    private static final String SELECT_STUBS_PAGE_BY_USER_ID =
+            "SELECT * FROM rest_stubs WHERE user_id = ? ORDER BY id LIMIT ? OFFSET ?";
 
     private static final String SELECT_STUBS_BY_SERVICE_PATH =
-            "SELECT * FROM rest_stubs WHERE JSON_VALUE(stub_data, '$.requestData.filePath') = ?";
+            "SELECT * FROM rest_stubs WHERE url = ?";
 
     private static final String DELETE_STUB_BY_ID =
             "DELETE FROM rest_stubs WHERE id = ?";
@@ -72,8 +78,7 @@ public class SybaseRestStubRepository implements RestStubRepository {
             String id = stub.id();
             if (id == null) {
                 // Create new stub - let database generate ID
-                RestStub stubWithTimestamps = createNewStubWithId(stub, null);
-                stubWithTimestamps = new RestStub(
+                final RestStub stubWithTimestamps = new RestStub(
                     null,  // ID will be generated by database
                     stub.name(),
                     stub.description(),
@@ -87,7 +92,9 @@ public class SybaseRestStubRepository implements RestStubRepository {
                     stub.wiremockMappingId(),
                     stub.matchConditions(),
                     stub.response(),
-                    stub.webhookUrl()
+                    stub.webhookUrl(),
+                    stub.webhookTimeoutMs(),
+                    stub.webhookCacheTtlMs()
                 );
                 
                 // Convert stub to JSON
@@ -100,6 +107,9 @@ public class SybaseRestStubRepository implements RestStubRepository {
                         INSERT_STUB, 
                         Statement.RETURN_GENERATED_KEYS);
                     ps.setString(1, stubJson);
+                    ps.setString(2, statusName(stubWithTimestamps));
+                    ps.setString(3, stubWithTimestamps.userId());
+                    ps.setString(4, urlOf(stubWithTimestamps));
                     return ps;
                 }, keyHolder);
                 
@@ -121,12 +131,14 @@ public class SybaseRestStubRepository implements RestStubRepository {
                     stub.wiremockMappingId(),
                     stub.matchConditions(),
                     stub.response(),
-                    stub.webhookUrl()
+                    stub.webhookUrl(),
+                    stub.webhookTimeoutMs(),
+                    stub.webhookCacheTtlMs()
                 );
                 
                 // Update the JSON with the generated ID
                 String updatedStubJson = serializeToJson(stub);
-                jdbcTemplate.update(UPDATE_STUB, updatedStubJson, generatedId);
+                jdbcTemplate.update(UPDATE_STUB, updatedStubJson, statusName(stub), stub.userId(), urlOf(stub), generatedId);
                 
                 return stub;
             } else {
@@ -145,12 +157,15 @@ public class SybaseRestStubRepository implements RestStubRepository {
                     stub.wiremockMappingId(),
                     stub.matchConditions(),
                     stub.response(),
-                    stub.webhookUrl()
+                    stub.webhookUrl(),
+                    stub.webhookTimeoutMs(),
+                    stub.webhookCacheTtlMs()
                 );
                 
                 // Convert stub to JSON
                 String stubJson = serializeToJson(updatedStub);
-                jdbcTemplate.update(UPDATE_STUB, stubJson, id);
+                jdbcTemplate.update(UPDATE_STUB, stubJson, statusName(updatedStub), updatedStub.userId(),
+                        urlOf(updatedStub), id);
                 
                 return updatedStub;
             }
@@ -174,6 +189,11 @@ public class SybaseRestStubRepository implements RestStubRepository {
         return jdbcTemplate.query(SELECT_ALL_STUBS, this::mapRowToStub);
     }
 
+    @Override
+    public List<RestStub> findAll(int page, int size) {
+        return jdbcTemplate.query(SELECT_STUBS_PAGE, this::mapRowToStub, size, offset(page, size));
+    }
+
     @Override
     public List<RestStub> findByStatus(StubStatus status) {
         return jdbcTemplate.query(SELECT_STUBS_BY_STATUS, this::mapRowToStub, status.name());
@@ -184,6 +204,11 @@ public class SybaseRestStubRepository implements RestStubRepository {
         return jdbcTemplate.query(SELECT_STUBS_BY_USER_ID, this::mapRowToStub, userId);
     }
 
+    @Override
+    public List<RestStub> findByUserId(String userId, int page, int size) {
+        return jdbcTemplate.query(SELECT_STUBS_PAGE_BY_USER_ID, this::mapRowToStub, userId, size, offset(page, size));
+    }
+
     @Override
     public List<RestStub> findByServicePath(String path) {
         return jdbcTemplate.query(SELECT_STUBS_BY_SERVICE_PATH, this::mapRowToStub, path);
@@ -229,23 +254,16 @@ public class SybaseRestStubRepository implements RestStubRepository {
         }
     }
 
-    // Helper method to create a new stub with the given ID
-    private RestStub createNewStubWithId(RestStub stub, String id) {
-        return new RestStub(
-                id,
-                stub.name(),
-                stub.description(),
-                stub.userId(),
-                stub.behindProxy(),
-                stub.protocol(),
-                stub.tags(),
-                stub.status(),
-                stub.createdAt(),
-                stub.updatedAt(),
-                stub.wiremockMappingId(),
-                stub.matchConditions(),
-                stub.response(),
-                stub.webhookUrl()
-        );
-    }
-} 
\ No newline at end of file
+    private static String statusName(RestStub stub) {
+        return stub.status() != null ? stub.status().name() : null;
+    }
+
+    private static long offset(int page, int size) {
+        return (long) Math.max(page, 0) * size;
+    }
+
+    private static String urlOf(RestStub stub) {
+        Object url = stub.matchConditions() != null ? stub.matchConditions().get("url") : null;
+        return url != null ? url.toString() : null;
+    }
+}
@@ -0,0 +1,73 @@
+package com.service.virtualization.rest.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Fixed-size pool of byte buffers used to stream proxied request and response bodies
+ * without holding the whole payload in memory
+ */
+@Component
+public class ProxyBufferPool {
+
+    private final int bufferSize;
+    private final BlockingQueue<byte[]> buffers;
+
+    public ProxyBufferPool(@Value("${proxy.streaming.buffer-size:8192}") int bufferSize,
+                           @Value("${proxy.streaming.buffer-pool-size:64}") int poolSize) {
+        this.bufferSize = bufferSize;
+        this.buffers = new ArrayBlockingQueue<>(poolSize);
+    }
+
+    /**
+     * Take a buffer from the pool, allocating a new one if the pool is empty
+     */
+    public byte[] acquire() {
+        byte[] buffer = buffers.poll();
+        return buffer != null ? buffer : new byte[bufferSize];
+    }
+
+    /**
+     * Return a buffer to the pool; buffers beyond the pool capacity are left to the GC
+     */
+    public void release(byte[] buffer) {
+        if (buffer != null && buffer.length == bufferSize) {
+            buffers.offer(buffer);
+        }
+    }
+
+    /**
+     * Copy an input stream to an output stream using a pooled buffer
+     *
+     * @return the number of bytes copied
+     */
+    public long copy(InputStream in, OutputStream out) throws IOException {
+        byte[] buffer = acquire();
+        try {
+            long total = 0;
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+                total += read;
+            }
+            out.flush();
+            return total;
+        } finally {
+            release(buffer);
+        }
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    public int getAvailableBuffers() {
+        return buffers.size();
+    }
+}
@@ -2,24 +2,41 @@ package com.service.virtualization.rest.service;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.tomakehurst.wiremock.http.HttpHeader;
+import com.github.tomakehurst.wiremock.http.Request;
+import com.github.tomakehurst.wiremock.http.Response;
+import com.service.virtualization.wiremock.InProcessWireMockDispatcher;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.http.StreamingHttpOutputMessage;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.ClientHttpRequestFactory;
 import org.springframework.http.converter.ByteArrayHttpMessageConverter;
 import org.springframework.stereotype.Component;
+import org.springframework.web.client.DefaultResponseErrorHandler;
+import org.springframework.web.client.RequestCallback;
 import org.springframework.web.client.RestTemplate;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.net.URI;
 import java.util.Collections;
 import java.util.Enumeration;
-import java.util.stream.Collectors;
+import java.util.Optional;
+import java.util.Set;
 
 /**
  * Handler for proxy requests that can record interactions using WireMock's recording feature
@@ -29,6 +46,20 @@ public class ProxyHandler {
 
     private static final Logger logger = LoggerFactory.getLogger(ProxyHandler.class);
 
+    /**
+     * Response headers a stub sets to ask the proxy to replay the request against a callback URL.
+     * Stubs may instead declare a top-level {@code "callback": {"url": ..., "method": ...}} field
+     * in a JSON response body, as they did before the headers were introduced.
+     */
+    public static final String CALLBACK_URL_HEADER = "X-Callback-Url";
+    public static final String CALLBACK_METHOD_HEADER = "X-Callback-Method";
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private static final Set<String> HOP_BY_HOP_HEADERS = Set.of(
+            "connection", "keep-alive", "proxy-authenticate", "proxy-authorization",
+            "te", "trailer", "transfer-encoding", "upgrade");
+
     @Value("${rest.api-path}")
     private String apiPath;
 
@@ -44,18 +75,35 @@ public class ProxyHandler {
     @Value("${auto.record:false}")
     private boolean autoRecord;
 
+    @Value("${proxy.streaming.callback-body-limit:65536}")
+    private int callbackBodyLimit;
+
+    @Value("${proxy.streaming.in-process-body-limit:1048576}")
+    private int inProcessBodyLimit;
+
     private final RestTemplate restTemplate;
+    private final ProxyBufferPool bufferPool;
+    private final InProcessWireMockDispatcher inProcessDispatcher;
 
-    public ProxyHandler() {
-        this.restTemplate = new RestTemplate();
+    public ProxyHandler(ProxyBufferPool bufferPool,
+                        ClientHttpRequestFactory outboundRequestFactory,
+                        InProcessWireMockDispatcher inProcessDispatcher) {
+        this.bufferPool = bufferPool;
+        this.inProcessDispatcher = inProcessDispatcher;
 
-        // Configure RestTemplate to handle gzipped responses
-        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
-        requestFactory.setBufferRequestBody(false);
-        restTemplate.setRequestFactory(requestFactory);
+        // Dedicated RestTemplate on the shared pooled client, with proxy-specific converters and error handling
+        this.restTemplate = new RestTemplate(outboundRequestFactory);
 
         // Add byte array message converter
         restTemplate.getMessageConverters().add(0, new ByteArrayHttpMessageConverter());
+
+        // Pass upstream error statuses through to the client instead of raising exceptions
+        restTemplate.setErrorHandler(new DefaultResponseErrorHandler() {
+            @Override
+            public boolean hasError(ClientHttpResponse response) {
+                return false;
+            }
+        });
     }
 
     /**
@@ -73,26 +121,139 @@ public class ProxyHandler {
         String path = getRelativePath(request.getRequestURI(), isProxy);
 
         // Clean up targetUrl to remove any pattern matching symbols
-        if (targetUrl != null) {
-            // Remove any remaining pattern symbols
-            if (targetUrl.startsWith("**/")) {
-                targetUrl = targetUrl.substring(3);
-            } else if (targetUrl.startsWith("**")) {
-                targetUrl = targetUrl.substring(2);
+        String fullUrl = sanitizeTargetUrl(targetUrl);
+
+        logger.info("Handling {} request for: {}", method, fullUrl);
+        logger.debug("Original filePath: {}, Sanitized target URL: {}", path, fullUrl);
+
+        // Forward the request to WireMock
+        return forwardRequestToWireMock(request, fullUrl);
+    }
+
+    /**
+     * Stream a proxy request to WireMock, piping request and response bodies between the servlet
+     * streams and the upstream connection through pooled buffers instead of buffering them in memory
+     *
+     * @param request   The incoming request
+     * @param response  The servlet response the WireMock response is written to
+     * @param targetUrl The target URL to proxy to
+     * @param isProxy   Whether this is a proxy request (true) or API request (false)
+     * @throws IOException If an error occurs
+     */
+    public void streamRequest(HttpServletRequest request, HttpServletResponse response,
+                              String targetUrl, boolean isProxy) throws IOException {
+        String fullUrl = sanitizeTargetUrl(targetUrl);
+        String wireMockUrl = buildWireMockUrl(fullUrl, request.getQueryString());
+        HttpMethod method = HttpMethod.valueOf(request.getMethod());
+
+        logger.info("Streaming {} request for: {}", method, fullUrl);
+        logger.debug("Original filePath: {}, WireMock URL: {}", getRelativePath(request.getRequestURI(), isProxy), wireMockUrl);
+
+        HttpHeaders requestHeaders = copyRequestHeaders(request);
+
+        InputStream requestBody = hasRequestBody(request) ? request.getInputStream() : InputStream.nullInputStream();
+
+        // WireMock runs in this JVM, so hand the request straight to its stub engine when possible.
+        // Bodies above the in-process limit, and requests for stubs only WireMock's HTTP layer can
+        // simulate, are streamed over HTTP instead, replaying whatever was already read.
+        if (inProcessDispatcher.isAvailable() && request.getContentLengthLong() <= inProcessBodyLimit) {
+            byte[] body = requestBody.readNBytes(inProcessBodyLimit + 1);
+            if (body.length <= inProcessBodyLimit) {
+                Request wireMockRequest = inProcessDispatcher.toRequest(request, withQueryString(fullUrl, request.getQueryString()), body);
+                if (inProcessDispatcher.canServe(wireMockRequest)) {
+                    serveInProcess(wireMockRequest, requestHeaders, body, response);
+                    return;
+                }
+            } else {
+                logger.debug("Request body exceeded {} bytes, streaming {} over HTTP", inProcessBodyLimit, fullUrl);
+            }
+            requestBody = new SequenceInputStream(new ByteArrayInputStream(body), requestBody);
+        }
+
+        CallbackBodyCapture capture = new CallbackBodyCapture(callbackBodyLimit);
+
+        // Pipe the request body straight into the upstream connection, keeping a bounded copy for callbacks
+        InputStream upstreamBody = requestBody;
+        RequestCallback requestCallback = upstreamRequest -> {
+            upstreamRequest.getHeaders().putAll(requestHeaders);
+            if (!hasRequestBody(request)) {
+                return;
             }
+            if (upstreamRequest instanceof StreamingHttpOutputMessage streamingRequest) {
+                streamingRequest.setBody(outputStream ->
+                        bufferPool.copy(upstreamBody, capture.tee(outputStream)));
+            } else {
+                // The request factory buffers the body itself, so write it rather than dropping it
+                logger.debug("Request factory does not stream, buffering {} request body for {}", method, wireMockUrl);
+                bufferPool.copy(upstreamBody, capture.tee(upstreamRequest.getBody()));
+            }
+        };
+
+        // Callback detection checks headers first; a JSON body is only buffered (up to the callback
+        // body limit) to look for a legacy "callback" field when no callback header is present
+        Callback callback = restTemplate.execute(URI.create(wireMockUrl), method, requestCallback, upstreamResponse -> {
+            Callback headerCallback = Callback.fromHeaders(upstreamResponse.getHeaders());
+            if (headerCallback != null) {
+                return headerCallback;
+            }
+            if (!isJson(upstreamResponse.getHeaders().getContentType())) {
+                writeUpstreamResponse(upstreamResponse, response, null);
+                return null;
+            }
+            byte[] head = upstreamResponse.getBody().readNBytes(callbackBodyLimit + 1);
+            Callback bodyCallback = head.length <= callbackBodyLimit ? Callback.fromBody(head) : null;
+            if (bodyCallback == null) {
+                writeUpstreamResponse(upstreamResponse, response, head);
+            }
+            return bodyCallback;
+        });
+
+        if (callback == null) {
+            return;
         }
 
-        // Combine filePath and targetUrl for matching
-        String fullUrl = targetUrl;
-        if (!targetUrl.startsWith("/")) {
-            fullUrl = "/" + targetUrl;
+        if (capture.isOverflowed()) {
+            logger.warn("Request body exceeded {} bytes, calling back {} without body", callbackBodyLimit, callback.url());
         }
+        byte[] callbackBody = capture.isOverflowed() ? new byte[0] : capture.toByteArray();
 
-        logger.info("Handling {} request for: {}", method, fullUrl);
-        logger.debug("Original filePath: {}, Sanitized target URL: {}", path, targetUrl);
+        streamCallback(callback.url(), callback.method(), requestHeaders, callbackBody, response);
+    }
 
-        // Forward the request to WireMock
-        return forwardRequestToWireMock(request, fullUrl);
+    /**
+     * Render a request with the in-process stub engine and write the response or run its callback
+     */
+    private void serveInProcess(Request wireMockRequest, HttpHeaders requestHeaders, byte[] body,
+                                HttpServletResponse response) throws IOException {
+        Response wireMockResponse = inProcessDispatcher.serve(wireMockRequest);
+        Callback callback = findCallback(wireMockResponse);
+        if (callback == null) {
+            inProcessDispatcher.write(wireMockResponse, response);
+            return;
+        }
+        if (body.length > callbackBodyLimit) {
+            logger.warn("Request body exceeded {} bytes, calling back {} without body", callbackBodyLimit, callback.url());
+            body = new byte[0];
+        }
+        streamCallback(callback.url(), callback.method(), requestHeaders, body, response);
+    }
+
+    /**
+     * Replay a request against a stub-provided callback URL and stream its response to the client
+     */
+    private void streamCallback(String callbackUrl, String callbackMethod, HttpHeaders requestHeaders,
+                                byte[] callbackBody, HttpServletResponse response) {
+        logger.debug("Invoking callback {} {}", callbackMethod, callbackUrl);
+        restTemplate.execute(URI.create(callbackUrl), HttpMethod.valueOf(callbackMethod), callbackRequest -> {
+            callbackRequest.getHeaders().putAll(requestHeaders);
+            callbackRequest.getHeaders().setContentLength(callbackBody.length);
+            if (callbackBody.length > 0) {
+                callbackRequest.getBody().write(callbackBody);
+            }
+        }, callbackResponse -> {
+            writeUpstreamResponse(callbackResponse, response, null);
+            return null;
+        });
     }
 
     /**
@@ -102,44 +263,40 @@ public class ProxyHandler {
                                                        String url) throws IOException {
         try {
             // Create WireMock URL 
-            String wireMockUrl = String.format("http://%s:%d%s", wiremockHost, wiremockPort, url);
-
-            logger.debug("Forwarding request to WireMock at: {}", wireMockUrl);
+            String wireMockUrl = buildWireMockUrl(url, request.getQueryString());
 
             // Create headers from request
-            HttpHeaders headers = new HttpHeaders();
-            Enumeration<String> headerNames = request.getHeaderNames();
-            while (headerNames.hasMoreElements()) {
-                String headerName = headerNames.nextElement();
-                headers.addAll(headerName, Collections.list(request.getHeaders(headerName)));
-            }
+            HttpHeaders headers = copyRequestHeaders(request);
 
-            // Read request body if present
-            String body = "";
-            if (request.getContentLength() > 0) {
-                body = request.getReader().lines().collect(Collectors.joining());
-            }
+            // Read request body as raw bytes so line breaks and binary content survive
+            byte[] body = hasRequestBody(request) ? request.getInputStream().readAllBytes() : new byte[0];
 
             // Create HTTP entity with headers and body
-            HttpEntity<String> entity = new HttpEntity<>(body, headers);
-
-            // Make the request to WireMock and get response as byte array
-            ResponseEntity<byte[]> wireMockResponse = restTemplate.exchange(
-                    wireMockUrl,
-                    HttpMethod.valueOf(request.getMethod()),
-                    entity,
-                    byte[].class
-            );
-
-            String responseBody = new String(wireMockResponse.getBody(), StandardCharsets.UTF_8);
-            ObjectMapper mapper = new ObjectMapper();
-            JsonNode root = mapper.readTree(responseBody);
-            if (root.has("callback")) {
-                JsonNode callback = root.get("callback");
-                String callbackUrl = callback.get("url").asText();
-                String callbackMethod = callback.has("method") ? callback.get("method").asText() : "POST";
-
-                ResponseEntity<byte[]> callbackResponse = restTemplate.exchange(callbackUrl, HttpMethod.valueOf(callbackMethod), entity, byte[].class);
+            HttpEntity<byte[]> entity = new HttpEntity<>(body, headers);
+
+            // Dispatch in-process when WireMock runs in this JVM, otherwise make the HTTP call
+            ResponseEntity<byte[]> wireMockResponse;
+            Request wireMockRequest = inProcessDispatcher.isAvailable()
+                    ? inProcessDispatcher.toRequest(request, withQueryString(url, request.getQueryString()), body) : null;
+            if (wireMockRequest != null && inProcessDispatcher.canServe(wireMockRequest)) {
+                logger.debug("Dispatching request to WireMock in-process: {}", url);
+                wireMockResponse = inProcessDispatcher.toResponseEntity(inProcessDispatcher.serve(wireMockRequest));
+            } else {
+                logger.debug("Forwarding request to WireMock at: {}", wireMockUrl);
+                wireMockResponse = restTemplate.exchange(
+                        wireMockUrl,
+                        HttpMethod.valueOf(request.getMethod()),
+                        entity,
+                        byte[].class
+                );
+            }
+
+            Callback callback = Callback.fromHeaders(wireMockResponse.getHeaders());
+            if (callback == null && wireMockResponse.getBody() != null) {
+                callback = Callback.fromBody(wireMockResponse.getBody());
+            }
+            if (callback != null) {
+                ResponseEntity<byte[]> callbackResponse = restTemplate.exchange(callback.url(), HttpMethod.valueOf(callback.method()), entity, byte[].class);
 
                 HttpHeaders responseHeaders = new HttpHeaders();
                 responseHeaders.putAll(callbackResponse.getHeaders());
@@ -159,6 +316,178 @@ public class ProxyHandler {
         }
     }
 
+    /**
+     * Write status, headers and body of an upstream response to the servlet response
+     *
+     * @param bufferedHead Bytes already read from the start of the upstream body, or null
+     */
+    private void writeUpstreamResponse(ClientHttpResponse upstreamResponse, HttpServletResponse response,
+                                       byte[] bufferedHead) throws IOException {
+        response.setStatus(upstreamResponse.getStatusCode().value());
+        upstreamResponse.getHeaders().forEach((name, values) -> {
+            if (!isHopByHopHeader(name) && !CALLBACK_URL_HEADER.equalsIgnoreCase(name)
+                    && !CALLBACK_METHOD_HEADER.equalsIgnoreCase(name)) {
+                values.forEach(value -> response.addHeader(name, value));
+            }
+        });
+        response.setHeader("Access-Control-Allow-Origin", "*");
+
+        try (InputStream body = bufferedHead == null ? upstreamResponse.getBody()
+                : new SequenceInputStream(new ByteArrayInputStream(bufferedHead), upstreamResponse.getBody())) {
+            bufferPool.copy(body, response.getOutputStream());
+        }
+    }
+
+    /**
+     * Find a callback in a WireMock response rendered in-process, by header or legacy body field
+     */
+    private Callback findCallback(Response wireMockResponse) {
+        HttpHeader callbackHeader = wireMockResponse.getHeaders().getHeader(CALLBACK_URL_HEADER);
+        if (callbackHeader.isPresent() && !callbackHeader.firstValue().isBlank()) {
+            HttpHeader callbackMethodHeader = wireMockResponse.getHeaders().getHeader(CALLBACK_METHOD_HEADER);
+            return new Callback(callbackHeader.firstValue(),
+                    callbackMethodHeader.isPresent() ? callbackMethodHeader.firstValue() : "POST");
+        }
+        byte[] body = wireMockResponse.getBody();
+        return body != null && body.length <= callbackBodyLimit ? Callback.fromBody(body) : null;
+    }
+
+    private boolean isJson(MediaType contentType) {
+        return contentType == null || contentType.getSubtype().toLowerCase().contains("json");
+    }
+
+    /**
+     * Copy incoming request headers, dropping hop-by-hop headers that must not be forwarded
+     */
+    private HttpHeaders copyRequestHeaders(HttpServletRequest request) {
+        HttpHeaders headers = new HttpHeaders();
+        Enumeration<String> headerNames = request.getHeaderNames();
+        while (headerNames.hasMoreElements()) {
+            String headerName = headerNames.nextElement();
+            if (!isHopByHopHeader(headerName)) {
+                headers.addAll(headerName, Collections.list(request.getHeaders(headerName)));
+            }
+        }
+        return headers;
+    }
+
+    private boolean hasRequestBody(HttpServletRequest request) {
+        return request.getContentLengthLong() > 0 || request.getHeader(HttpHeaders.TRANSFER_ENCODING) != null;
+    }
+
+    private boolean isHopByHopHeader(String headerName) {
+        return HOP_BY_HOP_HEADERS.contains(headerName.toLowerCase());
+    }
+
+    private String buildWireMockUrl(String url, String queryString) {
+        return String.format("http://%s:%d%s", wiremockHost, wiremockPort, withQueryString(url, queryString));
+    }
+
+    private String withQueryString(String url, String queryString) {
+        if (queryString != null && !queryString.isEmpty() && !url.contains("?")) {
+            return url + "?" + queryString;
+        }
+        return url;
+    }
+
+    /**
+     * Strip pattern matching symbols from the target URL and make it absolute
+     */
+    private String sanitizeTargetUrl(String targetUrl) {
+        if (targetUrl == null) {
+            return "/";
+        }
+        if (targetUrl.startsWith("**/")) {
+            targetUrl = targetUrl.substring(3);
+        } else if (targetUrl.startsWith("**")) {
+            targetUrl = targetUrl.substring(2);
+        }
+        return targetUrl.startsWith("/") ? targetUrl : "/" + targetUrl;
+    }
+
+    /**
+     * Callback target a stub asked the proxy to replay the request against
+     */
+    private record Callback(String url, String method) {
+
+        static Callback fromHeaders(HttpHeaders headers) {
+            String url = headers.getFirst(CALLBACK_URL_HEADER);
+            if (url == null || url.isBlank()) {
+                return null;
+            }
+            return new Callback(url, Optional.ofNullable(headers.getFirst(CALLBACK_METHOD_HEADER)).orElse("POST"));
+        }
+
+        /**
+         * Read the legacy {@code "callback"} field from a JSON response body; non-JSON bodies have no callback
+         */
+        static Callback fromBody(byte[] body) {
+            if (body.length == 0) {
+                return null;
+            }
+            try {
+                JsonNode callback = objectMapper.readTree(body).get("callback");
+                if (callback == null || !callback.hasNonNull("url")) {
+                    return null;
+                }
+                return new Callback(callback.get("url").asText(),
+                        callback.hasNonNull("method") ? callback.get("method").asText() : "POST");
+            } catch (IOException e) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Output stream decorator that forwards every byte and keeps a copy of the first
+     * {@code limit} bytes so a callback can replay the request body
+     */
+    private static final class CallbackBodyCapture {
+        private final int limit;
+        private final ByteArrayOutputStream captured = new ByteArrayOutputStream();
+        private boolean overflowed;
+
+        CallbackBodyCapture(int limit) {
+            this.limit = limit;
+        }
+
+        OutputStream tee(OutputStream delegate) {
+            return new FilterOutputStream(delegate) {
+                @Override
+                public void write(int b) throws IOException {
+                    out.write(b);
+                    capture(new byte[]{(byte) b}, 0, 1);
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    out.write(b, off, len);
+                    capture(b, off, len);
+                }
+            };
+        }
+
+        private void capture(byte[] b, int off, int len) {
+            if (overflowed) {
+                return;
+            }
+            if (captured.size() + len > limit) {
+                overflowed = true;
+                captured.reset();
+            } else {
+                captured.write(b, off, len);
+            }
+        }
+
+        boolean isOverflowed() {
+            return overflowed;
+        }
+
+        byte[] toByteArray() {
+            return captured.toByteArray();
+        }
+    }
+
     /**
      * Get the relative filePath by stripping the API or proxy prefix
      */
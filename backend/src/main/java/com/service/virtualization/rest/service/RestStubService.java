@@ -1,11 +1,13 @@
 package com.service.virtualization.rest.service;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import com.service.virtualization.dto.DtoConverter;
 import com.service.virtualization.model.StubStatus;
 import com.service.virtualization.rest.dto.RestStubDTO;
 import com.service.virtualization.rest.model.RestStub;
 import com.service.virtualization.rest.repository.RestStubRepository;
+import com.service.virtualization.wiremock.WebhookResponseTransformer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpEntity;
@@ -13,11 +15,11 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
 import org.springframework.context.annotation.Profile;
 
 import java.time.LocalDateTime;
 import java.util.*;
-import java.util.stream.Collectors;
 
 /**
  * Implementation of StubService that manages stubs using WireMock and database storage
@@ -30,6 +32,11 @@ public class RestStubService {
     private static final Logger logger = LoggerFactory.getLogger(RestStubService.class);
     private static final ObjectMapper objectMapper = new ObjectMapper();
 
+    /**
+     * Metadata key holding the content hash of a registered mapping
+     */
+    public static final String MAPPING_HASH_METADATA_KEY = "restStubHash";
+
     private final RestStubRepository restStubRepository;
     private final WireMockAdminService wireMockAdminService;
 
@@ -63,7 +70,9 @@ public class RestStubService {
                 id, // Use the same ID for WireMock mapping
                 stub.matchConditions(),
                 stub.response(),
-                stub.webhookUrl()  // Include webhook URL
+                stub.webhookUrl(),  // Include webhook URL
+                stub.webhookTimeoutMs(),
+                stub.webhookCacheTtlMs()
         );
 
         // Register stub with remote WireMock only if it's active
@@ -104,7 +113,9 @@ public class RestStubService {
                 stub.id(), // Use the same ID for WireMock mapping
                 stub.matchConditions(),
                 stub.response(),
-                stub.webhookUrl()  // Include webhook URL
+                stub.webhookUrl(),  // Include webhook URL
+                stub.webhookTimeoutMs(),
+                stub.webhookCacheTtlMs()
         );
 
         // Handle WireMock registration based on status changes
@@ -132,57 +143,23 @@ public class RestStubService {
      * @return List of RestStubDTO with registration status checked
      */
     public List<RestStubDTO> findAllStubsWithRegistrationStatus() {
-        logger.debug("Finding all stubs with WireMock registration status");
-
-        // Get all stubs from repository
-        List<RestStub> stubs = restStubRepository.findAll();
-
-        if (stubs.isEmpty()) {
-            logger.debug("No stubs found in repository");
-            return Collections.emptyList();
-        }
-
-        // Get registered stub IDs from WireMock
-        Set<String> registeredStubIds = wireMockAdminService.getRegisteredStubIds();
-
-        // Convert stubs to DTOs and update status based on registration
-        List<RestStubDTO> stubDTOs = stubs.stream()
-                .map(stub -> {
-                    RestStubDTO dto = DtoConverter.fromRestStub(stub);
-
-                    // Check if stub is registered in WireMock
-                    if (!registeredStubIds.contains(stub.id())) {
-                        // Create new DTO with updated status
-                        dto = new RestStubDTO(
-                                dto.id(),
-                                dto.name(),
-                                dto.description(),
-                                dto.userId(),
-                                dto.behindProxy(),
-                                dto.protocol(),
-                                dto.tags(),
-                                StubStatus.STUB_NOT_REGISTERED.name(), // Update status
-                                dto.createdAt(),
-                                dto.updatedAt(),
-                                dto.wiremockMappingId(),
-                                dto.matchConditions(),
-                                dto.response(),
-                                dto.webhookUrl()  // Include webhook URL
-                        );
-                    }
-
-                    return dto;
-                })
-                .collect(Collectors.toList());
-
-        long notRegisteredCount = stubDTOs.stream()
-                .mapToLong(dto -> StubStatus.STUB_NOT_REGISTERED.name().equals(dto.status()) ? 1 : 0)
-                .sum();
-
-        logger.info("Found {} stubs, {} not registered with WireMock",
-                stubDTOs.size(), notRegisteredCount);
+        return findAllStubsWithRegistrationStatus(0, 0);
+    }
 
-        return stubDTOs;
+    /**
+     * Find a page of stubs and check their registration status with WireMock.
+     * The page is read from the repository, and registration status comes from the in-memory
+     * registration index, so no WireMock call is made.
+     *
+     * @param page zero-based page index
+     * @param size page size, or 0 for all stubs
+     * @return List of RestStubDTO with registration status checked
+     */
+    public List<RestStubDTO> findAllStubsWithRegistrationStatus(int page, int size) {
+        logger.debug("Finding all stubs with WireMock registration status (page {}, size {})", page, size);
+        return toDtosWithRegistrationStatus(size > 0
+                ? restStubRepository.findAll(page, size)
+                : restStubRepository.findAll());
     }
 
     /**
@@ -192,56 +169,36 @@ public class RestStubService {
      * @return List of RestStubDTO with registration status checked
      */
     public List<RestStubDTO> findStubsByUserIdWithRegistrationStatus(String userId) {
-        logger.debug("Finding stubs for user {} with WireMock registration status", userId);
-
-        // Get stubs by user ID from repository
-        List<RestStub> stubs = restStubRepository.findByUserId(userId);
-
-        if (stubs.isEmpty()) {
-            logger.debug("No stubs found for user {}", userId);
-            return Collections.emptyList();
-        }
+        return findStubsByUserIdWithRegistrationStatus(userId, 0, 0);
+    }
 
-        // Get registered stub IDs from WireMock
-        Set<String> registeredStubIds = wireMockAdminService.getRegisteredStubIds();
+    /**
+     * Find a page of stubs by user ID and check their registration status with WireMock
+     *
+     * @param userId the user ID to filter by
+     * @param page   zero-based page index
+     * @param size   page size, or 0 for all stubs
+     * @return List of RestStubDTO with registration status checked
+     */
+    public List<RestStubDTO> findStubsByUserIdWithRegistrationStatus(String userId, int page, int size) {
+        logger.debug("Finding stubs for user {} with WireMock registration status (page {}, size {})", userId, page, size);
+        return toDtosWithRegistrationStatus(size > 0
+                ? restStubRepository.findByUserId(userId, page, size)
+                : restStubRepository.findByUserId(userId));
+    }
 
-        // Convert stubs to DTOs and update status based on registration
+    /**
+     * Convert stubs to DTOs, marking stubs missing from WireMock as not registered
+     */
+    private List<RestStubDTO> toDtosWithRegistrationStatus(List<RestStub> stubs) {
         List<RestStubDTO> stubDTOs = stubs.stream()
-                .map(stub -> {
-                    RestStubDTO dto = DtoConverter.fromRestStub(stub);
-
-                    // Check if stub is registered in WireMock
-                    if (!registeredStubIds.contains(stub.id())) {
-                        // Create new DTO with updated status
-                        dto = new RestStubDTO(
-                                dto.id(),
-                                dto.name(),
-                                dto.description(),
-                                dto.userId(),
-                                dto.behindProxy(),
-                                dto.protocol(),
-                                dto.tags(),
-                                StubStatus.STUB_NOT_REGISTERED.name(), // Update status
-                                dto.createdAt(),
-                                dto.updatedAt(),
-                                dto.wiremockMappingId(),
-                                dto.matchConditions(),
-                                dto.response(),
-                                dto.webhookUrl()  // Include webhook URL
-                        );
-                    }
-
-                    return dto;
-                })
-                .collect(Collectors.toList());
-
-        long notRegisteredCount = stubDTOs.stream()
-                .mapToLong(dto -> StubStatus.STUB_NOT_REGISTERED.name().equals(dto.status()) ? 1 : 0)
-                .sum();
-
-        logger.info("Found {} stubs for user {}, {} not registered with WireMock",
-                stubDTOs.size(), userId, notRegisteredCount);
+                .map(stub -> DtoConverter.fromRestStub(stub,
+                        wireMockAdminService.isStubRegisteredCached(stub.id())
+                                ? stub.status().name()
+                                : StubStatus.STUB_NOT_REGISTERED.name()))
+                .toList();
 
+        logger.debug("Returning {} stubs", stubDTOs.size());
         return stubDTOs;
     }
 
@@ -263,172 +220,209 @@ public class RestStubService {
 
 
     /**
-     * Register stub with remote WireMock service
+     * Build the WireMock mapping JSON for a stub.
+     * The mapping carries a content hash in its metadata so bulk sync can skip unchanged stubs.
+     *
+     * @param stub the stub to convert
+     * @return the mapping as a JSON-ready map
      */
-    private void registerWithWireMock(RestStub stub) {
-        try {
-            // Extract match conditions
-            Map<String, Object> matchConditions = stub.matchConditions();
-            String method = (String) matchConditions.getOrDefault("method", "GET");
-            String url = (String) matchConditions.getOrDefault("url", "/");
-            String urlMatchType = (String) matchConditions.getOrDefault("urlMatchType", "exact");
-            int priority = (int) matchConditions.getOrDefault("priority", 1);
-
-            // Build request matcher
-            Map<String, Object> request = new HashMap<>();
-
-            // Add URL matching
-            switch (urlMatchType) {
-                case "exact":
-                    request.put("url", url);
-                    break;
-                case "regex":
-                    request.put("urlPattern", url);
-                    break;
-                case "urlPath":
-                    request.put("urlPath", url);
-                    break;
-            }
+    public Map<String, Object> buildWireMockMapping(RestStub stub) {
+        // Extract match conditions
+        Map<String, Object> matchConditions = stub.matchConditions();
+        String method = (String) matchConditions.getOrDefault("method", "GET");
+        String url = (String) matchConditions.getOrDefault("url", "/");
+        String urlMatchType = (String) matchConditions.getOrDefault("urlMatchType", "exact");
+        int priority = (int) matchConditions.getOrDefault("priority", 1);
+
+        // Build request matcher
+        Map<String, Object> request = new HashMap<>();
+
+        // Add URL matching
+        switch (urlMatchType) {
+            case "exact":
+                request.put("url", url);
+                break;
+            case "regex":
+                request.put("urlPattern", url);
+                break;
+            case "urlPath":
+                request.put("urlPath", url);
+                break;
+        }
 
-            // Add method matching
-            request.put("method", method);
-
-            // Add headers matching if present
-            List<Map<String, Object>> headers = (List<Map<String, Object>>) matchConditions.getOrDefault("headers", Collections.emptyList());
-            if (!headers.isEmpty()) {
-                Map<String, Object> headersPattern = new HashMap<>();
-                for (Map<String, Object> header : headers) {
-                    String name = (String) header.get("name");
-                    String value = (String) header.get("value");
-                    String matchType = (String) header.getOrDefault("matchType", "exact");
-
-                    Map<String, Object> headerPattern = new HashMap<>();
-                    switch (matchType) {
-                        case "exact":
-                            headerPattern.put("equalTo", value);
-                            break;
-                        case "regex":
-                            headerPattern.put("matches", value);
-                            break;
-                        case "contains":
-                            headerPattern.put("contains", value);
-                            break;
-                    }
-                    headersPattern.put(name, headerPattern);
-                }
-                request.put("headers", headersPattern);
-            }
+        // Add method matching
+        request.put("method", method);
 
-            // Add query parameters matching if present
-            List<Map<String, Object>> queryParams = (List<Map<String, Object>>) matchConditions.getOrDefault("queryParams", Collections.emptyList());
-            if (!queryParams.isEmpty()) {
-                Map<String, Object> queryPattern = new HashMap<>();
-                for (Map<String, Object> param : queryParams) {
-                    String name = (String) param.get("name");
-                    String value = (String) param.get("value");
-                    String matchType = (String) param.getOrDefault("matchType", "exact");
-
-                    Map<String, Object> paramPattern = new HashMap<>();
-                    switch (matchType) {
-                        case "exact":
-                            paramPattern.put("equalTo", value);
-                            break;
-                        case "regex":
-                            paramPattern.put("matches", value);
-                            break;
-                        case "contains":
-                            paramPattern.put("contains", value);
-                            break;
-                    }
-                    queryPattern.put(name, paramPattern);
-                }
-                request.put("queryParameters", queryPattern);
-            }
+        // Add headers matching if present
+        List<Map<String, Object>> headers = (List<Map<String, Object>>) matchConditions.getOrDefault("headers", Collections.emptyList());
+        if (!headers.isEmpty()) {
+            Map<String, Object> headersPattern = new HashMap<>();
+            for (Map<String, Object> header : headers) {
+                String name = (String) header.get("name");
+                String value = (String) header.get("value");
+                String matchType = (String) header.getOrDefault("matchType", "exact");
 
-            // Add body matching if present
-            String body = (String) matchConditions.get("body");
-            String bodyMatchType = (String) matchConditions.getOrDefault("bodyMatchType", "exact");
-            if (body != null && !body.isEmpty()) {
-                Map<String, Object> bodyPattern = new HashMap<>();
-                switch (bodyMatchType) {
+                Map<String, Object> headerPattern = new HashMap<>();
+                switch (matchType) {
                     case "exact":
-                        bodyPattern.put("equalTo", body);
-                        break;
-                    case "json":
-                        bodyPattern.put("matchesJsonSchema", body);
+                        headerPattern.put("equalTo", value);
                         break;
-                    case "jsonpath":
-                        bodyPattern.put("matchesJsonPath", body);
-                        break;
-                    case "xpath":
-                        bodyPattern.put("matchesXPath", body);
+                    case "regex":
+                        headerPattern.put("matches", value);
                         break;
                     case "contains":
-                        bodyPattern.put("contains", body);
+                        headerPattern.put("contains", value);
+                        break;
+                }
+                headersPattern.put(name, headerPattern);
+            }
+            request.put("headers", headersPattern);
+        }
+
+        // Add query parameters matching if present
+        List<Map<String, Object>> queryParams = (List<Map<String, Object>>) matchConditions.getOrDefault("queryParams", Collections.emptyList());
+        if (!queryParams.isEmpty()) {
+            Map<String, Object> queryPattern = new HashMap<>();
+            for (Map<String, Object> param : queryParams) {
+                String name = (String) param.get("name");
+                String value = (String) param.get("value");
+                String matchType = (String) param.getOrDefault("matchType", "exact");
+
+                Map<String, Object> paramPattern = new HashMap<>();
+                switch (matchType) {
+                    case "exact":
+                        paramPattern.put("equalTo", value);
                         break;
                     case "regex":
-                        bodyPattern.put("matches", body);
+                        paramPattern.put("matches", value);
+                        break;
+                    case "contains":
+                        paramPattern.put("contains", value);
                         break;
                 }
-                request.put("bodyPatterns", Collections.singletonList(bodyPattern));
+                queryPattern.put(name, paramPattern);
             }
+            request.put("queryParameters", queryPattern);
+        }
 
-            // Build response
-            Map<String, Object> response = new HashMap<>();
-            Map<String, Object> stubResponse = stub.response();
+        // Add body matching if present
+        String body = (String) matchConditions.get("body");
+        String bodyMatchType = (String) matchConditions.getOrDefault("bodyMatchType", "exact");
+        if (body != null && !body.isEmpty()) {
+            Map<String, Object> bodyPattern = new HashMap<>();
+            switch (bodyMatchType) {
+                case "exact":
+                    bodyPattern.put("equalTo", body);
+                    break;
+                case "json":
+                    bodyPattern.put("matchesJsonSchema", body);
+                    break;
+                case "jsonpath":
+                    bodyPattern.put("matchesJsonPath", body);
+                    break;
+                case "xpath":
+                    bodyPattern.put("matchesXPath", body);
+                    break;
+                case "contains":
+                    bodyPattern.put("contains", body);
+                    break;
+                case "regex":
+                    bodyPattern.put("matches", body);
+                    break;
+            }
+            request.put("bodyPatterns", Collections.singletonList(bodyPattern));
+        }
 
-            // Add status code
-            response.put("status", stubResponse.getOrDefault("status", 200));
+        // Build response
+        Map<String, Object> response = new HashMap<>();
+        Map<String, Object> stubResponse = stub.response();
 
-            // Add response headers if present
-            List<Map<String, Object>> responseHeadersList = (List<Map<String, Object>>) stubResponse.getOrDefault("headers", Collections.emptyList());
-            if (!responseHeadersList.isEmpty()) {
-                Map<String, String> responseHeadersMap = new HashMap<>();
-                for (Map<String, Object> header : responseHeadersList) {
-                    responseHeadersMap.put((String) header.get("name"), (String) header.get("value"));
-                }
-                response.put("headers", responseHeadersMap);
-            }
+        // Add status code
+        response.put("status", stubResponse.getOrDefault("status", 200));
 
-            // Add response body if present
-            String responseBody = (String) stubResponse.get("body");
-            if (responseBody != null && !responseBody.isEmpty()) {
-                response.put("body", responseBody);
+        // Add response headers if present
+        List<Map<String, Object>> responseHeadersList = (List<Map<String, Object>>) stubResponse.getOrDefault("headers", Collections.emptyList());
+        if (!responseHeadersList.isEmpty()) {
+            Map<String, String> responseHeadersMap = new HashMap<>();
+            for (Map<String, Object> header : responseHeadersList) {
+                responseHeadersMap.put((String) header.get("name"), (String) header.get("value"));
             }
+            response.put("headers", responseHeadersMap);
+        }
 
-            // Add content type if specified
-            String contentType = (String) stubResponse.get("contentType");
-            if (contentType != null && !contentType.isEmpty()) {
-                response.put("headers", new HashMap<>(Map.of("Content-Type", contentType)));
-            }
+        // Add response body if present
+        String responseBody = (String) stubResponse.get("body");
+        if (responseBody != null && !responseBody.isEmpty()) {
+            response.put("body", responseBody);
+        }
+
+        // Add content type if specified
+        String contentType = (String) stubResponse.get("contentType");
+        if (contentType != null && !contentType.isEmpty()) {
+            response.put("headers", new HashMap<>(Map.of("Content-Type", contentType)));
+        }
 
-            // Build the complete stub mapping
-            Map<String, Object> stubMapping = new HashMap<>();
-            stubMapping.put("id", stub.id());
-            stubMapping.put("priority", priority);
-            stubMapping.put("request", request);
-            stubMapping.put("response", response);
-
-            // Add webhook transformer if webhook URL is configured
-            if (stub.hasWebhook()) {
-                logger.info("Adding webhook transformer for stub {} with URL: {}", stub.id(), stub.webhookUrl());
-
-                // Create transformer parameters
-                Map<String, Object> transformerParams = new HashMap<>();
-                transformerParams.put("webhookUrl", stub.webhookUrl());
-                transformerParams.put("stubId", stub.id());
-
-                // Add the transformer to the response with correct WireMock format
-                response.put("transformers", Collections.singletonList("webhook-response-transformer"));
-                response.put("transformerParameters", transformerParams);
+        // Build the complete stub mapping
+        Map<String, Object> stubMapping = new HashMap<>();
+        stubMapping.put("id", stub.id());
+        stubMapping.put("priority", priority);
+        stubMapping.put("request", request);
+        stubMapping.put("response", response);
+
+        // Add webhook transformer if webhook URL is configured
+        if (stub.hasWebhook()) {
+            logger.debug("Adding webhook transformer for stub {} with URL: {}", stub.id(), stub.webhookUrl());
+
+            // Create transformer parameters
+            Map<String, Object> transformerParams = new HashMap<>();
+            transformerParams.put("webhookUrl", stub.webhookUrl());
+            transformerParams.put("stubId", stub.id());
+            if (stub.webhookTimeoutMs() != null) {
+                transformerParams.put(WebhookResponseTransformer.TIMEOUT_PARAMETER, stub.webhookTimeoutMs());
             }
+            if (stub.webhookCacheTtlMs() != null) {
+                transformerParams.put(WebhookResponseTransformer.CACHE_TTL_PARAMETER, stub.webhookCacheTtlMs());
+            }
+
+            // Add the transformer to the response with correct WireMock format
+            response.put("transformers", Collections.singletonList("webhook-response-transformer"));
+            response.put("transformerParameters", transformerParams);
+        }
+
+        stubMapping.put("metadata", new HashMap<>(Map.of(MAPPING_HASH_METADATA_KEY, mappingHash(stubMapping))));
+        return stubMapping;
+    }
+
+    /**
+     * Content hash of a mapping, computed over a key-sorted JSON rendering so it is stable across runs
+     */
+    private String mappingHash(Map<String, Object> stubMapping) {
+        try {
+            byte[] json = objectMapper.writer()
+                    .with(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS)
+                    .writeValueAsBytes(stubMapping);
+            return DigestUtils.md5DigestAsHex(json);
+        } catch (Exception e) {
+            logger.warn("Failed to hash WireMock mapping for stub {}", stubMapping.get("id"), e);
+            return "";
+        }
+    }
+
+    /**
+     * Register stub with remote WireMock service
+     */
+    private void registerWithWireMock(RestStub stub) {
+        try {
+            Map<String, Object> stubMapping = buildWireMockMapping(stub);
 
             // Log the final request payload
-            try {
-                String requestPayload = objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(stubMapping);
-                logger.info("Registering stub with WireMock. Request payload:\n{}", requestPayload);
-            } catch (Exception e) {
-                logger.warn("Failed to log request payload", e);
+            if (logger.isDebugEnabled()) {
+                try {
+                    String requestPayload = objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(stubMapping);
+                    logger.debug("Registering stub with WireMock. Request payload:\n{}", requestPayload);
+                } catch (Exception e) {
+                    logger.warn("Failed to log request payload", e);
+                }
             }
 
             // Register with WireMock
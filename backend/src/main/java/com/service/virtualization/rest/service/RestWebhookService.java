@@ -24,7 +24,48 @@ public class RestWebhookService {
     
     private static final Logger logger = LoggerFactory.getLogger(RestWebhookService.class);
     
-    private final RestTemplate restTemplate = new RestTemplate();
+    private final RestTemplate restTemplate;
+    private final WebhookExecutor webhookExecutor;
+    private final WebhookResponseCache responseCache;
+
+    public RestWebhookService(RestTemplate outboundRestTemplate,
+                              WebhookExecutor webhookExecutor,
+                              WebhookResponseCache responseCache) {
+        this.restTemplate = outboundRestTemplate;
+        this.webhookExecutor = webhookExecutor;
+        this.responseCache = responseCache;
+    }
+
+    /**
+     * Call a webhook URL under a timeout budget, per-host concurrency limit and circuit breaker
+     *
+     * @param webhookUrl The webhook URL to call
+     * @param originalRequest The original request from WireMock
+     * @param stubId The stub ID for context
+     * @param timeoutMs The timeout budget, or a value <= 0 for the configured default
+     * @param cacheTtlMs Per-stub response cache TTL, 0 to bypass the cache, or a value < 0 for the configured default
+     * @return The outcome of the call, with the webhook response body on success
+     */
+    public WebhookExecutor.WebhookResult executeWebhook(String webhookUrl, Request originalRequest, String stubId,
+                                                        long timeoutMs, long cacheTtlMs) {
+        if (!responseCache.isCacheable(stubId, cacheTtlMs)) {
+            return webhookExecutor.execute(webhookUrl, timeoutMs, () -> callWebhook(webhookUrl, originalRequest, stubId));
+        }
+
+        String cacheKey = responseCache.fingerprint(stubId, originalRequest);
+        String cached = responseCache.get(cacheKey);
+        if (cached != null) {
+            logger.debug("Serving cached webhook response for stub {}", stubId);
+            return WebhookExecutor.WebhookResult.cached(cached);
+        }
+
+        WebhookExecutor.WebhookResult result =
+                webhookExecutor.execute(webhookUrl, timeoutMs, () -> callWebhook(webhookUrl, originalRequest, stubId));
+        if (result.isSuccess()) {
+            responseCache.put(cacheKey, result.body(), cacheTtlMs);
+        }
+        return result;
+    }
     
     /**
      * Call a webhook URL with the original request data
@@ -0,0 +1,232 @@
+package com.service.virtualization.rest.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Guarded execution of webhook calls made while rendering stub responses.
+ *
+ * Each call runs on a virtual thread and is bounded by a timeout budget, a per-host
+ * concurrency limit and a per-host circuit breaker, so a slow or failing webhook host
+ * degrades to the stub's static response instead of holding WireMock request threads.
+ * Call latency is published per webhook URL and outcome as the {@code webhook.calls} timer.
+ * Only active when rest-disabled profile is NOT active
+ */
+@Component
+@Profile("!rest-disabled")
+public class WebhookExecutor {
+
+    private static final Logger logger = LoggerFactory.getLogger(WebhookExecutor.class);
+
+    @Value("${webhook.timeout:2000}")
+    private long defaultTimeout;
+
+    @Value("${webhook.max-concurrent-per-host:20}")
+    private int maxConcurrentPerHost;
+
+    @Value("${webhook.circuit-breaker.failure-threshold:5}")
+    private int failureThreshold;
+
+    @Value("${webhook.circuit-breaker.open-duration:30000}")
+    private long openDuration;
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Map<String, Semaphore> bulkheads = new ConcurrentHashMap<>();
+    private final Map<String, CircuitBreaker> circuitBreakers = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+
+    public WebhookExecutor(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.meterRegistry = meterRegistry.getIfAvailable();
+    }
+
+    /**
+     * Run a webhook call under the timeout budget, host bulkhead and circuit breaker
+     *
+     * @param webhookUrl The webhook URL, used to key the host limits and the latency metrics
+     * @param timeoutMs  The timeout budget for this call, or a value &lt;= 0 for the configured default
+     * @param call       The webhook call; returns the response body, or null if the webhook failed
+     * @return The outcome and, on success, the webhook response body
+     */
+    public WebhookResult execute(String webhookUrl, long timeoutMs, Supplier<String> call) {
+        long budget = timeoutMs > 0 ? timeoutMs : defaultTimeout;
+        String host = hostKey(webhookUrl);
+        long start = System.nanoTime();
+
+        CircuitBreaker circuitBreaker = circuitBreakers.computeIfAbsent(host, key -> new CircuitBreaker());
+        if (!circuitBreaker.allowRequest()) {
+            logger.debug("Circuit open for webhook host {}, skipping call to {}", host, webhookUrl);
+            return record(host, start, WebhookResult.rejected(Outcome.CIRCUIT_OPEN));
+        }
+
+        Semaphore bulkhead = bulkheads.computeIfAbsent(host, key -> new Semaphore(maxConcurrentPerHost));
+        if (!bulkhead.tryAcquire()) {
+            circuitBreaker.release();
+            logger.warn("Webhook concurrency limit ({}) reached for host {}, skipping call to {}",
+                    maxConcurrentPerHost, host, webhookUrl);
+            return record(host, start, WebhookResult.rejected(Outcome.BULKHEAD_FULL));
+        }
+
+        Future<String> future;
+        try {
+            future = executor.submit(() -> {
+                try {
+                    return call.get();
+                } finally {
+                    bulkhead.release();
+                }
+            });
+        } catch (Exception e) {
+            bulkhead.release();
+            circuitBreaker.release();
+            return record(host, start, WebhookResult.rejected(Outcome.FAILURE));
+        }
+
+        WebhookResult result;
+        try {
+            String body = future.get(budget, TimeUnit.MILLISECONDS);
+            result = body != null ? WebhookResult.success(body) : WebhookResult.rejected(Outcome.FAILURE);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            logger.warn("Webhook {} did not respond within {}ms, using static response", webhookUrl, budget);
+            result = WebhookResult.rejected(Outcome.TIMEOUT);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            result = WebhookResult.rejected(Outcome.FAILURE);
+        } catch (ExecutionException e) {
+            logger.warn("Webhook {} failed: {}", webhookUrl, e.getCause() != null ? e.getCause().getMessage() : e.getMessage());
+            result = WebhookResult.rejected(Outcome.FAILURE);
+        }
+
+        if (result.outcome() == Outcome.SUCCESS) {
+            circuitBreaker.onSuccess();
+        } else if (circuitBreaker.onFailure()) {
+            logger.warn("Opening circuit for webhook host {} for {}ms", host, openDuration);
+        }
+        return record(host, start, result);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Tagged by host rather than full URL so IDs and query strings cannot create unbounded metric series
+     */
+    private WebhookResult record(String host, long start, WebhookResult result) {
+        if (meterRegistry != null) {
+            Timer.builder("webhook.calls")
+                    .description("Webhook call latency by host and outcome")
+                    .tag("host", host)
+                    .tag("outcome", result.outcome().name().toLowerCase())
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        return result;
+    }
+
+    private String hostKey(String webhookUrl) {
+        try {
+            URI uri = URI.create(webhookUrl.trim());
+            return uri.getScheme() + "://" + uri.getHost() + ":" + uri.getPort();
+        } catch (Exception e) {
+            return "invalid";
+        }
+    }
+
+    /**
+     * How a guarded webhook call ended
+     */
+    public enum Outcome {
+        SUCCESS, CACHED, FAILURE, TIMEOUT, BULKHEAD_FULL, CIRCUIT_OPEN
+    }
+
+    /**
+     * Outcome of a guarded webhook call; body is only set on success
+     */
+    public record WebhookResult(Outcome outcome, String body) {
+        static WebhookResult success(String body) {
+            return new WebhookResult(Outcome.SUCCESS, body);
+        }
+
+        public static WebhookResult cached(String body) {
+            return new WebhookResult(Outcome.CACHED, body);
+        }
+
+        static WebhookResult rejected(Outcome outcome) {
+            return new WebhookResult(outcome, null);
+        }
+
+        public boolean isSuccess() {
+            return outcome == Outcome.SUCCESS || outcome == Outcome.CACHED;
+        }
+    }
+
+    /**
+     * Consecutive-failure circuit breaker. After the threshold is reached calls are skipped
+     * for the open duration, then a single trial call decides whether to close it again.
+     */
+    private class CircuitBreaker {
+        private final AtomicInteger consecutiveFailures = new AtomicInteger();
+        private final AtomicBoolean trialInFlight = new AtomicBoolean();
+        private volatile long openUntil;
+
+        boolean allowRequest() {
+            if (openUntil == 0) {
+                return true;
+            }
+            if (System.currentTimeMillis() < openUntil) {
+                return false;
+            }
+            return trialInFlight.compareAndSet(false, true);
+        }
+
+        /**
+         * Give back a trial slot that was granted but never used
+         */
+        void release() {
+            trialInFlight.set(false);
+        }
+
+        void onSuccess() {
+            consecutiveFailures.set(0);
+            openUntil = 0;
+            trialInFlight.set(false);
+        }
+
+        /**
+         * @return true if this failure opened the circuit
+         */
+        boolean onFailure() {
+            boolean failedTrial = trialInFlight.getAndSet(false);
+            if (consecutiveFailures.incrementAndGet() >= failureThreshold || failedTrial) {
+                openUntil = System.currentTimeMillis() + openDuration;
+                return true;
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.service.virtualization.rest.service;
+
+import com.github.tomakehurst.wiremock.http.Request;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory cache of webhook responses for webhook-driven REST/SOAP stubs.
+ *
+ * Entries are keyed on the stub ID and a request fingerprint made of the method, URL,
+ * the configured headers and an MD5 hash of the body, so identical requests are answered
+ * without calling the webhook again. Entries expire after a TTL and the least recently used
+ * entries are evicted once the entry or byte limit is exceeded.
+ * Only active when rest-disabled profile is NOT active
+ */
+@Component
+@Profile("!rest-disabled")
+public class WebhookResponseCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(WebhookResponseCache.class);
+
+    private final boolean enabled;
+    private final Set<String> stubIds;
+    private final List<String> fingerprintHeaders;
+    private final long defaultTtl;
+    private final int maxEntries;
+    private final long maxBytes;
+
+    private final LinkedHashMap<String, CachedResponse> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+
+    private final Counter hits;
+    private final Counter misses;
+
+    public WebhookResponseCache(@Value("${webhook.cache.enabled:false}") boolean enabled,
+                                @Value("${webhook.cache.stub-ids:}") Set<String> stubIds,
+                                @Value("${webhook.cache.fingerprint-headers:}") List<String> fingerprintHeaders,
+                                @Value("${webhook.cache.ttl:60000}") long defaultTtl,
+                                @Value("${webhook.cache.max-entries:10000}") int maxEntries,
+                                @Value("${webhook.cache.max-bytes:67108864}") long maxBytes,
+                                ObjectProvider<MeterRegistry> meterRegistry) {
+        this.enabled = enabled;
+        this.stubIds = stubIds.stream()
+                .filter(id -> !id.isBlank())
+                .map(String::trim)
+                .collect(Collectors.toSet());
+        this.fingerprintHeaders = fingerprintHeaders.stream()
+                .filter(header -> !header.isBlank())
+                .map(String::trim)
+                .sorted(String.CASE_INSENSITIVE_ORDER)
+                .collect(Collectors.toList());
+        this.defaultTtl = defaultTtl;
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry != null) {
+            this.hits = Counter.builder("webhook.cache.requests").tag("result", "hit").register(registry);
+            this.misses = Counter.builder("webhook.cache.requests").tag("result", "miss").register(registry);
+            Gauge.builder("webhook.cache.entries", this, WebhookResponseCache::size).register(registry);
+            Gauge.builder("webhook.cache.bytes", this, WebhookResponseCache::bytes).register(registry);
+        } else {
+            this.hits = null;
+            this.misses = null;
+        }
+
+        if (enabled) {
+            logger.info("Webhook response cache enabled: ttl={}ms, maxEntries={}, maxBytes={}, headers={}, stubs={}",
+                    defaultTtl, maxEntries, maxBytes, this.fingerprintHeaders,
+                    this.stubIds.isEmpty() ? "all" : this.stubIds);
+        }
+    }
+
+    /**
+     * Whether responses for the given stub are cached. A positive per-stub TTL opts the stub in,
+     * zero opts it out; otherwise the configured stub list decides (empty means every stub).
+     *
+     * @param stubId The stub ID
+     * @param ttlMs  Per-stub TTL from the transformer parameters, or a value &lt; 0 when not set
+     */
+    public boolean isCacheable(String stubId, long ttlMs) {
+        if (ttlMs == 0) {
+            return false;
+        }
+        return enabled && (ttlMs > 0 || this.stubIds.isEmpty() || this.stubIds.contains(stubId));
+    }
+
+    /**
+     * Build the cache key for a request to a stub
+     */
+    public String fingerprint(String stubId, Request request) {
+        StringBuilder key = new StringBuilder()
+                .append(stubId).append('|')
+                .append(request.getMethod().getName()).append('|')
+                .append(request.getUrl());
+        for (String header : fingerprintHeaders) {
+            key.append('|').append(header.toLowerCase()).append('=');
+            if (request.containsHeader(header)) {
+                key.append(String.join(",", request.getHeaders().getHeader(header).values()));
+            }
+        }
+        byte[] body = request.getBody();
+        key.append('|').append(body != null ? DigestUtils.md5DigestAsHex(body) : "");
+        return key.toString();
+    }
+
+    /**
+     * @return the cached webhook response body, or null on a miss
+     */
+    public String get(String key) {
+        String body = null;
+        synchronized (this) {
+            CachedResponse cached = entries.get(key);
+            if (cached != null) {
+                if (cached.expiresAt() > System.currentTimeMillis()) {
+                    body = cached.body();
+                } else {
+                    remove(key);
+                }
+            }
+        }
+        if (body != null) {
+            increment(hits);
+        } else {
+            increment(misses);
+        }
+        return body;
+    }
+
+    /**
+     * Store a webhook response
+     *
+     * @param ttlMs Per-stub TTL, or a value &lt; 0 for the configured default
+     */
+    public void put(String key, String body, long ttlMs) {
+        long size = (long) body.length() * 2 + key.length() * 2L;
+        if (size > maxBytes) {
+            return;
+        }
+        CachedResponse cached = new CachedResponse(body, size,
+                System.currentTimeMillis() + (ttlMs > 0 ? ttlMs : defaultTtl));
+
+        synchronized (this) {
+            remove(key);
+            entries.put(key, cached);
+            totalBytes += size;
+
+            Iterator<Map.Entry<String, CachedResponse>> eldest = entries.entrySet().iterator();
+            while ((entries.size() > maxEntries || totalBytes > maxBytes) && eldest.hasNext()) {
+                totalBytes -= eldest.next().getValue().size();
+                eldest.remove();
+            }
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long bytes() {
+        return totalBytes;
+    }
+
+    private void remove(String key) {
+        CachedResponse removed = entries.remove(key);
+        if (removed != null) {
+            totalBytes -= removed.size();
+        }
+    }
+
+    private void increment(Counter counter) {
+        if (counter != null) {
+            counter.increment();
+        }
+    }
+
+    private record CachedResponse(String body, long size, long expiresAt) {
+    }
+}
@@ -5,16 +5,20 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
 
 import java.time.Duration;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -31,16 +35,110 @@ public class WireMockAdminService {
     private static final Logger logger = LoggerFactory.getLogger(WireMockAdminService.class);
 
     private final RestTemplate restTemplate;
+    private final RestTemplate bulkRestTemplate;
     private final String wiremockBaseUrl;
+    private final WireMockRegistrationIndex registrationIndex;
 
     public WireMockAdminService(@Value("${wiremock.server.host}") String wiremockHost,
                                @Value("${wiremock.server.port}") int wiremockPort,
-                               RestTemplateBuilder restTemplateBuilder) {
+                               @Value("${wiremock.admin.bulk-timeout:60000}") long bulkTimeout,
+                               RestTemplateBuilder restTemplateBuilder,
+                               WireMockRegistrationIndex registrationIndex) {
         this.wiremockBaseUrl = String.format("http://%s:%d", wiremockHost, wiremockPort);
+        this.registrationIndex = registrationIndex;
         this.restTemplate = restTemplateBuilder
                 .setConnectTimeout(Duration.ofSeconds(2))
                 .setReadTimeout(Duration.ofSeconds(3))
                 .build();
+        // Bulk listing and import of thousands of mappings needs more than the interactive timeout
+        this.bulkRestTemplate = restTemplateBuilder
+                .setConnectTimeout(Duration.ofSeconds(2))
+                .setReadTimeout(Duration.ofMillis(bulkTimeout))
+                .build();
+    }
+
+    /**
+     * Get all mappings currently registered with WireMock
+     *
+     * @return the raw mapping objects
+     * @throws RestClientException if WireMock cannot be reached
+     */
+    public List<Map<String, Object>> getMappings() {
+        ResponseEntity<Map> response = bulkRestTemplate.getForEntity(wiremockBaseUrl + "/__admin/mappings", Map.class);
+        if (response.getBody() == null) {
+            return Collections.emptyList();
+        }
+        List<Map<String, Object>> mappings = (List<Map<String, Object>>) response.getBody().get("mappings");
+        return mappings != null ? mappings : Collections.emptyList();
+    }
+
+    /**
+     * Import a batch of mappings in a single call, overwriting existing mappings with the same ID
+     * and leaving all other mappings untouched
+     *
+     * @param mappings the mappings to import
+     * @return the WireMock response
+     */
+    public ResponseEntity<String> importMappings(List<Map<String, Object>> mappings) {
+        Map<String, Object> importOptions = new HashMap<>();
+        importOptions.put("duplicatePolicy", "OVERWRITE");
+        importOptions.put("deleteAllNotInImport", false);
+
+        Map<String, Object> body = new HashMap<>();
+        body.put("mappings", mappings);
+        body.put("importOptions", importOptions);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+
+        ResponseEntity<String> response = bulkRestTemplate.exchange(
+                wiremockBaseUrl + "/__admin/mappings/import",
+                HttpMethod.POST,
+                new HttpEntity<>(body, headers),
+                String.class
+        );
+
+        if (response.getStatusCode().is2xxSuccessful()) {
+            registrationIndex.markRegistered(mappings.stream()
+                    .map(mapping -> mapping.get("id"))
+                    .filter(id -> id != null)
+                    .map(Object::toString)
+                    .toList());
+        }
+        return response;
+    }
+
+    /**
+     * Whether a stub is registered, answered from the in-memory registration index.
+     * Never calls WireMock: until the first reconcile has seeded the index, the stub is
+     * assumed registered and callers report its stored status.
+     *
+     * @param stubId the stub ID to check
+     * @return true if the index holds the stub's mapping, or has not been seeded yet
+     */
+    public boolean isStubRegisteredCached(String stubId) {
+        return !registrationIndex.isInitialized() || registrationIndex.isRegistered(stubId);
+    }
+
+    /**
+     * Reconcile the registration index with the mappings WireMock actually holds.
+     * Catches changes made outside this service, e.g. through the WireMock admin API directly.
+     */
+    @Scheduled(initialDelayString = "${wiremock.registration.reconcile-initial-delay:5000}",
+               fixedDelayString = "${wiremock.registration.reconcile-interval:60000}")
+    public void reconcileRegistrationIndex() {
+        try {
+            long generation = registrationIndex.currentGeneration();
+            Set<String> ids = getMappings().stream()
+                    .map(mapping -> mapping.get("id"))
+                    .filter(id -> id != null)
+                    .map(Object::toString)
+                    .collect(Collectors.toSet());
+            registrationIndex.replaceAll(ids, generation);
+            logger.debug("Reconciled WireMock registration index: {} mappings", ids.size());
+        } catch (Exception e) {
+            logger.debug("WireMock registration reconcile skipped: {}", e.getMessage());
+        }
     }
 
     /**
@@ -51,6 +149,7 @@ public class WireMockAdminService {
     public Set<String> getRegisteredStubIds() {
         try {
             logger.debug("Fetching registered stub IDs from WireMock");
+            long generation = registrationIndex.currentGeneration();
             
             ResponseEntity<Map> response = restTemplate.getForEntity(
                     wiremockBaseUrl + "/__admin/mappings", 
@@ -66,6 +165,7 @@ public class WireMockAdminService {
                             .map(mapping -> (String) mapping.get("id"))
                             .filter(id -> id != null)
                             .collect(Collectors.toSet());
+                    registrationIndex.replaceAll(stubIds, generation);
                     
                     logger.debug("Retrieved {} registered stub IDs from WireMock", stubIds.size());
                     return stubIds;
@@ -87,6 +187,7 @@ public class WireMockAdminService {
     public void deleteWireMockMapping(String id) {
         try {
             restTemplate.delete(wiremockBaseUrl + "/__admin/mappings/" + id);
+            registrationIndex.markDeregistered(id);
         } catch (Exception e) {
             logger.warn("Failed to delete WireMock mapping for stub: {}", id, e);
         }
@@ -99,6 +200,12 @@ public class WireMockAdminService {
                 entity,
                 String.class
         );
+        if (responseEntity.getStatusCode().is2xxSuccessful() && entity.getBody() != null) {
+            Object id = entity.getBody().get("id");
+            if (id != null) {
+                registrationIndex.markRegistered(id.toString());
+            }
+        }
         return responseEntity;
     }
 
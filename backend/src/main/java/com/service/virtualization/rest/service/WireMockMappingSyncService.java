@@ -0,0 +1,157 @@
+package com.service.virtualization.rest.service;
+
+import com.service.virtualization.model.StubStatus;
+import com.service.virtualization.rest.model.RestStub;
+import com.service.virtualization.rest.repository.RestStubRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bulk synchronisation of REST stubs from the repository into WireMock.
+ *
+ * The desired mapping set is computed from the repository and diffed against the mappings
+ * WireMock currently holds, using the content hash stored in each mapping's metadata.
+ * Only new or changed mappings are sent, in a single bulk import, and only REST stubs that
+ * are registered but no longer active are removed. Mappings that do not belong to a REST stub
+ * (SOAP stubs, manually added mappings) are never touched.
+ * Only active when rest-disabled profile is NOT active
+ */
+@Service
+@Profile("!rest-disabled")
+public class WireMockMappingSyncService {
+
+    private static final Logger logger = LoggerFactory.getLogger(WireMockMappingSyncService.class);
+
+    private final RestStubRepository restStubRepository;
+    private final RestStubService restStubService;
+    private final WireMockAdminService wireMockAdminService;
+    private final WireMockRegistrationIndex registrationIndex;
+
+    public WireMockMappingSyncService(RestStubRepository restStubRepository,
+                                      RestStubService restStubService,
+                                      WireMockAdminService wireMockAdminService,
+                                      WireMockRegistrationIndex registrationIndex) {
+        this.restStubRepository = restStubRepository;
+        this.restStubService = restStubService;
+        this.wireMockAdminService = wireMockAdminService;
+        this.registrationIndex = registrationIndex;
+    }
+
+    /**
+     * Bring WireMock in line with the repository
+     *
+     * @return counts and per-phase timings of the sync
+     */
+    public SyncResult syncAll() {
+        long start = System.nanoTime();
+
+        // Phase 1: desired state from the repository
+        List<RestStub> stubs = restStubRepository.findAll();
+        long loaded = System.nanoTime();
+
+        // Phase 2: current state from WireMock, reduced to id -> content hash
+        long generation = registrationIndex.currentGeneration();
+        Map<String, String> registeredHashes = new HashMap<>();
+        for (Map<String, Object> mapping : wireMockAdminService.getMappings()) {
+            Object id = mapping.get("id");
+            if (id != null) {
+                registeredHashes.put(id.toString(), mappingHash(mapping));
+            }
+        }
+        // The fetched snapshot is authoritative; imports and deletes below keep the index current
+        registrationIndex.replaceAll(registeredHashes.keySet(), generation);
+        long fetched = System.nanoTime();
+
+        // Phase 3: diff
+        List<Map<String, Object>> toImport = new ArrayList<>();
+        List<String> toRemove = new ArrayList<>();
+        int added = 0;
+        int unchanged = 0;
+        int failed = 0;
+        for (RestStub stub : stubs) {
+            boolean registered = registeredHashes.containsKey(stub.id());
+            if (stub.status() == StubStatus.ACTIVE) {
+                try {
+                    Map<String, Object> mapping = restStubService.buildWireMockMapping(stub);
+                    if (registered && mappingHash(mapping).equals(registeredHashes.get(stub.id()))) {
+                        unchanged++;
+                    } else {
+                        logger.debug("{} WireMock mapping for stub {} (ID: {})",
+                                registered ? "Updating" : "Adding", stub.name(), stub.id());
+                        toImport.add(mapping);
+                        if (!registered) {
+                            added++;
+                        }
+                    }
+                } catch (Exception e) {
+                    logger.error("Failed to build WireMock mapping for stub: {} (ID: {}): {}",
+                            stub.name(), stub.id(), e.getMessage());
+                    failed++;
+                }
+            } else if (registered) {
+                logger.debug("Removing WireMock mapping for inactive stub {} (ID: {})", stub.name(), stub.id());
+                toRemove.add(stub.id());
+            }
+        }
+        long diffed = System.nanoTime();
+
+        // Phase 4: apply changes in one batch
+        if (!toImport.isEmpty()) {
+            ResponseEntity<String> response = wireMockAdminService.importMappings(toImport);
+            if (!response.getStatusCode().is2xxSuccessful()) {
+                throw new IllegalStateException("WireMock bulk import failed with status "
+                        + response.getStatusCode() + ": " + response.getBody());
+            }
+        }
+        for (String id : toRemove) {
+            wireMockAdminService.deleteWireMockMapping(id);
+        }
+        long applied = System.nanoTime();
+
+        SyncResult result = new SyncResult(stubs.size(), added, toImport.size() - added, toRemove.size(), unchanged, failed,
+                millis(start, loaded), millis(loaded, fetched), millis(fetched, diffed), millis(diffed, applied));
+
+        // One summary line per sync; per-stub detail is logged at DEBUG above
+        logger.info("WireMock sync complete: {} stubs, {} added, {} updated, {} removed, {} unchanged, {} failed " +
+                        "(load {}ms, fetch {}ms, diff {}ms, apply {}ms)",
+                result.totalStubs(), result.added(), result.updated(), result.removed(), result.unchanged(), result.failed(),
+                result.loadMillis(), result.fetchMillis(), result.diffMillis(), result.applyMillis());
+        return result;
+    }
+
+    private String mappingHash(Map<String, Object> mapping) {
+        Object metadata = mapping.get("metadata");
+        if (metadata instanceof Map<?, ?> metadataMap) {
+            Object hash = metadataMap.get(RestStubService.MAPPING_HASH_METADATA_KEY);
+            return hash != null ? hash.toString() : "";
+        }
+        return "";
+    }
+
+    private long millis(long from, long to) {
+        return TimeUnit.NANOSECONDS.toMillis(to - from);
+    }
+
+    /**
+     * Outcome of a sync run
+     */
+    public record SyncResult(int totalStubs, int added, int updated, int removed, int unchanged, int failed,
+                             long loadMillis, long fetchMillis, long diffMillis, long applyMillis) {
+
+        /**
+         * @return mappings sent in the bulk import, new and changed
+         */
+        public int imported() {
+            return added + updated;
+        }
+    }
+}
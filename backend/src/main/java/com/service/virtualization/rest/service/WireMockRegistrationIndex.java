@@ -0,0 +1,104 @@
+package com.service.virtualization.rest.service;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory index of the mapping IDs registered with WireMock.
+ *
+ * Kept current by {@link WireMockAdminService} whenever it registers, imports or deletes a
+ * mapping, and reconciled against WireMock in the background, so stub listings can report
+ * registration status without downloading every mapping.
+ * Only active when rest-disabled profile is NOT active
+ */
+@Component
+@Profile("!rest-disabled")
+public class WireMockRegistrationIndex {
+
+    private final Set<String> registeredIds = ConcurrentHashMap.newKeySet();
+    // Generation of each ID's last local register/deregister, until a snapshot taken after it is applied
+    private final Map<String, Long> changedAt = new HashMap<>();
+    private long generation;
+    private long appliedGeneration = -1;
+    private volatile boolean initialized;
+
+    public boolean isRegistered(String id) {
+        return id != null && registeredIds.contains(id);
+    }
+
+    public synchronized void markRegistered(String id) {
+        if (id != null) {
+            registeredIds.add(id);
+            changedAt.put(id, ++generation);
+        }
+    }
+
+    public synchronized void markRegistered(Collection<String> ids) {
+        long stamp = ++generation;
+        for (String id : ids) {
+            registeredIds.add(id);
+            changedAt.put(id, stamp);
+        }
+    }
+
+    public synchronized void markDeregistered(String id) {
+        if (id != null) {
+            registeredIds.remove(id);
+            changedAt.put(id, ++generation);
+        }
+    }
+
+    /**
+     * @return the generation to pass to {@link #replaceAll(Collection, long)}, captured before fetching a snapshot
+     */
+    public synchronized long currentGeneration() {
+        return generation;
+    }
+
+    /**
+     * Replace the index with an authoritative snapshot from WireMock. IDs registered or deregistered
+     * locally after the snapshot's generation keep their local state, and a snapshot older than one
+     * already applied is ignored.
+     *
+     * @param ids                The mapping IDs WireMock holds
+     * @param snapshotGeneration {@link #currentGeneration()} captured before the snapshot was fetched
+     */
+    public synchronized void replaceAll(Collection<String> ids, long snapshotGeneration) {
+        if (snapshotGeneration < appliedGeneration) {
+            return;
+        }
+        Set<String> snapshot = ids instanceof Set<String> set ? set : Set.copyOf(ids);
+        // Add before removing so concurrent readers never see a registered ID disappear transiently
+        for (String id : snapshot) {
+            if (!changedSince(id, snapshotGeneration)) {
+                registeredIds.add(id);
+            }
+        }
+        registeredIds.removeIf(id -> !snapshot.contains(id) && !changedSince(id, snapshotGeneration));
+        changedAt.values().removeIf(stamp -> stamp <= snapshotGeneration);
+        appliedGeneration = snapshotGeneration;
+        initialized = true;
+    }
+
+    private boolean changedSince(String id, long snapshotGeneration) {
+        Long stamp = changedAt.get(id);
+        return stamp != null && stamp > snapshotGeneration;
+    }
+
+    /**
+     * @return true once the index has been seeded from WireMock at least once
+     */
+    public boolean isInitialized() {
+        return initialized;
+    }
+
+    public int size() {
+        return registeredIds.size();
+    }
+}
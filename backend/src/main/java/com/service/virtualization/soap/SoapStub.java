@@ -29,6 +29,8 @@ public record SoapStub(
         String url,              // SOAP endpoint URL
         String soapAction,       // Optional SOAPAction header
         String webhookUrl,       // Webhook URL for responses
+        Long webhookTimeoutMs,   // Per-stub webhook timeout (ms), null for the global webhook.timeout
+        Long webhookCacheTtlMs,  // Per-stub webhook response cache TTL (ms), 0 disables, null for webhook.cache settings
         
         Map<String, Object> matchConditions,  // Contains XML body matching
         Map<String, Object> response          // Contains XML response
@@ -49,6 +51,8 @@ public record SoapStub(
                 null,
                 null,
                 null,
+                null,
+                null,
                 new HashMap<>(),
                 new HashMap<>()
         );
@@ -86,7 +90,7 @@ public record SoapStub(
         return new SoapStub(
                 id, name, description, userId, behindProxy, protocol, tags, status,
                 createdAt, LocalDateTime.now(), wiremockMappingId, url, soapAction, 
-                webhookUrl, matchConditions, response
+                webhookUrl, webhookTimeoutMs, webhookCacheTtlMs, matchConditions, response
         );
     }
 
@@ -97,7 +101,7 @@ public record SoapStub(
         return new SoapStub(
                 id, name, description, userId, behindProxy, protocol, tags, status,
                 createdAt, LocalDateTime.now(), wiremockMappingId, url, soapAction,
-                webhookUrl, matchConditions, newResponse
+                webhookUrl, webhookTimeoutMs, webhookCacheTtlMs, matchConditions, newResponse
         );
     }
 
@@ -108,7 +112,7 @@ public record SoapStub(
         return new SoapStub(
                 id, name, description, userId, behindProxy, protocol, tags, newStatus,
                 createdAt, LocalDateTime.now(), wiremockMappingId, url, soapAction,
-                webhookUrl, matchConditions, response
+                webhookUrl, webhookTimeoutMs, webhookCacheTtlMs, matchConditions, response
         );
     }
 
@@ -119,7 +123,7 @@ public record SoapStub(
         return new SoapStub(
                 id, name, description, userId, behindProxy, protocol, tags, status,
                 createdAt, LocalDateTime.now(), wiremockMappingId, newUrl, newSoapAction,
-                webhookUrl, matchConditions, response
+                webhookUrl, webhookTimeoutMs, webhookCacheTtlMs, matchConditions, response
         );
     }
 
@@ -22,6 +22,8 @@ public record SoapStubDTO(
         String url,
         String soapAction,
         String webhookUrl,
+        Long webhookTimeoutMs,
+        Long webhookCacheTtlMs,
         
         Map<String, Object> matchConditions,
         Map<String, Object> response
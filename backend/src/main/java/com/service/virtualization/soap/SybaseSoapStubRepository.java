@@ -32,11 +32,11 @@ public class SybaseSoapStubRepository implements SoapStubRepository {
     private final ObjectMapper objectMapper;
     
     // SQL statements
-    private static final String INSERT_STUB = 
-            "INSERT INTO soap_stubs (stub_data) VALUES (?)";
+    private static final String INSERT_STUB =
+            "INSERT INTO soap_stubs (stub_data, status, user_id, url) VALUES (?, ?, ?, ?)";
     
-    private static final String UPDATE_STUB = 
-            "UPDATE soap_stubs SET stub_data = ? WHERE id = ?";
+    private static final String UPDATE_STUB =
+            "UPDATE soap_stubs SET stub_data = ?, status = ?, user_id = ?, url = ? WHERE id = ?";
     
     private static final String SELECT_STUB_BY_ID = 
             "SELECT * FROM soap_stubs WHERE id = ?";
@@ -45,13 +45,13 @@ public class SybaseSoapStubRepository implements SoapStubRepository {
             "SELECT * FROM soap_stubs";
     
     private static final String SELECT_STUBS_BY_STATUS = 
-            "SELECT * FROM soap_stubs WHERE JSON_VALUE(stub_data, '$.status') = ?";
+            "SELECT * FROM soap_stubs WHERE status = ?";
     
     private static final String SELECT_STUBS_BY_USER_ID = 
-            "SELECT * FROM soap_stubs WHERE JSON_VALUE(stub_data, '$.userId') = ?";
+            "SELECT * FROM soap_stubs WHERE user_id = ?";
     
     private static final String SELECT_STUBS_BY_URL = 
-            "SELECT * FROM soap_stubs WHERE JSON_VALUE(stub_data, '$.url') LIKE ?";
+            "SELECT * FROM soap_stubs WHERE url LIKE ?";
     
     private static final String DELETE_STUB_BY_ID = 
             "DELETE FROM soap_stubs WHERE id = ?";
@@ -86,6 +86,8 @@ public class SybaseSoapStubRepository implements SoapStubRepository {
                     stub.url(),
                     stub.soapAction(),
                     stub.webhookUrl(),
+                    stub.webhookTimeoutMs(),
+                    stub.webhookCacheTtlMs(),
                     stub.matchConditions(),
                     stub.response()
                 );
@@ -100,6 +102,9 @@ public class SybaseSoapStubRepository implements SoapStubRepository {
                         INSERT_STUB, 
                         Statement.RETURN_GENERATED_KEYS);
                     ps.setString(1, stubJson);
+                    ps.setString(2, statusName(stubWithTimestamps));
+                    ps.setString(3, stubWithTimestamps.userId());
+                    ps.setString(4, stubWithTimestamps.url());
                     return ps;
                 }, keyHolder);
                 
@@ -122,13 +127,15 @@ public class SybaseSoapStubRepository implements SoapStubRepository {
                     stub.url(),
                     stub.soapAction(),
                     stub.webhookUrl(),
+                    stub.webhookTimeoutMs(),
+                    stub.webhookCacheTtlMs(),
                     stub.matchConditions(),
                     stub.response()
                 );
                 
                 // Update the JSON with the generated ID
                 String updatedStubJson = serializeToJson(stub);
-                jdbcTemplate.update(UPDATE_STUB, updatedStubJson, generatedId);
+                jdbcTemplate.update(UPDATE_STUB, updatedStubJson, statusName(stub), stub.userId(), stub.url(), generatedId);
                 
                 return stub;
             } else {
@@ -148,13 +155,16 @@ public class SybaseSoapStubRepository implements SoapStubRepository {
                     stub.url(),
                     stub.soapAction(),
                     stub.webhookUrl(),
+                    stub.webhookTimeoutMs(),
+                    stub.webhookCacheTtlMs(),
                     stub.matchConditions(),
                     stub.response()
                 );
                 
                 // Convert stub to JSON
                 String stubJson = serializeToJson(updatedStub);
-                jdbcTemplate.update(UPDATE_STUB, stubJson, id);
+                jdbcTemplate.update(UPDATE_STUB, stubJson, statusName(updatedStub), updatedStub.userId(),
+                        updatedStub.url(), id);
                 
                 return updatedStub;
             }
@@ -232,4 +242,8 @@ public class SybaseSoapStubRepository implements SoapStubRepository {
             throw new RuntimeException("Error deserializing JSON to SOAP stub", e);
         }
     }
-} 
\ No newline at end of file
+
+    private static String statusName(SoapStub stub) {
+        return stub.status() != null ? stub.status().name() : null;
+    }
+}
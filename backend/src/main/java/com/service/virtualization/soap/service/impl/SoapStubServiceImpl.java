@@ -5,6 +5,7 @@ import com.service.virtualization.rest.service.WireMockAdminService;
 import com.service.virtualization.soap.SoapStub;
 import com.service.virtualization.soap.SoapStubRepository;
 import com.service.virtualization.soap.service.SoapStubService;
+import com.service.virtualization.wiremock.WebhookResponseTransformer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -59,6 +60,8 @@ public class SoapStubServiceImpl implements SoapStubService {
                 stub.url(),
                 stub.soapAction(),
                 stub.webhookUrl(),
+                stub.webhookTimeoutMs(),
+                stub.webhookCacheTtlMs(),
                 stub.matchConditions(),
                 stub.response()
         );
@@ -105,6 +108,8 @@ public class SoapStubServiceImpl implements SoapStubService {
                 stub.url(),
                 stub.soapAction(),
                 stub.webhookUrl(),
+                stub.webhookTimeoutMs(),
+                stub.webhookCacheTtlMs(),
                 stub.matchConditions(),
                 stub.response()
         );
@@ -259,6 +264,12 @@ public class SoapStubServiceImpl implements SoapStubService {
                 Map<String, Object> transformerParams = new HashMap<>();
                 transformerParams.put("webhookUrl", stub.webhookUrl());
                 transformerParams.put("stubId", stub.id());
+                if (stub.webhookTimeoutMs() != null) {
+                    transformerParams.put(WebhookResponseTransformer.TIMEOUT_PARAMETER, stub.webhookTimeoutMs());
+                }
+                if (stub.webhookCacheTtlMs() != null) {
+                    transformerParams.put(WebhookResponseTransformer.CACHE_TTL_PARAMETER, stub.webhookCacheTtlMs());
+                }
 
                 // Add the transformer to the response with correct WireMock format
                 response.put("transformers", Collections.singletonList("webhook-response-transformer"));
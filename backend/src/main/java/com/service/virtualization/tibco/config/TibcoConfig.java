@@ -1,5 +1,9 @@
 package com.service.virtualization.tibco.config;
 
+import com.service.virtualization.jms.sender.CachedDestinationResolver;
+import com.service.virtualization.jms.sender.JmsResponseSender;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
@@ -16,6 +20,10 @@ import jakarta.jms.JMSContext;
 import jakarta.jms.JMSException;
 import com.tibco.tibjms.TibjmsConnectionFactory;
 
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 /**
  * Configuration for TIBCO EMS integration.
  * 
@@ -40,6 +48,81 @@ public class TibcoConfig {
     @Value("${tibco.connection.cache-size:10}")
     private int sessionCacheSize;
 
+    private final CachedDestinationResolver destinationResolver = new CachedDestinationResolver();
+
+    // Destination adapters are reused for the same EMS destination, so receiving or sending a message
+    // does not allocate a new one and cached producers are found again. Least recently used adapters
+    // are evicted; temporary destinations (JMSReplyTo of request/reply clients) are never cached.
+    private static final int DESTINATION_CACHE_LIMIT = 1024;
+    private static final Map<javax.jms.Destination, jakarta.jms.Destination> destinationCache =
+            Collections.synchronizedMap(new LinkedHashMap<>(64, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<javax.jms.Destination, jakarta.jms.Destination> eldest) {
+                    return size() > DESTINATION_CACHE_LIMIT;
+                }
+            });
+
+    /**
+     * Jakarta view of an EMS destination, shared between all sessions
+     */
+    private static jakarta.jms.Destination wrapDestination(javax.jms.Destination javaxDestination) {
+        if (javaxDestination == null) {
+            return null;
+        }
+        boolean temporary = javaxDestination instanceof javax.jms.TemporaryQueue
+                || javaxDestination instanceof javax.jms.TemporaryTopic;
+        jakarta.jms.Destination destination = temporary ? null : destinationCache.get(javaxDestination);
+        if (destination != null) {
+            return destination;
+        }
+        if (javaxDestination instanceof javax.jms.Queue) {
+            destination = new JavaxToJakartaQueueAdapter((javax.jms.Queue) javaxDestination);
+        } else if (javaxDestination instanceof javax.jms.Topic) {
+            destination = new JavaxToJakartaTopicAdapter((javax.jms.Topic) javaxDestination);
+        } else {
+            throw new IllegalArgumentException("Unsupported destination type: " + javaxDestination.getClass());
+        }
+        if (!temporary) {
+            jakarta.jms.Destination existing = destinationCache.putIfAbsent(javaxDestination, destination);
+            if (existing != null) {
+                return existing;
+            }
+        }
+        return destination;
+    }
+
+    private static javax.jms.Destination unwrapDestination(jakarta.jms.Destination jakartaDestination) {
+        if (jakartaDestination == null) {
+            return null;
+        } else if (jakartaDestination instanceof JavaxToJakartaQueueAdapter) {
+            return ((JavaxToJakartaQueueAdapter) jakartaDestination).javaxQueue;
+        } else if (jakartaDestination instanceof JavaxToJakartaTopicAdapter) {
+            return ((JavaxToJakartaTopicAdapter) jakartaDestination).javaxTopic;
+        } else {
+            throw new IllegalArgumentException("Unsupported destination type: " + jakartaDestination.getClass());
+        }
+    }
+
+    /**
+     * Jakarta view of a received EMS message; text messages stay TextMessages so their content is a type check away
+     */
+    private static jakarta.jms.Message wrapMessage(javax.jms.Message javaxMessage) {
+        if (javaxMessage == null) {
+            return null;
+        }
+        if (javaxMessage instanceof javax.jms.TextMessage) {
+            return new JavaxToJakartaTextMessageAdapter((javax.jms.TextMessage) javaxMessage);
+        }
+        return new JavaxToJakartaMessageAdapter(javaxMessage);
+    }
+
+    private static javax.jms.Message unwrapMessage(jakarta.jms.Message jakartaMessage) {
+        if (jakartaMessage instanceof JavaxToJakartaMessageAdapter) {
+            return ((JavaxToJakartaMessageAdapter) jakartaMessage).javaxMessage;
+        }
+        throw new IllegalArgumentException("Unsupported message type: " + jakartaMessage.getClass());
+    }
+
     /**
      * Jakarta wrapper for javax ExceptionListener
      */
@@ -100,6 +183,22 @@ public class TibcoConfig {
                 throw new JMSException(e.getMessage(), e.getErrorCode());
             }
         }
+
+        // Spring's cached producers are keyed by destination, so equal queues must compare equal
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof JavaxToJakartaQueueAdapter queue && javaxQueue.equals(queue.javaxQueue);
+        }
+
+        @Override
+        public int hashCode() {
+            return javaxQueue.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return javaxQueue.toString();
+        }
     }
 
     /**
@@ -120,6 +219,21 @@ public class TibcoConfig {
                 throw new JMSException(e.getMessage(), e.getErrorCode());
             }
         }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof JavaxToJakartaTopicAdapter topic && javaxTopic.equals(topic.javaxTopic);
+        }
+
+        @Override
+        public int hashCode() {
+            return javaxTopic.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return javaxTopic.toString();
+        }
     }
 
     /**
@@ -127,6 +241,8 @@ public class TibcoConfig {
      */
     private static class JavaxToJakartaMessageAdapter implements jakarta.jms.Message {
         private final javax.jms.Message javaxMessage;
+        // Wrapped JMSDestination, looked up once since listeners and matchers each ask for it
+        private jakarta.jms.Destination destination;
 
         public JavaxToJakartaMessageAdapter(javax.jms.Message javaxMessage) {
             this.javaxMessage = javaxMessage;
@@ -207,11 +323,7 @@ public class TibcoConfig {
         @Override
         public jakarta.jms.Destination getJMSReplyTo() throws JMSException {
             try {
-                javax.jms.Destination javaxDestination = javaxMessage.getJMSReplyTo();
-                if (javaxDestination == null) {
-                    return null;
-                }
-                return wrapJavaxDestination(javaxDestination);
+                return wrapDestination(javaxMessage.getJMSReplyTo());
             } catch (javax.jms.JMSException e) {
                 throw new JMSException(e.getMessage(), e.getErrorCode());
             }
@@ -220,7 +332,7 @@ public class TibcoConfig {
         @Override
         public void setJMSReplyTo(jakarta.jms.Destination replyTo) throws JMSException {
             try {
-                javax.jms.Destination javaxDestination = extractJavaxDestination(replyTo);
+                javax.jms.Destination javaxDestination = unwrapDestination(replyTo);
                 javaxMessage.setJMSReplyTo(javaxDestination);
             } catch (javax.jms.JMSException e) {
                 throw new JMSException(e.getMessage(), e.getErrorCode());
@@ -229,12 +341,12 @@ public class TibcoConfig {
 
         @Override
         public jakarta.jms.Destination getJMSDestination() throws JMSException {
+            if (destination != null) {
+                return destination;
+            }
             try {
-                javax.jms.Destination javaxDestination = javaxMessage.getJMSDestination();
-                if (javaxDestination == null) {
-                    return null;
-                }
-                return wrapJavaxDestination(javaxDestination);
+                destination = wrapDestination(javaxMessage.getJMSDestination());
+                return destination;
             } catch (javax.jms.JMSException e) {
                 throw new JMSException(e.getMessage(), e.getErrorCode());
             }
@@ -243,35 +355,13 @@ public class TibcoConfig {
         @Override
         public void setJMSDestination(jakarta.jms.Destination destination) throws JMSException {
             try {
-                javax.jms.Destination javaxDestination = extractJavaxDestination(destination);
-                javaxMessage.setJMSDestination(javaxDestination);
+                javaxMessage.setJMSDestination(unwrapDestination(destination));
+                this.destination = destination;
             } catch (javax.jms.JMSException e) {
                 throw new JMSException(e.getMessage(), e.getErrorCode());
             }
         }
 
-        private jakarta.jms.Destination wrapJavaxDestination(javax.jms.Destination javaxDestination) {
-            if (javaxDestination instanceof javax.jms.Queue) {
-                return new JavaxToJakartaQueueAdapter((javax.jms.Queue) javaxDestination);
-            } else if (javaxDestination instanceof javax.jms.Topic) {
-                return new JavaxToJakartaTopicAdapter((javax.jms.Topic) javaxDestination);
-            } else {
-                throw new IllegalArgumentException("Unsupported destination type: " + javaxDestination.getClass());
-            }
-        }
-
-        private javax.jms.Destination extractJavaxDestination(jakarta.jms.Destination jakartaDestination) {
-            if (jakartaDestination == null) {
-                return null;
-            } else if (jakartaDestination instanceof JavaxToJakartaQueueAdapter) {
-                return ((JavaxToJakartaQueueAdapter) jakartaDestination).javaxQueue;
-            } else if (jakartaDestination instanceof JavaxToJakartaTopicAdapter) {
-                return ((JavaxToJakartaTopicAdapter) jakartaDestination).javaxTopic;
-            } else {
-                throw new IllegalArgumentException("Unsupported destination type: " + jakartaDestination.getClass());
-            }
-        }
-
         @Override
         public int getJMSDeliveryMode() throws JMSException {
             try {
@@ -771,7 +861,7 @@ public class TibcoConfig {
         @Override
         public void send(jakarta.jms.Message message) throws JMSException {
             try {
-                javax.jms.Message javaxMessage = extractJavaxMessage(message);
+                javax.jms.Message javaxMessage = unwrapMessage(message);
                 javaxProducer.send(javaxMessage);
             } catch (javax.jms.JMSException e) {
                 throw new JMSException(e.getMessage(), e.getErrorCode());
@@ -781,7 +871,7 @@ public class TibcoConfig {
         @Override
         public void send(jakarta.jms.Message message, int deliveryMode, int priority, long timeToLive) throws JMSException {
             try {
-                javax.jms.Message javaxMessage = extractJavaxMessage(message);
+                javax.jms.Message javaxMessage = unwrapMessage(message);
                 javaxProducer.send(javaxMessage, deliveryMode, priority, timeToLive);
             } catch (javax.jms.JMSException e) {
                 throw new JMSException(e.getMessage(), e.getErrorCode());
@@ -791,8 +881,8 @@ public class TibcoConfig {
         @Override
         public void send(jakarta.jms.Destination destination, jakarta.jms.Message message) throws JMSException {
             try {
-                javax.jms.Destination javaxDestination = extractJavaxDestination(destination);
-                javax.jms.Message javaxMessage = extractJavaxMessage(message);
+                javax.jms.Destination javaxDestination = unwrapDestination(destination);
+                javax.jms.Message javaxMessage = unwrapMessage(message);
                 javaxProducer.send(javaxDestination, javaxMessage);
             } catch (javax.jms.JMSException e) {
                 throw new JMSException(e.getMessage(), e.getErrorCode());
@@ -802,8 +892,8 @@ public class TibcoConfig {
         @Override
         public void send(jakarta.jms.Destination destination, jakarta.jms.Message message, int deliveryMode, int priority, long timeToLive) throws JMSException {
             try {
-                javax.jms.Destination javaxDestination = extractJavaxDestination(destination);
-                javax.jms.Message javaxMessage = extractJavaxMessage(message);
+                javax.jms.Destination javaxDestination = unwrapDestination(destination);
+                javax.jms.Message javaxMessage = unwrapMessage(message);
                 javaxProducer.send(javaxDestination, javaxMessage, deliveryMode, priority, timeToLive);
             } catch (javax.jms.JMSException e) {
                 throw new JMSException(e.getMessage(), e.getErrorCode());
@@ -829,32 +919,6 @@ public class TibcoConfig {
         public void send(jakarta.jms.Destination destination, jakarta.jms.Message message, int deliveryMode, int priority, long timeToLive, jakarta.jms.CompletionListener completionListener) throws JMSException {
             throw new UnsupportedOperationException("Async send not supported in adapter");
         }
-
-        /**
-         * Extract the underlying javax.jms.Message from a Jakarta JMS Message
-         */
-        private javax.jms.Message extractJavaxMessage(jakarta.jms.Message jakartaMessage) {
-            if (jakartaMessage instanceof JavaxToJakartaMessageAdapter) {
-                return ((JavaxToJakartaMessageAdapter) jakartaMessage).javaxMessage;
-            } else if (jakartaMessage instanceof JavaxToJakartaTextMessageAdapter) {
-                return ((JavaxToJakartaTextMessageAdapter) jakartaMessage).javaxTextMessage;
-            } else {
-                throw new IllegalArgumentException("Unsupported message type: " + jakartaMessage.getClass());
-            }
-        }
-
-        /**
-         * Extract the underlying javax.jms.Destination from a Jakarta JMS Destination
-         */
-        private javax.jms.Destination extractJavaxDestination(jakarta.jms.Destination jakartaDestination) {
-            if (jakartaDestination instanceof JavaxToJakartaQueueAdapter) {
-                return ((JavaxToJakartaQueueAdapter) jakartaDestination).javaxQueue;
-            } else if (jakartaDestination instanceof JavaxToJakartaTopicAdapter) {
-                return ((JavaxToJakartaTopicAdapter) jakartaDestination).javaxTopic;
-            } else {
-                throw new IllegalArgumentException("Unsupported destination type: " + jakartaDestination.getClass());
-            }
-        }
     }
 
     /**
@@ -889,11 +953,7 @@ public class TibcoConfig {
         @Override
         public jakarta.jms.Message receive() throws JMSException {
             try {
-                javax.jms.Message javaxMessage = javaxConsumer.receive();
-                if (javaxMessage == null) {
-                    return null;
-                }
-                return new JavaxToJakartaMessageAdapter(javaxMessage);
+                return wrapMessage(javaxConsumer.receive());
             } catch (javax.jms.JMSException e) {
                 throw new JMSException(e.getMessage(), e.getErrorCode());
             }
@@ -902,11 +962,7 @@ public class TibcoConfig {
         @Override
         public jakarta.jms.Message receive(long timeout) throws JMSException {
             try {
-                javax.jms.Message javaxMessage = javaxConsumer.receive(timeout);
-                if (javaxMessage == null) {
-                    return null;
-                }
-                return new JavaxToJakartaMessageAdapter(javaxMessage);
+                return wrapMessage(javaxConsumer.receive(timeout));
             } catch (javax.jms.JMSException e) {
                 throw new JMSException(e.getMessage(), e.getErrorCode());
             }
@@ -915,11 +971,7 @@ public class TibcoConfig {
         @Override
         public jakarta.jms.Message receiveNoWait() throws JMSException {
             try {
-                javax.jms.Message javaxMessage = javaxConsumer.receiveNoWait();
-                if (javaxMessage == null) {
-                    return null;
-                }
-                return new JavaxToJakartaMessageAdapter(javaxMessage);
+                return wrapMessage(javaxConsumer.receiveNoWait());
             } catch (javax.jms.JMSException e) {
                 throw new JMSException(e.getMessage(), e.getErrorCode());
             }
@@ -1045,7 +1097,7 @@ public class TibcoConfig {
         public jakarta.jms.Queue createQueue(String queueName) throws JMSException {
             try {
                 javax.jms.Queue javaxQueue = javaxSession.createQueue(queueName);
-                return new JavaxToJakartaQueueAdapter(javaxQueue);
+                return (jakarta.jms.Queue) wrapDestination(javaxQueue);
             } catch (javax.jms.JMSException e) {
                 throw new JMSException(e.getMessage(), e.getErrorCode());
             }
@@ -1055,7 +1107,7 @@ public class TibcoConfig {
         public jakarta.jms.Topic createTopic(String topicName) throws JMSException {
             try {
                 javax.jms.Topic javaxTopic = javaxSession.createTopic(topicName);
-                return new JavaxToJakartaTopicAdapter(javaxTopic);
+                return (jakarta.jms.Topic) wrapDestination(javaxTopic);
             } catch (javax.jms.JMSException e) {
                 throw new JMSException(e.getMessage(), e.getErrorCode());
             }
@@ -1094,7 +1146,7 @@ public class TibcoConfig {
         @Override
         public jakarta.jms.MessageProducer createProducer(jakarta.jms.Destination destination) throws JMSException {
             try {
-                javax.jms.Destination javaxDestination = extractJavaxDestination(destination);
+                javax.jms.Destination javaxDestination = unwrapDestination(destination);
                 javax.jms.MessageProducer javaxProducer = javaxSession.createProducer(javaxDestination);
                 return new JavaxToJakartaMessageProducerAdapter(javaxProducer);
             } catch (javax.jms.JMSException e) {
@@ -1105,7 +1157,7 @@ public class TibcoConfig {
         @Override
         public jakarta.jms.MessageConsumer createConsumer(jakarta.jms.Destination destination) throws JMSException {
             try {
-                javax.jms.Destination javaxDestination = extractJavaxDestination(destination);
+                javax.jms.Destination javaxDestination = unwrapDestination(destination);
                 javax.jms.MessageConsumer javaxConsumer = javaxSession.createConsumer(javaxDestination);
                 return new JavaxToJakartaMessageConsumerAdapter(javaxConsumer);
             } catch (javax.jms.JMSException e) {
@@ -1116,7 +1168,7 @@ public class TibcoConfig {
         @Override
         public jakarta.jms.MessageConsumer createConsumer(jakarta.jms.Destination destination, String messageSelector) throws JMSException {
             try {
-                javax.jms.Destination javaxDestination = extractJavaxDestination(destination);
+                javax.jms.Destination javaxDestination = unwrapDestination(destination);
                 javax.jms.MessageConsumer javaxConsumer = javaxSession.createConsumer(javaxDestination, messageSelector);
                 return new JavaxToJakartaMessageConsumerAdapter(javaxConsumer);
             } catch (javax.jms.JMSException e) {
@@ -1127,7 +1179,7 @@ public class TibcoConfig {
         @Override
         public jakarta.jms.MessageConsumer createConsumer(jakarta.jms.Destination destination, String messageSelector, boolean noLocal) throws JMSException {
             try {
-                javax.jms.Destination javaxDestination = extractJavaxDestination(destination);
+                javax.jms.Destination javaxDestination = unwrapDestination(destination);
                 javax.jms.MessageConsumer javaxConsumer = javaxSession.createConsumer(javaxDestination, messageSelector, noLocal);
                 return new JavaxToJakartaMessageConsumerAdapter(javaxConsumer);
             } catch (javax.jms.JMSException e) {
@@ -1135,16 +1187,6 @@ public class TibcoConfig {
             }
         }
 
-        private javax.jms.Destination extractJavaxDestination(jakarta.jms.Destination jakartaDestination) {
-            if (jakartaDestination instanceof JavaxToJakartaQueueAdapter) {
-                return ((JavaxToJakartaQueueAdapter) jakartaDestination).javaxQueue;
-            } else if (jakartaDestination instanceof JavaxToJakartaTopicAdapter) {
-                return ((JavaxToJakartaTopicAdapter) jakartaDestination).javaxTopic;
-            } else {
-                throw new IllegalArgumentException("Unsupported destination type: " + jakartaDestination.getClass());
-            }
-        }
-
         @Override
         public jakarta.jms.TopicSubscriber createDurableSubscriber(jakarta.jms.Topic topic, String name) throws JMSException {
             throw new UnsupportedOperationException("DurableSubscriber not supported");
@@ -1415,7 +1457,15 @@ public class TibcoConfig {
         ConnectionFactory jakartaConnectionFactory = new JavaxToJakartaConnectionFactoryAdapter(javaxConnectionFactory);
 
         // Wrap with caching connection factory for better performance
-        CachingConnectionFactory cachingConnectionFactory = new CachingConnectionFactory();
+        CachingConnectionFactory cachingConnectionFactory = new CachingConnectionFactory() {
+            @Override
+            public void resetConnection() {
+                // Destinations resolved on the old connection are not kept past a reconnect
+                destinationCache.clear();
+                destinationResolver.clearCache();
+                super.resetConnection();
+            }
+        };
         cachingConnectionFactory.setTargetConnectionFactory(jakartaConnectionFactory);
         cachingConnectionFactory.setSessionCacheSize(sessionCacheSize);
         cachingConnectionFactory.setReconnectOnException(true);
@@ -1429,6 +1479,7 @@ public class TibcoConfig {
     public JmsTemplate queueJmsTemplate(@Qualifier("tibcoConnectionFactory") ConnectionFactory connectionFactory) {
         JmsTemplate template = new JmsTemplate();
         template.setConnectionFactory(connectionFactory);
+        template.setDestinationResolver(destinationResolver);
         template.setPubSubDomain(false); // false for queues
         return template;
     }
@@ -1440,7 +1491,20 @@ public class TibcoConfig {
     public JmsTemplate topicJmsTemplate(@Qualifier("tibcoConnectionFactory") ConnectionFactory connectionFactory) {
         JmsTemplate template = new JmsTemplate();
         template.setConnectionFactory(connectionFactory);
+        template.setDestinationResolver(destinationResolver);
         template.setPubSubDomain(true); // true for topics
         return template;
     }
+
+    /**
+     * Sends stub responses through the TIBCO templates; always synchronous, as the adapters do not
+     * support async sends
+     */
+    @Bean(name = "tibcoResponseSender")
+    public JmsResponseSender responseSender(@Qualifier("tibcoQueueJmsTemplate") JmsTemplate queueJmsTemplate,
+                                            @Qualifier("tibcoTopicJmsTemplate") JmsTemplate topicJmsTemplate,
+                                            ObjectProvider<MeterRegistry> meterRegistry) {
+        return new JmsResponseSender("tibco", queueJmsTemplate, topicJmsTemplate, false,
+                meterRegistry.getIfAvailable());
+    }
 } 
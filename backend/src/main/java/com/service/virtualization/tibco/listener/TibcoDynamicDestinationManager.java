@@ -1,27 +1,25 @@
 package com.service.virtualization.tibco.listener;
 
 import com.service.virtualization.tibco.model.TibcoStub;
+import com.service.virtualization.jms.listener.SharedListenerContainers;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import jakarta.jms.ConnectionFactory;
-import jakarta.jms.MessageListener;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
-import org.springframework.jms.connection.JmsTransactionManager;
-import org.springframework.jms.listener.DefaultMessageListenerContainer;
 import org.springframework.stereotype.Component;
 
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-
 /**
- * Manages dynamic registration and unregistration of JMS listeners based on (Tibco) stubs.
+ * Manages dynamic registration and unregistration of JMS listeners based on Tibco stubs.
+ * One listener container is shared by all stubs on the same destination; registering or
+ * removing a stub otherwise only updates the message listener's routing table.
  */
 @Component
 public class TibcoDynamicDestinationManager {
     private static final Logger logger = LoggerFactory.getLogger(TibcoDynamicDestinationManager.class);
     
-
     @Autowired
     @Qualifier("tibcoConnectionFactory")
     private ConnectionFactory connectionFactory;
@@ -29,40 +27,32 @@ public class TibcoDynamicDestinationManager {
     @Autowired
     private TibcoMessageListener messageListener;
     
-    // Keep track of active listeners by stub ID
-    private final Map<String, DefaultMessageListenerContainer> activeListeners = new ConcurrentHashMap<>();
+    // Listener containers by destination, reference counted by stub
+    private SharedListenerContainers containers;
+    
+    @PostConstruct
+    public void init() {
+        containers = new SharedListenerContainers("Tibco", connectionFactory, messageListener);
+    }
     
     /**
-     * Register a new JMS listener for the given stub.
+     * Register a JMS listener for the given stub, reusing the destination's container if one is running.
      *
      * @param stub The Tibco stub to register a listener for
      * @return true if registration was successful, false otherwise
      */
     public boolean registerListener(TibcoStub stub) {
         try {
-            // If already registered, unregister first
-            if (activeListeners.containsKey(stub.getId())) {
-                unregisterListener(stub.getId());
-            }
-            
             String destinationName = stub.getDestinationName();
             boolean isTopic = "topic".equalsIgnoreCase(stub.getDestinationType());
             
             logger.info("Registering listener for {} {}: {}", 
                     isTopic ? "topic" : "queue", destinationName, stub.getId());
-                    
-            DefaultMessageListenerContainer container = createMessageListenerContainer(
-                    destinationName, isTopic, messageListener);
-            
-            // Store the selector with the listener in the MessageListener
-            messageListener.registerStub(stub);
             
-            // Start the container
-            container.initialize();
-            container.start();
+            containers.acquire(stub.getId(), destinationName, isTopic);
             
-            // Store for later cleanup
-            activeListeners.put(stub.getId(), container);
+            // Route messages on the destination to this stub
+            messageListener.registerStub(stub);
             
             return true;
         } catch (Exception e) {
@@ -72,53 +62,24 @@ public class TibcoDynamicDestinationManager {
     }
     
     /**
-     * Unregister a JMS listener for the given stub ID.
+     * Unregister the JMS listener for the given stub ID, stopping the destination's container
+     * if no other stub uses it.
      *
      * @param stubId The ID of the stub to unregister
      */
     public void unregisterListener(String stubId) {
-        DefaultMessageListenerContainer container = activeListeners.get(stubId);
-        if (container != null) {
-            try {
-                logger.info("Unregistering listener for stub: {}", stubId);
-                container.stop();
-                container.destroy();
-                activeListeners.remove(stubId);
-                messageListener.unregisterStub(stubId);
-            } catch (Exception e) {
-                logger.error("Error unregistering listener for stub {}: {}", stubId, e.getMessage(), e);
+        try {
+            messageListener.unregisterStub(stubId);
+            if (containers.release(stubId)) {
+                logger.info("Unregistered listener for stub: {}", stubId);
             }
+        } catch (Exception e) {
+            logger.error("Error unregistering listener for stub {}: {}", stubId, e.getMessage(), e);
         }
     }
     
-    /**
-     * Create a message listener container for the specified destination.
-     *
-     * @param destinationName The name of the destination (queue or topic)
-     * @param isTopic True if the destination is a topic, false for a queue
-     * @param listener The message listener to attach
-     * @return A configured message listener container
-     */
-    private DefaultMessageListenerContainer createMessageListenerContainer(
-            String destinationName, boolean isTopic, MessageListener listener) {
-        
-        DefaultMessageListenerContainer container = new DefaultMessageListenerContainer();
-        container.setConnectionFactory(connectionFactory);
-        container.setDestinationName(destinationName);
-        container.setPubSubDomain(isTopic); // true for topics, false for queues
-        container.setMessageListener(listener);
-        
-        // Set transaction manager for reliability
-        JmsTransactionManager transactionManager = new JmsTransactionManager();
-        transactionManager.setConnectionFactory(connectionFactory);
-        container.setTransactionManager(transactionManager);
-        
-        // Configure container properties
-        container.setSessionTransacted(true);
-        container.setConcurrentConsumers(1);
-        container.setMaxConcurrentConsumers(5);
-        container.setRecoveryInterval(5000);
-        
-        return container;
+    @PreDestroy
+    public void shutdown() {
+        containers.stopAll();
     }
-} 
\ No newline at end of file
+}
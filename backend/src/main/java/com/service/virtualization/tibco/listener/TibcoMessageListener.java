@@ -1,20 +1,16 @@
 package com.service.virtualization.tibco.listener;
 
+import com.service.virtualization.jms.matcher.MessageContent;
 import com.service.virtualization.tibco.matcher.TibcoStubMatcher;
 import com.service.virtualization.tibco.model.TibcoStub;
 import com.service.virtualization.tibco.service.TibcoResponseService;
-import jakarta.jms.JMSException;
 import jakarta.jms.Message;
 import jakarta.jms.MessageListener;
-import jakarta.jms.TextMessage;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-
 /**
  * Message listener for Tibco messages.
  * Handles incoming messages, matches them against registered stubs,
@@ -30,9 +26,6 @@ public class TibcoMessageListener implements MessageListener {
     @Autowired
     private TibcoResponseService responseService;
     
-    // Map to store stubs by ID
-    private final Map<String, TibcoStub> registeredStubs = new ConcurrentHashMap<>();
-    
     /**
      * Handles incoming JMS messages.
      *
@@ -44,21 +37,21 @@ public class TibcoMessageListener implements MessageListener {
             String destinationName = getDestinationName(message.getJMSDestination());
             logger.debug("Received message from {}", destinationName);
             
-            // Extract message content for matching
-            String messageContent = extractMessageContent(message);
+            // Body is read at most once, and only if a stub matches on content or calls a webhook
+            MessageContent content = MessageContent.of(message);
             
             // Find matching stub
-            TibcoStub matchingStub = tibcoStubMatcher.findMatchingStub(message, registeredStubs.values());
+            TibcoStub matchingStub = tibcoStubMatcher.findMatchingStub(message, content);
             
             if (matchingStub != null) {
                 logger.info("Found matching stub {} for message on {}", 
                         matchingStub.getId(), destinationName);
                 
                 // Process and send response
-                responseService.processResponse(matchingStub, message, messageContent);
+                responseService.processResponse(matchingStub, message, content);
             } else {
                 logger.warn("No matching stub found for message on {}: {}", 
-                        destinationName, messageContent);
+                        destinationName, content.summary());
             }
         } catch (Exception e) {
             logger.error("Error processing message: {}", e.getMessage(), e);
@@ -71,7 +64,7 @@ public class TibcoMessageListener implements MessageListener {
      * @param stub The stub to register
      */
     public void registerStub(TibcoStub stub) {
-        registeredStubs.put(stub.getId(), stub);
+        tibcoStubMatcher.register(stub);
         logger.info("Registered stub {} for {}", stub.getId(), stub.getDestinationName());
     }
     
@@ -81,7 +74,7 @@ public class TibcoMessageListener implements MessageListener {
      * @param stubId The ID of the stub to unregister
      */
     public void unregisterStub(String stubId) {
-        registeredStubs.remove(stubId);
+        tibcoStubMatcher.unregister(stubId);
         logger.info("Unregistered stub {}", stubId);
     }
     
@@ -105,41 +98,4 @@ public class TibcoMessageListener implements MessageListener {
             return destination.toString();
         }
     }
-
-    /**
-     * Extract content from a JMS message.
-     *
-     * @param message The JMS message
-     * @return The message content as a string
-     * @throws JMSException If there is an error accessing message content
-     */
-    private String extractMessageContent(Message message) throws JMSException {
-        try {
-            // Handle our Jakarta-to-Javax adapter specifically
-            if (message.getClass().getName().contains("JavaxToJakartaMessageAdapter")) {
-                // Use getBody method to get text content from our adapter
-                try {
-                    return message.getBody(String.class);
-                } catch (Exception e) {
-                    logger.debug("Could not get body as String, trying other methods: {}", e.getMessage());
-                }
-            }
-            
-            // Standard TextMessage handling
-            if (message instanceof TextMessage) {
-                return ((TextMessage) message).getText();
-            } else {
-                // Try to get the body as String for JMS 2.0 messages
-                try {
-                    return message.getBody(String.class);
-                } catch (Exception e) {
-                    logger.debug("Could not extract body as String: {}", e.getMessage());
-                    return message.toString();
-                }
-            }
-        } catch (Exception e) {
-            logger.warn("Error extracting message content: {}", e.getMessage());
-            return "";
-        }
-    }
 } 
\ No newline at end of file
@@ -1,177 +1,85 @@
 package com.service.virtualization.tibco.matcher;
 
+import com.service.virtualization.jms.matcher.CompiledJmsStub;
+import com.service.virtualization.jms.matcher.JmsStubIndex;
+import com.service.virtualization.jms.matcher.MessageContent;
 import com.service.virtualization.model.StubStatus;
 import com.service.virtualization.tibco.model.TibcoStub;
-import jakarta.jms.JMSException;
 import jakarta.jms.Message;
-import jakarta.jms.TextMessage;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
-import java.util.Collection;
-import java.util.Comparator;
-import java.util.Enumeration;
-import java.util.regex.Pattern;
-
 /**
  * Handles matching of JMS messages against registered Tibco stubs.
+ * Stubs are indexed by destination and their matching rules compiled on registration.
  */
 @Component
 public class TibcoStubMatcher {
     private static final Logger logger = LoggerFactory.getLogger(TibcoStubMatcher.class);
     
+    // Routing table of registered stubs, compiled once per stub version
+    private final JmsStubIndex<TibcoStub> stubIndex = new JmsStubIndex<>();
+    
     /**
-     * Find a matching stub for the given message.
+     * Compile a stub's matching rules and add it to the routing table, replacing any previous
+     * version of the stub. Stubs that are not active are removed instead.
      *
-     * @param message The JMS message to match
-     * @param registeredStubs Collection of registered stubs to match against
-     * @return The matching stub, or null if no match is found
+     * @param stub The stub to register
      */
-    public TibcoStub findMatchingStub(Message message, Collection<TibcoStub> registeredStubs) {
-        if (registeredStubs.isEmpty()) {
-            return null;
+    public void register(TibcoStub stub) {
+        if (stub.getStatus() != StubStatus.ACTIVE) {
+            stubIndex.unregister(stub.getId());
+            return;
         }
         
-        try {
-            // Get destination for matching - properly extract destination name
-            String destination = getDestinationName(message.getJMSDestination());
-            
-            // Extract message content for content-based matching
-            String messageContent = extractMessageContent(message);
-            
-            // Find matching stubs and sort by priority (highest first)
-            // Only consider active stubs
-            // Sort by priority (highest first)
-            return registeredStubs.stream()
-                    .filter(stub -> isDestinationMatch(stub, destination))
-                    .filter(stub -> isMessageSelectorMatch(stub, message))
-                    .filter(stub -> isContentMatch(stub, messageContent))
-                    .filter(stub -> stub.getStatus() == StubStatus.ACTIVE)
-                    .max(Comparator.comparing(TibcoStub::getPriority))
-                    .orElse(null);
-        } catch (Exception e) {
-            logger.error("Error matching message to stub: {}", e.getMessage(), e);
-            return null;
-        }
+        stubIndex.register(CompiledJmsStub.compile(
+                stub,
+                stub.getId(),
+                stub.getDestinationName(),
+                stub.getMessageSelector(),
+                stub.getContentMatchType() != null ? stub.getContentMatchType().name() : null,
+                stub.getContentPattern(),
+                stub.isCaseSensitive(),
+                stub.getPriority()));
     }
     
     /**
-     * Check if the stub's destination matches the message destination.
+     * Remove a stub from the routing table.
      *
-     * @param stub The stub to check
-     * @param messageDestination The message destination string
-     * @return True if the destinations match
+     * @param stubId The ID of the stub to remove
      */
-    private boolean isDestinationMatch(TibcoStub stub, String messageDestination) {
-        // Extract the actual destination name from format like "queue://QUEUE_NAME"
-        String extractedName = extractDestinationName(messageDestination);
-        
-        // Check for an exact match
-        return extractedName.equalsIgnoreCase(stub.getDestinationName());
+    public void unregister(String stubId) {
+        stubIndex.unregister(stubId);
     }
     
     /**
-     * Check if the message matches the stub's selector.
+     * Find the highest priority registered stub matching the given message.
      *
-     * @param stub The stub to check
-     * @param message The message to check
-     * @return True if the message matches the selector
+     * @param message The JMS message to match
+     * @return The matching stub, or null if no match is found
      */
-    private boolean isMessageSelectorMatch(TibcoStub stub, Message message) {
-        String selector = stub.getMessageSelector();
-        
-        // If no selector specified, any message is a match
-        if (selector == null || selector.trim().isEmpty()) {
-            return true;
-        }
-        
-        try {
-            // Handle simple property-based selectors
-            if (selector.contains("=")) {
-                String[] parts = selector.split("=", 2);
-                if (parts.length == 2) {
-                    String propertyName = parts[0].trim();
-                    String expectedValue = parts[1].trim().replace("'", "").replace("\"", "");
-                    
-                    String actualValue = message.getStringProperty(propertyName);
-                    return expectedValue.equals(actualValue);
-                }
-            }
-            
-            // For more complex selectors, we would need a full JMS selector evaluator
-            // This is a basic implementation
-            return matchAllProperties(message, selector);
-        } catch (JMSException e) {
-            logger.warn("Error evaluating selector '{}': {}", selector, e.getMessage());
-            return false;
-        }
+    public TibcoStub findMatchingStub(Message message) {
+        return findMatchingStub(message, MessageContent.of(message));
     }
-    
-    /**
-     * Check if the message content matches the stub's content pattern.
-     * 
-     * @param stub The stub to check
-     * @param messageContent The message content as a string
-     * @return True if the content matches or if no content matching is configured
-     */
-    private boolean isContentMatch(TibcoStub stub, String messageContent) {
-        // If no content pattern or match type is NONE, any content is a match
-        if (stub.getContentMatchType() == TibcoStub.ContentMatchType.NONE ||
-            stub.getContentPattern() == null || 
-            stub.getContentPattern().isEmpty()) {
-            return true;
-        }
-        
-        // Get pattern from stub
-        String pattern = stub.getContentPattern();
-        String content = messageContent;
-        
-        // Apply case insensitivity if needed
-        if (!stub.isCaseSensitive()) {
-            pattern = pattern.toLowerCase();
-            content = content.toLowerCase();
-        }
-        
-        // Match based on the match type
-        switch (stub.getContentMatchType()) {
-            case CONTAINS:
-                return content.contains(pattern);
-            case EXACT:
-                return content.equals(pattern);
-            case REGEX:
-                try {
-                    return Pattern.compile(pattern).matcher(content).matches();
-                } catch (Exception e) {
-                    logger.warn("Invalid regex pattern: {}", pattern, e);
-                    return false;
-                }
-            default:
-                return true;
-        }
-    }
-    
+
     /**
-     * Simple property-based matching for all message properties.
+     * Find the highest priority registered stub matching the given message.
      *
-     * @param message The message to check
-     * @param selectorPattern Pattern to match against properties
-     * @return True if any property matches the pattern
+     * @param message The JMS message to match
+     * @param content The message content, shared with the caller so the body is read once
+     * @return The matching stub, or null if no match is found
      */
-    private boolean matchAllProperties(Message message, String selectorPattern) throws JMSException {
-        Enumeration<?> propertyNames = message.getPropertyNames();
-        Pattern pattern = Pattern.compile(selectorPattern, Pattern.CASE_INSENSITIVE);
-        
-        while (propertyNames.hasMoreElements()) {
-            String name = (String) propertyNames.nextElement();
-            String value = message.getStringProperty(name);
+    public TibcoStub findMatchingStub(Message message, MessageContent content) {
+        try {
+            String destination = extractDestinationName(getDestinationName(message.getJMSDestination()));
             
-            if (pattern.matcher(value).matches()) {
-                return true;
-            }
+            // The body is only read if a candidate stub on the destination matches on content
+            return stubIndex.match(destination, message, content);
+        } catch (Exception e) {
+            logger.error("Error matching message to stub: {}", e.getMessage(), e);
+            return null;
         }
-        
-        return false;
     }
     
     /**
@@ -221,40 +129,4 @@ public class TibcoStubMatcher {
         logger.debug("No slashes found in destination '{}', returning as-is", destination);
         return destination;
     }
-    
-    /**
-     * Extract content from a JMS message.
-     *
-     * @param message The JMS message
-     * @return The message content as a string
-     */
-    private String extractMessageContent(Message message) {
-        try {
-            // Handle our Jakarta-to-Javax adapter specifically
-            if (message.getClass().getName().contains("JavaxToJakartaMessageAdapter")) {
-                // Use getBody method to get text content from our adapter
-                try {
-                    return message.getBody(String.class);
-                } catch (Exception e) {
-                    logger.debug("Could not get body as String, trying other methods: {}", e.getMessage());
-                }
-            }
-            
-            // Standard TextMessage handling
-            if (message instanceof TextMessage) {
-                return ((TextMessage) message).getText();
-            } else {
-                // Try to get the body as String for JMS 2.0 messages
-                try {
-                    return message.getBody(String.class);
-                } catch (Exception e) {
-                    logger.debug("Could not extract body as String: {}", e.getMessage());
-                    return message.toString();
-                }
-            }
-        } catch (JMSException e) {
-            logger.warn("Error extracting message content: {}", e.getMessage());
-            return "";
-        }
-    }
 } 
\ No newline at end of file
@@ -39,14 +39,17 @@ public class SybaseTibcoStubRepository implements TibcoStubRepository {
 
     // SQL statements
     private static final String TABLE_NAME = "tibco_stubs";
-    private static final String INSERT_STUB = "INSERT INTO " + TABLE_NAME + " (stub_data) VALUES (?)";
-    private static final String UPDATE_STUB = "UPDATE " + TABLE_NAME + " SET stub_data = ? WHERE id = ?";
+    // status and user_id mirror the JSON so lookups can use their indexes
+    private static final String INSERT_STUB = "INSERT INTO " + TABLE_NAME +
+            " (stub_data, status, user_id) VALUES (?, ?, ?)";
+    private static final String UPDATE_STUB = "UPDATE " + TABLE_NAME +
+            " SET stub_data = ?, status = ?, user_id = ? WHERE id = ?";
     private static final String SELECT_STUB_BY_ID = "SELECT id, stub_data FROM " + TABLE_NAME + " WHERE id = ?";
     private static final String SELECT_ALL_STUBS = "SELECT id, stub_data FROM " + TABLE_NAME;
     private static final String SELECT_STUBS_BY_STATUS = "SELECT id, stub_data FROM " + TABLE_NAME + 
-                                                       " WHERE JSON_VALUE(stub_data, '$.status') = ?";
+                                                       " WHERE status = ?";
     private static final String SELECT_STUBS_BY_USER_ID = "SELECT id, stub_data FROM " + TABLE_NAME + 
-                                                        " WHERE JSON_VALUE(stub_data, '$.userId') = ?";
+                                                        " WHERE user_id = ?";
     private static final String DELETE_STUB_BY_ID = "DELETE FROM " + TABLE_NAME + " WHERE id = ?";
     private static final String COUNT_STUBS_BY_ID = "SELECT COUNT(*) FROM " + TABLE_NAME + " WHERE id = ?";
 
@@ -75,6 +78,8 @@ public class SybaseTibcoStubRepository implements TibcoStubRepository {
                         INSERT_STUB, 
                         Statement.RETURN_GENERATED_KEYS);
                     ps.setString(1, stubJson);
+                    ps.setString(2, statusName(tibcoStub));
+                    ps.setString(3, tibcoStub.getUserId());
                     return ps;
                 }, keyHolder);
                 
@@ -84,7 +89,7 @@ public class SybaseTibcoStubRepository implements TibcoStubRepository {
                 
                 // Update the JSON with the generated ID
                 String updatedStubJson = objectMapper.writeValueAsString(tibcoStub);
-                jdbcTemplate.update(UPDATE_STUB, updatedStubJson, generatedId);
+                jdbcTemplate.update(UPDATE_STUB, updatedStubJson, statusName(tibcoStub), tibcoStub.getUserId(), generatedId);
                 
                 logger.debug("Inserted new TIBCO stub with ID: {}", generatedId);
                 return tibcoStub;
@@ -94,7 +99,7 @@ public class SybaseTibcoStubRepository implements TibcoStubRepository {
                 tibcoStub.setUpdatedAt(now);
 
                 String stubJson = objectMapper.writeValueAsString(tibcoStub);
-                jdbcTemplate.update(UPDATE_STUB, stubJson, tibcoStub.getId());
+                jdbcTemplate.update(UPDATE_STUB, stubJson, statusName(tibcoStub), tibcoStub.getUserId(), tibcoStub.getId());
                 logger.debug("Updated TIBCO stub with ID: {}", tibcoStub.getId());
                 return tibcoStub;
             }
@@ -157,4 +162,8 @@ public class SybaseTibcoStubRepository implements TibcoStubRepository {
             }
         };
     }
-} 
\ No newline at end of file
+
+    private static String statusName(TibcoStub stub) {
+        return stub.getStatus() != null ? stub.getStatus().name() : null;
+    }
+}
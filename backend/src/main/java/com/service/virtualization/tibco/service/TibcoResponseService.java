@@ -1,22 +1,44 @@
 package com.service.virtualization.tibco.service;
 
+import com.service.virtualization.jms.matcher.MessageContent;
+import com.service.virtualization.jms.sender.JmsResponseSender;
+import com.service.virtualization.latency.LatencySimulator;
 import com.service.virtualization.tibco.model.TibcoStub;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.jms.Destination;
 import jakarta.jms.JMSException;
 import jakarta.jms.Message;
 import jakarta.jms.TextMessage;
+import jakarta.jms.Topic;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
-import org.springframework.jms.core.JmsTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jms.core.MessageCreator;
 import org.springframework.stereotype.Service;
 import org.springframework.context.annotation.Profile;
 
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
 
 /**
  * Service for handling responses to matched Tibco messages.
+ *
+ * Everything needed from the inbound message is copied on the listener thread, which then returns so
+ * the message is acknowledged. The webhook call, simulated latency and send run on virtual threads, and
+ * sends are limited to the connection's session cache size so they always reuse cached sessions and
+ * producers. When too many responses are in flight, the listener thread waits out the latency and
+ * sends the response itself, which slows consumption instead of queueing without bound.
  * Only active when tibco-disabled profile is NOT active
  */
 @Service
@@ -25,60 +47,139 @@ public class TibcoResponseService {
     private static final Logger logger = LoggerFactory.getLogger(TibcoResponseService.class);
 
     @Autowired
-    @Qualifier("tibcoQueueJmsTemplate")
-    private JmsTemplate queueJmsTemplate;
+    @Qualifier("tibcoResponseSender")
+    private JmsResponseSender responseSender;
 
     @Autowired
-    @Qualifier("tibcoTopicJmsTemplate")
-    private JmsTemplate topicJmsTemplate;
+    private TibcoWebhookService TibcoWebhookService;
 
     @Autowired
-    private TibcoWebhookService TibcoWebhookService;
+    private LatencySimulator latencySimulator;
+
+    @Autowired
+    private ObjectProvider<MeterRegistry> meterRegistry;
+
+    @Value("${tibco.response.max-in-flight:1000}")
+    private int maxInFlight;
+
+    @Value("${tibco.connection.cache-size:10}")
+    private int maxConcurrentSends;
+
+    private final ExecutorService responseExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private Semaphore inFlight;
+    private Semaphore sendPermits;
+    private Counter inlineResponses;
+
+    @PostConstruct
+    public void init() {
+        inFlight = new Semaphore(Math.max(1, maxInFlight));
+        sendPermits = new Semaphore(Math.max(1, maxConcurrentSends));
+
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry != null) {
+            Gauge.builder("tibco.response.in.flight", this, service -> maxInFlight - service.inFlight.availablePermits())
+                    .description("Tibco responses accepted but not yet sent").register(registry);
+            inlineResponses = Counter.builder("tibco.response.inline")
+                    .description("Tibco responses sent on the listener thread because too many were in flight")
+                    .register(registry);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        responseExecutor.shutdown();
+    }
 
     /**
      * Process and send a response for a matched message.
      *
      * @param stub           The matched stub
      * @param message        The original JMS message
-     * @param messageContent The content of the original message
+     * @param content        The content of the original message
      */
-    public void processResponse(TibcoStub stub, Message message, String messageContent) {
+    public void processResponse(TibcoStub stub, Message message, MessageContent content) {
         try {
             String responseDestination = stub.getResponseDestination();
-            String responseDestinationType = stub.getResponseType();
+            Destination replyTo = null;
 
-            // Process the response based on type
+            // If no response destination is specified, use the JMSReplyTo if available
+            if (responseDestination == null || responseDestination.trim().isEmpty()) {
+                replyTo = message.getJMSReplyTo();
+                if (replyTo == null) {
+                    logger.warn("No response destination specified and no JMSReplyTo in message for stub {}",
+                            stub.getId());
+                    return;
+                }
+            }
+
+            // Copy what the response needs; the message belongs to the listener's session
             final Map<String, String> headers = extractHeaders(message);
+            // Only a webhook sees the request body, so other stubs never decode it
+            final String messageContent = hasWebhook(stub) ? content.text() : null;
+            final Destination finalReplyTo = replyTo;
+            Runnable response = () -> sendResponse(stub, responseDestination, stub.getResponseType(), finalReplyTo,
+                    messageContent, headers);
 
-            sendResponse(stub, responseDestination, responseDestinationType, messageContent, headers);
+            long latency = stub.getLatency() != null ? stub.getLatency() : 0;
+            if (!inFlight.tryAcquire()) {
+                // Too many in flight: wait out the latency and send on the listener thread, holding back the next message
+                if (inlineResponses != null) {
+                    inlineResponses.increment();
+                }
+                latencySimulator.sleep(stub.getId(), latency);
+                response.run();
+                return;
+            }
+            Runnable releasing = () -> {
+                try {
+                    response.run();
+                } finally {
+                    inFlight.release();
+                }
+            };
+            try {
+                // Delayed responses run on the timer's virtual threads; undelayed ones are handed to the executor
+                latencySimulator.schedule(stub.getId(), latency, releasing, responseExecutor);
+            } catch (RejectedExecutionException e) {
+                inFlight.release();
+                throw e;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.error("Interrupted before sending response for stub {}", stub.getId());
         } catch (Exception e) {
             logger.error("Error processing response for stub {}: {}",
                     stub.getId(), e.getMessage(), e);
         }
     }
 
+    private static boolean hasWebhook(TibcoStub stub) {
+        return stub.getWebhookUrl() != null && !stub.getWebhookUrl().trim().isEmpty();
+    }
+
     /**
      * Send the response based on the stub configuration.
      *
      * @param stub                   The matched stub
-     * @param destination            The destination to send the response to
+     * @param destination            The destination to send the response to, null to use the reply-to
      * @param destinationType        The type of destination (queue or topic)
+     * @param replyTo                The original message's JMSReplyTo, used when there is no destination
      * @param originalMessageContent The content of the original message
      * @param headers                Headers from the original message
      */
-    private void sendResponse(TibcoStub stub, String destination, String destinationType,
+    private void sendResponse(TibcoStub stub, String destination, String destinationType, Destination replyTo,
                               String originalMessageContent, Map<String, String> headers) {
         try {
-            // Determine which JmsTemplate to use based on destination type
-            boolean isTopic = "topic".equalsIgnoreCase(destinationType);
-            JmsTemplate jmsTemplate = isTopic ? topicJmsTemplate : queueJmsTemplate;
+            // Determine the destination type
+            boolean isTopic = replyTo != null ? replyTo instanceof Topic : "topic".equalsIgnoreCase(destinationType);
+            Object target = replyTo != null ? replyTo : destination;
 
             logger.debug("Sending response to {} {} for stub {}",
-                    isTopic ? "topic" : "queue", destination, stub.getId());
+                    isTopic ? "topic" : "queue", target, stub.getId());
 
             // Check if we should get content from webhook
             String responseContent;
-            if (stub.getWebhookUrl() != null && !stub.getWebhookUrl().trim().isEmpty()) {
+            if (hasWebhook(stub)) {
                 responseContent = TibcoWebhookService.getWebhookResponse(stub, originalMessageContent, headers);
             } else {
                 responseContent = stub.getResponseContent();
@@ -90,7 +191,7 @@ public class TibcoResponseService {
 
             // Send the response
             String finalResponseContent = responseContent;
-            jmsTemplate.send(destination, session -> {
+            MessageCreator messageCreator = session -> {
                 TextMessage responseMessage = session.createTextMessage(finalResponseContent);
 
                 // Set correlation ID from original message if available
@@ -118,10 +219,24 @@ public class TibcoResponseService {
                 }
 
                 return responseMessage;
-            });
+            };
+
+            sendPermits.acquire();
+            try {
+                if (replyTo != null) {
+                    responseSender.send(replyTo, messageCreator);
+                } else {
+                    responseSender.send(destination, isTopic, messageCreator);
+                }
+            } finally {
+                sendPermits.release();
+            }
 
             logger.info("Sent response to {} {} for stub {}",
-                    isTopic ? "topic" : "queue", destination, stub.getId());
+                    isTopic ? "topic" : "queue", target, stub.getId());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.error("Interrupted before sending response for stub {}", stub.getId());
         } catch (Exception e) {
             logger.error("Error sending response: {}", e.getMessage(), e);
         }
@@ -22,7 +22,11 @@ import java.util.Map;
 public class TibcoWebhookService {
     private static final Logger logger = LoggerFactory.getLogger(TibcoWebhookService.class);
 
-    private final RestTemplate restTemplate = new RestTemplate();
+    private final RestTemplate restTemplate;
+
+    public TibcoWebhookService(RestTemplate outboundRestTemplate) {
+        this.restTemplate = outboundRestTemplate;
+    }
 
     /**
      * Get a response from a webhook URL.
@@ -0,0 +1,283 @@
+package com.service.virtualization.wiremock;
+
+import com.github.tomakehurst.wiremock.core.Options;
+import com.github.tomakehurst.wiremock.extension.StubLifecycleListener;
+import com.github.tomakehurst.wiremock.http.AdminRequestHandler;
+import com.github.tomakehurst.wiremock.http.HttpHeader;
+import com.github.tomakehurst.wiremock.http.HttpServer;
+import com.github.tomakehurst.wiremock.http.HttpServerFactory;
+import com.github.tomakehurst.wiremock.http.ImmutableRequest;
+import com.github.tomakehurst.wiremock.http.Request;
+import com.github.tomakehurst.wiremock.http.RequestMethod;
+import com.github.tomakehurst.wiremock.http.Response;
+import com.github.tomakehurst.wiremock.http.ResponseDefinition;
+import com.github.tomakehurst.wiremock.http.StubRequestHandler;
+import com.github.tomakehurst.wiremock.matching.RequestPattern;
+import com.github.tomakehurst.wiremock.stubbing.StubMapping;
+import com.service.virtualization.rest.service.ProxyBufferPool;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Dispatches virtualized REST/SOAP requests straight into the embedded WireMock server's
+ * stub-matching and response-rendering engine, avoiding a second HTTP round trip over localhost.
+ *
+ * WireMock does not expose its stub handler publicly, so {@link #capture(HttpServerFactory)} wraps
+ * the server factory used by {@code WireMockConfig} and keeps a reference to the handler it is given.
+ * The network listener is still started as usual for the admin API and for external clients.
+ *
+ * Faults, random delay distributions and chunked dribble delays are applied by WireMock's HTTP
+ * layer, not its stub engine. {@link #stubListener()} tracks the mappings that use them, and
+ * requests matching one of those mappings are left to the HTTP path so they behave exactly
+ * as they would against WireMock's own port.
+ */
+@Component
+public class InProcessWireMockDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(InProcessWireMockDispatcher.class);
+
+    private static final Set<String> HOP_BY_HOP_HEADERS = Set.of(
+            "connection", "keep-alive", "proxy-authenticate", "proxy-authorization",
+            "te", "trailer", "transfer-encoding", "upgrade");
+
+    @Value("${wiremock.in-process-dispatch:true}")
+    private boolean enabled;
+
+    @Value("${wiremock.server.host:localhost}")
+    private String wiremockHost;
+
+    @Value("${wiremock.server.port:8081}")
+    private int wiremockPort;
+
+    private final ProxyBufferPool bufferPool;
+
+    private volatile StubRequestHandler stubRequestHandler;
+
+    /**
+     * Request patterns of mappings whose responses can only be rendered faithfully over HTTP
+     */
+    private final Map<UUID, RequestPattern> httpOnlyMappings = new ConcurrentHashMap<>();
+
+    public InProcessWireMockDispatcher(ProxyBufferPool bufferPool) {
+        this.bufferPool = bufferPool;
+    }
+
+    /**
+     * Wrap WireMock's HTTP server factory so the stub request handler can be reused in-process
+     */
+    public HttpServerFactory capture(HttpServerFactory delegate) {
+        return new CapturingHttpServerFactory(delegate);
+    }
+
+    /**
+     * WireMock extension that keeps the set of HTTP-only mappings current as stubs change
+     */
+    public StubLifecycleListener stubListener() {
+        return new HttpOnlyMappingTracker();
+    }
+
+    /**
+     * @return true when in-process dispatch is enabled and WireMock has been started
+     */
+    public boolean isAvailable() {
+        return enabled && stubRequestHandler != null;
+    }
+
+    /**
+     * Build the WireMock request for an incoming servlet request
+     *
+     * @param request The incoming servlet request (headers, method, client address)
+     * @param url     The WireMock-relative URL including any query string
+     * @param body    The request body
+     */
+    public Request toRequest(HttpServletRequest request, String url, byte[] body) {
+        return ImmutableRequest.create()
+                .withAbsoluteUrl(String.format("http://%s:%d%s", wiremockHost, wiremockPort, url))
+                .withMethod(RequestMethod.fromString(request.getMethod()))
+                .withProtocol(request.getProtocol())
+                .withClientIp(request.getRemoteAddr())
+                .withHeaders(toWireMockHeaders(request))
+                .withBody(body)
+                .build();
+    }
+
+    /**
+     * @return false when the request matches a mapping that uses a fault, a random delay
+     * distribution or a chunked dribble delay, which only WireMock's HTTP layer can simulate
+     */
+    public boolean canServe(Request wireMockRequest) {
+        if (httpOnlyMappings.isEmpty()) {
+            return true;
+        }
+        for (RequestPattern pattern : httpOnlyMappings.values()) {
+            if (pattern.match(wireMockRequest).isExactMatch()) {
+                logger.debug("{} {} matches a fault or delay-distribution stub, leaving it to the HTTP path",
+                        wireMockRequest.getMethod(), wireMockRequest.getUrl());
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Run a request through WireMock's stub engine and return the rendered response
+     *
+     * @param wireMockRequest The request built by {@link #toRequest}
+     * @return The WireMock response, with any configured fixed delay already applied
+     */
+    public Response serve(Request wireMockRequest) {
+        StubRequestHandler handler = stubRequestHandler;
+        if (handler == null) {
+            throw new IllegalStateException("WireMock stub handler not available for in-process dispatch");
+        }
+
+        // The stub handler renders and responds on the calling thread
+        CompletableFuture<Response> result = new CompletableFuture<>();
+        handler.handle(wireMockRequest, (req, response, attributes) -> result.complete(response), null);
+        Response response = result.join();
+
+        if (response.getInitialDelay() > 0) {
+            try {
+                Thread.sleep(response.getInitialDelay());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        logger.debug("In-process WireMock dispatch {} {} -> {}", wireMockRequest.getMethod(), wireMockRequest.getUrl(), response.getStatus());
+        return response;
+    }
+
+    /**
+     * Write a WireMock response to the servlet response
+     */
+    public void write(Response wireMockResponse, HttpServletResponse response) throws IOException {
+        if (wireMockResponse.getFault() != null) {
+            // Only reachable for a fault stub registered before the tracker saw it; canServe() normally routes these to HTTP
+            logger.warn("Stub requested fault {}, which cannot be simulated in-process", wireMockResponse.getFault());
+            response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR, "Simulated fault: " + wireMockResponse.getFault());
+            return;
+        }
+
+        response.setStatus(wireMockResponse.getStatus());
+        for (HttpHeader header : wireMockResponse.getHeaders().all()) {
+            if (!HOP_BY_HOP_HEADERS.contains(header.key().toLowerCase())) {
+                header.values().forEach(value -> response.addHeader(header.key(), value));
+            }
+        }
+        response.setHeader("Access-Control-Allow-Origin", "*");
+
+        try (InputStream body = wireMockResponse.getBodyStream()) {
+            if (body != null) {
+                bufferPool.copy(body, response.getOutputStream());
+            }
+        }
+    }
+
+    /**
+     * Convert a WireMock response to a ResponseEntity for callers that return entities
+     */
+    public ResponseEntity<byte[]> toResponseEntity(Response wireMockResponse) {
+        org.springframework.http.HttpHeaders headers = new org.springframework.http.HttpHeaders();
+        for (HttpHeader header : wireMockResponse.getHeaders().all()) {
+            if (!HOP_BY_HOP_HEADERS.contains(header.key().toLowerCase())) {
+                headers.addAll(header.key(), header.values());
+            }
+        }
+        return new ResponseEntity<>(wireMockResponse.getBody(), headers, HttpStatusCode.valueOf(wireMockResponse.getStatus()));
+    }
+
+    private com.github.tomakehurst.wiremock.http.HttpHeaders toWireMockHeaders(HttpServletRequest request) {
+        List<HttpHeader> headers = new ArrayList<>();
+        Enumeration<String> headerNames = request.getHeaderNames();
+        while (headerNames.hasMoreElements()) {
+            String headerName = headerNames.nextElement();
+            headers.add(new HttpHeader(headerName, Collections.list(request.getHeaders(headerName))));
+        }
+        return new com.github.tomakehurst.wiremock.http.HttpHeaders(headers);
+    }
+
+    private static boolean requiresHttp(ResponseDefinition response) {
+        return response != null && (response.getFault() != null
+                || response.getDelayDistribution() != null
+                || response.getChunkedDribbleDelay() != null);
+    }
+
+    /**
+     * Records mappings that {@link #canServe} must leave to the HTTP path
+     */
+    private class HttpOnlyMappingTracker implements StubLifecycleListener {
+
+        @Override
+        public String getName() {
+            return "in-process-http-only-mapping-tracker";
+        }
+
+        @Override
+        public void afterStubCreated(StubMapping stub) {
+            track(stub);
+        }
+
+        @Override
+        public void afterStubEdited(StubMapping oldStub, StubMapping newStub) {
+            httpOnlyMappings.remove(oldStub.getId());
+            track(newStub);
+        }
+
+        @Override
+        public void afterStubRemoved(StubMapping stub) {
+            httpOnlyMappings.remove(stub.getId());
+        }
+
+        @Override
+        public void afterStubsReset() {
+            httpOnlyMappings.clear();
+        }
+
+        private void track(StubMapping stub) {
+            if (requiresHttp(stub.getResponse())) {
+                httpOnlyMappings.put(stub.getId(), stub.getRequest());
+            } else {
+                httpOnlyMappings.remove(stub.getId());
+            }
+        }
+    }
+
+    /**
+     * Delegating factory that records the stub handler WireMock builds its HTTP server with
+     */
+    private class CapturingHttpServerFactory implements HttpServerFactory {
+        private final HttpServerFactory delegate;
+
+        CapturingHttpServerFactory(HttpServerFactory delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public HttpServer buildHttpServer(Options options,
+                                          AdminRequestHandler adminRequestHandler,
+                                          StubRequestHandler stubRequestHandler) {
+            InProcessWireMockDispatcher.this.stubRequestHandler = stubRequestHandler;
+            logger.info("Captured WireMock stub handler for in-process dispatch");
+            return delegate.buildHttpServer(options, adminRequestHandler, stubRequestHandler);
+        }
+    }
+}
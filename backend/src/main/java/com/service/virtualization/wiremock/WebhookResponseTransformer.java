@@ -7,6 +7,7 @@ import com.github.tomakehurst.wiremock.extension.ResponseDefinitionTransformer;
 import com.github.tomakehurst.wiremock.http.Request;
 import com.github.tomakehurst.wiremock.http.ResponseDefinition;
 import com.service.virtualization.rest.service.RestWebhookService;
+import com.service.virtualization.rest.service.WebhookExecutor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -21,6 +22,16 @@ public class WebhookResponseTransformer extends ResponseDefinitionTransformer {
     private static final Logger logger = LoggerFactory.getLogger(WebhookResponseTransformer.class);
     public static final String TRANSFORMER_NAME = "webhook-response-transformer";
     
+    /**
+     * Optional transformer parameter overriding the default webhook timeout budget (ms)
+     */
+    public static final String TIMEOUT_PARAMETER = "webhookTimeoutMs";
+    
+    /**
+     * Optional transformer parameter setting the response cache TTL for the stub (ms); 0 disables caching
+     */
+    public static final String CACHE_TTL_PARAMETER = "webhookCacheTtlMs";
+    
     @Autowired
     private RestWebhookService restWebhookService;
     
@@ -65,7 +76,7 @@ public class WebhookResponseTransformer extends ResponseDefinitionTransformer {
                 return responseDefinition;
             }
             
-            logger.info("Processing webhook request for stub {} with URL: {}", stubId, webhookUrl);
+            logger.debug("Processing webhook request for stub {} with URL: {}", stubId, webhookUrl);
             
             // Use the webhook service to make the call
             RestWebhookService webhookService = this.restWebhookService != null ? 
@@ -76,21 +87,25 @@ public class WebhookResponseTransformer extends ResponseDefinitionTransformer {
                 return responseDefinition;
             }
             
-            // Call webhook and get response
-            String webhookResponse = webhookService.callWebhook(webhookUrl, request, stubId);
+            // Call webhook within the stub's timeout budget; late or failing webhooks fall back to the static response
+            long timeoutMs = longParameter(parameters, TIMEOUT_PARAMETER, 0, stubId);
+            long cacheTtlMs = longParameter(parameters, CACHE_TTL_PARAMETER, -1, stubId);
+            WebhookExecutor.WebhookResult result = webhookService.executeWebhook(webhookUrl, request, stubId, timeoutMs, cacheTtlMs);
             
-            if (webhookResponse != null) {
-                logger.info("Webhook call successful, returning dynamic response");
+            if (result.isSuccess()) {
+                logger.debug("Webhook call successful, returning dynamic response");
                 
                 // Create new response with webhook content
                 return ResponseDefinitionBuilder.like(responseDefinition)
-                    .withBody(webhookResponse)
-                    .withHeader("X-Webhook-Response", "true")
+                    .withBody(result.body())
+                    .withHeader("X-Webhook-Response", result.outcome() == WebhookExecutor.Outcome.CACHED ? "cached" : "true")
                     .withHeader("X-Stub-ID", stubId != null ? stubId : "unknown")
                     .build();
             } else {
-                logger.warn("Webhook call failed, returning original response");
-                return responseDefinition;
+                logger.warn("Webhook call for stub {} ended with {}, returning original response", stubId, result.outcome());
+                return ResponseDefinitionBuilder.like(responseDefinition)
+                    .withHeader("X-Webhook-Fallback", result.outcome().name())
+                    .build();
             }
             
         } catch (Exception e) {
@@ -104,6 +119,27 @@ public class WebhookResponseTransformer extends ResponseDefinitionTransformer {
         }
     }
     
+    /**
+     * Read an optional numeric transformer parameter; stub JSON may carry it as a number or a numeric string
+     */
+    private static long longParameter(Parameters parameters, String name, long defaultValue, String stubId) {
+        Object value = parameters.get(name);
+        if (value instanceof Number number) {
+            return number.longValue();
+        }
+        if (value instanceof String text && !text.isBlank()) {
+            try {
+                return Long.parseLong(text.trim());
+            } catch (NumberFormatException e) {
+                // Fall through to the warning below
+            }
+        }
+        if (value != null) {
+            logger.warn("Ignoring non-numeric {} '{}' on stub {}", name, value, stubId);
+        }
+        return defaultValue;
+    }
+    
     /**
      * Set the static webhook service instance
      * This method is called during Spring context initialization
@@ -0,0 +1,92 @@
+-- Promote the fields stub lookups filter on out of the stub_data JSON into typed, indexed columns.
+-- The repositories write these columns alongside stub_data, so lookups no longer evaluate
+-- JSON_VALUE on every row.
+
+-- Kafka stubs
+ALTER TABLE kafka_stubs ADD status VARCHAR(20);
+ALTER TABLE kafka_stubs ADD user_id VARCHAR(100);
+ALTER TABLE kafka_stubs ADD request_topic VARCHAR(255);
+
+UPDATE kafka_stubs SET
+    status = JSON_VALUE(stub_data, '$.status'),
+    user_id = JSON_VALUE(stub_data, '$.userId'),
+    request_topic = JSON_VALUE(stub_data, '$.requestTopic');
+
+DROP INDEX kafka_stubs.idx_kafka_stubs_status;
+DROP INDEX kafka_stubs.idx_kafka_stubs_user_id;
+DROP INDEX kafka_stubs.idx_kafka_stubs_request_topic;
+
+CREATE INDEX idx_kafka_stubs_status ON kafka_stubs (status);
+CREATE INDEX idx_kafka_stubs_user_id ON kafka_stubs (user_id);
+CREATE INDEX idx_kafka_stubs_request_topic ON kafka_stubs (request_topic, status);
+
+-- SOAP stubs
+ALTER TABLE soap_stubs ADD status VARCHAR(20);
+ALTER TABLE soap_stubs ADD user_id VARCHAR(100);
+ALTER TABLE soap_stubs ADD url VARCHAR(1000);
+
+UPDATE soap_stubs SET
+    status = JSON_VALUE(stub_data, '$.status'),
+    user_id = JSON_VALUE(stub_data, '$.userId'),
+    url = JSON_VALUE(stub_data, '$.url');
+
+DROP INDEX soap_stubs.idx_soap_stubs_status;
+DROP INDEX soap_stubs.idx_soap_stubs_user_id;
+
+CREATE INDEX idx_soap_stubs_status ON soap_stubs (status);
+CREATE INDEX idx_soap_stubs_user_id ON soap_stubs (user_id);
+CREATE INDEX idx_soap_stubs_url ON soap_stubs (url);
+
+-- REST stubs; the service path lookup now matches the stub's url match condition
+ALTER TABLE rest_stubs ADD status VARCHAR(20);
+ALTER TABLE rest_stubs ADD user_id VARCHAR(100);
+ALTER TABLE rest_stubs ADD url VARCHAR(1000);
+
+UPDATE rest_stubs SET
+    status = JSON_VALUE(stub_data, '$.status'),
+    user_id = JSON_VALUE(stub_data, '$.userId'),
+    url = JSON_VALUE(stub_data, '$.matchConditions.url');
+
+DROP INDEX rest_stubs.idx_rest_stubs_status;
+DROP INDEX rest_stubs.idx_rest_stubs_user_id;
+DROP INDEX rest_stubs.idx_rest_stubs_service_path;
+
+CREATE INDEX idx_rest_stubs_status ON rest_stubs (status);
+CREATE INDEX idx_rest_stubs_user_id ON rest_stubs (user_id);
+CREATE INDEX idx_rest_stubs_url ON rest_stubs (url);
+
+-- Tibco stubs; destinations are matched from the in-memory stub index, so they are not promoted
+ALTER TABLE tibco_stubs ADD status VARCHAR(20);
+ALTER TABLE tibco_stubs ADD user_id VARCHAR(100);
+
+UPDATE tibco_stubs SET
+    status = JSON_VALUE(stub_data, '$.status'),
+    user_id = JSON_VALUE(stub_data, '$.userId');
+
+DROP INDEX tibco_stubs.idx_tibco_stubs_status;
+DROP INDEX tibco_stubs.idx_tibco_stubs_user_id;
+
+CREATE INDEX idx_tibco_stubs_status ON tibco_stubs (status);
+CREATE INDEX idx_tibco_stubs_user_id ON tibco_stubs (user_id);
+
+-- IBM MQ stubs are stored as JSON like the other JSON-backed stubs; add the document column and
+-- relax the per-field columns the repository does not write. Rows written before this migration
+-- keep stub_data NULL and are read from their per-field columns until they are next saved.
+ALTER TABLE ibmmq_stubs ADD stub_data NVARCHAR(MAX);
+
+-- Indexed columns cannot change nullability while the indexes exist
+DROP INDEX ibmmq_stubs.idx_ibmmq_stubs_status;
+DROP INDEX ibmmq_stubs.idx_ibmmq_stubs_user_id;
+DROP INDEX ibmmq_stubs.idx_ibmmq_stubs_queue;
+DROP INDEX ibmmq_stubs.idx_ibmmq_stubs_queue_priority;
+
+ALTER TABLE ibmmq_stubs ALTER COLUMN name VARCHAR(255) NULL;
+ALTER TABLE ibmmq_stubs ALTER COLUMN user_id VARCHAR(100) NULL;
+ALTER TABLE ibmmq_stubs ALTER COLUMN queue_manager VARCHAR(255) NULL;
+ALTER TABLE ibmmq_stubs ALTER COLUMN queue_name VARCHAR(255) NULL;
+ALTER TABLE ibmmq_stubs ALTER COLUMN status VARCHAR(20) NULL;
+
+CREATE INDEX idx_ibmmq_stubs_status ON ibmmq_stubs (status);
+CREATE INDEX idx_ibmmq_stubs_user_id ON ibmmq_stubs (user_id);
+CREATE INDEX idx_ibmmq_stubs_queue ON ibmmq_stubs (queue_manager, queue_name);
+CREATE INDEX idx_ibmmq_stubs_queue_priority ON ibmmq_stubs (queue_manager, queue_name, priority);
@@ -0,0 +1,113 @@
+package com.service.virtualization.jms.matcher;
+
+import jakarta.jms.JMSException;
+import jakarta.jms.Message;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class CompiledJmsStubTest {
+
+    private static CompiledJmsStub<String> stub(String id, String destination, String selector,
+                                                String matchType, String pattern, boolean caseSensitive, int priority) {
+        return CompiledJmsStub.compile(id, id, destination, selector, matchType, pattern, caseSensitive, priority);
+    }
+
+    private static CompiledJmsStub<String> content(String matchType, String pattern, boolean caseSensitive) {
+        return stub("1", "queue", null, matchType, pattern, caseSensitive, 0);
+    }
+
+    private static boolean selects(CompiledJmsStub<String> stub, Message message) {
+        return stub.matchesSelector(new MessagePropertySnapshot(message));
+    }
+
+    @Test
+    public void contentMatchTypes() {
+        MessageContent order = MessageContent.ofText("<order id=\"42\">New</order>");
+
+        assertTrue(content("NONE", "anything", true).matchesContent(order));
+        assertTrue(content("CONTAINS", null, true).matchesContent(order));
+        assertTrue(content("CONTAINS", "", true).matchesContent(order));
+
+        assertTrue(content("CONTAINS", "id=\"42\"", true).matchesContent(order));
+        assertFalse(content("CONTAINS", "new", true).matchesContent(order));
+        assertTrue(content("CONTAINS", "new", false).matchesContent(order));
+        // Patterns are literal for CONTAINS
+        assertFalse(content("CONTAINS", "order.*", false).matchesContent(order));
+
+        assertTrue(content("EXACT", "<order id=\"42\">New</order>", true).matchesContent(order));
+        assertFalse(content("EXACT", "<ORDER id=\"42\">New</ORDER>", true).matchesContent(order));
+        assertTrue(content("EXACT", "<ORDER id=\"42\">NEW</ORDER>", false).matchesContent(order));
+        assertFalse(content("EXACT", "<order", true).matchesContent(order));
+
+        // REGEX must match the whole payload
+        assertTrue(content("REGEX", "<order id=\"\\d+\">.*</order>", true).matchesContent(order));
+        assertFalse(content("REGEX", "id=\"\\d+\"", true).matchesContent(order));
+        assertTrue(content("REGEX", "<ORDER.*", false).matchesContent(order));
+    }
+
+    @Test
+    public void invalidRegexNeverMatches() {
+        CompiledJmsStub<String> stub = content("REGEX", "order(", true);
+
+        assertFalse(stub.matchesContent(MessageContent.ofText("order(")));
+    }
+
+    @Test
+    public void selectorIsOptionalAndInvalidSelectorsNeverMatch() throws JMSException {
+        Message message = mock(Message.class);
+        when(message.getObjectProperty("region")).thenReturn("EU");
+
+        assertTrue(selects(stub("1", "queue", null, "NONE", null, true, 0), message));
+        assertTrue(selects(stub("2", "queue", "  ", "NONE", null, true, 0), message));
+        assertTrue(selects(stub("3", "queue", "region = 'EU'", "NONE", null, true, 0), message));
+        assertFalse(selects(stub("4", "queue", "region = 'US'", "NONE", null, true, 0), message));
+        // Not a JMS selector; earlier versions treated this as a regex
+        assertFalse(selects(stub("5", "queue", "E.*", "NONE", null, true, 0), message));
+    }
+
+    @Test
+    public void indexMatchesHighestPriorityStubOnTheDestination() {
+        JmsStubIndex<String> index = new JmsStubIndex<>();
+        index.register(stub("low", "ORDERS.IN", null, "CONTAINS", "order", true, 1));
+        index.register(stub("high", "orders.in", null, "CONTAINS", "urgent", true, 5));
+        index.register(stub("other", "payments.in", null, "NONE", null, true, 10));
+        Message message = mock(Message.class);
+
+        assertEquals(2, index.destinationCount());
+        assertEquals("high", index.match("Orders.In", message, MessageContent.ofText("urgent order")));
+        assertEquals("low", index.match("orders.in", message, MessageContent.ofText("order")));
+        assertNull(index.match("orders.in", message, MessageContent.ofText("invoice")));
+        assertNull(index.match("unknown", message, MessageContent.ofText("order")));
+    }
+
+    @Test
+    public void equalPrioritiesKeepRegistrationOrder() {
+        JmsStubIndex<String> index = new JmsStubIndex<>();
+        index.register(stub("first", "queue", null, "NONE", null, true, 0));
+        index.register(stub("second", "queue", null, "NONE", null, true, 0));
+
+        assertEquals("first", index.match("queue", mock(Message.class), MessageContent.ofText("")));
+    }
+
+    @Test
+    public void registerReplacesAndUnregisterRemoves() {
+        JmsStubIndex<String> index = new JmsStubIndex<>();
+        index.register(stub("1", "queue.a", null, "NONE", null, true, 0));
+        index.register(CompiledJmsStub.compile("moved", "1", "queue.b", null, "NONE", null, true, 0));
+        Message message = mock(Message.class);
+
+        assertEquals(1, index.size());
+        assertNull(index.match("queue.a", message, MessageContent.ofText("")));
+        assertEquals("moved", index.match("queue.b", message, MessageContent.ofText("")));
+
+        assertEquals("moved", index.unregister("1").stub());
+        assertNull(index.unregister("1"));
+        assertEquals(0, index.destinationCount());
+    }
+}
@@ -0,0 +1,165 @@
+package com.service.virtualization.jms.matcher;
+
+import jakarta.jms.DeliveryMode;
+import jakarta.jms.JMSException;
+import jakarta.jms.Message;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class JmsSelectorTest {
+
+    private static Message message(Map<String, Object> properties) throws JMSException {
+        Message message = mock(Message.class);
+        when(message.getObjectProperty(anyString())).thenAnswer(invocation -> properties.get(invocation.<String>getArgument(0)));
+        return message;
+    }
+
+    private static boolean matches(String selector, Map<String, Object> properties) throws JMSException {
+        return JmsSelector.compile(selector).matches(message(properties));
+    }
+
+    @Test
+    public void notBindsLooserThanComparison() throws JMSException {
+        assertTrue(matches("NOT region = 'EU'", Map.of("region", "US")));
+        assertFalse(matches("NOT region = 'EU'", Map.of("region", "EU")));
+        // NOT (region = 'EU') AND amount > 5, not NOT ((region = 'EU') AND amount > 5)
+        assertFalse(matches("NOT region = 'EU' AND amount > 5", Map.of("region", "US", "amount", 1)));
+        assertTrue(matches("NOT region = 'EU' AND amount > 5", Map.of("region", "US", "amount", 10)));
+        assertTrue(matches("a = 1 OR b = 1 AND c = 1", Map.of("a", 1, "b", 0, "c", 0)));
+        assertFalse(matches("(a = 1 OR b = 1) AND c = 1", Map.of("a", 1, "b", 0, "c", 0)));
+    }
+
+    @Test
+    public void missingPropertiesAreUnknown() throws JMSException {
+        Map<String, Object> onlyA = Map.of("a", 1);
+
+        // Unknown is never selected, and NOT unknown is still unknown
+        assertFalse(matches("missing = 1", onlyA));
+        assertFalse(matches("NOT missing = 1", onlyA));
+        assertFalse(matches("missing <> 1", onlyA));
+
+        // unknown AND false = false, unknown AND true = unknown
+        assertFalse(matches("missing = 1 AND a = 1", onlyA));
+        assertTrue(matches("NOT (missing = 1 AND a = 2)", onlyA));
+        assertFalse(matches("NOT (missing = 1 AND a = 1)", onlyA));
+
+        // unknown OR true = true, unknown OR false = unknown
+        assertTrue(matches("missing = 1 OR a = 1", onlyA));
+        assertFalse(matches("missing = 1 OR a = 2", onlyA));
+        assertFalse(matches("NOT (missing = 1 OR a = 2)", onlyA));
+
+        assertTrue(matches("missing IS NULL", onlyA));
+        assertTrue(matches("a IS NOT NULL", onlyA));
+    }
+
+    @Test
+    public void betweenAndIn() throws JMSException {
+        assertTrue(matches("amount BETWEEN 10 AND 100", Map.of("amount", 10)));
+        assertTrue(matches("amount BETWEEN 10 AND 100", Map.of("amount", 100L)));
+        assertFalse(matches("amount BETWEEN 10 AND 100", Map.of("amount", 101)));
+        assertTrue(matches("amount NOT BETWEEN 10 AND 100", Map.of("amount", 5.5)));
+        assertFalse(matches("amount NOT BETWEEN 10 AND 100", Map.of()));
+
+        assertTrue(matches("region IN ('EU', 'UK')", Map.of("region", "UK")));
+        assertFalse(matches("region IN ('EU', 'UK')", Map.of("region", "US")));
+        assertTrue(matches("region NOT IN ('EU', 'UK')", Map.of("region", "US")));
+        assertFalse(matches("region NOT IN ('EU', 'UK')", Map.of()));
+        // IN compares strings only
+        assertFalse(matches("region IN ('1')", Map.of("region", 1)));
+    }
+
+    @Test
+    public void likeWithWildcardsAndEscape() throws JMSException {
+        assertTrue(matches("id LIKE 'ORD-%'", Map.of("id", "ORD-42")));
+        assertFalse(matches("id LIKE 'ORD-%'", Map.of("id", "INV-42")));
+        assertTrue(matches("id LIKE 'ORD-__'", Map.of("id", "ORD-42")));
+        assertFalse(matches("id LIKE 'ORD-__'", Map.of("id", "ORD-421")));
+        assertTrue(matches("id NOT LIKE 'ORD-%'", Map.of("id", "INV-42")));
+
+        // Regex characters in the pattern are literal
+        assertTrue(matches("id LIKE 'a.b%'", Map.of("id", "a.bc")));
+        assertFalse(matches("id LIKE 'a.b%'", Map.of("id", "axbc")));
+
+        assertTrue(matches("code LIKE '100\\%' ESCAPE '\\'", Map.of("code", "100%")));
+        assertFalse(matches("code LIKE '100\\%' ESCAPE '\\'", Map.of("code", "1000")));
+        assertTrue(matches("code LIKE 'a!_%' ESCAPE '!'", Map.of("code", "a_b")));
+        assertFalse(matches("code LIKE 'a!_%' ESCAPE '!'", Map.of("code", "abb")));
+
+        assertThrows(IllegalArgumentException.class, () -> JmsSelector.compile("code LIKE 'a!' ESCAPE '!'"));
+        assertThrows(IllegalArgumentException.class, () -> JmsSelector.compile("code LIKE 'a' ESCAPE '!!'"));
+    }
+
+    @Test
+    public void doubledQuoteInStringLiteral() throws JMSException {
+        assertTrue(matches("name = 'O''Brien'", Map.of("name", "O'Brien")));
+        assertTrue(matches("name = ''''", Map.of("name", "'")));
+        assertTrue(matches("name = ''", Map.of("name", "")));
+        assertThrows(IllegalArgumentException.class, () -> JmsSelector.compile("name = 'O'Brien'"));
+        assertThrows(IllegalArgumentException.class, () -> JmsSelector.compile("name = 'open"));
+    }
+
+    @Test
+    public void numericLiteralsAndSuffixes() throws JMSException {
+        Map<String, Object> five = Map.of("n", 5);
+
+        // Exact literals divide as integers, approximate ones as doubles
+        assertTrue(matches("n / 2 = 2", five));
+        assertTrue(matches("n / 2L = 2", five));
+        assertTrue(matches("n / 2l = 2", five));
+        assertTrue(matches("n / 2D = 2.5", five));
+        assertTrue(matches("n / 2f = 2.5", five));
+        assertTrue(matches("n / 2.0 = 2.5", five));
+        assertTrue(matches("n * 1e1 = 50", five));
+        assertTrue(matches("n = 5.0", five));
+        assertTrue(matches("-n < -4", five));
+        assertTrue(matches("n > -1", five));
+
+        // Integer division by zero is unknown
+        assertFalse(matches("n / 0 = 0", five));
+        assertFalse(matches("NOT n / 0 = 0", five));
+
+        // Strings are never converted to numbers, and unlike types are not equal
+        assertFalse(matches("n = 5", Map.of("n", "5")));
+        assertFalse(matches("n <> 5", Map.of("n", "5")));
+        assertFalse(matches("n > 'a'", Map.of("n", "b")));
+        assertTrue(matches("flag = TRUE", Map.of("flag", true)));
+    }
+
+    @Test
+    public void headerFields() throws JMSException {
+        Message message = message(Map.of());
+        when(message.getJMSDeliveryMode()).thenReturn(DeliveryMode.PERSISTENT);
+        when(message.getJMSPriority()).thenReturn(7);
+
+        assertTrue(JmsSelector.compile("JMSDeliveryMode = 'PERSISTENT'").matches(message));
+        assertFalse(JmsSelector.compile("JMSDeliveryMode = 'NON_PERSISTENT'").matches(message));
+        assertTrue(JmsSelector.compile("JMSPriority > 4").matches(message));
+        assertTrue(JmsSelector.compile("JMSPriority BETWEEN 5 AND 9 AND JMSDeliveryMode <> 'NON_PERSISTENT'").matches(message));
+
+        when(message.getJMSDeliveryMode()).thenReturn(DeliveryMode.NON_PERSISTENT);
+        assertTrue(JmsSelector.compile("JMSDeliveryMode = 'NON_PERSISTENT'").matches(message));
+    }
+
+    @Test
+    public void keywordsAreCaseInsensitiveAndPropertyNamesAreNot() throws JMSException {
+        assertTrue(matches("region = 'EU' and amount between 1 and 2", Map.of("region", "EU", "amount", 1)));
+        assertFalse(matches("Region = 'EU'", Map.of("region", "EU")));
+    }
+
+    @Test
+    public void rejectsInvalidSelectors() {
+        assertThrows(IllegalArgumentException.class, () -> JmsSelector.compile("ORD-.*"));
+        assertThrows(IllegalArgumentException.class, () -> JmsSelector.compile("region = "));
+        assertThrows(IllegalArgumentException.class, () -> JmsSelector.compile("region = 'EU' extra"));
+        assertThrows(IllegalArgumentException.class, () -> JmsSelector.compile("'EU' LIKE 'E%'"));
+        assertThrows(IllegalArgumentException.class, () -> JmsSelector.compile("region NOT = 'EU'"));
+    }
+}
@@ -0,0 +1,139 @@
+package com.service.virtualization.jms.matcher;
+
+import jakarta.jms.BytesMessage;
+import jakarta.jms.JMSException;
+import jakarta.jms.MapMessage;
+import jakarta.jms.TextMessage;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class MessageContentTest {
+
+    private static BytesMessage bytesMessage(byte[] body, String characterSet) throws JMSException {
+        BytesMessage message = mock(BytesMessage.class);
+        when(message.getBodyLength()).thenReturn((long) body.length);
+        when(message.readBytes(any(byte[].class))).thenAnswer(invocation -> {
+            byte[] target = invocation.getArgument(0);
+            System.arraycopy(body, 0, target, 0, body.length);
+            return body.length;
+        });
+        when(message.getStringProperty("JMS_IBM_Character_Set")).thenReturn(characterSet);
+        return message;
+    }
+
+    private static CompiledJmsStub<String> stub(String matchType, String pattern, boolean caseSensitive) {
+        return CompiledJmsStub.compile("1", "1", "queue", null, matchType, pattern, caseSensitive, 0);
+    }
+
+    @Test
+    public void textBodyIsReadOnce() throws JMSException {
+        TextMessage message = mock(TextMessage.class);
+        when(message.getText()).thenReturn("hello");
+        MessageContent content = MessageContent.of(message);
+
+        assertFalse(content.isBinary());
+        assertEquals("hello", content.text());
+        assertEquals(ByteBuffer.wrap("hello".getBytes(StandardCharsets.UTF_8)), content.bytes());
+        assertEquals("hello", content.chars().toString());
+        verify(message, times(1)).getText();
+    }
+
+    @Test
+    public void bytesBodyIsDecodedWithItsCharacterSet() throws JMSException {
+        byte[] body = "café".getBytes(StandardCharsets.ISO_8859_1);
+        MessageContent latin1 = MessageContent.of(bytesMessage(body, "819"));
+
+        assertTrue(latin1.isBinary());
+        assertEquals(StandardCharsets.ISO_8859_1, latin1.charset());
+        assertEquals(ByteBuffer.wrap(body), latin1.bytes());
+        assertEquals("café", latin1.text());
+        assertEquals("café", latin1.chars().toString());
+
+        Charset ebcdic = Charset.forName("IBM037");
+        MessageContent ccsid = MessageContent.of(bytesMessage("ORDER".getBytes(ebcdic), "37"));
+        assertEquals(ebcdic, ccsid.charset());
+        assertEquals("ORDER", ccsid.text());
+
+        assertEquals(StandardCharsets.UTF_8, MessageContent.of(bytesMessage(new byte[0], null)).charset());
+        assertEquals(StandardCharsets.UTF_8, MessageContent.of(bytesMessage(new byte[0], "no-such-charset")).charset());
+        assertEquals("", MessageContent.of(bytesMessage(new byte[0], null)).text());
+    }
+
+    @Test
+    public void mapBodyIsRenderedAsJson() throws JMSException {
+        MapMessage message = mock(MapMessage.class);
+        when(message.getMapNames()).thenReturn(Collections.enumeration(List.of("id", "type")));
+        when(message.getObject("id")).thenReturn(42);
+        when(message.getObject("type")).thenReturn("NEW");
+
+        assertEquals("{\"id\":42,\"type\":\"NEW\"}", MessageContent.of(message).text());
+    }
+
+    @Test
+    public void binaryBodiesMatchWithoutDecoding() throws JMSException {
+        byte[] body = "<order>urgent</order>".getBytes(StandardCharsets.ISO_8859_1);
+        MessageContent content = MessageContent.of(bytesMessage(body, "819"));
+
+        assertTrue(stub("CONTAINS", "urgent", true).matchesContent(content));
+        assertFalse(stub("CONTAINS", "URGENT", true).matchesContent(content));
+        assertTrue(stub("CONTAINS", "URGENT", false).matchesContent(content));
+        assertTrue(stub("EXACT", "<order>urgent</order>", true).matchesContent(content));
+        assertTrue(stub("REGEX", "<order>\\w+</order>", true).matchesContent(content));
+
+        Charset ebcdic = Charset.forName("IBM037");
+        MessageContent encoded = MessageContent.of(bytesMessage("<order>urgent</order>".getBytes(ebcdic), "37"));
+        assertTrue(stub("CONTAINS", "urgent", true).matchesContent(encoded));
+        assertTrue(stub("EXACT", "<order>urgent</order>", true).matchesContent(encoded));
+    }
+
+    @Test
+    public void unreadableBodyIsANonMatch() throws JMSException {
+        TextMessage message = mock(TextMessage.class);
+        when(message.getText()).thenThrow(new IllegalStateException("provider failure"));
+        MessageContent content = MessageContent.of(message);
+
+        assertFalse(content.isReadable());
+        assertFalse(content.isBinary());
+        assertThrows(IllegalStateException.class, content::text);
+        assertThrows(IllegalStateException.class, content::bytes);
+        assertEquals("TextMessage, unreadable body: provider failure", content.summary());
+
+        assertFalse(stub("CONTAINS", "x", true).matchesContent(content));
+        assertFalse(stub("REGEX", ".*", true).matchesContent(content));
+        assertFalse(stub("EXACT", "x", false).matchesContent(content));
+        // Stubs that do not look at the body still match
+        assertTrue(stub("NONE", null, true).matchesContent(content));
+
+        BytesMessage bytes = mock(BytesMessage.class);
+        when(bytes.getBodyLength()).thenThrow(new JMSException("session closed"));
+        assertFalse(MessageContent.of(bytes).isReadable());
+    }
+
+    @Test
+    public void summaryGivesTypeAndSizeOnly() throws JMSException {
+        TextMessage text = mock(TextMessage.class);
+        when(text.getText()).thenReturn("secret payload");
+        assertEquals("TextMessage, 14 chars", MessageContent.of(text).summary());
+
+        MessageContent bytes = MessageContent.of(bytesMessage(new byte[]{1, 2, 3}, "819"));
+        assertEquals("BytesMessage, 3 bytes, ISO-8859-1", bytes.summary());
+        assertEquals(bytes.summary(), bytes.toString());
+
+        assertEquals("text, 5 chars", MessageContent.ofText("hello").summary());
+    }
+}
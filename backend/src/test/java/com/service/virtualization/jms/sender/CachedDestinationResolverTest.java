@@ -0,0 +1,84 @@
+package com.service.virtualization.jms.sender;
+
+import jakarta.jms.JMSException;
+import jakarta.jms.Queue;
+import jakarta.jms.Session;
+import jakarta.jms.Topic;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class CachedDestinationResolverTest {
+
+    private CachedDestinationResolver resolver;
+    private Session session;
+
+    @BeforeEach
+    public void setUp() throws JMSException {
+        resolver = new CachedDestinationResolver();
+        session = mock(Session.class);
+        when(session.createQueue(anyString())).thenAnswer(invocation -> mock(Queue.class));
+        when(session.createTopic(anyString())).thenAnswer(invocation -> mock(Topic.class));
+    }
+
+    @Test
+    public void resolvesEachNameOnceAcrossSessions() throws JMSException {
+        Session other = mock(Session.class);
+
+        Queue first = (Queue) resolver.resolveDestinationName(session, "orders", false);
+        assertSame(first, resolver.resolveDestinationName(session, "orders", false));
+        assertSame(first, resolver.resolveDestinationName(other, "orders", false));
+
+        verify(session, times(1)).createQueue("orders");
+        verify(other, never()).createQueue(anyString());
+    }
+
+    @Test
+    public void queuesAndTopicsWithTheSameNameAreCachedSeparately() throws JMSException {
+        Queue queue = (Queue) resolver.resolveDestinationName(session, "events", false);
+        Topic topic = (Topic) resolver.resolveDestinationName(session, "events", true);
+
+        assertNotSame(queue, topic);
+        assertSame(topic, resolver.resolveDestinationName(session, "events", true));
+        assertSame(queue, resolver.resolveDestinationName(session, "events", false));
+    }
+
+    @Test
+    public void removedNamesAreResolvedAgain() throws JMSException {
+        Queue queue = (Queue) resolver.resolveDestinationName(session, "orders", false);
+        Topic topic = (Topic) resolver.resolveDestinationName(session, "orders", true);
+        resolver.resolveDestinationName(session, "payments", false);
+
+        resolver.removeFromCache("orders");
+        assertNotSame(queue, resolver.resolveDestinationName(session, "orders", false));
+        assertNotSame(topic, resolver.resolveDestinationName(session, "orders", true));
+        resolver.resolveDestinationName(session, "payments", false);
+        verify(session, times(1)).createQueue("payments");
+
+        resolver.clearCache();
+        resolver.resolveDestinationName(session, "payments", false);
+        verify(session, times(2)).createQueue("payments");
+    }
+
+    @Test
+    public void namesBeyondTheLimitAreResolvedEveryTime() throws JMSException {
+        for (int i = 0; i < 1024; i++) {
+            resolver.resolveDestinationName(session, "queue-" + i, false);
+        }
+
+        resolver.resolveDestinationName(session, "overflow", false);
+        resolver.resolveDestinationName(session, "overflow", false);
+        verify(session, times(2)).createQueue("overflow");
+
+        resolver.resolveDestinationName(session, "queue-0", false);
+        verify(session, times(1)).createQueue("queue-0");
+    }
+}
@@ -0,0 +1,150 @@
+package com.service.virtualization.kafka.listener;
+
+import com.service.virtualization.kafka.model.KafkaStub;
+import com.service.virtualization.kafka.repository.KafkaStubRepository;
+import com.service.virtualization.model.StubStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class KafkaStubRoutingTableTest {
+
+    private KafkaStubRepository repository;
+    private KafkaStubRoutingTable table;
+
+    private static KafkaStub stub(String id, String topic, StubStatus status, String keyPattern, String valuePattern) {
+        return new KafkaStub(id, "stub-" + id, null, null, topic, null,
+                null, null, null,
+                null, keyPattern,
+                null, valuePattern, null, false,
+                "direct", null, null,
+                null, null, null, null,
+                null, status, null, null,
+                null, null, List.of());
+    }
+
+    private static KafkaStub active(String id, String topic) {
+        return stub(id, topic, StubStatus.ACTIVE, null, null);
+    }
+
+    private static List<String> stubIds(List<KafkaStubRoutingTable.Route> routes) {
+        return routes.stream().map(route -> route.stub().id()).sorted().toList();
+    }
+
+    @BeforeEach
+    public void setUp() {
+        repository = mock(KafkaStubRepository.class);
+        table = new KafkaStubRoutingTable(repository);
+    }
+
+    @Test
+    public void loadsOnlyActiveStubsWithARequestTopic() {
+        when(repository.findAll()).thenReturn(List.of(
+                active("1", "orders"),
+                active("2", "orders"),
+                active("3", "payments"),
+                stub("4", "orders", StubStatus.INACTIVE, null, null),
+                active("5", " "),
+                active("6", null)));
+
+        table.init();
+
+        assertEquals(Set.of("orders", "payments"), table.topics());
+        assertEquals(List.of("1", "2"), stubIds(table.routesFor("orders")));
+        assertEquals(List.of("3"), stubIds(table.routesFor("payments")));
+        assertTrue(table.routesFor("unknown").isEmpty());
+    }
+
+    @Test
+    public void updateAddsMovesAndDeactivatesStubs() {
+        when(repository.findAll()).thenReturn(List.of());
+        table.init();
+
+        table.update(active("1", "orders"));
+        assertEquals(List.of("1"), stubIds(table.routesFor("orders")));
+
+        table.update(active("1", "invoices"));
+        assertEquals(Set.of("invoices"), table.topics());
+
+        table.update(stub("1", "invoices", StubStatus.INACTIVE, null, null));
+        assertTrue(table.topics().isEmpty());
+    }
+
+    @Test
+    public void removeDropsOnlyThatStub() {
+        when(repository.findAll()).thenReturn(List.of(active("1", "orders"), active("2", "orders")));
+        table.init();
+
+        table.remove("1");
+        assertEquals(List.of("2"), stubIds(table.routesFor("orders")));
+
+        table.remove("2");
+        assertTrue(table.topics().isEmpty());
+    }
+
+    @Test
+    public void topicListenersRunOnlyWhenTheTopicSetChanges() {
+        when(repository.findAll()).thenReturn(List.of());
+        table.init();
+        AtomicInteger changes = new AtomicInteger();
+        table.addTopicsListener(changes::incrementAndGet);
+
+        table.update(active("1", "orders"));
+        assertEquals(1, changes.get());
+
+        table.update(active("2", "orders"));
+        assertEquals(1, changes.get());
+
+        table.remove("1");
+        assertEquals(1, changes.get());
+
+        table.remove("2");
+        assertEquals(2, changes.get());
+    }
+
+    @Test
+    public void failedReloadKeepsCurrentRoutes() {
+        when(repository.findAll()).thenReturn(List.of(active("1", "orders")));
+        table.init();
+
+        when(repository.findAll()).thenThrow(new IllegalStateException("database down"));
+        table.reload();
+
+        assertEquals(List.of("1"), stubIds(table.routesFor("orders")));
+    }
+
+    @Test
+    public void routeMatchesKeyAndValuePatterns() {
+        KafkaStubRoutingTable.Route route = KafkaStubRoutingTable.Route.compile(
+                stub("1", "orders", StubStatus.ACTIVE, "order-\\d+", ".*\"type\":\"NEW\".*"));
+
+        assertTrue(route.matches("order-42", "{\"type\":\"NEW\"}"));
+        assertFalse(route.matches("order-x", "{\"type\":\"NEW\"}"));
+        assertFalse(route.matches("order-42", "{\"type\":\"OLD\"}"));
+        assertFalse(route.matches("order-42", null));
+        // Keyless records are matched on value alone
+        assertTrue(route.matches(null, "{\"type\":\"NEW\"}"));
+
+        KafkaStubRoutingTable.Route matchAll = KafkaStubRoutingTable.Route.compile(active("2", "orders"));
+        assertTrue(matchAll.matches(null, null));
+        assertTrue(matchAll.matches("any", "anything"));
+    }
+
+    @Test
+    public void invalidPatternNeverMatches() {
+        KafkaStubRoutingTable.Route route = KafkaStubRoutingTable.Route.compile(
+                stub("1", "orders", StubStatus.ACTIVE, "order-(", null));
+
+        assertTrue(route.invalid());
+        assertFalse(route.matches("order-1", "{}"));
+    }
+}
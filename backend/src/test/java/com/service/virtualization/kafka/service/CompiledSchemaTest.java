@@ -0,0 +1,188 @@
+package com.service.virtualization.kafka.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CompiledSchemaTest {
+
+    private static CompiledSchema avro(String schema) {
+        return CompiledSchema.compile(1, "AVRO", schema);
+    }
+
+    private static CompiledSchema json(String schema) {
+        return CompiledSchema.compile(2, "JSON", schema);
+    }
+
+    // ---- Avro ----
+
+    @Test
+    public void avroRecordHonoursDefaultsAndUnions() {
+        CompiledSchema schema = avro("""
+                {"type": "record", "name": "User", "namespace": "com.example", "fields": [
+                  {"name": "name", "type": "string"},
+                  {"name": "age", "type": "int", "default": 0},
+                  {"name": "email", "type": ["null", "string"], "default": null},
+                  {"name": "nickname", "type": ["null", "string"]}
+                ]}""");
+
+        assertNull(schema.validate("{\"name\": \"ann\"}"));
+        assertNull(schema.validate("{\"name\": \"ann\", \"age\": 30, \"email\": \"a@example.com\"}"));
+        assertNull(schema.validate("{\"name\": \"ann\", \"email\": null}"));
+
+        assertEquals("$.name: required field is missing", schema.validate("{\"age\": 30}"));
+        assertEquals("$.age: expected int", schema.validate("{\"name\": \"ann\", \"age\": \"thirty\"}"));
+        assertTrue(schema.validate("{\"name\": \"ann\", \"email\": 5}").contains("no union branch matches"));
+        assertEquals("$: expected record User", schema.validate("[]"));
+    }
+
+    @Test
+    public void avroRecursiveNamedTypeValidatesNestedValues() {
+        CompiledSchema schema = avro("""
+                {"type": "record", "name": "Node", "fields": [
+                  {"name": "value", "type": "int"},
+                  {"name": "next", "type": ["null", "Node"]}
+                ]}""");
+
+        assertNull(schema.validate("{\"value\": 1, \"next\": {\"value\": 2, \"next\": {\"value\": 3, \"next\": null}}}"));
+        assertNull(schema.validate("{\"value\": 1}"));
+        assertNotNull(schema.validate("{\"value\": 1, \"next\": {\"value\": \"two\"}}"));
+    }
+
+    @Test
+    public void avroEnumAcceptsOnlyDeclaredSymbolsAndIsReusableByName() {
+        CompiledSchema schema = avro("""
+                {"type": "record", "name": "Paint", "fields": [
+                  {"name": "primary", "type": {"type": "enum", "name": "Color", "symbols": ["RED", "GREEN", "BLUE"]}},
+                  {"name": "secondary", "type": "Color"},
+                  {"name": "history", "type": {"type": "array", "items": "Color"}},
+                  {"name": "byRoom", "type": {"type": "map", "values": "Color"}}
+                ]}""");
+
+        assertNull(schema.validate("""
+                {"primary": "RED", "secondary": "BLUE", "history": ["GREEN"], "byRoom": {"hall": "RED"}}"""));
+        assertNotNull(schema.validate("""
+                {"primary": "PINK", "secondary": "BLUE", "history": [], "byRoom": {}}"""));
+        assertTrue(schema.validate("""
+                {"primary": "RED", "secondary": "BLUE", "history": ["RED", "PINK"], "byRoom": {}}""")
+                .startsWith("$.history[1]: expected one of"));
+        assertNotNull(schema.validate("""
+                {"primary": "RED", "secondary": "BLUE", "history": [], "byRoom": {"hall": 1}}"""));
+    }
+
+    @Test
+    public void avroPrimitivesCheckJsonTypes() {
+        assertNull(avro("\"long\"").validate("9007199254740993"));
+        assertEquals("$: expected int", avro("\"int\"").validate("9007199254740993"));
+        assertNull(avro("\"double\"").validate("1.5"));
+        assertEquals("$: expected boolean", avro("\"boolean\"").validate("\"true\""));
+        assertThrows(IllegalArgumentException.class, () -> avro("{\"type\": \"record\", \"name\": \"R\", "
+                + "\"fields\": [{\"name\": \"x\", \"type\": \"Missing\"}]}"));
+    }
+
+    // ---- JSON Schema ----
+
+    @Test
+    public void jsonSchemaObjectKeywords() {
+        CompiledSchema schema = json("""
+                {"type": "object",
+                 "required": ["id"],
+                 "properties": {"id": {"type": "integer"}, "tags": {"type": "array", "items": {"type": "string"}, "minItems": 1}},
+                 "additionalProperties": false}""");
+
+        assertNull(schema.validate("{\"id\": 1, \"tags\": [\"a\"]}"));
+        assertNull(schema.validate("{\"id\": 1.0}"));
+        assertEquals("$.id: required property is missing", schema.validate("{}"));
+        assertEquals("$.id: expected integer", schema.validate("{\"id\": 1.5}"));
+        assertEquals("$.tags[0]: expected string", schema.validate("{\"id\": 1, \"tags\": [2]}"));
+        assertNotNull(schema.validate("{\"id\": 1, \"tags\": []}"));
+        assertEquals("$.extra: not allowed by schema", schema.validate("{\"id\": 1, \"extra\": true}"));
+        assertEquals("$: expected object", schema.validate("[]"));
+    }
+
+    @Test
+    public void jsonSchemaStringEnumAndConstKeywords() {
+        CompiledSchema string = json("{\"type\": \"string\", \"minLength\": 2, \"maxLength\": 4, \"pattern\": \"^[a-z]+$\"}");
+        assertNull(string.validate("\"abc\""));
+        assertNotNull(string.validate("\"a\""));
+        assertNotNull(string.validate("\"abcde\""));
+        assertNotNull(string.validate("\"ABC\""));
+
+        assertNull(json("{\"enum\": [\"a\", 1, null]}").validate("1"));
+        assertNotNull(json("{\"enum\": [\"a\", 1, null]}").validate("\"b\""));
+        assertNull(json("{\"const\": {\"k\": 1}}").validate("{\"k\": 1}"));
+        assertNotNull(json("{\"const\": {\"k\": 1}}").validate("{\"k\": 2}"));
+    }
+
+    @Test
+    public void jsonSchemaNumericBoundsIncludingDraft4ExclusiveFlags() {
+        CompiledSchema inclusive = json("{\"minimum\": 0, \"maximum\": 10}");
+        assertNull(inclusive.validate("0"));
+        assertNull(inclusive.validate("10"));
+        assertNotNull(inclusive.validate("10.5"));
+
+        CompiledSchema modern = json("{\"exclusiveMinimum\": 0, \"exclusiveMaximum\": 10}");
+        assertNotNull(modern.validate("0"));
+        assertNull(modern.validate("5"));
+        assertNotNull(modern.validate("10"));
+
+        CompiledSchema draft4 = json("{\"minimum\": 0, \"exclusiveMinimum\": true, \"maximum\": 10, \"exclusiveMaximum\": true}");
+        assertEquals("$: must be > 0", draft4.validate("0"));
+        assertNull(draft4.validate("5"));
+        assertEquals("$: must be < 10", draft4.validate("10"));
+
+        CompiledSchema draft4Inclusive = json("{\"minimum\": 0, \"exclusiveMinimum\": false}");
+        assertNull(draft4Inclusive.validate("0"));
+    }
+
+    @Test
+    public void jsonSchemaCombinators() {
+        CompiledSchema allOf = json("{\"allOf\": [{\"type\": \"integer\"}, {\"minimum\": 5}]}");
+        assertNull(allOf.validate("7"));
+        assertNotNull(allOf.validate("3"));
+
+        CompiledSchema anyOf = json("{\"anyOf\": [{\"type\": \"string\"}, {\"type\": \"integer\"}]}");
+        assertNull(anyOf.validate("\"x\""));
+        assertTrue(anyOf.validate("true").contains("no anyOf branch matches"));
+
+        CompiledSchema oneOf = json("{\"oneOf\": [{\"type\": \"integer\"}, {\"minimum\": 5}]}");
+        assertNull(oneOf.validate("3"));
+        assertNotNull(oneOf.validate("7"));
+    }
+
+    @Test
+    public void jsonSchemaWithUnsupportedKeywordsOnlyChecksForJson() {
+        CompiledSchema ref = json("""
+                {"type": "object",
+                 "properties": {"address": {"$ref": "#/definitions/address"}},
+                 "definitions": {"address": {"type": "object"}}}""");
+        assertEquals(Set.of("$ref"), ref.unsupportedKeywords());
+        assertNull(ref.validate("{\"address\": {}}"));
+        assertNull(ref.validate("{\"address\": 5}"));
+        assertTrue(ref.validate("{not json").startsWith("Message must be valid JSON format"));
+
+        CompiledSchema tuple = json("{\"type\": \"array\", \"items\": [{\"type\": \"string\"}], \"not\": {\"type\": \"null\"}}");
+        assertEquals(Set.of("items", "not"), tuple.unsupportedKeywords());
+
+        // Property names are not keywords
+        CompiledSchema named = json("{\"properties\": {\"$ref\": {\"type\": \"string\"}, \"not\": {\"type\": \"boolean\"}}}");
+        assertTrue(named.unsupportedKeywords().isEmpty());
+        assertNull(named.validate("{\"$ref\": \"x\", \"not\": false}"));
+    }
+
+    // ---- Common ----
+
+    @Test
+    public void rejectsMalformedMessagesAndSchemas() {
+        assertTrue(json("{\"type\": \"object\"}").validate("{not json").startsWith("Message must be valid JSON format"));
+        assertNull(CompiledSchema.compile(3, "PROTOBUF", "syntax = \"proto3\";").validate("{\"any\": 1}"));
+        assertThrows(IllegalArgumentException.class, () -> json("{broken"));
+        assertEquals("AVRO", CompiledSchema.compile(4, null, "\"string\"").schemaType());
+    }
+}
@@ -0,0 +1,120 @@
+package com.service.virtualization.latency;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class HashedTimerWheelTest {
+
+    // Small wheel so multi-rotation delays are exercised quickly: one rotation is 4 x 5 ms
+    private final HashedTimerWheel wheel = new HashedTimerWheel("test-timer", 5, 4, Runnable::run);
+
+    @AfterEach
+    public void stopWheel() {
+        wheel.stop();
+    }
+
+    @Test
+    public void firesNoEarlierThanTheDelay() throws InterruptedException {
+        CountDownLatch fired = new CountDownLatch(1);
+        long[] firedAt = new long[1];
+        long start = System.nanoTime();
+
+        wheel.schedule(() -> {
+            firedAt[0] = System.nanoTime();
+            fired.countDown();
+        }, 30);
+
+        assertTrue(fired.await(2, TimeUnit.SECONDS));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(firedAt[0] - start) >= 30);
+        assertEquals(0, wheel.pendingTimers());
+    }
+
+    @Test
+    public void delaysLongerThanOneRotationWaitForTheirRound() throws InterruptedException {
+        List<String> order = new CopyOnWriteArrayList<>();
+        CountDownLatch fired = new CountDownLatch(2);
+
+        wheel.schedule(() -> {
+            order.add("long");
+            fired.countDown();
+        }, 100);
+        wheel.schedule(() -> {
+            order.add("short");
+            fired.countDown();
+        }, 10);
+
+        assertTrue(fired.await(2, TimeUnit.SECONDS));
+        assertEquals(List.of("short", "long"), order);
+    }
+
+    @Test
+    public void zeroDelayFiresOnTheNextTick() throws InterruptedException {
+        CountDownLatch fired = new CountDownLatch(1);
+        wheel.schedule(fired::countDown, 0);
+        assertTrue(fired.await(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void cancelledTimersNeverFire() throws InterruptedException {
+        CountDownLatch cancelledFired = new CountDownLatch(1);
+        CountDownLatch otherFired = new CountDownLatch(1);
+
+        HashedTimerWheel.Timeout timeout = wheel.schedule(cancelledFired::countDown, 20);
+        wheel.schedule(otherFired::countDown, 40);
+        assertEquals(2, wheel.pendingTimers());
+
+        assertTrue(timeout.cancel());
+        assertFalse(timeout.cancel());
+        assertEquals(1, wheel.pendingTimers());
+
+        assertTrue(otherFired.await(2, TimeUnit.SECONDS));
+        assertEquals(1, cancelledFired.getCount());
+        assertEquals(0, wheel.pendingTimers());
+    }
+
+    @Test
+    public void firedTimersCannotBeCancelled() throws InterruptedException {
+        CountDownLatch fired = new CountDownLatch(1);
+        HashedTimerWheel.Timeout timeout = wheel.schedule(fired::countDown, 5);
+
+        assertTrue(fired.await(1, TimeUnit.SECONDS));
+        assertFalse(timeout.cancel());
+    }
+
+    @Test
+    public void runsManyTimersScheduledConcurrently() throws InterruptedException {
+        int timers = 10_000;
+        CountDownLatch fired = new CountDownLatch(timers);
+        Thread[] schedulers = new Thread[4];
+        for (int t = 0; t < schedulers.length; t++) {
+            schedulers[t] = new Thread(() -> {
+                for (int i = 0; i < timers / schedulers.length; i++) {
+                    wheel.schedule(fired::countDown, i % 50);
+                }
+            });
+            schedulers[t].start();
+        }
+        for (Thread scheduler : schedulers) {
+            scheduler.join();
+        }
+
+        assertTrue(fired.await(5, TimeUnit.SECONDS));
+        assertEquals(0, wheel.pendingTimers());
+    }
+
+    @Test
+    public void rejectsTimersAfterStop() {
+        wheel.stop();
+        assertThrows(IllegalStateException.class, () -> wheel.schedule(() -> { }, 10));
+    }
+}
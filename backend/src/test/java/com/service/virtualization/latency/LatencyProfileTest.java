@@ -0,0 +1,96 @@
+package com.service.virtualization.latency;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class LatencyProfileTest {
+
+    private static final int SAMPLES = 10_000;
+
+    @Test
+    public void fixedAlwaysReturnsTheDelay() {
+        LatencyProfile profile = LatencyProfile.parse("fixed:200");
+        for (int i = 0; i < 100; i++) {
+            assertEquals(200, profile.sample());
+        }
+        assertEquals(0, LatencyProfile.fixed(-5).sample());
+    }
+
+    @Test
+    public void uniformStaysWithinBoundsInclusive() {
+        LatencyProfile profile = LatencyProfile.parse(" Uniform : 100 : 103 ");
+        boolean sawMin = false;
+        boolean sawMax = false;
+        for (int i = 0; i < SAMPLES; i++) {
+            long sample = profile.sample();
+            assertTrue(sample >= 100 && sample <= 103, "sample " + sample);
+            sawMin |= sample == 100;
+            sawMax |= sample == 103;
+        }
+        assertTrue(sawMin && sawMax);
+    }
+
+    @Test
+    public void normalIsCentredOnTheMeanAndNeverNegative() {
+        LatencyProfile profile = LatencyProfile.parse("normal:200:50");
+        long total = 0;
+        for (int i = 0; i < SAMPLES; i++) {
+            total += profile.sample();
+        }
+        double mean = (double) total / SAMPLES;
+        assertTrue(Math.abs(mean - 200) < 5, "mean " + mean);
+
+        LatencyProfile wide = LatencyProfile.parse("normal:10:100");
+        for (int i = 0; i < SAMPLES; i++) {
+            assertTrue(wide.sample() >= 0);
+        }
+    }
+
+    @Test
+    public void percentilesFollowTheConfiguredPoints() {
+        LatencyProfile profile = LatencyProfile.parse("percentiles:50=100;90=200;100=1000");
+        int atOrBelow100 = 0;
+        int atOrBelow200 = 0;
+        for (int i = 0; i < SAMPLES; i++) {
+            long sample = profile.sample();
+            assertTrue(sample >= 0 && sample <= 1000, "sample " + sample);
+            if (sample <= 100) {
+                atOrBelow100++;
+            }
+            if (sample <= 200) {
+                atOrBelow200++;
+            }
+        }
+        assertTrue(Math.abs(atOrBelow100 / (double) SAMPLES - 0.50) < 0.03, "p50 share " + atOrBelow100);
+        assertTrue(Math.abs(atOrBelow200 / (double) SAMPLES - 0.90) < 0.03, "p90 share " + atOrBelow200);
+    }
+
+    @Test
+    public void percentilesHoldTheLastValueAboveTheLastPoint() {
+        LatencyProfile profile = LatencyProfile.parse("percentiles:10=500");
+        int atLast = 0;
+        for (int i = 0; i < SAMPLES; i++) {
+            long sample = profile.sample();
+            assertTrue(sample <= 500);
+            if (sample == 500) {
+                atLast++;
+            }
+        }
+        assertTrue(atLast > SAMPLES * 0.85);
+    }
+
+    @Test
+    public void rejectsMalformedProfiles() {
+        assertThrows(IllegalArgumentException.class, () -> LatencyProfile.parse("fixed"));
+        assertThrows(IllegalArgumentException.class, () -> LatencyProfile.parse("uniform:300:100"));
+        assertThrows(IllegalArgumentException.class, () -> LatencyProfile.parse("uniform:-1:100"));
+        assertThrows(IllegalArgumentException.class, () -> LatencyProfile.parse("normal:abc:1"));
+        assertThrows(IllegalArgumentException.class, () -> LatencyProfile.parse("percentiles:0=100"));
+        assertThrows(IllegalArgumentException.class, () -> LatencyProfile.parse("percentiles:101=100"));
+        assertThrows(IllegalArgumentException.class, () -> LatencyProfile.parse("percentiles:50"));
+        assertThrows(IllegalArgumentException.class, () -> LatencyProfile.parse("poisson:100"));
+    }
+}
@@ -0,0 +1,110 @@
+package com.service.virtualization.rest.service;
+
+import com.github.tomakehurst.wiremock.http.HttpHeader;
+import com.github.tomakehurst.wiremock.http.HttpHeaders;
+import com.github.tomakehurst.wiremock.http.ImmutableRequest;
+import com.github.tomakehurst.wiremock.http.Request;
+import com.github.tomakehurst.wiremock.http.RequestMethod;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class WebhookResponseCacheTest {
+
+    private static WebhookResponseCache cache(boolean enabled, Set<String> stubIds, List<String> headers,
+                                              int maxEntries, long maxBytes) {
+        return new WebhookResponseCache(enabled, stubIds, headers, 60000, maxEntries, maxBytes,
+                new StaticListableBeanFactory().getBeanProvider(MeterRegistry.class));
+    }
+
+    private static Request request(String url, String body, HttpHeader... headers) {
+        return ImmutableRequest.create()
+                .withAbsoluteUrl("http://localhost:8081" + url)
+                .withMethod(RequestMethod.POST)
+                .withHeaders(new HttpHeaders(headers))
+                .withBody(body.getBytes(StandardCharsets.UTF_8))
+                .build();
+    }
+
+    @Test
+    public void perStubTtlOverridesStubList() {
+        WebhookResponseCache cache = cache(true, Set.of("stub-1"), List.of(), 100, 1 << 20);
+
+        assertTrue(cache.isCacheable("stub-1", -1));
+        assertFalse(cache.isCacheable("stub-2", -1));
+        assertTrue(cache.isCacheable("stub-2", 5000));
+        assertFalse(cache.isCacheable("stub-1", 0));
+    }
+
+    @Test
+    public void emptyStubListCachesEveryStubOnlyWhenEnabled() {
+        assertTrue(cache(true, Set.of(), List.of(), 100, 1 << 20).isCacheable("any", -1));
+        assertFalse(cache(false, Set.of(), List.of(), 100, 1 << 20).isCacheable("any", -1));
+        assertFalse(cache(false, Set.of(), List.of(), 100, 1 << 20).isCacheable("any", 5000));
+    }
+
+    @Test
+    public void storesAndExpiresResponses() throws InterruptedException {
+        WebhookResponseCache cache = cache(true, Set.of(), List.of(), 100, 1 << 20);
+
+        cache.put("a", "body-a", -1);
+        cache.put("b", "body-b", 1);
+        Thread.sleep(20);
+
+        assertEquals("body-a", cache.get("a"));
+        assertNull(cache.get("b"));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsedBeyondEntryLimit() {
+        WebhookResponseCache cache = cache(true, Set.of(), List.of(), 2, 1 << 20);
+
+        cache.put("a", "body-a", -1);
+        cache.put("b", "body-b", -1);
+        cache.get("a");
+        cache.put("c", "body-c", -1);
+
+        assertEquals("body-a", cache.get("a"));
+        assertNull(cache.get("b"));
+        assertEquals("body-c", cache.get("c"));
+    }
+
+    @Test
+    public void enforcesByteLimit() {
+        WebhookResponseCache cache = cache(true, Set.of(), List.of(), 100, 64);
+
+        cache.put("big", "x".repeat(100), -1);
+        assertNull(cache.get("big"));
+
+        cache.put("a", "0123456789", -1);
+        cache.put("b", "0123456789", -1);
+        cache.put("c", "0123456789", -1);
+        assertTrue(cache.bytes() <= 64);
+        assertNull(cache.get("a"));
+        assertEquals("0123456789", cache.get("c"));
+    }
+
+    @Test
+    public void fingerprintCoversBodyAndConfiguredHeadersOnly() {
+        WebhookResponseCache cache = cache(true, Set.of(), List.of("X-Tenant"), 100, 1 << 20);
+
+        String base = cache.fingerprint("stub-1", request("/orders", "{}", new HttpHeader("X-Tenant", "t1")));
+
+        assertEquals(base, cache.fingerprint("stub-1",
+                request("/orders", "{}", new HttpHeader("X-Tenant", "t1"), new HttpHeader("X-Trace", "abc"))));
+        assertNotEquals(base, cache.fingerprint("stub-1", request("/orders", "{\"a\":1}", new HttpHeader("X-Tenant", "t1"))));
+        assertNotEquals(base, cache.fingerprint("stub-1", request("/orders", "{}", new HttpHeader("X-Tenant", "t2"))));
+        assertNotEquals(base, cache.fingerprint("stub-2", request("/orders", "{}", new HttpHeader("X-Tenant", "t1"))));
+    }
+}
@@ -0,0 +1,60 @@
+package com.service.virtualization.rest.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class WireMockRegistrationIndexTest {
+
+    @Test
+    public void snapshotReplacesTheIndex() {
+        WireMockRegistrationIndex index = new WireMockRegistrationIndex();
+        index.markRegistered(List.of("a", "b"));
+        assertFalse(index.isInitialized());
+
+        index.replaceAll(Set.of("b", "c"), index.currentGeneration());
+
+        assertTrue(index.isInitialized());
+        assertFalse(index.isRegistered("a"));
+        assertTrue(index.isRegistered("b"));
+        assertTrue(index.isRegistered("c"));
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    public void changesAfterTheSnapshotWasTakenAreKept() {
+        WireMockRegistrationIndex index = new WireMockRegistrationIndex();
+        index.markRegistered("gone");
+        long generation = index.currentGeneration();
+
+        // Registered and deregistered while the snapshot was being fetched
+        index.markRegistered("new");
+        index.markDeregistered("gone");
+        index.replaceAll(Set.of("gone"), generation);
+
+        assertTrue(index.isRegistered("new"));
+        assertFalse(index.isRegistered("gone"));
+
+        // A later snapshot is authoritative again
+        index.replaceAll(Set.of("gone"), index.currentGeneration());
+        assertFalse(index.isRegistered("new"));
+        assertTrue(index.isRegistered("gone"));
+    }
+
+    @Test
+    public void olderSnapshotsAreIgnored() {
+        WireMockRegistrationIndex index = new WireMockRegistrationIndex();
+        long older = index.currentGeneration();
+        index.markRegistered("a");
+        index.replaceAll(Set.of("a"), index.currentGeneration());
+
+        index.replaceAll(Set.of(), older);
+
+        assertTrue(index.isRegistered("a"));
+    }
+}